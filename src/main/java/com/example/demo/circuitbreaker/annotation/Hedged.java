@@ -0,0 +1,66 @@
+package com.example.demo.circuitbreaker.annotation;
+
+import com.example.demo.circuitbreaker.aspect.HedgedAspect;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 对冲请求（Hedged Request）注解
+ * 主调用耗时超过目标的延迟分位数后发起一次备份调用，取先成功返回的结果并取消另一个调用，
+ * 用于降低长尾延迟（p99）
+ *
+ * 注意：被标注的方法必须是幂等的，因为同一请求可能被执行两次
+ *
+ * 使用示例：
+ * <pre>
+ * {@code
+ * @Hedged(name = "externalApi", percentile = 95, maxHedgesInFlight = 10)
+ * public String callApi(Request request) {
+ *     // 方法实现
+ * }
+ * }
+ * </pre>
+ *
+ * @see HedgedAspect
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Hedged {
+
+    /**
+     * 对冲目标名称
+     * 同名目标共享延迟统计和对冲并发配额，为空时使用方法签名
+     */
+    String name() default "";
+
+    /**
+     * 触发对冲的延迟分位数（0-100）
+     * 主调用耗时超过该分位数时发起备份调用
+     */
+    double percentile() default 95;
+
+    /**
+     * 计算分位数所需的最少样本数
+     * 样本不足时使用 initialDelayMs 作为对冲延迟
+     */
+    int minSamples() default 20;
+
+    /**
+     * 样本不足时的对冲延迟（毫秒）
+     */
+    long initialDelayMs() default 100;
+
+    /**
+     * 对冲延迟下限（毫秒），避免延迟极低时几乎每个请求都被对冲
+     */
+    long minDelayMs() default 1;
+
+    /**
+     * 同一目标同时在途的最大对冲调用数
+     * 超过后不再发起备份调用，防止下游过载时放大流量
+     */
+    int maxHedgesInFlight() default 10;
+}
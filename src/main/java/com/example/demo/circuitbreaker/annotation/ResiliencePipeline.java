@@ -0,0 +1,65 @@
+package com.example.demo.circuitbreaker.annotation;
+
+import com.example.demo.circuitbreaker.aspect.ResiliencePipelineAspect;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 融合容错管道注解
+ * 用一个注解替代叠加的 @Bulkhead、@RateLimiter、@CircuitBreaker、@TimeLimiter，
+ * 启动时为每个方法解析一次实例和回退方法，调用时只经过一个切面
+ *
+ * 执行顺序与 Resilience4j 默认切面顺序一致：
+ * CircuitBreaker ( RateLimiter ( TimeLimiter ( Bulkhead ( 方法 ) ) ) )
+ *
+ * 使用示例：
+ * <pre>
+ * {@code
+ * @ResiliencePipeline(
+ *     circuitBreaker = "combinedCircuitBreaker",
+ *     rateLimiter = "combinedRateLimiter",
+ *     bulkhead = "combinedBulkhead",
+ *     fallbackMethod = "combinedFallback"
+ * )
+ * public Result callApi(Request request) {
+ *     // 方法实现
+ * }
+ * }
+ * </pre>
+ *
+ * @see ResiliencePipelineAspect
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ResiliencePipeline {
+
+    /**
+     * 熔断器实例名称，为空表示不使用
+     */
+    String circuitBreaker() default "";
+
+    /**
+     * 限流器实例名称，为空表示不使用
+     */
+    String rateLimiter() default "";
+
+    /**
+     * 舱壁实例名称（信号量舱壁），为空表示不使用
+     */
+    String bulkhead() default "";
+
+    /**
+     * 超时控制实例名称，为空表示不使用
+     * 仅支持返回 CompletionStage 的方法
+     */
+    String timeLimiter() default "";
+
+    /**
+     * 回退方法名称
+     * 参数为原方法参数加一个异常参数，按异常类型选择最匹配的重载
+     */
+    String fallbackMethod() default "";
+}
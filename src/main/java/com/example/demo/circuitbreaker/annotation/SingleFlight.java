@@ -0,0 +1,50 @@
+package com.example.demo.circuitbreaker.annotation;
+
+import com.example.demo.circuitbreaker.aspect.SingleFlightAspect;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 单飞（Single-Flight）请求合并注解
+ * 相同 key 的并发调用共享同一个在途调用的结果，下游只会被调用一次
+ *
+ * 合并发生在 Resilience4j 的 @CircuitBreaker/@Bulkhead 等切面之外，
+ * 被合并的调用方不会占用舱壁许可，也不会计入熔断器的调用统计
+ *
+ * 使用示例：
+ * <pre>
+ * {@code
+ * @SingleFlight(name = "externalApi", key = "#request")
+ * @Bulkhead(name = "apiBulkhead")
+ * public String callApi(ExternalApiRequestDto request) {
+ *     // 方法实现
+ * }
+ * }
+ * </pre>
+ *
+ * @see SingleFlightAspect
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SingleFlight {
+
+    /**
+     * 合并组名称
+     * 用于统计指标，为空时使用方法签名
+     */
+    String name() default "";
+
+    /**
+     * 合并 key 的 SpEL 表达式，可通过 #参数名 引用方法参数
+     * 为空时使用全部参数（按 equals 比较）作为 key；表达式结果为 null 时不合并
+     */
+    String key() default "";
+
+    /**
+     * 是否启用请求合并
+     */
+    boolean enabled() default true;
+}
@@ -0,0 +1,245 @@
+package com.example.demo.circuitbreaker.aspect;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import org.aspectj.lang.ProceedingJoinPoint;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * 单个方法的融合容错管道
+ * 容错组件实例和回退方法在构建时解析完成，调用路径上不再查找注册表或反射匹配回退方法，
+ * 同步调用除切面本身外不产生额外的装饰器对象
+ */
+final class CompiledResiliencePipeline {
+
+    private final CircuitBreaker circuitBreaker;
+    private final RateLimiter rateLimiter;
+    private final Bulkhead bulkhead;
+    private final TimeLimiter timeLimiter;
+    private final ScheduledExecutorService timeLimiterScheduler;
+    private final boolean async;
+
+    /**
+     * 回退方法，按异常参数类型从具体到宽泛排列
+     */
+    private final List<Method> fallbackMethods;
+
+    CompiledResiliencePipeline(CircuitBreaker circuitBreaker, RateLimiter rateLimiter, Bulkhead bulkhead,
+                               TimeLimiter timeLimiter, ScheduledExecutorService timeLimiterScheduler,
+                               boolean async, List<Method> fallbackMethods) {
+        this.circuitBreaker = circuitBreaker;
+        this.rateLimiter = rateLimiter;
+        this.bulkhead = bulkhead;
+        this.timeLimiter = timeLimiter;
+        this.timeLimiterScheduler = timeLimiterScheduler;
+        this.async = async;
+        this.fallbackMethods = fallbackMethods;
+    }
+
+    Object execute(ProceedingJoinPoint joinPoint) throws Throwable {
+        return async ? executeAsync(joinPoint) : executeSync(joinPoint);
+    }
+
+    // ==================== 同步调用 ====================
+
+    private Object executeSync(ProceedingJoinPoint joinPoint) throws Throwable {
+        try {
+            return circuitBreakerSync(joinPoint);
+        } catch (Throwable ex) {
+            return fallback(joinPoint, ex);
+        }
+    }
+
+    private Object circuitBreakerSync(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (circuitBreaker == null) {
+            return rateLimiterSync(joinPoint);
+        }
+        circuitBreaker.acquirePermission();
+        long start = circuitBreaker.getCurrentTimestamp();
+        try {
+            Object result = rateLimiterSync(joinPoint);
+            circuitBreaker.onResult(circuitBreaker.getCurrentTimestamp() - start, circuitBreaker.getTimestampUnit(), result);
+            return result;
+        } catch (Throwable ex) {
+            circuitBreaker.onError(circuitBreaker.getCurrentTimestamp() - start, circuitBreaker.getTimestampUnit(), ex);
+            throw ex;
+        }
+    }
+
+    private Object rateLimiterSync(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (rateLimiter == null) {
+            return bulkheadSync(joinPoint);
+        }
+        RateLimiter.waitForPermission(rateLimiter);
+        try {
+            Object result = bulkheadSync(joinPoint);
+            rateLimiter.onResult(result);
+            return result;
+        } catch (Throwable ex) {
+            rateLimiter.onError(ex);
+            throw ex;
+        }
+    }
+
+    private Object bulkheadSync(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (bulkhead == null) {
+            return joinPoint.proceed();
+        }
+        bulkhead.acquirePermission();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            bulkhead.onComplete();
+        }
+    }
+
+    // ==================== 异步调用 ====================
+
+    private Object executeAsync(ProceedingJoinPoint joinPoint) throws Throwable {
+        CompletionStage<Object> stage;
+        try {
+            stage = circuitBreakerAsync(joinPoint);
+        } catch (Throwable ex) {
+            return fallbackAsync(joinPoint, ex);
+        }
+        if (fallbackMethods.isEmpty()) {
+            return stage;
+        }
+        return stage.exceptionallyCompose(ex -> fallbackAsync(joinPoint, unwrap(ex)));
+    }
+
+    private CompletionStage<Object> circuitBreakerAsync(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (circuitBreaker == null) {
+            return rateLimiterAsync(joinPoint);
+        }
+        circuitBreaker.acquirePermission();
+        long start = circuitBreaker.getCurrentTimestamp();
+
+        CompletionStage<Object> stage;
+        try {
+            stage = rateLimiterAsync(joinPoint);
+        } catch (Throwable ex) {
+            circuitBreaker.onError(circuitBreaker.getCurrentTimestamp() - start, circuitBreaker.getTimestampUnit(), ex);
+            throw ex;
+        }
+
+        CompletableFuture<Object> promise = new CompletableFuture<>();
+        stage.whenComplete((result, ex) -> {
+            long duration = circuitBreaker.getCurrentTimestamp() - start;
+            if (ex != null) {
+                Throwable cause = unwrap(ex);
+                circuitBreaker.onError(duration, circuitBreaker.getTimestampUnit(), cause);
+                promise.completeExceptionally(cause);
+            } else {
+                circuitBreaker.onResult(duration, circuitBreaker.getTimestampUnit(), result);
+                promise.complete(result);
+            }
+        });
+        return promise;
+    }
+
+    private CompletionStage<Object> rateLimiterAsync(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (rateLimiter == null) {
+            return timeLimiterAsync(joinPoint);
+        }
+        RateLimiter.waitForPermission(rateLimiter);
+
+        CompletionStage<Object> stage;
+        try {
+            stage = timeLimiterAsync(joinPoint);
+        } catch (Throwable ex) {
+            rateLimiter.onError(ex);
+            throw ex;
+        }
+        return stage.whenComplete((result, ex) -> {
+            if (ex != null) {
+                rateLimiter.onError(unwrap(ex));
+            } else {
+                rateLimiter.onResult(result);
+            }
+        });
+    }
+
+    private CompletionStage<Object> timeLimiterAsync(ProceedingJoinPoint joinPoint) throws Throwable {
+        CompletionStage<Object> stage = bulkheadAsync(joinPoint);
+        if (timeLimiter == null) {
+            return stage;
+        }
+        return timeLimiter.executeCompletionStage(timeLimiterScheduler, () -> stage);
+    }
+
+    @SuppressWarnings("unchecked")
+    private CompletionStage<Object> bulkheadAsync(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (bulkhead == null) {
+            return (CompletionStage<Object>) joinPoint.proceed();
+        }
+        bulkhead.acquirePermission();
+
+        CompletionStage<Object> stage;
+        try {
+            stage = (CompletionStage<Object>) joinPoint.proceed();
+        } catch (Throwable ex) {
+            bulkhead.onComplete();
+            throw ex;
+        }
+        // 舱壁许可在底层调用真正结束时归还，而不是在超时时归还
+        return stage.whenComplete((result, ex) -> bulkhead.onComplete());
+    }
+
+    // ==================== 回退 ====================
+
+    private Object fallback(ProceedingJoinPoint joinPoint, Throwable ex) throws Throwable {
+        Method fallbackMethod = findFallbackMethod(ex);
+        if (fallbackMethod == null) {
+            throw ex;
+        }
+        try {
+            return fallbackMethod.invoke(joinPoint.getTarget(), fallbackArguments(joinPoint, ex));
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private CompletionStage<Object> fallbackAsync(ProceedingJoinPoint joinPoint, Throwable ex) {
+        try {
+            return (CompletionStage<Object>) fallback(joinPoint, ex);
+        } catch (Throwable fallbackEx) {
+            return CompletableFuture.failedFuture(fallbackEx);
+        }
+    }
+
+    private Method findFallbackMethod(Throwable ex) {
+        for (Method method : fallbackMethods) {
+            if (method.getParameterTypes()[method.getParameterCount() - 1].isInstance(ex)) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    private static Object[] fallbackArguments(ProceedingJoinPoint joinPoint, Throwable ex) {
+        Object[] args = joinPoint.getArgs();
+        Object[] fallbackArgs = new Object[args.length + 1];
+        System.arraycopy(args, 0, fallbackArgs, 0, args.length);
+        fallbackArgs[args.length] = ex;
+        return fallbackArgs;
+    }
+
+    private static Throwable unwrap(Throwable ex) {
+        if ((ex instanceof CompletionException || ex instanceof ExecutionException) && ex.getCause() != null) {
+            return ex.getCause();
+        }
+        return ex;
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.demo.circuitbreaker.aspect;
+
+import com.example.demo.circuitbreaker.annotation.Hedged;
+import com.example.demo.circuitbreaker.model.LatencyPercentileTracker;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 对冲请求切面
+ * 核心功能：
+ * 1. 主调用在虚拟线程上执行，按目标在线统计延迟分位数
+ * 2. 主调用超过分位数延迟仍未返回时，发起一次备份调用
+ * 3. 取先成功返回的结果，并中断另一个调用
+ * 4. 通过信号量限制每个目标同时在途的对冲调用数
+ * 5. 成功和失败调用的耗时都计入延迟分位数
+ */
+@Aspect
+@Component
+@Slf4j
+public class HedgedAspect {
+
+    private final Map<String, HedgeTarget> targets = new ConcurrentHashMap<>();
+    private final ExecutorService hedgeExecutor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("hedged-vt-", 0).factory()
+    );
+
+    @Around("@annotation(hedged)")
+    public Object around(ProceedingJoinPoint joinPoint, Hedged hedged) throws Throwable {
+        String targetName = hedged.name().isEmpty() ? joinPoint.getSignature().toLongString() : hedged.name();
+        HedgeTarget target = targets.computeIfAbsent(targetName, key -> new HedgeTarget(hedged.maxHedgesInFlight()));
+        target.totalCalls.increment();
+
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        AtomicInteger pendingAttempts = new AtomicInteger(1);
+
+        Future<?> primary = submitAttempt(joinPoint, target, result, pendingAttempts, false);
+        Future<?> hedge = null;
+        boolean hedgePermitAcquired = false;
+
+        try {
+            try {
+                return result.get(resolveHedgeDelayNanos(target, hedged), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                // 主调用仍在执行，进入对冲流程
+            }
+
+            if (target.hedgePermits.tryAcquire()) {
+                // 主调用可能恰好在超时之后失败：在途计数已归零（结果已是异常）时不再对冲，直接返回主调用的异常
+                if (pendingAttempts.getAndUpdate(pending -> pending == 0 ? 0 : pending + 1) > 0) {
+                    hedgePermitAcquired = true;
+                    target.hedgesFired.increment();
+                    log.debug("Primary call for target '{}' is slow, firing hedged request", targetName);
+                    hedge = submitAttempt(joinPoint, target, result, pendingAttempts, true);
+                } else {
+                    target.hedgePermits.release();
+                }
+            } else {
+                target.hedgesRejected.increment();
+                log.debug("Hedge limit reached for target '{}', waiting for primary call", targetName);
+            }
+
+            return result.get();
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        } finally {
+            // 取消尚未完成的调用（已完成的调用不受影响）
+            primary.cancel(true);
+            if (hedge != null) {
+                hedge.cancel(true);
+            }
+            // 对冲配额在调用方拿到结果、败者被中断后归还
+            if (hedgePermitAcquired) {
+                target.hedgePermits.release();
+            }
+        }
+    }
+
+    /**
+     * 提交一次调用尝试
+     */
+    private Future<?> submitAttempt(ProceedingJoinPoint joinPoint, HedgeTarget target,
+                                    CompletableFuture<Object> result, AtomicInteger pendingAttempts,
+                                    boolean isHedge) {
+        return hedgeExecutor.submit(() -> runAttempt(joinPoint, target, result, pendingAttempts, isHedge));
+    }
+
+    private void runAttempt(ProceedingJoinPoint joinPoint, HedgeTarget target,
+                            CompletableFuture<Object> result, AtomicInteger pendingAttempts,
+                            boolean isHedge) {
+        long startTime = System.nanoTime();
+        try {
+            Object value = joinPoint.proceed();
+            target.latencyTracker.record(System.nanoTime() - startTime);
+            if (result.complete(value) && isHedge) {
+                target.hedgeWins.increment();
+            }
+        } catch (Throwable ex) {
+            // 失败调用的耗时同样计入（慢失败也是长尾），已分出胜负后被中断的败者除外
+            if (!result.isDone()) {
+                target.latencyTracker.record(System.nanoTime() - startTime);
+            }
+            // 只有所有尝试都失败时才返回异常
+            if (pendingAttempts.decrementAndGet() == 0) {
+                result.completeExceptionally(ex);
+            }
+        }
+    }
+
+    /**
+     * 计算触发对冲的延迟
+     */
+    private long resolveHedgeDelayNanos(HedgeTarget target, Hedged hedged) {
+        long delayNanos;
+        if (target.latencyTracker.getSampleCount() < hedged.minSamples()) {
+            delayNanos = TimeUnit.MILLISECONDS.toNanos(hedged.initialDelayMs());
+        } else {
+            delayNanos = target.latencyTracker.getPercentileNanos(hedged.percentile());
+        }
+        return Math.max(delayNanos, TimeUnit.MILLISECONDS.toNanos(hedged.minDelayMs()));
+    }
+
+    /**
+     * 获取所有对冲目标的统计信息（用于监控）
+     */
+    public Map<String, Map<String, Object>> getStatistics() {
+        Map<String, Map<String, Object>> statistics = new HashMap<>();
+        targets.forEach((name, target) -> {
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("totalCalls", target.totalCalls.sum());
+            stats.put("hedgesFired", target.hedgesFired.sum());
+            stats.put("hedgeWins", target.hedgeWins.sum());
+            stats.put("hedgesRejected", target.hedgesRejected.sum());
+            stats.put("hedgesInFlight", target.maxHedgesInFlight - target.hedgePermits.availablePermits());
+            stats.put("p50LatencyMs", toMillis(target.latencyTracker.getPercentileNanos(50)));
+            stats.put("p95LatencyMs", toMillis(target.latencyTracker.getPercentileNanos(95)));
+            stats.put("p99LatencyMs", toMillis(target.latencyTracker.getPercentileNanos(99)));
+            statistics.put(name, stats);
+        });
+        return statistics;
+    }
+
+    /**
+     * 清理所有对冲目标的统计信息
+     */
+    public void clearStatistics() {
+        targets.clear();
+        log.info("Cleared all hedged request statistics");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hedgeExecutor.close();
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos < 0 ? 0 : nanos / 1_000_000.0;
+    }
+
+    /**
+     * 单个对冲目标的状态
+     */
+    private static final class HedgeTarget {
+        private final int maxHedgesInFlight;
+        private final Semaphore hedgePermits;
+        private final LatencyPercentileTracker latencyTracker = new LatencyPercentileTracker();
+        private final LongAdder totalCalls = new LongAdder();
+        private final LongAdder hedgesFired = new LongAdder();
+        private final LongAdder hedgeWins = new LongAdder();
+        private final LongAdder hedgesRejected = new LongAdder();
+
+        private HedgeTarget(int maxHedgesInFlight) {
+            this.maxHedgesInFlight = maxHedgesInFlight;
+            this.hedgePermits = new Semaphore(maxHedgesInFlight);
+        }
+    }
+}
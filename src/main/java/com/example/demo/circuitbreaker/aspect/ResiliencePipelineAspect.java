@@ -0,0 +1,184 @@
+package com.example.demo.circuitbreaker.aspect;
+
+import com.example.demo.circuitbreaker.annotation.ResiliencePipeline;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * 融合容错管道切面
+ * 核心功能：
+ * 1. 启动时扫描所有带 @ResiliencePipeline 的方法，为每个方法构建一次容错管道
+ * 2. 调用时只经过一个切面，按 CircuitBreaker → RateLimiter → TimeLimiter → Bulkhead 顺序直接调用各组件
+ * 3. 回退方法在构建时解析并按异常类型排序，调用时无需反射查找
+ *
+ * 相比叠加多个 Resilience4j 注解，省去了多层切面调用、每层的回退方法查找和装饰器对象分配
+ */
+@Aspect
+@Component
+@Slf4j
+public class ResiliencePipelineAspect implements SmartInitializingSingleton, ApplicationContextAware {
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final RateLimiterRegistry rateLimiterRegistry;
+    private final BulkheadRegistry bulkheadRegistry;
+    private final TimeLimiterRegistry timeLimiterRegistry;
+    private final ScheduledExecutorService timeLimiterScheduler;
+    private final Map<Method, CompiledResiliencePipeline> pipelines = new ConcurrentHashMap<>();
+
+    private ApplicationContext applicationContext;
+
+    public ResiliencePipelineAspect(
+            CircuitBreakerRegistry circuitBreakerRegistry,
+            RateLimiterRegistry rateLimiterRegistry,
+            BulkheadRegistry bulkheadRegistry,
+            TimeLimiterRegistry timeLimiterRegistry,
+            @Qualifier("timeLimiterScheduler") ScheduledExecutorService timeLimiterScheduler) {
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.rateLimiterRegistry = rateLimiterRegistry;
+        this.bulkheadRegistry = bulkheadRegistry;
+        this.timeLimiterRegistry = timeLimiterRegistry;
+        this.timeLimiterScheduler = timeLimiterScheduler;
+    }
+
+    @Override
+    public void setApplicationContext(ApplicationContext applicationContext) {
+        this.applicationContext = applicationContext;
+    }
+
+    /**
+     * 所有单例创建完成后预先构建管道，配置错误在启动时暴露
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (applicationContext == null) {
+            return;
+        }
+        for (String beanName : applicationContext.getBeanDefinitionNames()) {
+            Class<?> beanType = applicationContext.getType(beanName, false);
+            if (beanType == null) {
+                continue;
+            }
+            ReflectionUtils.doWithMethods(ClassUtils.getUserClass(beanType),
+                    method -> pipelines.computeIfAbsent(method, this::compile),
+                    method -> method.isAnnotationPresent(ResiliencePipeline.class));
+        }
+        log.info("Compiled {} resilience pipelines", pipelines.size());
+    }
+
+    @Around("@annotation(resiliencePipeline)")
+    public Object around(ProceedingJoinPoint joinPoint, ResiliencePipeline resiliencePipeline) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        CompiledResiliencePipeline pipeline = pipelines.get(method);
+        if (pipeline == null) {
+            pipeline = pipelines.computeIfAbsent(method, this::compile);
+        }
+        return pipeline.execute(joinPoint);
+    }
+
+    /**
+     * 为方法构建容错管道
+     */
+    private CompiledResiliencePipeline compile(Method method) {
+        ResiliencePipeline annotation = method.getAnnotation(ResiliencePipeline.class);
+        boolean async = CompletionStage.class.isAssignableFrom(method.getReturnType());
+
+        CircuitBreaker circuitBreaker = annotation.circuitBreaker().isEmpty()
+                ? null : circuitBreakerRegistry.circuitBreaker(annotation.circuitBreaker());
+        RateLimiter rateLimiter = annotation.rateLimiter().isEmpty()
+                ? null : rateLimiterRegistry.rateLimiter(annotation.rateLimiter());
+        Bulkhead bulkhead = annotation.bulkhead().isEmpty()
+                ? null : bulkheadRegistry.bulkhead(annotation.bulkhead());
+
+        TimeLimiter timeLimiter = null;
+        if (!annotation.timeLimiter().isEmpty()) {
+            if (!async) {
+                throw new IllegalStateException("@ResiliencePipeline time limiter requires a CompletionStage return type: "
+                        + method.toGenericString());
+            }
+            timeLimiter = timeLimiterRegistry.timeLimiter(annotation.timeLimiter());
+        }
+
+        List<Method> fallbackMethods = resolveFallbackMethods(method, annotation.fallbackMethod());
+
+        log.debug("Compiled resilience pipeline for {}: circuitBreaker={}, rateLimiter={}, bulkhead={}, timeLimiter={}, fallbacks={}",
+                method.getName(), annotation.circuitBreaker(), annotation.rateLimiter(), annotation.bulkhead(),
+                annotation.timeLimiter(), fallbackMethods.size());
+
+        return new CompiledResiliencePipeline(circuitBreaker, rateLimiter, bulkhead, timeLimiter,
+                timeLimiterScheduler, async, fallbackMethods);
+    }
+
+    /**
+     * 解析回退方法
+     * 回退方法参数为原方法参数加一个异常参数，返回类型必须与原方法兼容
+     */
+    private List<Method> resolveFallbackMethods(Method method, String fallbackMethodName) {
+        if (fallbackMethodName.isEmpty()) {
+            return List.of();
+        }
+
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        List<Method> candidates = new ArrayList<>();
+        ReflectionUtils.doWithMethods(method.getDeclaringClass(), candidate -> {
+            ReflectionUtils.makeAccessible(candidate);
+            candidates.add(candidate);
+        }, candidate -> candidate.getName().equals(fallbackMethodName)
+                && candidate.getParameterCount() == parameterTypes.length + 1
+                && Arrays.equals(Arrays.copyOf(candidate.getParameterTypes(), parameterTypes.length), parameterTypes)
+                && Throwable.class.isAssignableFrom(candidate.getParameterTypes()[parameterTypes.length])
+                && method.getReturnType().isAssignableFrom(candidate.getReturnType()));
+
+        if (candidates.isEmpty()) {
+            throw new IllegalStateException("No fallback method '" + fallbackMethodName + "' found for "
+                    + method.toGenericString());
+        }
+
+        // 异常类型越具体越优先
+        candidates.sort(Comparator.comparingInt(
+                (Method candidate) -> depth(candidate.getParameterTypes()[parameterTypes.length])).reversed());
+        return List.copyOf(candidates);
+    }
+
+    private static int depth(Class<?> type) {
+        int depth = 0;
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            depth++;
+        }
+        return depth;
+    }
+
+    /**
+     * 已构建的管道数量（用于监控）
+     */
+    public int getPipelineCount() {
+        return pipelines.size();
+    }
+}
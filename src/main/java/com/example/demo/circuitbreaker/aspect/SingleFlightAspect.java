@@ -0,0 +1,204 @@
+package com.example.demo.circuitbreaker.aspect;
+
+import com.example.demo.circuitbreaker.annotation.SingleFlight;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单飞请求合并切面
+ * 核心功能：
+ * 1. 按注解配置的 SpEL 表达式（或全部参数）计算合并 key
+ * 2. 第一个调用方（leader）执行真实调用，并发的相同 key 调用方等待同一个 CompletableFuture
+ * 3. 调用完成后立即移除在途记录，后续调用重新发起
+ * 4. 统计每个合并组的 leader 调用数和被合并的调用数
+ *
+ * 切面优先级高于 Resilience4j 切面（Retry 默认为 LOWEST_PRECEDENCE - 4，Bulkhead 为 LOWEST_PRECEDENCE），
+ * 因此只有 leader 会进入舱壁、限流器和熔断器
+ */
+@Aspect
+@Component
+@Order(SingleFlightAspect.ASPECT_ORDER)
+@Slf4j
+public class SingleFlightAspect {
+
+    /**
+     * 位于所有 Resilience4j 切面之外
+     */
+    public static final int ASPECT_ORDER = Ordered.LOWEST_PRECEDENCE - 10;
+
+    private final SpelExpressionParser expressionParser = new SpelExpressionParser();
+    private final Map<String, Expression> expressionCache = new ConcurrentHashMap<>();
+    private final Map<String, FlightGroup> groups = new ConcurrentHashMap<>();
+
+    @Around("@annotation(singleFlight)")
+    public Object around(ProceedingJoinPoint joinPoint, SingleFlight singleFlight) throws Throwable {
+        if (!singleFlight.enabled()) {
+            return joinPoint.proceed();
+        }
+
+        String groupName = singleFlight.name().isEmpty() ? joinPoint.getSignature().toLongString() : singleFlight.name();
+        FlightGroup group = groups.computeIfAbsent(groupName, key -> new FlightGroup());
+
+        Object key = resolveKey(joinPoint, singleFlight);
+        if (key == null) {
+            group.bypassedCalls.increment();
+            return joinPoint.proceed();
+        }
+
+        boolean async = CompletionStage.class.isAssignableFrom(
+                ((MethodSignature) joinPoint.getSignature()).getReturnType());
+
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = group.inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            group.coalescedCalls.increment();
+            log.debug("Coalescing call for group '{}' with key: {}", groupName, key);
+            return async ? existing.copy() : await(existing);
+        }
+
+        group.leaderCalls.increment();
+        return async ? leadAsync(joinPoint, group, key, flight) : lead(joinPoint, group, key, flight);
+    }
+
+    /**
+     * leader 执行同步调用，并将结果共享给等待中的调用方
+     */
+    private Object lead(ProceedingJoinPoint joinPoint, FlightGroup group, Object key,
+                        CompletableFuture<Object> flight) throws Throwable {
+        try {
+            Object result = joinPoint.proceed();
+            flight.complete(result);
+            return result;
+        } catch (Throwable ex) {
+            flight.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            group.inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * leader 执行异步调用，返回的 CompletionStage 完成后才移除在途记录
+     */
+    private Object leadAsync(ProceedingJoinPoint joinPoint, FlightGroup group, Object key,
+                             CompletableFuture<Object> flight) throws Throwable {
+        CompletionStage<?> stage;
+        try {
+            stage = (CompletionStage<?>) joinPoint.proceed();
+        } catch (Throwable ex) {
+            group.inFlight.remove(key, flight);
+            flight.completeExceptionally(ex);
+            throw ex;
+        }
+
+        if (stage == null) {
+            group.inFlight.remove(key, flight);
+            flight.complete(null);
+            return null;
+        }
+
+        stage.whenComplete((result, ex) -> {
+            group.inFlight.remove(key, flight);
+            if (ex != null) {
+                flight.completeExceptionally(unwrap(ex));
+            } else {
+                flight.complete(result);
+            }
+        });
+        return stage;
+    }
+
+    private Object await(CompletableFuture<Object> flight) throws Throwable {
+        try {
+            return flight.get();
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * 计算合并 key
+     */
+    private Object resolveKey(ProceedingJoinPoint joinPoint, SingleFlight singleFlight) {
+        Object[] args = joinPoint.getArgs();
+        if (singleFlight.key().isEmpty()) {
+            return args.length == 0 ? List.of() : Arrays.asList(args.clone());
+        }
+
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        String[] parameterNames = signature.getParameterNames();
+
+        StandardEvaluationContext context = new StandardEvaluationContext();
+        if (parameterNames != null) {
+            for (int i = 0; i < parameterNames.length; i++) {
+                context.setVariable(parameterNames[i], args[i]);
+            }
+        }
+
+        Expression expression = expressionCache.computeIfAbsent(singleFlight.key(), expressionParser::parseExpression);
+        return expression.getValue(context);
+    }
+
+    private static Throwable unwrap(Throwable ex) {
+        return ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+    }
+
+    /**
+     * 获取所有合并组的统计信息（用于监控）
+     */
+    public Map<String, Map<String, Object>> getStatistics() {
+        Map<String, Map<String, Object>> statistics = new HashMap<>();
+        groups.forEach((name, group) -> {
+            long leaderCalls = group.leaderCalls.sum();
+            long coalescedCalls = group.coalescedCalls.sum();
+            long totalCalls = leaderCalls + coalescedCalls;
+
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("leaderCalls", leaderCalls);
+            stats.put("coalescedCalls", coalescedCalls);
+            stats.put("bypassedCalls", group.bypassedCalls.sum());
+            stats.put("inFlightKeys", group.inFlight.size());
+            stats.put("coalescingRate", totalCalls == 0 ? 0.0 : coalescedCalls * 100.0 / totalCalls);
+            statistics.put(name, stats);
+        });
+        return statistics;
+    }
+
+    /**
+     * 清理所有合并组的统计信息
+     */
+    public void clearStatistics() {
+        groups.clear();
+        log.info("Cleared all single-flight statistics");
+    }
+
+    /**
+     * 单个合并组的状态
+     */
+    private static final class FlightGroup {
+        private final Map<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+        private final LongAdder leaderCalls = new LongAdder();
+        private final LongAdder coalescedCalls = new LongAdder();
+        private final LongAdder bypassedCalls = new LongAdder();
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.demo.circuitbreaker.configuration;
+
+import com.example.demo.circuitbreaker.model.BoundedTtlCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 熔断降级响应缓存配置类
+ * 缓存外部 API 最近一次成功的响应，熔断器打开或调用超时时作为降级结果返回
+ */
+@Slf4j
+@Configuration
+public class ResponseCacheConfiguration {
+
+    @Value("${resilience4j.response-cache.max-size:1000}")
+    private int maxSize;
+
+    @Value("${resilience4j.response-cache.ttl:10m}")
+    private Duration ttl;
+
+    /**
+     * 有界 TTL 响应缓存
+     */
+    @Bean(name = "circuitBreakerResponseCache")
+    public BoundedTtlCache circuitBreakerResponseCache() {
+        log.info("Circuit breaker response cache initialized with max size: {}, ttl: {}", maxSize, ttl);
+        return new BoundedTtlCache("circuitBreakerResponseCache", maxSize, ttl);
+    }
+
+    /**
+     * 后台刷新缓存的虚拟线程执行器
+     */
+    @Bean(name = "responseCacheRefreshExecutor", destroyMethod = "close")
+    public ExecutorService responseCacheRefreshExecutor() {
+        return Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("response-cache-refresh-", 0).factory()
+        );
+    }
+}
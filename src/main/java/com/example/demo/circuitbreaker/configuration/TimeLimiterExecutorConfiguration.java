@@ -0,0 +1,57 @@
+package com.example.demo.circuitbreaker.configuration;
+
+import io.github.resilience4j.core.ContextAwareScheduledThreadPoolExecutor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * TimeLimiter 执行器配置类
+ * 为所有 @TimeLimiter 方法提供专用的虚拟线程执行器和超时调度器
+ *
+ * 阻塞型调用（如 Thread.sleep、同步 HTTP 调用）不再占用公共 ForkJoinPool，
+ * 大量并发慢调用只会创建虚拟线程，不会耗尽任何平台线程池
+ */
+@Slf4j
+@Configuration
+public class TimeLimiterExecutorConfiguration {
+
+    @Value("${resilience4j.timelimiter.executor.thread-name-prefix:time-limiter-vt-}")
+    private String threadNamePrefix;
+
+    @Value("${resilience4j.timelimiter.scheduler.core-pool-size:2}")
+    private int schedulerCorePoolSize;
+
+    /**
+     * TimeLimiter 虚拟线程执行器
+     * 每个受限调用运行在独立的虚拟线程上，超时时可被中断
+     */
+    @Bean(name = "timeLimiterExecutor", destroyMethod = "close")
+    public ExecutorService timeLimiterExecutor() {
+        log.info("TimeLimiter virtual thread executor initialized with thread name prefix: {}", threadNamePrefix);
+        return Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name(threadNamePrefix, 0).factory()
+        );
+    }
+
+    /**
+     * TimeLimiter 超时调度器
+     * Resilience4j 的 TimeLimiterAspect 会自动注入该调度器，用于触发超时；
+     * 调度任务只负责完成 Future，不执行阻塞逻辑，因此少量平台线程即可
+     */
+    @Bean(name = "timeLimiterScheduler")
+    public ContextAwareScheduledThreadPoolExecutor timeLimiterScheduler() {
+        ContextAwareScheduledThreadPoolExecutor scheduler = ContextAwareScheduledThreadPoolExecutor.newScheduledThreadPool()
+                .corePoolSize(schedulerCorePoolSize)
+                .build();
+        // 调用提前完成时超时任务会被取消，立即移出队列，避免大量并发调用时堆积
+        scheduler.setRemoveOnCancelPolicy(true);
+
+        log.info("TimeLimiter scheduler initialized with core pool size: {}", schedulerCorePoolSize);
+        return scheduler;
+    }
+}
@@ -7,6 +7,7 @@ import com.example.demo.circuitbreaker.model.CallerRateLimit;
 import com.example.demo.circuitbreaker.service.CallerRateLimiterService;
 import com.example.demo.circuitbreaker.service.CircuitBreakerMetricsService;
 import com.example.demo.circuitbreaker.service.CircuitBreakerService;
+import com.example.demo.circuitbreaker.service.ResilienceEventStreamService;
 import com.example.demo.circuitbreaker.vo.CircuitBreakerStateVo;
 import com.example.demo.circuitbreaker.vo.MetricsVo;
 import io.swagger.v3.oas.annotations.Operation;
@@ -19,13 +20,16 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 熔断器控制器
@@ -40,14 +44,17 @@ public class CircuitBreakerController {
     private final CircuitBreakerService circuitBreakerService;
     private final CallerRateLimiterService callerRateLimiterService;
     private final CircuitBreakerMetricsService metricsService;
+    private final ResilienceEventStreamService eventStreamService;
 
     public CircuitBreakerController(
             CircuitBreakerService circuitBreakerService,
             CallerRateLimiterService callerRateLimiterService,
-            CircuitBreakerMetricsService metricsService) {
+            CircuitBreakerMetricsService metricsService,
+            ResilienceEventStreamService eventStreamService) {
         this.circuitBreakerService = circuitBreakerService;
         this.callerRateLimiterService = callerRateLimiterService;
         this.metricsService = metricsService;
+        this.eventStreamService = eventStreamService;
     }
 
     // ==================== 熔断器相关接口 ====================
@@ -112,6 +119,32 @@ public class CircuitBreakerController {
         }
     }
 
+    @PostMapping("/virtual-bulkhead")
+    @Operation(summary = "虚拟线程舱壁示例", description = "沿用 apiBulkhead 的容量和等待时间，调用在虚拟线程上执行并按提交顺序排队")
+    @ApiResponse(responseCode = "200", description = "操作成功")
+    @ApiResponse(responseCode = "429", description = "排队已满或等待超时")
+    public CompletableFuture<ResponseEntity<CircuitBreakerResultDto>> callWithVirtualThreadBulkhead(
+            @Parameter(description = "API端点", example = "/api/products")
+            @RequestParam String endpoint) {
+        log.info("Virtual thread bulkhead call for endpoint: {}", endpoint);
+        // 异步返回，排队等待发生在虚拟线程上，不占用 Servlet 请求线程
+        return circuitBreakerService.callApiWithVirtualThreadBulkhead(endpoint).thenApply(result -> {
+            if (result.isSuccess()) {
+                metricsService.recordSuccess();
+                return ResponseEntity.ok(result);
+            } else {
+                metricsService.recordRejection();
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(result);
+            }
+        });
+    }
+
+    @GetMapping("/virtual-bulkhead/metrics")
+    @Operation(summary = "获取虚拟线程舱壁指标", description = "查询执行中和排队中的调用数、拒绝次数以及排队等待时间分位数")
+    public ResponseEntity<Map<String, Map<String, Object>>> getVirtualThreadBulkheadMetrics() {
+        return ResponseEntity.ok(metricsService.getVirtualThreadBulkheadMetrics());
+    }
+
     // ==================== 超时控制相关接口 ====================
 
     @PostMapping("/time-limiter")
@@ -143,21 +176,110 @@ public class CircuitBreakerController {
     // ==================== 组合容错模式接口 ====================
 
     @PostMapping("/all-resilience")
-    @Operation(summary = "组合所有容错模式", description = "演示同时使用熔断、限流、舱壁隔离的组合模式")
+    @Operation(summary = "组合所有容错模式", description = "演示同时使用熔断、限流、超时控制、舱壁隔离的组合模式")
     @ApiResponse(responseCode = "200", description = "操作成功")
     @ApiResponse(responseCode = "503", description = "服务暂时不可用或超过限流")
-    public ResponseEntity<CircuitBreakerResultDto> callWithAllResiliencePatterns(
+    public CompletableFuture<ResponseEntity<CircuitBreakerResultDto>> callWithAllResiliencePatterns(
             @Valid @RequestBody ExternalApiRequestDto request) {
         log.info("Combined resilience patterns call for endpoint: {}", request.getEndpoint());
-        CircuitBreakerResultDto result = circuitBreakerService.callApiWithAllResiliencePatterns(request);
+        return circuitBreakerService.callApiWithAllResiliencePatterns(request).thenApply(result -> {
+            if (result.isSuccess()) {
+                metricsService.recordSuccess();
+                return ResponseEntity.ok(result);
+            } else {
+                metricsService.recordFailure();
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(result);
+            }
+        });
+    }
 
-        if (result.isSuccess()) {
+    // ==================== 对冲请求接口 ====================
+
+    @PostMapping("/hedged")
+    @Operation(summary = "对冲请求示例", description = "主调用超过 p95 延迟时发起备份调用，取先成功的结果以降低长尾延迟")
+    @ApiResponse(responseCode = "200", description = "操作成功")
+    @ApiResponse(responseCode = "503", description = "主调用和对冲调用均失败")
+    public ResponseEntity<CircuitBreakerResultDto> callWithHedging(
+            @Valid @RequestBody ExternalApiRequestDto request) {
+        log.info("Hedged call for endpoint: {}", request.getEndpoint());
+        try {
+            CircuitBreakerResultDto result = circuitBreakerService.callExternalApiWithHedging(request);
             metricsService.recordSuccess();
             return ResponseEntity.ok(result);
+        } catch (RuntimeException ex) {
+            metricsService.recordFailure();
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(CircuitBreakerResultDto.builder()
+                    .success(false)
+                    .message("Hedged call failed: " + ex.getMessage())
+                    .error(ex.getClass().getSimpleName())
+                    .timestamp(LocalDateTime.now())
+                    .resiliencePattern("HEDGED")
+                    .build());
+        }
+    }
+
+    @GetMapping("/hedged/metrics")
+    @Operation(summary = "获取对冲请求指标", description = "查询各对冲目标的对冲次数、对冲胜出次数和延迟分位数")
+    public ResponseEntity<Map<String, Map<String, Object>>> getHedgeMetrics() {
+        return ResponseEntity.ok(metricsService.getHedgeMetrics());
+    }
+
+    // ==================== 请求合并接口 ====================
+
+    @PostMapping("/coalesced")
+    @Operation(summary = "请求合并示例", description = "并发的相同请求共享同一次下游调用，被合并的请求不占用舱壁许可")
+    @ApiResponse(responseCode = "200", description = "操作成功")
+    public ResponseEntity<CircuitBreakerResultDto> callWithCoalescing(
+            @Valid @RequestBody ExternalApiRequestDto request) {
+        log.info("Coalesced call for endpoint: {}", request.getEndpoint());
+        CircuitBreakerResultDto result = circuitBreakerService.callExternalApiWithCoalescing(request);
+
+        if (result.isSuccess()) {
+            metricsService.recordSuccess();
         } else {
             metricsService.recordFailure();
-            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(result);
         }
+
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping("/coalesced/metrics")
+    @Operation(summary = "获取请求合并指标", description = "查询各合并组的 leader 调用数、被合并调用数和合并率")
+    public ResponseEntity<Map<String, Map<String, Object>>> getSingleFlightMetrics() {
+        return ResponseEntity.ok(metricsService.getSingleFlightMetrics());
+    }
+
+    // ==================== 微批处理接口 ====================
+
+    @PostMapping("/batched")
+    @Operation(summary = "微批处理示例", description = "同一端点的并发请求在毫秒级窗口内合并为一次批量调用，整个批次记为一次熔断器调用")
+    @ApiResponse(responseCode = "200", description = "操作成功")
+    public ResponseEntity<CircuitBreakerResultDto> callWithBatching(
+            @Valid @RequestBody ExternalApiRequestDto request) {
+        log.info("Micro-batched call for endpoint: {}", request.getEndpoint());
+        CircuitBreakerResultDto result = circuitBreakerService.callExternalApiWithBatching(request);
+
+        if (result.isSuccess()) {
+            metricsService.recordSuccess();
+        } else {
+            metricsService.recordFailure();
+        }
+
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping("/batched/metrics")
+    @Operation(summary = "获取微批处理指标", description = "查询批次数、条目数、平均批次大小以及批次和条目失败次数")
+    public ResponseEntity<Map<String, Object>> getMicroBatchMetrics() {
+        return ResponseEntity.ok(metricsService.getMicroBatchMetrics());
+    }
+
+    // ==================== 降级响应缓存接口 ====================
+
+    @GetMapping("/response-cache/metrics")
+    @Operation(summary = "获取降级响应缓存指标", description = "查询缓存命中、淘汰、过期次数以及降级返回缓存响应和后台刷新的次数")
+    public ResponseEntity<Map<String, Object>> getResponseCacheMetrics() {
+        return ResponseEntity.ok(metricsService.getResponseCacheMetrics());
     }
 
     // ==================== X-Caller 限流接口 ====================
@@ -281,6 +403,21 @@ public class CircuitBreakerController {
         return ResponseEntity.ok(result);
     }
 
+    // ==================== 事件推送接口 ====================
+
+    @GetMapping(value = "/events/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "订阅容错事件流（SSE）",
+            description = "连接后先推送所有熔断器的当前状态，之后推送状态变化、拒绝调用和慢调用事件；高频事件按组件合并计数，不消耗熔断器调用许可")
+    public SseEmitter streamResilienceEvents() {
+        return eventStreamService.subscribe();
+    }
+
+    @GetMapping("/events/metrics")
+    @Operation(summary = "获取事件推送指标", description = "查询已发布、已推送、因订阅方落后而丢失的事件数以及当前订阅数")
+    public ResponseEntity<Map<String, Object>> getEventStreamMetrics() {
+        return ResponseEntity.ok(metricsService.getEventStreamMetrics());
+    }
+
     // ==================== 指标查询接口 ====================
 
     @GetMapping("/metrics")
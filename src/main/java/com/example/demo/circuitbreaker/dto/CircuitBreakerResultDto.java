@@ -57,4 +57,14 @@ public class CircuitBreakerResultDto {
      * 使用的容错模式
      */
     private String resiliencePattern;
+
+    /**
+     * 是否为降级返回的缓存响应
+     */
+    private boolean stale;
+
+    /**
+     * 缓存响应的存活时间（毫秒），仅在 stale 为 true 时有值
+     */
+    private Long cacheAgeMs;
 }
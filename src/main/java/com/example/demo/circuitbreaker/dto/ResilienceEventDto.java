@@ -0,0 +1,47 @@
+package com.example.demo.circuitbreaker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 推送给订阅方的容错事件 DTO
+ * 高频事件（拒绝、慢调用）在一次推送中按组件合并，count 为合并的事件数
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResilienceEventDto {
+
+    /**
+     * 事件类型：SNAPSHOT, STATE_TRANSITION, CALL_NOT_PERMITTED, SLOW_CALL, BULKHEAD_REJECTED, DROPPED 等
+     */
+    private String type;
+
+    /**
+     * 组件名称（熔断器、舱壁或限流器）
+     */
+    private String name;
+
+    /**
+     * 事件详情：状态变化、耗时或比率；合并事件为最后一条的详情
+     */
+    private String detail;
+
+    /**
+     * 合并的事件数；DROPPED 事件为订阅方落后而丢失的事件数
+     */
+    private long count;
+
+    /**
+     * 第一条事件时间（毫秒时间戳）
+     */
+    private long firstTimestampMs;
+
+    /**
+     * 最后一条事件时间（毫秒时间戳）
+     */
+    private long lastTimestampMs;
+}
@@ -0,0 +1,33 @@
+package com.example.demo.circuitbreaker.model;
+
+import lombok.Getter;
+
+/**
+ * 批量调用中单个条目的结果
+ * 批量调用整体成功时，每个条目仍可能独立成功或失败
+ *
+ * @param <T> 条目结果类型
+ */
+@Getter
+public final class BatchItemResult<T> {
+
+    private final T value;
+    private final Throwable error;
+
+    private BatchItemResult(T value, Throwable error) {
+        this.value = value;
+        this.error = error;
+    }
+
+    public static <T> BatchItemResult<T> success(T value) {
+        return new BatchItemResult<>(value, null);
+    }
+
+    public static <T> BatchItemResult<T> failure(Throwable error) {
+        return new BatchItemResult<>(null, error);
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+}
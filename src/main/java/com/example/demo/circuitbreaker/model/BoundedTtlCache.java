@@ -0,0 +1,182 @@
+package com.example.demo.circuitbreaker.model;
+
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 有界 TTL 缓存
+ * 基于 Spring Cache 抽象实现，按访问顺序淘汰最久未使用的条目（LRU），
+ * 写入超过 TTL 的条目在读取时视为过期并移除
+ *
+ * spring.cache.type=simple 提供的 ConcurrentMapCache 既没有容量上限也没有过期时间，
+ * 不适合长期缓存外部响应
+ */
+public class BoundedTtlCache extends AbstractValueAdaptingCache {
+
+    private final String name;
+    private final int maxSize;
+    private final long ttlMillis;
+    private final Clock clock;
+    private final LinkedHashMap<Object, Entry> store;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    public BoundedTtlCache(String name, int maxSize, Duration ttl) {
+        this(name, maxSize, ttl, Clock.systemUTC());
+    }
+
+    public BoundedTtlCache(String name, int maxSize, Duration ttl, Clock clock) {
+        super(false);
+        if (maxSize <= 0 || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("Cache max size and TTL must be positive");
+        }
+        this.name = name;
+        this.maxSize = maxSize;
+        this.ttlMillis = ttl.toMillis();
+        this.clock = clock;
+        this.store = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest) {
+                if (size() > BoundedTtlCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return store;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        synchronized (store) {
+            Entry entry = store.get(key);
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+            if (isExpired(entry)) {
+                store.remove(key);
+                expirations.increment();
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return entry.value;
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper cached = get(key);
+        if (cached != null) {
+            return (T) cached.get();
+        }
+        try {
+            T value = valueLoader.call();
+            put(key, value);
+            return value;
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        synchronized (store) {
+            store.put(key, new Entry(toStoreValue(value), clock.millis()));
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        synchronized (store) {
+            store.remove(key);
+        }
+    }
+
+    @Override
+    public void clear() {
+        synchronized (store) {
+            store.clear();
+        }
+    }
+
+    /**
+     * 当前未过期条目的快照（key → value），按最近访问时间从旧到新排列
+     * 只查看不读取：不计入命中/未命中统计，也不改变条目的访问顺序
+     */
+    public Map<Object, Object> peekAll() {
+        synchronized (store) {
+            Map<Object, Object> entries = new LinkedHashMap<>();
+            store.forEach((key, entry) -> {
+                if (!isExpired(entry)) {
+                    entries.put(key, fromStoreValue(entry.value));
+                }
+            });
+            return entries;
+        }
+    }
+
+    public int size() {
+        synchronized (store) {
+            return store.size();
+        }
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public long getExpirationCount() {
+        return expirations.sum();
+    }
+
+    private boolean isExpired(Entry entry) {
+        return clock.millis() - entry.writtenAtMillis >= ttlMillis;
+    }
+
+    /**
+     * 缓存条目
+     */
+    private static final class Entry {
+        private final Object value;
+        private final long writtenAtMillis;
+
+        private Entry(Object value, long writtenAtMillis) {
+            this.value = value;
+            this.writtenAtMillis = writtenAtMillis;
+        }
+    }
+}
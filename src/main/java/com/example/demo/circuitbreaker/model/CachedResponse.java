@@ -0,0 +1,39 @@
+package com.example.demo.circuitbreaker.model;
+
+import com.example.demo.circuitbreaker.dto.CircuitBreakerResultDto;
+import com.example.demo.circuitbreaker.dto.ExternalApiRequestDto;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 缓存的外部 API 成功响应
+ * 保存原始请求以便熔断器半开时在后台重新获取
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CachedResponse {
+
+    /**
+     * 产生该响应的熔断器名称
+     */
+    private String circuitBreakerName;
+
+    /**
+     * 原始请求
+     */
+    private ExternalApiRequestDto request;
+
+    /**
+     * 最近一次成功的响应
+     */
+    private CircuitBreakerResultDto result;
+
+    /**
+     * 缓存写入时间（毫秒时间戳）
+     */
+    private long cachedAtMillis;
+}
@@ -0,0 +1,117 @@
+package com.example.demo.circuitbreaker.model;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 有界无锁环形缓冲区（多生产者、多消费者）
+ * 1. 生产者通过 CAS 递增序号占用槽位，写入后即返回，不会被消费者阻塞
+ * 2. 每个消费者自行维护读取序号，互不影响
+ * 3. 消费者落后超过容量时，最旧的事件被覆盖，读取结果中返回丢失的事件数
+ *
+ * @param <T> 事件类型
+ */
+public class EventRingBuffer<T> {
+
+    private final AtomicReferenceArray<Slot<T>> slots;
+    private final int capacity;
+    private final int mask;
+    private final AtomicLong nextSequence = new AtomicLong();
+
+    /**
+     * @param requestedCapacity 期望容量，向上取整为 2 的幂
+     */
+    public EventRingBuffer(int requestedCapacity) {
+        if (requestedCapacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = requestedCapacity == 1 ? 1 : Integer.highestOneBit(requestedCapacity - 1) << 1;
+        this.mask = capacity - 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * 发布事件
+     *
+     * @return 事件序号
+     */
+    public long publish(T event) {
+        long sequence = nextSequence.getAndIncrement();
+        slots.set((int) (sequence & mask), new Slot<>(sequence, event));
+        return sequence;
+    }
+
+    /**
+     * 从指定序号开始读取事件
+     * 遇到已占用但尚未写入的槽位时停止，下次读取时继续
+     *
+     * @param fromSequence 起始序号（上一次读取返回的 nextSequence）
+     * @param maxEvents    最多读取的事件数
+     */
+    public ReadResult<T> read(long fromSequence, int maxEvents) {
+        long head = nextSequence.get();
+        long cursor = fromSequence;
+        long dropped = 0;
+        if (head - cursor > capacity) {
+            dropped = head - capacity - cursor;
+            cursor = head - capacity;
+        }
+
+        List<T> events = new ArrayList<>((int) Math.min(maxEvents, head - cursor));
+        while (cursor < head && events.size() < maxEvents) {
+            Slot<T> slot = slots.get((int) (cursor & mask));
+            if (slot == null || slot.sequence < cursor) {
+                break;
+            }
+            if (slot.sequence > cursor) {
+                // 读取期间被生产者覆盖
+                dropped++;
+            } else {
+                events.add(slot.event);
+            }
+            cursor++;
+        }
+        return new ReadResult<>(events, cursor, dropped);
+    }
+
+    /**
+     * 下一个待发布事件的序号，新消费者从这里开始读取
+     */
+    public long getNextSequence() {
+        return nextSequence.get();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    private static final class Slot<T> {
+        private final long sequence;
+        private final T event;
+
+        private Slot(long sequence, T event) {
+            this.sequence = sequence;
+            this.event = event;
+        }
+    }
+
+    /**
+     * 一次读取的结果
+     */
+    @Getter
+    public static final class ReadResult<T> {
+        private final List<T> events;
+        private final long nextSequence;
+        private final long dropped;
+
+        private ReadResult(List<T> events, long nextSequence, long dropped) {
+            this.events = events;
+            this.nextSequence = nextSequence;
+            this.dropped = dropped;
+        }
+    }
+}
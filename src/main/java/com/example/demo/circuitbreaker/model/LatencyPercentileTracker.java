@@ -0,0 +1,98 @@
+package com.example.demo.circuitbreaker.model;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 在线延迟分位数跟踪器
+ * 使用固定大小的环形缓冲区保存最近的延迟样本，分位数按采样间隔惰性重算并缓存，
+ * 记录操作无锁且内存占用恒定
+ */
+public class LatencyPercentileTracker {
+
+    private static final int DEFAULT_WINDOW_SIZE = 1024;
+    private static final int DEFAULT_RECOMPUTE_INTERVAL = 64;
+
+    private final AtomicLongArray samples;
+    private final AtomicLong sampleCount = new AtomicLong();
+    private final int recomputeInterval;
+
+    private volatile CachedPercentile cached;
+
+    public LatencyPercentileTracker() {
+        this(DEFAULT_WINDOW_SIZE, DEFAULT_RECOMPUTE_INTERVAL);
+    }
+
+    public LatencyPercentileTracker(int windowSize, int recomputeInterval) {
+        if (windowSize <= 0 || recomputeInterval <= 0) {
+            throw new IllegalArgumentException("Window size and recompute interval must be positive");
+        }
+        this.samples = new AtomicLongArray(windowSize);
+        this.recomputeInterval = recomputeInterval;
+    }
+
+    /**
+     * 记录一次调用延迟
+     *
+     * @param latencyNanos 延迟（纳秒）
+     */
+    public void record(long latencyNanos) {
+        long index = sampleCount.getAndIncrement();
+        samples.set((int) (index % samples.length()), latencyNanos);
+    }
+
+    /**
+     * 已记录的样本总数
+     */
+    public long getSampleCount() {
+        return sampleCount.get();
+    }
+
+    /**
+     * 获取窗口内的延迟分位数
+     *
+     * @param percentile 分位数（0-100）
+     * @return 分位数延迟（纳秒），没有样本时返回 -1
+     */
+    public long getPercentileNanos(double percentile) {
+        long count = sampleCount.get();
+        if (count == 0) {
+            return -1;
+        }
+
+        CachedPercentile current = cached;
+        if (current != null && current.percentile == percentile
+                && count - current.atCount < recomputeInterval) {
+            return current.valueNanos;
+        }
+
+        int size = (int) Math.min(count, samples.length());
+        long[] snapshot = new long[size];
+        for (int i = 0; i < size; i++) {
+            snapshot[i] = samples.get(i);
+        }
+        Arrays.sort(snapshot);
+
+        int rank = (int) Math.ceil(percentile / 100.0 * size) - 1;
+        long value = snapshot[Math.max(0, Math.min(rank, size - 1))];
+
+        cached = new CachedPercentile(percentile, value, count);
+        return value;
+    }
+
+    /**
+     * 缓存的分位数计算结果
+     */
+    private static final class CachedPercentile {
+        private final double percentile;
+        private final long valueNanos;
+        private final long atCount;
+
+        private CachedPercentile(double percentile, long valueNanos, long atCount) {
+            this.percentile = percentile;
+            this.valueNanos = valueNanos;
+            this.atCount = atCount;
+        }
+    }
+}
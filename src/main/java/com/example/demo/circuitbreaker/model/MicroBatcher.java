@@ -0,0 +1,166 @@
+package com.example.demo.circuitbreaker.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+
+/**
+ * 微批处理器
+ * 按 key 聚合并发提交的条目，在时间窗口到期或条目数达到上限时作为一个批次执行，
+ * 再把批次中每个条目的结果分发回对应的调用方
+ *
+ * @param <K> 批次 key 类型（如下游目标）
+ * @param <I> 条目类型
+ * @param <O> 条目结果类型
+ */
+public class MicroBatcher<K, I, O> {
+
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final ScheduledExecutorService scheduler;
+    private final Executor executor;
+    private final BiFunction<K, List<I>, List<BatchItemResult<O>>> batchHandler;
+    private final Map<K, Batch> openBatches = new ConcurrentHashMap<>();
+
+    private final LongAdder batchCount = new LongAdder();
+    private final LongAdder itemCount = new LongAdder();
+    private final LongAdder batchFailures = new LongAdder();
+    private final LongAdder itemFailures = new LongAdder();
+    private final LongAccumulator maxObservedBatchSize = new LongAccumulator(Math::max, 0);
+
+    /**
+     * @param maxBatchSize 单个批次最大条目数，达到后立即执行
+     * @param maxWaitNanos 批次中第一个条目的最大等待时间（纳秒）
+     * @param scheduler    触发时间窗口到期的调度器
+     * @param executor     执行批次的执行器
+     * @param batchHandler 批次处理函数，返回结果与输入条目一一对应；抛出异常时整个批次失败
+     */
+    public MicroBatcher(int maxBatchSize, long maxWaitNanos, ScheduledExecutorService scheduler, Executor executor,
+                        BiFunction<K, List<I>, List<BatchItemResult<O>>> batchHandler) {
+        if (maxBatchSize <= 0 || maxWaitNanos <= 0) {
+            throw new IllegalArgumentException("Max batch size and max wait must be positive");
+        }
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitNanos = maxWaitNanos;
+        this.scheduler = scheduler;
+        this.executor = executor;
+        this.batchHandler = batchHandler;
+    }
+
+    /**
+     * 提交一个条目
+     *
+     * @return 条目结果 Future，批次执行完成后完成
+     */
+    public CompletableFuture<O> submit(K key, I item) {
+        CompletableFuture<O> future = new CompletableFuture<>();
+        List<Batch> fullBatch = new ArrayList<>(1);
+
+        openBatches.compute(key, (batchKey, batch) -> {
+            if (batch == null) {
+                batch = new Batch(batchKey);
+                Batch created = batch;
+                batch.timer = scheduler.schedule(() -> flushOnTimeout(created), maxWaitNanos, TimeUnit.NANOSECONDS);
+            }
+            batch.items.add(item);
+            batch.futures.add(future);
+            if (batch.items.size() >= maxBatchSize) {
+                fullBatch.add(batch);
+                return null;
+            }
+            return batch;
+        });
+
+        if (!fullBatch.isEmpty()) {
+            Batch batch = fullBatch.get(0);
+            batch.timer.cancel(false);
+            dispatch(batch);
+        }
+        return future;
+    }
+
+    private void flushOnTimeout(Batch batch) {
+        // 批次可能已因达到条目上限被取走
+        if (openBatches.remove(batch.key, batch)) {
+            dispatch(batch);
+        }
+    }
+
+    private void dispatch(Batch batch) {
+        executor.execute(() -> execute(batch));
+    }
+
+    private void execute(Batch batch) {
+        int size = batch.items.size();
+        batchCount.increment();
+        itemCount.add(size);
+        maxObservedBatchSize.accumulate(size);
+
+        List<BatchItemResult<O>> results;
+        try {
+            results = batchHandler.apply(batch.key, batch.items);
+            if (results == null || results.size() != size) {
+                throw new IllegalStateException("Batch handler returned " + (results == null ? "null" : results.size())
+                        + " results for " + size + " items");
+            }
+        } catch (Throwable ex) {
+            batchFailures.increment();
+            itemFailures.add(size);
+            batch.futures.forEach(future -> future.completeExceptionally(ex));
+            return;
+        }
+
+        for (int i = 0; i < size; i++) {
+            BatchItemResult<O> result = results.get(i);
+            if (result.isSuccess()) {
+                batch.futures.get(i).complete(result.getValue());
+            } else {
+                itemFailures.increment();
+                batch.futures.get(i).completeExceptionally(result.getError());
+            }
+        }
+    }
+
+    /**
+     * 获取批处理统计信息（用于监控）
+     */
+    public Map<String, Object> getStatistics() {
+        long batches = batchCount.sum();
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("batches", batches);
+        statistics.put("items", itemCount.sum());
+        statistics.put("batchFailures", batchFailures.sum());
+        statistics.put("itemFailures", itemFailures.sum());
+        statistics.put("averageBatchSize", batches == 0 ? 0.0 : (double) itemCount.sum() / batches);
+        statistics.put("maxObservedBatchSize", maxObservedBatchSize.get());
+        statistics.put("openBatches", openBatches.size());
+        statistics.put("maxBatchSize", maxBatchSize);
+        statistics.put("maxWaitMs", TimeUnit.NANOSECONDS.toMillis(maxWaitNanos));
+        return statistics;
+    }
+
+    /**
+     * 正在聚合中的批次
+     * 条目只在 ConcurrentHashMap.compute 中追加，批次离开 map 后不再修改
+     */
+    private final class Batch {
+        private final K key;
+        private final List<I> items = new ArrayList<>();
+        private final List<CompletableFuture<O>> futures = new ArrayList<>();
+        private ScheduledFuture<?> timer;
+
+        private Batch(K key) {
+            this.key = key;
+        }
+    }
+}
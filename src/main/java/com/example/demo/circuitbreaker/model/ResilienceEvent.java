@@ -0,0 +1,67 @@
+package com.example.demo.circuitbreaker.model;
+
+import lombok.Getter;
+
+/**
+ * 容错组件事件
+ * 在 Resilience4j 事件回调（调用方线程）中创建，只保存必要字段
+ */
+@Getter
+public final class ResilienceEvent {
+
+    private final Type type;
+    private final String name;
+    private final String detail;
+    private final long timestampMs;
+
+    public ResilienceEvent(Type type, String name, String detail, long timestampMs) {
+        this.type = type;
+        this.name = name;
+        this.detail = detail;
+        this.timestampMs = timestampMs;
+    }
+
+    public enum Type {
+        /**
+         * 熔断器状态变化，detail 为 CLOSED_TO_OPEN 等
+         */
+        STATE_TRANSITION(false),
+        /**
+         * 熔断器拒绝调用
+         */
+        CALL_NOT_PERMITTED(true),
+        /**
+         * 单次调用耗时超过慢调用阈值，detail 为耗时（毫秒）
+         */
+        SLOW_CALL(true),
+        /**
+         * 失败率超过阈值，detail 为失败率
+         */
+        FAILURE_RATE_EXCEEDED(false),
+        /**
+         * 慢调用率超过阈值，detail 为慢调用率
+         */
+        SLOW_CALL_RATE_EXCEEDED(false),
+        /**
+         * 舱壁已满拒绝调用
+         */
+        BULKHEAD_REJECTED(true),
+        /**
+         * 限流器拒绝调用
+         */
+        RATE_LIMITER_REJECTED(true);
+
+        private final boolean coalescible;
+
+        Type(boolean coalescible) {
+            this.coalescible = coalescible;
+        }
+
+        /**
+         * 高频事件可以按组件名合并为一条带计数的事件
+         */
+        public boolean isCoalescible() {
+            return coalescible;
+        }
+    }
+}
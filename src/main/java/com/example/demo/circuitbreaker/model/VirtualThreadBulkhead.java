@@ -0,0 +1,240 @@
+package com.example.demo.circuitbreaker.model;
+
+import com.example.demo.circuitbreaker.exception.BulkheadFullException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 虚拟线程舱壁
+ * 每个任务在独立的虚拟线程上执行，同时执行的任务数不超过许可数：
+ * 1. 没有空闲许可时任务进入显式的 FIFO 等待队列，许可释放时直接交给队首任务并启动其虚拟线程，
+ *    因此按提交顺序获得许可；排队中的任务还没有线程，不占用任何线程
+ * 2. 每个排队任务有截止时间（提交时间 + maxWait），到期仍未获得许可则以 BulkheadFullException 失败
+ * 3. 排队数超过上限时直接拒绝，避免过载时无限堆积
+ */
+public class VirtualThreadBulkhead {
+
+    private final String name;
+    private final int maxConcurrentCalls;
+    private final long maxWaitNanos;
+    private final int maxQueueDepth;
+    private final Executor executor;
+    private final Executor deadlineExecutor;
+
+    /**
+     * 保护 availablePermits 和 waiters
+     */
+    private final Object lock = new Object();
+    private int availablePermits;
+    private final Deque<Waiter<?>> waiters = new ArrayDeque<>();
+
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final LongAccumulator maxObservedQueueDepth = new LongAccumulator(Math::max, 0);
+    private final LongAdder admittedCalls = new LongAdder();
+    private final LongAdder failedCalls = new LongAdder();
+    private final LongAdder rejectedQueueFull = new LongAdder();
+    private final LongAdder rejectedDeadline = new LongAdder();
+    private final LatencyPercentileTracker waitTimes = new LatencyPercentileTracker();
+
+    /**
+     * @param name               舱壁名称
+     * @param maxConcurrentCalls 同时执行的最大任务数
+     * @param maxWaitNanos       排队任务的最大等待时间（纳秒），0 表示不排队
+     * @param maxQueueDepth      最大排队任务数（已提交但尚未获得许可的任务）
+     * @param executor           执行任务的虚拟线程执行器
+     */
+    public VirtualThreadBulkhead(String name, int maxConcurrentCalls, long maxWaitNanos, int maxQueueDepth,
+                                 Executor executor) {
+        if (maxConcurrentCalls <= 0 || maxWaitNanos < 0 || maxQueueDepth <= 0) {
+            throw new IllegalArgumentException("Invalid bulkhead configuration for: " + name);
+        }
+        this.name = name;
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.maxWaitNanos = maxWaitNanos;
+        this.maxQueueDepth = maxQueueDepth;
+        this.executor = executor;
+        this.deadlineExecutor = CompletableFuture.delayedExecutor(maxWaitNanos, TimeUnit.NANOSECONDS, executor);
+        this.availablePermits = maxConcurrentCalls;
+    }
+
+    /**
+     * 提交任务
+     *
+     * @return 任务结果；排队已满或等待超过截止时间时以 BulkheadFullException 失败
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        Waiter<T> waiter = new Waiter<>(task, System.nanoTime());
+        synchronized (lock) {
+            if (availablePermits > 0 && waiters.isEmpty()) {
+                availablePermits--;
+            } else if (maxWaitNanos == 0) {
+                rejectedDeadline.increment();
+                return CompletableFuture.failedFuture(new BulkheadFullException(name, maxConcurrentCalls));
+            } else if (queueDepth.get() >= maxQueueDepth) {
+                rejectedQueueFull.increment();
+                return CompletableFuture.failedFuture(new BulkheadFullException(name, maxConcurrentCalls));
+            } else {
+                waiters.addLast(waiter);
+                waiter.queued = true;
+                maxObservedQueueDepth.accumulate(queueDepth.incrementAndGet());
+                deadlineExecutor.execute(() -> expire(waiter));
+                return waiter.future;
+            }
+        }
+        start(waiter);
+        return waiter.future;
+    }
+
+    /**
+     * 同步执行任务，调用方等待虚拟线程上的执行结果
+     */
+    public <T> T execute(Supplier<T> task) {
+        try {
+            return submit(task).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 已获得许可的任务在新的虚拟线程上执行，结束后把许可交给下一个排队任务
+     */
+    private <T> void start(Waiter<T> waiter) {
+        waitTimes.record(System.nanoTime() - waiter.enqueuedAt);
+        try {
+            executor.execute(() -> run(waiter));
+        } catch (RejectedExecutionException e) {
+            waiter.future.completeExceptionally(e);
+            release();
+        }
+    }
+
+    private <T> void run(Waiter<T> waiter) {
+        try {
+            // 调用方已取消时不再执行
+            if (waiter.future.isDone()) {
+                return;
+            }
+            admittedCalls.increment();
+            waiter.future.complete(waiter.task.get());
+        } catch (Throwable ex) {
+            failedCalls.increment();
+            waiter.future.completeExceptionally(ex);
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * 归还许可：队列中还有未完成（未过期、未取消）的任务时把许可直接交给队首任务，否则放回许可池
+     */
+    private void release() {
+        Waiter<?> next;
+        synchronized (lock) {
+            do {
+                next = dequeue();
+            } while (next != null && next.future.isDone());
+            if (next == null) {
+                availablePermits++;
+                return;
+            }
+        }
+        start(next);
+    }
+
+    /**
+     * 截止时间到达时仍在队列中的任务以 BulkheadFullException 失败
+     * 所有任务的最大等待时间相同，截止时间按提交顺序递增，排在它前面的任务同样已经到期
+     */
+    private void expire(Waiter<?> waiter) {
+        List<Waiter<?>> expired = new ArrayList<>();
+        synchronized (lock) {
+            while (waiter.queued) {
+                expired.add(dequeue());
+            }
+        }
+        for (Waiter<?> expiredWaiter : expired) {
+            waitTimes.record(System.nanoTime() - expiredWaiter.enqueuedAt);
+            rejectedDeadline.increment();
+            expiredWaiter.future.completeExceptionally(new BulkheadFullException(name, maxConcurrentCalls));
+        }
+    }
+
+    /**
+     * 取出队首任务，调用方持有 lock
+     */
+    private Waiter<?> dequeue() {
+        Waiter<?> waiter = waiters.pollFirst();
+        if (waiter != null) {
+            waiter.queued = false;
+            queueDepth.decrementAndGet();
+        }
+        return waiter;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 获取舱壁统计信息（用于监控）
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("maxConcurrentCalls", maxConcurrentCalls);
+        statistics.put("maxWaitMs", TimeUnit.NANOSECONDS.toMillis(maxWaitNanos));
+        statistics.put("maxQueueDepth", maxQueueDepth);
+        synchronized (lock) {
+            statistics.put("activeCalls", maxConcurrentCalls - availablePermits);
+        }
+        statistics.put("queueDepth", queueDepth.get());
+        statistics.put("maxObservedQueueDepth", maxObservedQueueDepth.get());
+        statistics.put("admittedCalls", admittedCalls.sum());
+        statistics.put("failedCalls", failedCalls.sum());
+        statistics.put("rejectedQueueFull", rejectedQueueFull.sum());
+        statistics.put("rejectedDeadline", rejectedDeadline.sum());
+        statistics.put("waitTimeP50Ms", toMillis(waitTimes.getPercentileNanos(50)));
+        statistics.put("waitTimeP99Ms", toMillis(waitTimes.getPercentileNanos(99)));
+        return statistics;
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos < 0 ? 0.0 : nanos / 1_000_000.0;
+    }
+
+    /**
+     * 排队中的任务
+     */
+    private static final class Waiter<T> {
+        private final Supplier<T> task;
+        private final long enqueuedAt;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        /**
+         * 是否仍在等待队列中，由 lock 保护
+         */
+        private boolean queued;
+
+        private Waiter(Supplier<T> task, long enqueuedAt) {
+            this.task = task;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.demo.circuitbreaker.service;
 
+import com.example.demo.circuitbreaker.aspect.HedgedAspect;
+import com.example.demo.circuitbreaker.aspect.SingleFlightAspect;
 import com.example.demo.circuitbreaker.dto.CircuitBreakerStateDto;
 import com.example.demo.circuitbreaker.dto.MetricsDto;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
@@ -26,6 +28,12 @@ public class CircuitBreakerMetricsService {
     private final CircuitBreakerRegistry circuitBreakerRegistry;
     private final RateLimiterRegistry rateLimiterRegistry;
     private final BulkheadRegistry bulkheadRegistry;
+    private final HedgedAspect hedgedAspect;
+    private final SingleFlightAspect singleFlightAspect;
+    private final ResponseCacheService responseCacheService;
+    private final MicroBatchingService microBatchingService;
+    private final ResilienceEventStreamService eventStreamService;
+    private final VirtualThreadBulkheadService virtualThreadBulkheadService;
 
     // 自定义指标计数器
     private long totalSuccessfulCalls = 0;
@@ -35,10 +43,22 @@ public class CircuitBreakerMetricsService {
     public CircuitBreakerMetricsService(
             CircuitBreakerRegistry circuitBreakerRegistry,
             RateLimiterRegistry rateLimiterRegistry,
-            BulkheadRegistry bulkheadRegistry) {
+            BulkheadRegistry bulkheadRegistry,
+            HedgedAspect hedgedAspect,
+            SingleFlightAspect singleFlightAspect,
+            ResponseCacheService responseCacheService,
+            MicroBatchingService microBatchingService,
+            ResilienceEventStreamService eventStreamService,
+            VirtualThreadBulkheadService virtualThreadBulkheadService) {
         this.circuitBreakerRegistry = circuitBreakerRegistry;
         this.rateLimiterRegistry = rateLimiterRegistry;
         this.bulkheadRegistry = bulkheadRegistry;
+        this.hedgedAspect = hedgedAspect;
+        this.singleFlightAspect = singleFlightAspect;
+        this.responseCacheService = responseCacheService;
+        this.microBatchingService = microBatchingService;
+        this.eventStreamService = eventStreamService;
+        this.virtualThreadBulkheadService = virtualThreadBulkheadService;
     }
 
     /**
@@ -57,7 +77,7 @@ public class CircuitBreakerMetricsService {
                 .numberOfCalls(metrics.getNumberOfBufferedCalls())
                 .numberOfFailedCalls(metrics.getNumberOfFailedCalls())
                 .numberOfSuccessfulCalls(metrics.getNumberOfSuccessfulCalls())
-                .callPermitted(circuitBreaker.tryAcquirePermission())
+                .callPermitted(isCallPermitted(circuitBreaker.getState()))
                 .remainingWaitTimeMs(circuitBreaker.getState() == CircuitBreaker.State.OPEN ?
                         getRemainingWaitTime(circuitBreaker) : null)
                 .build();
@@ -136,6 +156,48 @@ public class CircuitBreakerMetricsService {
         return bulkheadMetrics;
     }
 
+    /**
+     * 获取对冲请求指标
+     */
+    public Map<String, Map<String, Object>> getHedgeMetrics() {
+        return hedgedAspect.getStatistics();
+    }
+
+    /**
+     * 获取请求合并指标
+     */
+    public Map<String, Map<String, Object>> getSingleFlightMetrics() {
+        return singleFlightAspect.getStatistics();
+    }
+
+    /**
+     * 获取降级响应缓存指标
+     */
+    public Map<String, Object> getResponseCacheMetrics() {
+        return responseCacheService.getStatistics();
+    }
+
+    /**
+     * 获取微批处理指标
+     */
+    public Map<String, Object> getMicroBatchMetrics() {
+        return microBatchingService.getStatistics();
+    }
+
+    /**
+     * 获取虚拟线程舱壁指标
+     */
+    public Map<String, Map<String, Object>> getVirtualThreadBulkheadMetrics() {
+        return virtualThreadBulkheadService.getStatistics();
+    }
+
+    /**
+     * 获取事件推送指标
+     */
+    public Map<String, Object> getEventStreamMetrics() {
+        return eventStreamService.getStatistics();
+    }
+
     /**
      * 记录成功调用
      */
@@ -217,6 +279,14 @@ public class CircuitBreakerMetricsService {
         return summary;
     }
 
+    /**
+     * 根据状态判断是否允许调用
+     * 不调用 tryAcquirePermission，避免状态查询在 HALF_OPEN 时消耗有限的探测许可
+     */
+    private static boolean isCallPermitted(CircuitBreaker.State state) {
+        return state != CircuitBreaker.State.OPEN && state != CircuitBreaker.State.FORCED_OPEN;
+    }
+
     /**
      * 获取熔断器剩余等待时间
      */
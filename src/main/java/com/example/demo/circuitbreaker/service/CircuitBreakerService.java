@@ -1,16 +1,23 @@
 package com.example.demo.circuitbreaker.service;
 
+import com.example.demo.circuitbreaker.annotation.Hedged;
+import com.example.demo.circuitbreaker.annotation.ResiliencePipeline;
+import com.example.demo.circuitbreaker.annotation.SingleFlight;
 import com.example.demo.circuitbreaker.dto.CircuitBreakerResultDto;
 import com.example.demo.circuitbreaker.dto.ExternalApiRequestDto;
+import com.example.demo.circuitbreaker.exception.BulkheadFullException;
 import com.example.demo.circuitbreaker.model.CallerRateLimit;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * 熔断器服务类
@@ -22,12 +29,28 @@ public class CircuitBreakerService {
 
     private final CircuitBreakerRegistry circuitBreakerRegistry;
     private final ExternalApiService externalApiService;
+    private final TimeLimiterExecutorService timeLimiterExecutorService;
+    private final ResponseCacheService responseCacheService;
+    private final MicroBatchingService microBatchingService;
+    private final VirtualThreadBulkheadService virtualThreadBulkheadService;
 
     public CircuitBreakerService(
             CircuitBreakerRegistry circuitBreakerRegistry,
-            ExternalApiService externalApiService) {
+            ExternalApiService externalApiService,
+            TimeLimiterExecutorService timeLimiterExecutorService,
+            ResponseCacheService responseCacheService,
+            MicroBatchingService microBatchingService,
+            VirtualThreadBulkheadService virtualThreadBulkheadService,
+            ObjectProvider<CircuitBreakerService> self) {
         this.circuitBreakerRegistry = circuitBreakerRegistry;
         this.externalApiService = externalApiService;
+        this.timeLimiterExecutorService = timeLimiterExecutorService;
+        this.responseCacheService = responseCacheService;
+        this.microBatchingService = microBatchingService;
+        this.virtualThreadBulkheadService = virtualThreadBulkheadService;
+        // 通过代理调用，刷新才会经过容错管道切面
+        responseCacheService.registerRefresher("combinedCircuitBreaker",
+                request -> self.getObject().refreshAllResiliencePatterns(request));
     }
 
     /**
@@ -42,7 +65,7 @@ public class CircuitBreakerService {
         long startTime = System.currentTimeMillis();
         String result = externalApiService.callExternalApi(request);
 
-        return CircuitBreakerResultDto.builder()
+        CircuitBreakerResultDto resultDto = CircuitBreakerResultDto.builder()
                 .success(true)
                 .message(result)
                 .circuitBreakerName("externalApi")
@@ -51,6 +74,8 @@ public class CircuitBreakerService {
                 .timestamp(LocalDateTime.now())
                 .resiliencePattern("CIRCUIT_BREAKER")
                 .build();
+        responseCacheService.cacheResponse("externalApi", request, resultDto);
+        return resultDto;
     }
 
     /**
@@ -95,50 +120,185 @@ public class CircuitBreakerService {
                 .build();
     }
 
+    /**
+     * 使用虚拟线程舱壁调用 API
+     * 配置: apiBulkhead（容量和最大等待时间与信号量舱壁相同）
+     * 调用在虚拟线程上执行，排队等待许可时不占用线程；返回的 Future 在调用结束后完成，
+     * 调用方不应在请求线程上阻塞等待。只有舱壁拒绝（排队已满或等待超时）转换为失败结果，
+     * 业务异常原样传递给调用方
+     */
+    public CompletableFuture<CircuitBreakerResultDto> callApiWithVirtualThreadBulkhead(String endpoint) {
+        long startTime = System.currentTimeMillis();
+        return virtualThreadBulkheadService.submit("apiBulkhead", () -> externalApiService.callFastApi(endpoint))
+                .thenApply(result -> CircuitBreakerResultDto.builder()
+                        .success(true)
+                        .message(result)
+                        .executionTimeMs(System.currentTimeMillis() - startTime)
+                        .timestamp(LocalDateTime.now())
+                        .resiliencePattern("VIRTUAL_BULKHEAD")
+                        .build())
+                .exceptionally(ex -> {
+                    Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                    if (!(cause instanceof BulkheadFullException)) {
+                        throw ex instanceof CompletionException completionException
+                                ? completionException : new CompletionException(cause);
+                    }
+                    log.warn("Virtual thread bulkhead rejected call for endpoint: {}, reason: {}", endpoint, cause.getMessage());
+                    return CircuitBreakerResultDto.builder()
+                            .success(false)
+                            .message("Bulkhead full: " + cause.getMessage())
+                            .error(cause.getClass().getSimpleName())
+                            .executionTimeMs(System.currentTimeMillis() - startTime)
+                            .timestamp(LocalDateTime.now())
+                            .resiliencePattern("VIRTUAL_BULKHEAD")
+                            .build();
+                });
+    }
+
     /**
      * 使用超时控制调用 API
      * 配置: apiTimeLimiter
+     * 慢调用运行在专用虚拟线程上，超时后底层任务会被中断
      */
     @io.github.resilience4j.timelimiter.annotation.TimeLimiter(
             name = "apiTimeLimiter",
             fallbackMethod = "timeoutFallback"
     )
     public java.util.concurrent.CompletableFuture<String> callApiWithTimeout(String endpoint, long delayMs) {
-        return java.util.concurrent.CompletableFuture.supplyAsync(() ->
+        return timeLimiterExecutorService.supplyAsync("apiTimeLimiter", () ->
                 externalApiService.callSlowApi(endpoint, delayMs)
         );
     }
 
     /**
      * 组合使用所有容错模式调用 API
-     * 配置: combinedCircuitBreaker, combinedRateLimiter, combinedBulkhead
+     * 配置: combinedCircuitBreaker, combinedRateLimiter, combinedTimeLimiter, combinedBulkhead
+     * 通过融合容错管道执行，只经过一个切面；调用在虚拟线程上执行，超时后回退为缓存响应
      */
-    @io.github.resilience4j.bulkhead.annotation.Bulkhead(name = "combinedBulkhead")
-    @io.github.resilience4j.ratelimiter.annotation.RateLimiter(name = "combinedRateLimiter")
-    @io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker(
-            name = "combinedCircuitBreaker",
+    @ResiliencePipeline(
+            circuitBreaker = "combinedCircuitBreaker",
+            rateLimiter = "combinedRateLimiter",
+            bulkhead = "combinedBulkhead",
+            timeLimiter = "combinedTimeLimiter",
             fallbackMethod = "combinedFallback"
     )
-    public CircuitBreakerResultDto callApiWithAllResiliencePatterns(ExternalApiRequestDto request) {
+    public CompletableFuture<CircuitBreakerResultDto> callApiWithAllResiliencePatterns(ExternalApiRequestDto request) {
+        long startTime = System.currentTimeMillis();
+        return timeLimiterExecutorService.supplyAsync("combinedTimeLimiter",
+                () -> externalApiService.callExternalApi(request)
+        ).thenApply(result -> {
+            CircuitBreakerResultDto resultDto = CircuitBreakerResultDto.builder()
+                    .success(true)
+                    .message(result)
+                    .circuitBreakerName("combinedCircuitBreaker")
+                    .state(getCircuitBreakerState("combinedCircuitBreaker"))
+                    .executionTimeMs(System.currentTimeMillis() - startTime)
+                    .timestamp(LocalDateTime.now())
+                    .resiliencePattern("COMBINED")
+                    .build();
+            responseCacheService.cacheResponse("combinedCircuitBreaker", request, resultDto);
+            return resultDto;
+        });
+    }
+
+    /**
+     * 刷新组合调用的缓存响应
+     * 与 callApiWithAllResiliencePatterns 经过相同的容错组件，但没有回退，失败直接交给刷新任务
+     */
+    @ResiliencePipeline(
+            circuitBreaker = "combinedCircuitBreaker",
+            rateLimiter = "combinedRateLimiter",
+            bulkhead = "combinedBulkhead",
+            timeLimiter = "combinedTimeLimiter"
+    )
+    public CompletableFuture<String> refreshAllResiliencePatterns(ExternalApiRequestDto request) {
+        return timeLimiterExecutorService.supplyAsync("combinedTimeLimiter",
+                () -> externalApiService.callExternalApi(request));
+    }
+
+    /**
+     * 使用对冲请求调用外部 API
+     * 主调用超过 p95 延迟仍未返回时发起备份调用，取先成功的结果
+     */
+    @Hedged(name = "externalApi", percentile = 95, maxHedgesInFlight = 10)
+    public CircuitBreakerResultDto callExternalApiWithHedging(ExternalApiRequestDto request) {
+        long startTime = System.currentTimeMillis();
+        String result = externalApiService.callExternalApi(request);
+
+        return CircuitBreakerResultDto.builder()
+                .success(true)
+                .message(result)
+                .executionTimeMs(System.currentTimeMillis() - startTime)
+                .timestamp(LocalDateTime.now())
+                .resiliencePattern("HEDGED")
+                .build();
+    }
+
+    /**
+     * 合并相同请求后调用外部 API
+     * 并发的相同请求只有一个会进入舱壁和熔断器，其余调用方共享其结果
+     * 按请求的全部字段合并（ExternalApiRequestDto 的 equals/hashCode），模拟失败或延迟不同的请求不会共享结果
+     */
+    @SingleFlight(name = "externalApi", key = "#request")
+    @io.github.resilience4j.bulkhead.annotation.Bulkhead(name = "apiBulkhead")
+    @io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker(
+            name = "externalApi",
+            fallbackMethod = "coalescedFallback"
+    )
+    public CircuitBreakerResultDto callExternalApiWithCoalescing(ExternalApiRequestDto request) {
         long startTime = System.currentTimeMillis();
         String result = externalApiService.callExternalApi(request);
 
         return CircuitBreakerResultDto.builder()
                 .success(true)
                 .message(result)
-                .circuitBreakerName("combinedCircuitBreaker")
-                .state(getCircuitBreakerState("combinedCircuitBreaker"))
+                .circuitBreakerName("externalApi")
+                .state(getCircuitBreakerState("externalApi"))
                 .executionTimeMs(System.currentTimeMillis() - startTime)
                 .timestamp(LocalDateTime.now())
-                .resiliencePattern("COMBINED")
+                .resiliencePattern("SINGLE_FLIGHT")
                 .build();
     }
 
+    /**
+     * 通过微批处理调用外部 API
+     * 同一端点的并发请求合并为一次批量调用，整个批次记为一次熔断器调用
+     */
+    public CircuitBreakerResultDto callExternalApiWithBatching(ExternalApiRequestDto request) {
+        long startTime = System.currentTimeMillis();
+        try {
+            String result = microBatchingService.submit(request).join();
+
+            return CircuitBreakerResultDto.builder()
+                    .success(true)
+                    .message(result)
+                    .circuitBreakerName("externalApi")
+                    .state(getCircuitBreakerState("externalApi"))
+                    .executionTimeMs(System.currentTimeMillis() - startTime)
+                    .timestamp(LocalDateTime.now())
+                    .resiliencePattern("MICRO_BATCH")
+                    .build();
+        } catch (CompletionException ex) {
+            Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+            log.warn("Micro-batched call failed for endpoint: {}", request.getEndpoint(), cause);
+            return CircuitBreakerResultDto.builder()
+                    .success(false)
+                    .message("Micro-batched call failed: " + cause.getMessage())
+                    .circuitBreakerName("externalApi")
+                    .state(getCircuitBreakerState("externalApi"))
+                    .error(cause.getClass().getSimpleName())
+                    .executionTimeMs(System.currentTimeMillis() - startTime)
+                    .timestamp(LocalDateTime.now())
+                    .resiliencePattern("MICRO_BATCH")
+                    .build();
+        }
+    }
+
     // ==================== Fallback 方法 ====================
 
     private CircuitBreakerResultDto circuitBreakerFallback(ExternalApiRequestDto request, Exception ex) {
         log.warn("Circuit breaker fallback triggered for endpoint: {}", request.getEndpoint(), ex);
-        return CircuitBreakerResultDto.builder()
+        return responseCacheService.getStaleResponse("externalApi", request, ex).orElseGet(() -> CircuitBreakerResultDto.builder()
                 .success(false)
                 .message("Circuit breaker fallback: " + ex.getMessage())
                 .circuitBreakerName("externalApi")
@@ -146,7 +306,7 @@ public class CircuitBreakerService {
                 .error(ex.getClass().getSimpleName())
                 .timestamp(LocalDateTime.now())
                 .resiliencePattern("CIRCUIT_BREAKER")
-                .build();
+                .build());
     }
 
     private CircuitBreakerResultDto rateLimiterFallback(String endpoint, Exception ex) {
@@ -178,19 +338,33 @@ public class CircuitBreakerService {
         );
     }
 
-    private CircuitBreakerResultDto combinedFallback(ExternalApiRequestDto request, Exception ex) {
-        log.warn("Combined resilience patterns fallback triggered", ex);
+    private CircuitBreakerResultDto coalescedFallback(ExternalApiRequestDto request, Exception ex) {
+        log.warn("Coalesced call fallback triggered for endpoint: {}", request.getEndpoint(), ex);
         return CircuitBreakerResultDto.builder()
                 .success(false)
-                .message("Combined fallback: " + ex.getMessage())
-                .circuitBreakerName("combinedCircuitBreaker")
-                .state(getCircuitBreakerState("combinedCircuitBreaker"))
+                .message("Coalesced call fallback: " + ex.getMessage())
+                .circuitBreakerName("externalApi")
+                .state(getCircuitBreakerState("externalApi"))
                 .error(ex.getClass().getSimpleName())
                 .timestamp(LocalDateTime.now())
-                .resiliencePattern("COMBINED")
+                .resiliencePattern("SINGLE_FLIGHT")
                 .build();
     }
 
+    private CompletableFuture<CircuitBreakerResultDto> combinedFallback(ExternalApiRequestDto request, Exception ex) {
+        log.warn("Combined resilience patterns fallback triggered", ex);
+        return CompletableFuture.completedFuture(
+                responseCacheService.getStaleResponse("combinedCircuitBreaker", request, ex).orElseGet(() -> CircuitBreakerResultDto.builder()
+                        .success(false)
+                        .message("Combined fallback: " + ex.getMessage())
+                        .circuitBreakerName("combinedCircuitBreaker")
+                        .state(getCircuitBreakerState("combinedCircuitBreaker"))
+                        .error(ex.getClass().getSimpleName())
+                        .timestamp(LocalDateTime.now())
+                        .resiliencePattern("COMBINED")
+                        .build()));
+    }
+
     // ==================== 管理方法 ====================
 
     /**
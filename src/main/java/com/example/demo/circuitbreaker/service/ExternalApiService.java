@@ -1,19 +1,42 @@
 package com.example.demo.circuitbreaker.service;
 
 import com.example.demo.circuitbreaker.dto.ExternalApiRequestDto;
+import com.example.demo.circuitbreaker.model.BatchItemResult;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * 模拟外部服务调用
  * 用于测试熔断器、限流器等容错模式
+ *
+ * 配置 external-api.base-url 后，callExternalApi 和 callExternalApiBatch 改为真实的 HTTP 调用，
+ * 用于对接本地替身服务进行压测；未配置时使用 Thread.sleep 和随机失败模拟
  */
 @Service
 @Slf4j
 public class ExternalApiService {
 
+    private static final String SIMULATE_FAILURE_HEADER = "X-Simulate-Failure";
+
+    @Value("${external-api.base-url:}")
+    private String baseUrl;
+
+    @Value("${external-api.timeout-ms:5000}")
+    private long timeoutMs;
+
+    private volatile HttpClient httpClient;
+
     /**
      * 模拟调用外部 API
      *
@@ -24,6 +47,14 @@ public class ExternalApiService {
     public String callExternalApi(ExternalApiRequestDto request) {
         log.info("Calling external API: {}", request.getEndpoint());
 
+        if (isHttpMode()) {
+            HttpResponse<String> response = send(request.getEndpoint(), request.getPayload(), request.isSimulateFailure());
+            if (response.statusCode() >= 400) {
+                throw new RuntimeException("External API returned " + response.statusCode() + " for: " + request.getEndpoint());
+            }
+            return response.body();
+        }
+
         // 模拟延迟
         if (request.getDelayMs() != null && request.getDelayMs() > 0) {
             try {
@@ -51,6 +82,116 @@ public class ExternalApiService {
         return response;
     }
 
+    /**
+     * 模拟批量调用外部 API
+     * 一次往返处理多个请求，延迟取批次中最大的延迟，每个请求独立成功或失败
+     *
+     * @param requests 同一目标的请求列表
+     * @return 与请求一一对应的结果
+     */
+    public List<BatchItemResult<String>> callExternalApiBatch(List<ExternalApiRequestDto> requests) {
+        log.info("Calling external API in batch, size: {}", requests.size());
+
+        if (isHttpMode()) {
+            return callExternalApiBatchOverHttp(requests);
+        }
+
+        // 模拟一次往返延迟
+        long delayMs = requests.stream()
+                .map(ExternalApiRequestDto::getDelayMs)
+                .filter(delay -> delay != null && delay > 0)
+                .mapToLong(Long::longValue)
+                .max()
+                .orElse(0);
+        if (delayMs > 0) {
+            try {
+                Thread.sleep(delayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Batch request interrupted", e);
+            }
+        }
+
+        List<BatchItemResult<String>> results = new ArrayList<>(requests.size());
+        for (ExternalApiRequestDto request : requests) {
+            if (request.isSimulateFailure()) {
+                results.add(BatchItemResult.failure(
+                        new RuntimeException("Simulated API failure for: " + request.getEndpoint())));
+            } else if (ThreadLocalRandom.current().nextDouble() < 0.1) {
+                results.add(BatchItemResult.failure(
+                        new RuntimeException("Random API failure for: " + request.getEndpoint())));
+            } else {
+                results.add(BatchItemResult.success(String.format("Success response from %s", request.getEndpoint())));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * 通过 HTTP 发送批量请求
+     * 请求体每行一个条目（端点 + 制表符 + 是否模拟失败），响应体每行以 OK 或 ERR 开头，与请求一一对应
+     */
+    private List<BatchItemResult<String>> callExternalApiBatchOverHttp(List<ExternalApiRequestDto> requests) {
+        StringBuilder body = new StringBuilder();
+        for (ExternalApiRequestDto request : requests) {
+            body.append(request.getEndpoint()).append('\t').append(request.isSimulateFailure()).append('\n');
+        }
+
+        HttpResponse<String> response = send("/batch", body.toString(), false);
+        if (response.statusCode() >= 400) {
+            throw new RuntimeException("External batch API returned " + response.statusCode());
+        }
+
+        String[] lines = response.body().split("\n");
+        List<BatchItemResult<String>> results = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            String line = i < lines.length ? lines[i] : "ERR missing batch result";
+            if (line.startsWith("OK ")) {
+                results.add(BatchItemResult.success(line.substring(3)));
+            } else {
+                results.add(BatchItemResult.failure(new RuntimeException(
+                        "External API item failure for " + requests.get(i).getEndpoint() + ": " + line)));
+            }
+        }
+        return results;
+    }
+
+    private HttpResponse<String> send(String path, String payload, boolean simulateFailure) {
+        HttpRequest httpRequest = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofMillis(timeoutMs))
+                .header(SIMULATE_FAILURE_HEADER, String.valueOf(simulateFailure))
+                .POST(HttpRequest.BodyPublishers.ofString(payload == null ? "" : payload))
+                .build();
+        try {
+            return getHttpClient().send(httpRequest, HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            throw new RuntimeException("External API call failed for: " + path, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Request interrupted", e);
+        }
+    }
+
+    private boolean isHttpMode() {
+        return baseUrl != null && !baseUrl.isBlank();
+    }
+
+    private HttpClient getHttpClient() {
+        HttpClient client = httpClient;
+        if (client == null) {
+            synchronized (this) {
+                client = httpClient;
+                if (client == null) {
+                    client = HttpClient.newBuilder()
+                            .connectTimeout(Duration.ofMillis(timeoutMs))
+                            .build();
+                    httpClient = client;
+                }
+            }
+        }
+        return client;
+    }
+
     /**
      * 模拟调用慢速 API
      *
@@ -0,0 +1,89 @@
+package com.example.demo.circuitbreaker.service;
+
+import com.example.demo.circuitbreaker.dto.ExternalApiRequestDto;
+import com.example.demo.circuitbreaker.model.BatchItemResult;
+import com.example.demo.circuitbreaker.model.MicroBatcher;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 外部 API 微批处理服务
+ * 将同一端点的并发请求在短时间窗口内合并为一次批量调用：
+ * 1. 时间窗口（毫秒级）到期或条目数达到上限时发送批次
+ * 2. 整个批次通过熔断器作为一次调用执行
+ * 3. 批次中单个条目的失败只影响对应的调用方
+ */
+@Service
+@Slf4j
+public class MicroBatchingService {
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final ExternalApiService externalApiService;
+    private final String circuitBreakerName;
+    private final ScheduledExecutorService batchScheduler;
+    private final ExecutorService batchExecutor;
+    private final MicroBatcher<String, ExternalApiRequestDto, String> batcher;
+
+    public MicroBatchingService(
+            CircuitBreakerRegistry circuitBreakerRegistry,
+            ExternalApiService externalApiService,
+            @Value("${resilience4j.micro-batch.circuit-breaker:externalApi}") String circuitBreakerName,
+            @Value("${resilience4j.micro-batch.max-batch-size:16}") int maxBatchSize,
+            @Value("${resilience4j.micro-batch.max-wait-ms:5}") long maxWaitMs) {
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.externalApiService = externalApiService;
+        this.circuitBreakerName = circuitBreakerName;
+        this.batchScheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("micro-batch-scheduler").daemon(true).factory());
+        this.batchExecutor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("micro-batch-vt-", 0).factory());
+        this.batcher = new MicroBatcher<>(maxBatchSize, TimeUnit.MILLISECONDS.toNanos(maxWaitMs),
+                batchScheduler, batchExecutor, this::executeBatch);
+
+        log.info("Micro-batching initialized with max batch size: {}, max wait: {}ms, circuit breaker: {}",
+                maxBatchSize, maxWaitMs, circuitBreakerName);
+    }
+
+    /**
+     * 提交请求，按端点与其他并发请求合并
+     *
+     * @return 该请求的结果 Future；熔断器拒绝或批次整体失败时所有调用方都收到同一异常
+     */
+    public CompletableFuture<String> submit(ExternalApiRequestDto request) {
+        return batcher.submit(request.getEndpoint(), request);
+    }
+
+    /**
+     * 通过熔断器执行一个批次，整个批次记为一次熔断器调用
+     */
+    private List<BatchItemResult<String>> executeBatch(String endpoint, List<ExternalApiRequestDto> requests) {
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(circuitBreakerName);
+        log.debug("Executing micro-batch for endpoint: {}, size: {}", endpoint, requests.size());
+        return circuitBreaker.executeSupplier(() -> externalApiService.callExternalApiBatch(requests));
+    }
+
+    /**
+     * 获取微批处理统计信息（用于监控）
+     */
+    public Map<String, Object> getStatistics() {
+        return batcher.getStatistics();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        batchScheduler.shutdownNow();
+        batchExecutor.close();
+    }
+}
@@ -0,0 +1,345 @@
+package com.example.demo.circuitbreaker.service;
+
+import com.example.demo.circuitbreaker.dto.ResilienceEventDto;
+import com.example.demo.circuitbreaker.model.EventRingBuffer;
+import com.example.demo.circuitbreaker.model.ResilienceEvent;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 容错事件推送服务（SSE）
+ * 替代轮询 /state/all 和 /metrics：
+ * 1. 订阅熔断器、舱壁、限流器的事件发布器，事件写入有界无锁环形缓冲区，回调中不加锁、不做 I/O
+ * 2. 每个订阅方由独立的虚拟线程读取缓冲区并推送，没有新事件时线程挂起（park），发布事件时唤醒（unpark）；
+ *    两次推送之间至少间隔 poll-interval-ms 以合并高频事件，空闲的订阅方不会被定时唤醒，慢订阅方不会阻塞事件发布
+ * 3. 一次推送中的高频事件（拒绝、慢调用）按组件合并为带计数的一条；订阅方落后超过缓冲区容量时推送 DROPPED 事件
+ * 4. 只读取事件和状态，不调用 tryAcquirePermission，不会消耗半开状态的调用许可
+ * 5. 空闲时按 heartbeat-interval-ms 发送 SSE 注释作为心跳，写入失败即发现已断开的连接并释放推送线程
+ */
+@Service
+@Slf4j
+public class ResilienceEventStreamService {
+
+    private static final int MAX_EVENTS_PER_POLL = 4096;
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final BulkheadRegistry bulkheadRegistry;
+    private final RateLimiterRegistry rateLimiterRegistry;
+    private final EventRingBuffer<ResilienceEvent> buffer;
+    private final long pollIntervalMs;
+    private final long heartbeatIntervalMs;
+    private final long emitterTimeoutMs;
+    private final ExecutorService deliveryExecutor;
+
+    private final Set<EventSubscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final LongAdder deliveredEvents = new LongAdder();
+    private final LongAdder droppedEvents = new LongAdder();
+    private final LongAdder deliveryWakeups = new LongAdder();
+    private final LongAdder heartbeats = new LongAdder();
+
+    public ResilienceEventStreamService(
+            CircuitBreakerRegistry circuitBreakerRegistry,
+            BulkheadRegistry bulkheadRegistry,
+            RateLimiterRegistry rateLimiterRegistry,
+            @Value("${resilience4j.event-stream.buffer-size:1024}") int bufferSize,
+            @Value("${resilience4j.event-stream.poll-interval-ms:200}") long pollIntervalMs,
+            @Value("${resilience4j.event-stream.heartbeat-interval-ms:15000}") long heartbeatIntervalMs,
+            @Value("${resilience4j.event-stream.emitter-timeout-ms:1800000}") long emitterTimeoutMs) {
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.bulkheadRegistry = bulkheadRegistry;
+        this.rateLimiterRegistry = rateLimiterRegistry;
+        this.buffer = new EventRingBuffer<>(bufferSize);
+        this.pollIntervalMs = pollIntervalMs;
+        this.heartbeatIntervalMs = heartbeatIntervalMs;
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        this.deliveryExecutor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("event-stream-vt-", 0).factory());
+    }
+
+    /**
+     * 订阅所有熔断器、舱壁、限流器（包括后续创建的）的事件
+     */
+    @PostConstruct
+    public void registerEventListeners() {
+        circuitBreakerRegistry.getAllCircuitBreakers().forEach(this::registerCircuitBreakerListeners);
+        circuitBreakerRegistry.getEventPublisher()
+                .onEntryAdded(event -> registerCircuitBreakerListeners(event.getAddedEntry()));
+
+        bulkheadRegistry.getAllBulkheads().forEach(this::registerBulkheadListeners);
+        bulkheadRegistry.getEventPublisher()
+                .onEntryAdded(event -> registerBulkheadListeners(event.getAddedEntry()));
+
+        rateLimiterRegistry.getAllRateLimiters().forEach(this::registerRateLimiterListeners);
+        rateLimiterRegistry.getEventPublisher()
+                .onEntryAdded(event -> registerRateLimiterListeners(event.getAddedEntry()));
+    }
+
+    private void registerCircuitBreakerListeners(CircuitBreaker circuitBreaker) {
+        String name = circuitBreaker.getName();
+        long slowCallThresholdNanos = circuitBreaker.getCircuitBreakerConfig().getSlowCallDurationThreshold().toNanos();
+
+        circuitBreaker.getEventPublisher()
+                .onStateTransition(event -> publish(ResilienceEvent.Type.STATE_TRANSITION, name,
+                        event.getStateTransition().name()))
+                .onCallNotPermitted(event -> publish(ResilienceEvent.Type.CALL_NOT_PERMITTED, name, null))
+                .onSuccess(event -> publishIfSlow(name, event.getElapsedDuration(), slowCallThresholdNanos))
+                .onError(event -> publishIfSlow(name, event.getElapsedDuration(), slowCallThresholdNanos))
+                .onFailureRateExceeded(event -> publish(ResilienceEvent.Type.FAILURE_RATE_EXCEEDED, name,
+                        String.valueOf(event.getFailureRate())))
+                .onSlowCallRateExceeded(event -> publish(ResilienceEvent.Type.SLOW_CALL_RATE_EXCEEDED, name,
+                        String.valueOf(event.getSlowCallRate())));
+    }
+
+    private void registerBulkheadListeners(Bulkhead bulkhead) {
+        String name = bulkhead.getName();
+        bulkhead.getEventPublisher()
+                .onCallRejected(event -> publish(ResilienceEvent.Type.BULKHEAD_REJECTED, name, null));
+    }
+
+    private void registerRateLimiterListeners(RateLimiter rateLimiter) {
+        String name = rateLimiter.getName();
+        rateLimiter.getEventPublisher()
+                .onFailure(event -> publish(ResilienceEvent.Type.RATE_LIMITER_REJECTED, name, null));
+    }
+
+    private void publishIfSlow(String name, Duration elapsed, long slowCallThresholdNanos) {
+        if (elapsed.toNanos() >= slowCallThresholdNanos) {
+            publish(ResilienceEvent.Type.SLOW_CALL, name, String.valueOf(elapsed.toMillis()));
+        }
+    }
+
+    private void publish(ResilienceEvent.Type type, String name, String detail) {
+        buffer.publish(new ResilienceEvent(type, name, detail, System.currentTimeMillis()));
+        for (EventSubscription subscription : subscriptions) {
+            subscription.signal();
+        }
+    }
+
+    /**
+     * 创建 SSE 订阅
+     * 先推送所有熔断器的当前状态（SNAPSHOT），之后推送订阅后发生的事件
+     */
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        EventSubscription subscription = openSubscription();
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(subscription::close);
+        emitter.onError(error -> subscription.close());
+
+        deliveryExecutor.execute(() -> deliver(subscription, emitter));
+        log.info("Resilience event stream subscribed, active subscribers: {}", subscriptions.size());
+        return emitter;
+    }
+
+    private void deliver(EventSubscription subscription, SseEmitter emitter) {
+        subscription.deliveryThread = Thread.currentThread();
+        try {
+            send(emitter, snapshot());
+            long lastSendNanos = System.nanoTime();
+            while (subscription.isOpen()) {
+                deliveryWakeups.increment();
+                // 先清除信号再读取，读取之后发布的事件会重新设置信号
+                subscription.signalled = false;
+                List<ResilienceEventDto> events = poll(subscription);
+                if (!events.isEmpty()) {
+                    send(emitter, events);
+                    lastSendNanos = System.nanoTime();
+                    // 最小推送间隔内到达的事件在下一次推送中合并
+                    Thread.sleep(pollIntervalMs);
+                } else if (System.nanoTime() - lastSendNanos >= TimeUnit.MILLISECONDS.toNanos(heartbeatIntervalMs)) {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                    heartbeats.increment();
+                    lastSendNanos = System.nanoTime();
+                } else {
+                    awaitSignal(subscription, lastSendNanos + TimeUnit.MILLISECONDS.toNanos(heartbeatIntervalMs));
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Resilience event stream subscriber disconnected: {}", e.getMessage());
+            emitter.completeWithError(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            emitter.complete();
+        } finally {
+            subscription.close();
+        }
+    }
+
+    /**
+     * 挂起推送线程，直到有新事件、订阅关闭或到达下一次心跳时间
+     */
+    private void awaitSignal(EventSubscription subscription, long heartbeatDeadlineNanos) throws InterruptedException {
+        long remaining;
+        while (!subscription.signalled && subscription.isOpen()
+                && (remaining = heartbeatDeadlineNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(subscription, remaining);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    private void send(SseEmitter emitter, List<ResilienceEventDto> events) throws IOException {
+        for (ResilienceEventDto event : events) {
+            emitter.send(SseEmitter.event().name(event.getType()).data(event));
+        }
+        deliveredEvents.add(events.size());
+    }
+
+    EventSubscription openSubscription() {
+        EventSubscription subscription = new EventSubscription(buffer.getNextSequence());
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    /**
+     * 当前所有熔断器的状态，只读取状态，不获取调用许可
+     */
+    List<ResilienceEventDto> snapshot() {
+        long now = System.currentTimeMillis();
+        List<ResilienceEventDto> events = new ArrayList<>();
+        for (CircuitBreaker circuitBreaker : circuitBreakerRegistry.getAllCircuitBreakers()) {
+            events.add(ResilienceEventDto.builder()
+                    .type("SNAPSHOT")
+                    .name(circuitBreaker.getName())
+                    .detail(circuitBreaker.getState().name())
+                    .count(1)
+                    .firstTimestampMs(now)
+                    .lastTimestampMs(now)
+                    .build());
+        }
+        return events;
+    }
+
+    /**
+     * 读取订阅方上次读取之后的事件并合并
+     * 状态变化等低频事件逐条保留，并保持与高频事件之间的先后顺序
+     */
+    List<ResilienceEventDto> poll(EventSubscription subscription) {
+        EventRingBuffer.ReadResult<ResilienceEvent> result = buffer.read(subscription.cursor, MAX_EVENTS_PER_POLL);
+        subscription.cursor = result.getNextSequence();
+
+        List<ResilienceEventDto> events = new ArrayList<>();
+        if (result.getDropped() > 0) {
+            droppedEvents.add(result.getDropped());
+            long now = System.currentTimeMillis();
+            events.add(ResilienceEventDto.builder()
+                    .type("DROPPED")
+                    .count(result.getDropped())
+                    .firstTimestampMs(now)
+                    .lastTimestampMs(now)
+                    .build());
+        }
+
+        Map<String, ResilienceEventDto> pending = new LinkedHashMap<>();
+        for (ResilienceEvent event : result.getEvents()) {
+            if (!event.getType().isCoalescible()) {
+                events.addAll(pending.values());
+                pending.clear();
+                events.add(toDto(event));
+                continue;
+            }
+            pending.merge(event.getType().name() + ':' + event.getName(), toDto(event), (merged, next) -> {
+                merged.setCount(merged.getCount() + 1);
+                merged.setDetail(next.getDetail());
+                merged.setLastTimestampMs(next.getLastTimestampMs());
+                return merged;
+            });
+        }
+        events.addAll(pending.values());
+        return events;
+    }
+
+    private static ResilienceEventDto toDto(ResilienceEvent event) {
+        return ResilienceEventDto.builder()
+                .type(event.getType().name())
+                .name(event.getName())
+                .detail(event.getDetail())
+                .count(1)
+                .firstTimestampMs(event.getTimestampMs())
+                .lastTimestampMs(event.getTimestampMs())
+                .build();
+    }
+
+    /**
+     * 获取事件推送统计信息（用于监控）
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("publishedEvents", buffer.getNextSequence());
+        statistics.put("deliveredEvents", deliveredEvents.sum());
+        statistics.put("droppedEvents", droppedEvents.sum());
+        statistics.put("subscribers", subscriptions.size());
+        statistics.put("bufferCapacity", buffer.getCapacity());
+        statistics.put("pollIntervalMs", pollIntervalMs);
+        statistics.put("heartbeatIntervalMs", heartbeatIntervalMs);
+        statistics.put("deliveryWakeups", deliveryWakeups.sum());
+        statistics.put("heartbeats", heartbeats.sum());
+        return statistics;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscriptions.forEach(EventSubscription::close);
+        deliveryExecutor.shutdownNow();
+    }
+
+    /**
+     * 订阅方的读取进度，cursor 只由该订阅方的推送线程读写
+     */
+    final class EventSubscription {
+        private long cursor;
+        private volatile boolean open = true;
+        private volatile boolean signalled;
+        private volatile Thread deliveryThread;
+
+        private EventSubscription(long cursor) {
+            this.cursor = cursor;
+        }
+
+        boolean isOpen() {
+            return open;
+        }
+
+        /**
+         * 有新事件时唤醒推送线程；已有未处理的信号时不重复唤醒
+         */
+        void signal() {
+            if (!signalled) {
+                signalled = true;
+                LockSupport.unpark(deliveryThread);
+            }
+        }
+
+        void close() {
+            open = false;
+            subscriptions.remove(this);
+            LockSupport.unpark(deliveryThread);
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package com.example.demo.circuitbreaker.service;
+
+import com.example.demo.circuitbreaker.dto.CircuitBreakerResultDto;
+import com.example.demo.circuitbreaker.dto.ExternalApiRequestDto;
+import com.example.demo.circuitbreaker.model.BoundedTtlCache;
+import com.example.demo.circuitbreaker.model.CachedResponse;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 熔断降级响应缓存服务（stale-while-revalidate）
+ * 核心功能：
+ * 1. 外部 API 调用成功后缓存响应
+ * 2. 熔断器打开（CallNotPermittedException）或超时控制判定超时（TimeoutException）时返回最近一次成功的响应
+ * 3. 熔断器进入 HALF_OPEN 后，在后台经过与真实调用相同的容错组件重新调用外部 API 刷新缓存，
+ *    每个熔断器同时只有一个刷新调用，只占用一个半开探测许可，其余许可留给真实请求；
+ *    刷新失败会正常计入熔断器统计
+ * 缓存响应以 success=false、stale=true 返回，调用方和指标可以区分降级结果与实时结果
+ */
+@Service
+@Slf4j
+public class ResponseCacheService {
+
+    private final BoundedTtlCache responseCache;
+    private final ExecutorService refreshExecutor;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final ExternalApiService externalApiService;
+
+    private final Map<String, Function<ExternalApiRequestDto, CompletionStage<String>>> refreshers =
+            new ConcurrentHashMap<>();
+    private final Set<String> refreshingCircuitBreakers = ConcurrentHashMap.newKeySet();
+    private final LongAdder staleResponsesServed = new LongAdder();
+    private final LongAdder refreshSuccesses = new LongAdder();
+    private final LongAdder refreshFailures = new LongAdder();
+
+    public ResponseCacheService(
+            @Qualifier("circuitBreakerResponseCache") BoundedTtlCache responseCache,
+            @Qualifier("responseCacheRefreshExecutor") ExecutorService refreshExecutor,
+            CircuitBreakerRegistry circuitBreakerRegistry,
+            ExternalApiService externalApiService) {
+        this.responseCache = responseCache;
+        this.refreshExecutor = refreshExecutor;
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.externalApiService = externalApiService;
+    }
+
+    /**
+     * 监听所有熔断器（包括后续创建的）进入 HALF_OPEN 的事件
+     */
+    @PostConstruct
+    public void registerStateTransitionListeners() {
+        circuitBreakerRegistry.getAllCircuitBreakers().forEach(this::registerHalfOpenListener);
+        circuitBreakerRegistry.getEventPublisher()
+                .onEntryAdded(event -> registerHalfOpenListener(event.getAddedEntry()));
+    }
+
+    private void registerHalfOpenListener(CircuitBreaker circuitBreaker) {
+        circuitBreaker.getEventPublisher().onStateTransition(event -> {
+            if (event.getStateTransition().getToState() == CircuitBreaker.State.HALF_OPEN) {
+                refreshOnHalfOpen(event.getCircuitBreakerName());
+            }
+        });
+    }
+
+    /**
+     * 缓存成功的响应
+     */
+    public void cacheResponse(String circuitBreakerName, ExternalApiRequestDto request, CircuitBreakerResultDto result) {
+        CachedResponse cached = CachedResponse.builder()
+                .circuitBreakerName(circuitBreakerName)
+                .request(request)
+                .result(result)
+                .cachedAtMillis(System.currentTimeMillis())
+                .build();
+        responseCache.put(cacheKey(circuitBreakerName, request), cached);
+    }
+
+    /**
+     * 获取降级用的缓存响应
+     * 仅在熔断器拒绝调用或调用超时时返回；熔断器处于 HALF_OPEN 时同时触发后台刷新
+     *
+     * @return 缓存的响应（success=false、stale=true），没有可用缓存或异常类型不适用时返回空
+     */
+    public Optional<CircuitBreakerResultDto> getStaleResponse(String circuitBreakerName,
+                                                              ExternalApiRequestDto request,
+                                                              Throwable ex) {
+        if (!isServeStaleFailure(ex)) {
+            return Optional.empty();
+        }
+
+        CacheKey key = cacheKey(circuitBreakerName, request);
+        CachedResponse cached = responseCache.get(key, CachedResponse.class);
+        if (cached == null) {
+            return Optional.empty();
+        }
+
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(circuitBreakerName);
+        if (circuitBreaker.getState() == CircuitBreaker.State.HALF_OPEN) {
+            refreshAsync(key, cached);
+        }
+
+        staleResponsesServed.increment();
+        CircuitBreakerResultDto result = cached.getResult();
+        log.info("Serving stale response for circuit breaker '{}', endpoint: {}, age: {}ms",
+                circuitBreakerName, request.getEndpoint(), System.currentTimeMillis() - cached.getCachedAtMillis());
+
+        return Optional.of(CircuitBreakerResultDto.builder()
+                .success(false)
+                .message(result.getMessage())
+                .circuitBreakerName(circuitBreakerName)
+                .state(circuitBreaker.getState().toString())
+                .executionTimeMs(result.getExecutionTimeMs())
+                .timestamp(LocalDateTime.now())
+                .error(ex.getClass().getSimpleName())
+                .resiliencePattern(result.getResiliencePattern())
+                .stale(true)
+                .cacheAgeMs(System.currentTimeMillis() - cached.getCachedAtMillis())
+                .build());
+    }
+
+    /**
+     * 熔断器进入 HALF_OPEN 时只刷新最近访问的一个缓存条目
+     * 其余半开探测许可留给真实请求，其他条目等待后续请求触发刷新；
+     * 查找条目不计入缓存命中统计，也不改变 LRU 顺序
+     */
+    public void refreshOnHalfOpen(String circuitBreakerName) {
+        List<Map.Entry<Object, Object>> entries = new ArrayList<>(responseCache.peekAll().entrySet());
+        // 条目按访问时间从旧到新排列
+        for (int i = entries.size() - 1; i >= 0; i--) {
+            CacheKey key = (CacheKey) entries.get(i).getKey();
+            if (circuitBreakerName.equals(key.circuitBreakerName())) {
+                refreshAsync(key, (CachedResponse) entries.get(i).getValue());
+                return;
+            }
+        }
+    }
+
+    /**
+     * 注册熔断器的刷新调用
+     * 刷新应经过与真实调用相同的容错组件（如组合调用的限流器、舱壁和超时控制），且不带回退；
+     * 未注册的熔断器只通过熔断器本身调用外部 API
+     *
+     * @param circuitBreakerName 熔断器名称
+     * @param refresher          按原始请求重新调用外部 API，返回响应内容
+     */
+    public void registerRefresher(String circuitBreakerName,
+                                  Function<ExternalApiRequestDto, CompletionStage<String>> refresher) {
+        refreshers.put(circuitBreakerName, refresher);
+    }
+
+    /**
+     * 在后台重新调用外部 API，成功后更新缓存
+     * 同一个熔断器同时只有一个刷新任务，最多占用一个半开探测许可
+     */
+    private void refreshAsync(CacheKey key, CachedResponse cached) {
+        String circuitBreakerName = cached.getCircuitBreakerName();
+        if (!refreshingCircuitBreakers.add(circuitBreakerName)) {
+            return;
+        }
+
+        long startTime = System.currentTimeMillis();
+        CompletableFuture<String> refresh;
+        try {
+            refresh = CompletableFuture.supplyAsync(() -> refresh(cached), refreshExecutor)
+                    .thenCompose(stage -> stage);
+        } catch (RejectedExecutionException e) {
+            refreshingCircuitBreakers.remove(circuitBreakerName);
+            log.debug("Refresh executor rejected refresh for key: {}", key);
+            return;
+        }
+        refresh.whenComplete((response, ex) -> {
+            try {
+                if (ex != null) {
+                    refreshFailures.increment();
+                    log.debug("Failed to refresh cached response for key: {}, reason: {}", key, ex.getMessage());
+                    return;
+                }
+                cacheResponse(circuitBreakerName, cached.getRequest(), CircuitBreakerResultDto.builder()
+                        .success(true)
+                        .message(response)
+                        .circuitBreakerName(circuitBreakerName)
+                        .state(circuitBreakerRegistry.circuitBreaker(circuitBreakerName).getState().toString())
+                        .executionTimeMs(System.currentTimeMillis() - startTime)
+                        .timestamp(LocalDateTime.now())
+                        .resiliencePattern(cached.getResult().getResiliencePattern())
+                        .build());
+                refreshSuccesses.increment();
+                log.debug("Refreshed cached response for key: {}", key);
+            } finally {
+                refreshingCircuitBreakers.remove(circuitBreakerName);
+            }
+        });
+    }
+
+    private CompletionStage<String> refresh(CachedResponse cached) {
+        Function<ExternalApiRequestDto, CompletionStage<String>> refresher =
+                refreshers.get(cached.getCircuitBreakerName());
+        if (refresher != null) {
+            return refresher.apply(cached.getRequest());
+        }
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(cached.getCircuitBreakerName());
+        return CompletableFuture.completedFuture(circuitBreaker.executeSupplier(
+                () -> externalApiService.callExternalApi(cached.getRequest())));
+    }
+
+    /**
+     * 只有熔断器拒绝调用或超时控制判定超时才返回缓存，其他业务异常仍按原有降级逻辑处理
+     */
+    private boolean isServeStaleFailure(Throwable ex) {
+        return ex instanceof CallNotPermittedException || ex instanceof TimeoutException;
+    }
+
+    /**
+     * 缓存 key 包含请求的全部字段，与请求合并的 key 一致；复制请求，避免调用方之后修改请求改变 key 的 hashCode
+     */
+    private static CacheKey cacheKey(String circuitBreakerName, ExternalApiRequestDto request) {
+        return new CacheKey(circuitBreakerName, ExternalApiRequestDto.builder()
+                .endpoint(request.getEndpoint())
+                .simulateFailure(request.isSimulateFailure())
+                .delayMs(request.getDelayMs())
+                .payload(request.getPayload())
+                .build());
+    }
+
+    /**
+     * 获取缓存统计信息（用于监控）
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("size", responseCache.size());
+        statistics.put("maxSize", responseCache.getMaxSize());
+        statistics.put("hits", responseCache.getHitCount());
+        statistics.put("misses", responseCache.getMissCount());
+        statistics.put("evictions", responseCache.getEvictionCount());
+        statistics.put("expirations", responseCache.getExpirationCount());
+        statistics.put("staleResponsesServed", staleResponsesServed.sum());
+        statistics.put("refreshSuccesses", refreshSuccesses.sum());
+        statistics.put("refreshFailures", refreshFailures.sum());
+        statistics.put("refreshesInFlight", refreshingCircuitBreakers.size());
+        return statistics;
+    }
+
+    /**
+     * 清空响应缓存
+     */
+    public void clear() {
+        responseCache.clear();
+        log.info("Cleared circuit breaker response cache");
+    }
+
+    /**
+     * 缓存 key：熔断器名称 + 完整请求
+     */
+    private record CacheKey(String circuitBreakerName, ExternalApiRequestDto request) {
+    }
+}
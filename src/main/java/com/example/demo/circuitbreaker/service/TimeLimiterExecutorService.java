@@ -0,0 +1,69 @@
+package com.example.demo.circuitbreaker.service;
+
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * TimeLimiter 异步执行服务
+ * 将 @TimeLimiter 方法中的阻塞调用提交到虚拟线程执行
+ *
+ * Resilience4j 对 CompletionStage 超时只会调用 completeExceptionally，
+ * 不会中断 CompletableFuture.supplyAsync 中正在运行的任务；
+ * 这里在返回的 Future 被超时或取消时，按 cancel-running-future 配置中断底层虚拟线程
+ */
+@Service
+@Slf4j
+public class TimeLimiterExecutorService {
+
+    private final ExecutorService timeLimiterExecutor;
+    private final TimeLimiterRegistry timeLimiterRegistry;
+
+    public TimeLimiterExecutorService(
+            @Qualifier("timeLimiterExecutor") ExecutorService timeLimiterExecutor,
+            TimeLimiterRegistry timeLimiterRegistry) {
+        this.timeLimiterExecutor = timeLimiterExecutor;
+        this.timeLimiterRegistry = timeLimiterRegistry;
+    }
+
+    /**
+     * 在虚拟线程上异步执行任务
+     *
+     * @param timeLimiterName 对应的 TimeLimiter 名称，用于读取 cancel-running-future 配置
+     * @param supplier        阻塞任务
+     * @return 任务结果 Future，超时或取消时会中断正在运行的任务
+     */
+    public <T> CompletableFuture<T> supplyAsync(String timeLimiterName, Supplier<T> supplier) {
+        CompletableFuture<T> promise = new CompletableFuture<>();
+
+        Future<?> task = timeLimiterExecutor.submit(() -> {
+            try {
+                promise.complete(supplier.get());
+            } catch (Throwable ex) {
+                promise.completeExceptionally(ex);
+            }
+        });
+
+        boolean cancelRunningFuture = timeLimiterRegistry.timeLimiter(timeLimiterName)
+                .getTimeLimiterConfig()
+                .shouldCancelRunningFuture();
+
+        if (cancelRunningFuture) {
+            promise.whenComplete((result, ex) -> {
+                if (ex != null && !task.isDone()) {
+                    log.debug("Interrupting running task of time limiter '{}' due to: {}",
+                            timeLimiterName, ex.getClass().getSimpleName());
+                    task.cancel(true);
+                }
+            });
+        }
+
+        return promise;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.demo.circuitbreaker.service;
+
+import com.example.demo.circuitbreaker.model.VirtualThreadBulkhead;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * 虚拟线程舱壁服务
+ * 按名称创建 {@link VirtualThreadBulkhead}，容量和最大等待时间沿用 BulkheadRegistry 中同名舱壁的配置
+ * （resilience4j.bulkhead.instances.xxx.max-concurrent-calls / max-wait-duration），
+ * 适合隔离阻塞的下游调用：排队中的调用不占用线程，获得许可后才在虚拟线程上执行，不需要按并发量配置平台线程池
+ */
+@Service
+@Slf4j
+public class VirtualThreadBulkheadService {
+
+    private final BulkheadRegistry bulkheadRegistry;
+    private final int maxQueueDepth;
+    private final ExecutorService executor;
+    private final Map<String, VirtualThreadBulkhead> bulkheads = new ConcurrentHashMap<>();
+
+    public VirtualThreadBulkheadService(
+            BulkheadRegistry bulkheadRegistry,
+            @Value("${resilience4j.virtual-bulkhead.max-queue-depth:1000}") int maxQueueDepth) {
+        this.bulkheadRegistry = bulkheadRegistry;
+        this.maxQueueDepth = maxQueueDepth;
+        this.executor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("vt-bulkhead-", 0).factory());
+    }
+
+    /**
+     * 获取（或创建）指定名称的虚拟线程舱壁
+     */
+    public VirtualThreadBulkhead bulkhead(String name) {
+        return bulkheads.computeIfAbsent(name, this::createBulkhead);
+    }
+
+    /**
+     * 在指定舱壁中异步执行任务
+     */
+    public <T> CompletableFuture<T> submit(String name, Supplier<T> task) {
+        return bulkhead(name).submit(task);
+    }
+
+    /**
+     * 读取同名舱壁实例的配置，不存在时使用默认配置；不会在 BulkheadRegistry 中创建新实例
+     */
+    private VirtualThreadBulkhead createBulkhead(String name) {
+        BulkheadConfig config = bulkheadRegistry.find(name)
+                .map(Bulkhead::getBulkheadConfig)
+                .orElseGet(bulkheadRegistry::getDefaultConfig);
+
+        log.info("Creating virtual thread bulkhead: {}, max concurrent calls: {}, max wait: {}ms, max queue depth: {}",
+                name, config.getMaxConcurrentCalls(), config.getMaxWaitDuration().toMillis(), maxQueueDepth);
+        return new VirtualThreadBulkhead(name, config.getMaxConcurrentCalls(),
+                config.getMaxWaitDuration().toNanos(), maxQueueDepth, executor);
+    }
+
+    /**
+     * 获取所有虚拟线程舱壁的统计信息（用于监控）
+     */
+    public Map<String, Map<String, Object>> getStatistics() {
+        Map<String, Map<String, Object>> statistics = new HashMap<>();
+        bulkheads.forEach((name, bulkhead) -> statistics.put(name, bulkhead.getStatistics()));
+        return statistics;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.demo.configuration;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.example.demo.circuitbreaker.model.BoundedTtlCache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * JOOQ 商品缓存配置类
+ * 进程内有界 TTL 缓存，供 JooqProductRepository.findById 读穿使用，
+ * 命中、未命中、淘汰和过期次数以 Micrometer 标准缓存指标（cache.gets、cache.evictions 等）导出
+ */
+@Slf4j
+@Configuration
+public class JooqProductCacheConfiguration {
+
+    private static final String CACHE_NAME = "jooqProducts";
+
+    @Value("${jooq.product-cache.max-size:10000}")
+    private int maxSize;
+
+    @Value("${jooq.product-cache.ttl:5m}")
+    private Duration ttl;
+
+    /**
+     * 有界 TTL 商品缓存
+     */
+    @Bean(name = "jooqProductCache")
+    public BoundedTtlCache jooqProductCache() {
+        log.info("JOOQ product cache initialized with max size: {}, ttl: {}", maxSize, ttl);
+        return new BoundedTtlCache(CACHE_NAME, maxSize, ttl);
+    }
+
+    /**
+     * 商品缓存指标
+     */
+    @Bean
+    public MeterBinder jooqProductCacheMetrics(BoundedTtlCache jooqProductCache) {
+        return registry -> {
+            Tags tags = Tags.of("cache", CACHE_NAME);
+            FunctionCounter.builder("cache.gets", jooqProductCache, BoundedTtlCache::getHitCount)
+                .tags(tags).tag("result", "hit")
+                .description("The number of times cache lookup methods have returned a cached value")
+                .register(registry);
+            FunctionCounter.builder("cache.gets", jooqProductCache, BoundedTtlCache::getMissCount)
+                .tags(tags).tag("result", "miss")
+                .description("The number of times cache lookup methods have not returned a value")
+                .register(registry);
+            FunctionCounter.builder("cache.evictions", jooqProductCache, BoundedTtlCache::getEvictionCount)
+                .tags(tags)
+                .description("The number of entries evicted because the cache was full")
+                .register(registry);
+            FunctionCounter.builder("cache.expirations", jooqProductCache, BoundedTtlCache::getExpirationCount)
+                .tags(tags)
+                .description("The number of entries removed after their TTL elapsed")
+                .register(registry);
+            Gauge.builder("cache.size", jooqProductCache, BoundedTtlCache::size)
+                .tags(tags)
+                .description("The number of entries in this cache")
+                .register(registry);
+        };
+    }
+}
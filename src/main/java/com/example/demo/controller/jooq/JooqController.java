@@ -2,20 +2,33 @@ package com.example.demo.controller.jooq;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.example.demo.dto.jooq.JooqCreateOrderRequest;
 import com.example.demo.dto.jooq.JooqCreateProductRequest;
+import com.example.demo.dto.jooq.JooqCursorPage;
 import com.example.demo.dto.jooq.JooqOrderDto;
 import com.example.demo.dto.jooq.JooqProductDto;
 import com.example.demo.dto.jooq.JooqUserDto;
+import com.example.demo.service.jooq.JooqExportService;
 import com.example.demo.service.jooq.JooqOrderService;
 import com.example.demo.service.jooq.JooqProductService;
 import com.example.demo.service.jooq.JooqTransactionService;
@@ -44,6 +57,7 @@ public class JooqController {
     private final JooqProductService productService;
     private final JooqOrderService orderService;
     private final JooqTransactionService transactionService;
+    private final JooqExportService exportService;
 
     // ==================== 用户相关接口 ====================
 
@@ -104,6 +118,16 @@ public class JooqController {
         return productService.getProductsByCategory(category, page, size);
     }
 
+    @Operation(summary = "按分类游标分页查询商品", description = "演示 Keyset 分页：按上一页最后一个 ID 定位，深分页与首页开销相同")
+    @GetMapping("/products/cursor")
+    public JooqCursorPage<JooqProductDto> getProductsByCategoryPage(
+        @RequestParam String category,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "10") @Min(1) @Max(100) int size
+    ) {
+        return productService.getProductsByCategoryPage(category, cursor, size);
+    }
+
     @Operation(summary = "查询低库存商品", description = "演示复杂条件查询操作")
     @GetMapping("/products/low-stock")
     public List<JooqProductDto> getLowStockProducts(@RequestParam(defaultValue = "10") int threshold) {
@@ -117,6 +141,23 @@ public class JooqController {
         return "分类 [" + category + "] 总库存: " + total;
     }
 
+    @Operation(summary = "切换为分片库存", description = "演示热点行拆分：库存拆分到多个槽位行，扣减随机选择槽位，读取时合计")
+    @PutMapping("/products/{id}/stock-slots")
+    public String enableShardedStock(
+        @PathVariable Long id,
+        @RequestParam(defaultValue = "16") @Min(1) @Max(1024) int slots
+    ) {
+        productService.enableShardedStock(id, slots);
+        return "商品 [" + id + "] 已切换为分片库存，槽位数: " + slots;
+    }
+
+    @Operation(summary = "切换为单行库存", description = "各槽位库存合并回商品行")
+    @DeleteMapping("/products/{id}/stock-slots")
+    public String disableShardedStock(@PathVariable Long id) {
+        productService.disableShardedStock(id);
+        return "商品 [" + id + "] 已切换为单行库存";
+    }
+
     // ==================== 订单相关接口 ====================
 
     @Operation(summary = "创建订单", description = "演示事务管理操作（验证用户、扣减库存、创建订单）")
@@ -138,9 +179,74 @@ public class JooqController {
         return orderService.getOrdersByUserId(userId);
     }
 
+    @Operation(summary = "游标分页查询用户订单", description = "演示 Keyset 分页：按 (created_at, id) 定位，订单项由 MULTISET 一并返回")
+    @GetMapping("/users/{userId}/orders/cursor")
+    public JooqCursorPage<JooqOrderDto> getUserOrdersPage(
+        @PathVariable Long userId,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "10") @Min(1) @Max(100) int size
+    ) {
+        return orderService.getOrdersByUserIdPage(userId, cursor, size);
+    }
+
     @Operation(summary = "订单统计", description = "演示 GROUP BY 聚合查询操作")
     @GetMapping("/orders/statistics")
     public Map<String, Object> getOrderStatistics() {
         return orderService.getOrderStatistics();
     }
+
+    // ==================== 数据导出接口 ====================
+
+    @Operation(summary = "导出用户", description = "演示流式导出：fetchStream 分批读取，边查边写 NDJSON/CSV，内存占用与行数无关")
+    @GetMapping("/export/users")
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+        @RequestParam(defaultValue = "ndjson") String format,
+        NativeWebRequest request
+    ) {
+        JooqExportService.Format exportFormat = JooqExportService.Format.of(format);
+        return export("users", exportFormat, request, out -> exportService.exportUsers(exportFormat, out));
+    }
+
+    @Operation(summary = "导出商品", description = "演示流式导出：fetchStream 分批读取，边查边写 NDJSON/CSV，内存占用与行数无关")
+    @GetMapping("/export/products")
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+        @RequestParam(defaultValue = "ndjson") String format,
+        NativeWebRequest request
+    ) {
+        JooqExportService.Format exportFormat = JooqExportService.Format.of(format);
+        return export("products", exportFormat, request, out -> exportService.exportProducts(exportFormat, out));
+    }
+
+    @Operation(summary = "导出订单", description = "演示流式导出：订单图（含订单项）逐行写出，内存占用与行数无关")
+    @GetMapping("/export/orders")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+        @RequestParam(defaultValue = "ndjson") String format,
+        NativeWebRequest request
+    ) {
+        JooqExportService.Format exportFormat = JooqExportService.Format.of(format);
+        return export("orders", exportFormat, request, out -> exportService.exportOrders(exportFormat, out));
+    }
+
+    /**
+     * 构建流式导出响应
+     * 导出耗时与数据量相关，用 jooq.export.timeout-ms 覆盖全局的异步请求超时
+     */
+    private ResponseEntity<StreamingResponseBody> export(String name, JooqExportService.Format format,
+                                                         NativeWebRequest request, StreamingResponseBody body) {
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(JooqExportService.class.getName(),
+            new CallableProcessingInterceptor() {
+                @Override
+                public <T> void beforeConcurrentHandling(NativeWebRequest webRequest, Callable<T> task) {
+                    if (webRequest instanceof AsyncWebRequest asyncWebRequest) {
+                        long timeoutMs = exportService.getTimeoutMs();
+                        asyncWebRequest.setTimeout(timeoutMs > 0 ? timeoutMs : -1L);
+                    }
+                }
+            });
+
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(format.getContentType()))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + name + "." + format.getExtension() + "\"")
+            .body(body);
+    }
 }
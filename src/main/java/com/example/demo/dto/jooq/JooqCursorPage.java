@@ -0,0 +1,27 @@
+package com.example.demo.dto.jooq;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 游标分页结果
+ * nextCursor 为不透明字符串，原样传回即可获取下一页；没有更多数据时为 null
+ *
+ * @author chinwe
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JooqCursorPage<T> {
+
+    private List<T> items;
+
+    private String nextCursor;
+
+    private boolean hasMore;
+}
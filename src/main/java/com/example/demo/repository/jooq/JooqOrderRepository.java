@@ -3,16 +3,24 @@ package com.example.demo.repository.jooq;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
+import org.jooq.Condition;
 import org.jooq.DSLContext;
 import org.jooq.Field;
+import org.jooq.InsertValuesStep5;
+import org.jooq.InsertValuesStep7;
 import org.jooq.Record;
 import org.jooq.Record10;
 import org.jooq.Record4;
 import org.jooq.Result;
+import org.jooq.SelectOnConditionStep;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
 import com.example.demo.dto.jooq.JooqOrderDto;
@@ -23,14 +31,22 @@ import static org.jooq.impl.SQLDataType.*;
 
 /**
  * JOOQ 订单仓库
- * 展示复杂查询：多表操作、JOIN、GROUP BY 聚合
+ * 展示复杂查询：多表操作、JOIN、GROUP BY 聚合、MULTISET 嵌套集合
+ * 插入订单时同步更新 {@link JooqStatisticsCounters}
  *
  * @author chinwe
  */
 @Repository
 public class JooqOrderRepository {
 
+    /**
+     * 默认每条多行 INSERT 包含的订单项数
+     */
+    public static final int DEFAULT_ITEM_BATCH_SIZE = 500;
+
     private final DSLContext dsl;
+    private final int itemBatchSize;
+    private final JooqStatisticsCounters statistics;
 
     // 订单表定义
     private static final String ORDERS_TABLE = "j_orders";
@@ -57,8 +73,70 @@ public class JooqOrderRepository {
     private static final Field<Long> USER_ID_FIELD = field("id", BIGINT);
     private static final Field<String> USERNAME = field("username", VARCHAR);
 
+    // 订单图查询（MULTISET）使用的带别名字段：嵌套子查询需要按别名关联外层订单
+    private static final String GRAPH_ORDERS_TABLE = ORDERS_TABLE + " o";
+    private static final String GRAPH_USERS_TABLE = USERS_TABLE + " u";
+    private static final String GRAPH_ITEMS_TABLE = ORDER_ITEMS_TABLE + " i";
+    private static final String GRAPH_PRODUCTS_TABLE = "j_products p";
+    private static final Field<Long> O_ID = field("o.id", BIGINT);
+    private static final Field<String> O_ORDER_NUMBER = field("o.order_number", VARCHAR);
+    private static final Field<Long> O_USER_ID = field("o.user_id", BIGINT);
+    private static final Field<BigDecimal> O_TOTAL_AMOUNT = field("o.total_amount", NUMERIC);
+    private static final Field<String> O_STATUS = field("o.status", VARCHAR);
+    private static final Field<String> O_REMARKS = field("o.remarks", VARCHAR);
+    private static final Field<LocalDateTime> O_CREATED_AT = field("o.created_at", LOCALDATETIME);
+    private static final Field<LocalDateTime> O_UPDATED_AT = field("o.updated_at", LOCALDATETIME);
+    private static final Field<Long> U_ID = field("u.id", BIGINT);
+    private static final Field<String> U_USERNAME = field("u.username", VARCHAR);
+    private static final Field<Long> I_ID = field("i.id", BIGINT);
+    private static final Field<Long> I_ORDER_ID = field("i.order_id", BIGINT);
+    private static final Field<Long> I_PRODUCT_ID = field("i.product_id", BIGINT);
+    private static final Field<Integer> I_QUANTITY = field("i.quantity", INTEGER);
+    private static final Field<BigDecimal> I_PRICE = field("i.price", NUMERIC);
+    private static final Field<BigDecimal> I_SUBTOTAL = field("i.subtotal", NUMERIC);
+    private static final Field<Long> P_ID = field("p.id", BIGINT);
+    private static final Field<String> P_NAME = field("p.name", VARCHAR);
+
+    /**
+     * 订单项集合（MULTISET 关联子查询，H2 上由 jOOQ 以 JSON 聚合模拟）
+     */
+    private static final Field<List<JooqOrderItemDto>> O_ITEMS = multiset(
+            select(I_ID, I_ORDER_ID, I_PRODUCT_ID, P_NAME, I_QUANTITY, I_PRICE, I_SUBTOTAL)
+                .from(table(GRAPH_ITEMS_TABLE))
+                .leftJoin(table(GRAPH_PRODUCTS_TABLE))
+                .on(I_PRODUCT_ID.eq(P_ID))
+                .where(I_ORDER_ID.eq(O_ID))
+                .orderBy(I_ID)
+        )
+        .as("items")
+        .convertFrom(r -> r.map(item -> JooqOrderItemDto.builder()
+            .id(item.value1())
+            .orderId(item.value2())
+            .productId(item.value3())
+            .productName(item.value4())
+            .quantity(item.value5())
+            .price(item.value6())
+            .subtotal(item.value7())
+            .build()));
+
     public JooqOrderRepository(DSLContext dsl) {
+        this(dsl, DEFAULT_ITEM_BATCH_SIZE);
+    }
+
+    public JooqOrderRepository(DSLContext dsl, int itemBatchSize) {
+        this(dsl, itemBatchSize, new JooqStatisticsCounters(JooqStatisticsCounters.DEFAULT_LOW_STOCK_THRESHOLD));
+    }
+
+    @Autowired
+    public JooqOrderRepository(DSLContext dsl,
+                               @Value("${jooq.order.item-batch-size:" + DEFAULT_ITEM_BATCH_SIZE + "}") int itemBatchSize,
+                               JooqStatisticsCounters statistics) {
+        if (itemBatchSize <= 0) {
+            throw new IllegalArgumentException("Item batch size must be positive");
+        }
         this.dsl = dsl;
+        this.itemBatchSize = itemBatchSize;
+        this.statistics = statistics;
     }
 
     /**
@@ -95,23 +173,100 @@ public class JooqOrderRepository {
         // Insert order items
         List<JooqOrderItemDto> items = order.getItems();
         if (items != null && !items.isEmpty()) {
-            for (JooqOrderItemDto item : items) {
+            insertItems(Collections.nCopies(items.size(), orderId), items);
+        }
+
+        statistics.orderCreated(order.getStatus(), order.getTotalAmount());
+        return orderId;
+    }
+
+    /**
+     * 批量插入订单及其订单项
+     * 订单和订单项都按 itemBatchSize 分块，每块一条多行 INSERT；
+     * 订单号唯一，用 RETURNING 返回的订单号找回每个订单的 ID
+     *
+     * @param orders 订单列表（订单号必须唯一）
+     * @return 生成的订单 ID，顺序与 orders 一致
+     */
+    public List<Long> batchInsertWithItems(List<JooqOrderDto> orders) {
+        if (orders == null || orders.isEmpty()) {
+            return List.of();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, Long> idsByOrderNumber = new HashMap<>();
+        for (int from = 0; from < orders.size(); from += itemBatchSize) {
+            List<JooqOrderDto> chunk = orders.subList(from, Math.min(from + itemBatchSize, orders.size()));
+            InsertValuesStep7<Record, String, Long, BigDecimal, String, String, LocalDateTime, LocalDateTime> insert =
                 dsl.insertInto(
-                        table(ORDER_ITEMS_TABLE),
-                        ITEM_ORDER_ID, ITEM_PRODUCT_ID, QUANTITY, PRICE, SUBTOTAL
-                    )
-                    .values(
-                        orderId,
-                        item.getProductId(),
-                        item.getQuantity(),
-                        item.getPrice(),
-                        item.getSubtotal()
-                    )
-                    .execute();
+                    table(ORDERS_TABLE),
+                    ORDER_NUMBER, USER_ID, TOTAL_AMOUNT, STATUS, REMARKS, ORDER_CREATED_AT, ORDER_UPDATED_AT
+                );
+            for (JooqOrderDto order : chunk) {
+                insert = insert.values(
+                    order.getOrderNumber(),
+                    order.getUserId(),
+                    order.getTotalAmount(),
+                    order.getStatus(),
+                    order.getRemarks(),
+                    now,
+                    now
+                );
+            }
+            for (Record record : insert.returning(ORDER_ID, ORDER_NUMBER).fetch()) {
+                idsByOrderNumber.put(record.get(ORDER_NUMBER), record.get(ORDER_ID));
             }
         }
 
-        return orderId;
+        List<Long> orderIds = new ArrayList<>(orders.size());
+        List<Long> itemOrderIds = new ArrayList<>();
+        List<JooqOrderItemDto> items = new ArrayList<>();
+        for (JooqOrderDto order : orders) {
+            Long orderId = idsByOrderNumber.get(order.getOrderNumber());
+            if (orderId == null) {
+                throw new IllegalStateException("No id returned for order: " + order.getOrderNumber());
+            }
+            orderIds.add(orderId);
+            if (order.getItems() != null) {
+                for (JooqOrderItemDto item : order.getItems()) {
+                    itemOrderIds.add(orderId);
+                    items.add(item);
+                }
+            }
+        }
+        insertItems(itemOrderIds, items);
+
+        statistics.ordersCreated(orders);
+        return orderIds;
+    }
+
+    /**
+     * 批量插入订单项
+     * 每 itemBatchSize 个订单项合并为一条多行 INSERT ... VALUES (...),(...)，
+     * 数据库往返次数为 ceil(n / itemBatchSize)，而不是每个订单项一次
+     *
+     * @param orderIds 与 items 一一对应的订单 ID
+     * @param items    订单项列表
+     */
+    private void insertItems(List<Long> orderIds, List<JooqOrderItemDto> items) {
+        for (int from = 0; from < items.size(); from += itemBatchSize) {
+            int to = Math.min(from + itemBatchSize, items.size());
+            InsertValuesStep5<Record, Long, Long, Integer, BigDecimal, BigDecimal> insert = dsl.insertInto(
+                    table(ORDER_ITEMS_TABLE),
+                    ITEM_ORDER_ID, ITEM_PRODUCT_ID, QUANTITY, PRICE, SUBTOTAL
+                );
+            for (int i = from; i < to; i++) {
+                JooqOrderItemDto item = items.get(i);
+                insert = insert.values(
+                    orderIds.get(i),
+                    item.getProductId(),
+                    item.getQuantity(),
+                    item.getPrice(),
+                    item.getSubtotal()
+                );
+            }
+            insert.execute();
+        }
     }
 
     /**
@@ -279,6 +434,88 @@ public class JooqOrderRepository {
             .build());
     }
 
+    /**
+     * 查询订单图：订单、用户名及订单项（含商品名）一条语句返回
+     *
+     * @param orderId 订单 ID
+     * @return 订单 DTO，不存在返回 null
+     */
+    public JooqOrderDto findOrderGraphById(Long orderId) {
+        Record record = selectOrderGraph()
+            .where(O_ID.eq(orderId))
+            .fetchOne();
+
+        return record != null ? mapGraphToOrderDto(record) : null;
+    }
+
+    /**
+     * 查询用户的所有订单图（含订单项），一条语句返回，按创建时间倒序
+     *
+     * @param userId 用户 ID
+     * @return 订单列表
+     */
+    public List<JooqOrderDto> findOrderGraphsByUserId(Long userId) {
+        return selectOrderGraph()
+            .where(O_USER_ID.eq(userId))
+            .orderBy(O_CREATED_AT.desc(), O_ID.desc())
+            .fetch(this::mapGraphToOrderDto);
+    }
+
+    /**
+     * 查询用户的订单图（游标分页），按创建时间、ID 倒序
+     * 以上一页最后一行的 (created_at, id) 为起点向后定位，沿 (user_id, created_at, id) 索引扫描，
+     * 冗余的 created_at <= ? 条件让数据库可以直接使用索引范围
+     *
+     * @param userId 用户 ID
+     * @param beforeCreatedAt 上一页最后一个订单的创建时间，第一页为 null
+     * @param beforeId 上一页最后一个订单的 ID，第一页为 null
+     * @param limit 限制数量
+     * @return 订单列表
+     */
+    public List<JooqOrderDto> findOrderGraphsByUserIdBefore(Long userId, LocalDateTime beforeCreatedAt,
+                                                           Long beforeId, int limit) {
+        Condition seek = beforeCreatedAt != null
+            ? O_CREATED_AT.le(beforeCreatedAt)
+                .and(O_CREATED_AT.lt(beforeCreatedAt).or(O_ID.lt(beforeId)))
+            : noCondition();
+
+        return selectOrderGraph()
+            .where(O_USER_ID.eq(userId))
+            .and(seek)
+            .orderBy(O_CREATED_AT.desc(), O_ID.desc())
+            .limit(limit)
+            .fetch(this::mapGraphToOrderDto);
+    }
+
+    /**
+     * 流式读取所有订单图（含用户名和订单项，按 ID 升序）
+     * 结果集按 fetchSize 分批从数据库拉取，不会一次性加载到内存；
+     * 返回的 Stream 持有数据库连接，调用方必须关闭
+     *
+     * @param fetchSize JDBC fetch size
+     * @return 订单流
+     */
+    public Stream<JooqOrderDto> streamOrderGraphs(int fetchSize) {
+        return selectOrderGraph()
+            .orderBy(O_ID.asc())
+            .fetchSize(fetchSize)
+            .fetchStream()
+            .map(this::mapGraphToOrderDto);
+    }
+
+    /**
+     * 订单图查询：订单 LEFT JOIN 用户，订单项作为 MULTISET 嵌套字段
+     */
+    private SelectOnConditionStep<? extends Record> selectOrderGraph() {
+        return dsl.select(
+                O_ID, O_ORDER_NUMBER, O_USER_ID, O_TOTAL_AMOUNT, O_STATUS, O_REMARKS,
+                O_CREATED_AT, O_UPDATED_AT, U_USERNAME, O_ITEMS
+            )
+            .from(table(GRAPH_ORDERS_TABLE))
+            .leftJoin(table(GRAPH_USERS_TABLE))
+            .on(O_USER_ID.eq(U_ID));
+    }
+
     /**
      * 获取订单统计信息（GROUP BY 聚合）
      *
@@ -317,6 +554,24 @@ public class JooqOrderRepository {
         return stats;
     }
 
+    /**
+     * 将订单图 Record 映射为 OrderDto
+     */
+    private JooqOrderDto mapGraphToOrderDto(Record record) {
+        return JooqOrderDto.builder()
+            .id(record.get(O_ID))
+            .orderNumber(record.get(O_ORDER_NUMBER))
+            .userId(record.get(O_USER_ID))
+            .username(record.get(U_USERNAME))
+            .totalAmount(record.get(O_TOTAL_AMOUNT))
+            .status(record.get(O_STATUS))
+            .remarks(record.get(O_REMARKS))
+            .createdAt(record.get(O_CREATED_AT))
+            .updatedAt(record.get(O_UPDATED_AT))
+            .items(record.get(O_ITEMS))
+            .build();
+    }
+
     /**
      * 将 Record 映射为 OrderDto
      */
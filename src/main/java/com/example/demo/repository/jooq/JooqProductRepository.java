@@ -2,13 +2,23 @@ package com.example.demo.repository.jooq;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 import org.jooq.DSLContext;
 import org.jooq.Field;
 import org.jooq.Record;
-import org.jooq.Record7;
+import org.jooq.Record3;
 import org.jooq.Result;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.NoOpCache;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
 import org.springframework.stereotype.Repository;
 
 import com.example.demo.dto.jooq.JooqProductDto;
@@ -19,12 +29,21 @@ import static org.jooq.impl.SQLDataType.*;
 /**
  * JOOQ 商品仓库
  * 展示高级特性：批量插入、Upsert、分页查询、条件更新、聚合查询
+ * findById 读穿进程内商品缓存，写操作（upsert、扣减库存）使对应条目失效；
+ * 缓存的写入和失效通过 TransactionAwareCacheDecorator 推迟到事务提交之后，回滚的数据不会进入缓存；
+ * 插入、更新和扣减库存时同步更新 {@link JooqStatisticsCounters}；
+ * 库存支持按商品切换为分片模式（{@link #enableShardedStock}），库存拆分到多个槽位行，读取时合计各槽位
  *
  * @author chinwe
  */
 @Repository
 public class JooqProductRepository {
 
+    /**
+     * IN 列表和 CASE 分支的最大长度，超过后拆分为多条语句
+     */
+    private static final int IN_CHUNK_SIZE = 1000;
+
     private final DSLContext dsl;
 
     // 表定义
@@ -39,9 +58,35 @@ public class JooqProductRepository {
     private static final Field<String> CATEGORY = field("category", VARCHAR);
     private static final Field<LocalDateTime> CREATED_AT = field("created_at", LOCALDATETIME);
     private static final Field<LocalDateTime> UPDATED_AT = field("updated_at", LOCALDATETIME);
+    private static final Field<Integer> STOCK_SLOTS = field("stock_slots", INTEGER);
+
+    /**
+     * 当前可用库存：分片商品为各槽位库存之和，否则为 stock 列
+     */
+    private static final Field<Integer> AVAILABLE_STOCK = field(
+        "case when stock_slots > 0 then (select coalesce(sum(s.stock), 0) from " + JooqStockSlots.TABLE_NAME
+            + " s where s.product_id = " + TABLE_NAME + ".id) else stock end", INTEGER);
+    private static final Field<Integer> STOCK_VALUE = AVAILABLE_STOCK.as("stock");
+
+    private final Cache productCache;
+    private final JooqStatisticsCounters statistics;
+    private final JooqStockSlots stockSlots;
 
     public JooqProductRepository(DSLContext dsl) {
+        this(dsl, new NoOpCache("jooqProducts"));
+    }
+
+    public JooqProductRepository(DSLContext dsl, Cache productCache) {
+        this(dsl, productCache, new JooqStatisticsCounters(JooqStatisticsCounters.DEFAULT_LOW_STOCK_THRESHOLD));
+    }
+
+    @Autowired
+    public JooqProductRepository(DSLContext dsl, @Qualifier("jooqProductCache") Cache productCache,
+                                 JooqStatisticsCounters statistics) {
         this.dsl = dsl;
+        this.productCache = new TransactionAwareCacheDecorator(productCache);
+        this.statistics = statistics;
+        this.stockSlots = new JooqStockSlots(dsl);
     }
 
     /**
@@ -72,6 +117,7 @@ public class JooqProductRepository {
             .returning(ID)
             .fetchOne();
 
+        statistics.productAdded(product.getCategory(), product.getStock());
         return record.get(ID);
     }
 
@@ -107,8 +153,14 @@ public class JooqProductRepository {
                 ))
             .toArray(org.jooq.Query[]::new);
 
-        // 执行批量操作
-        return dsl.batch(queries).execute();
+        // 执行批量操作（新商品不可能在缓存中，无需失效）
+        int[] results = dsl.batch(queries).execute();
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] > 0) {
+                statistics.productAdded(products.get(i).getCategory(), products.get(i).getStock());
+            }
+        }
+        return results;
     }
 
     /**
@@ -130,28 +182,68 @@ public class JooqProductRepository {
             return true;
         }
 
-        // Update
+        // 锁定并读取更新前的分类和库存，用于增量统计
+        Record previous = dsl.select(CATEGORY, STOCK, STOCK_SLOTS)
+            .from(table(TABLE_NAME))
+            .where(ID.eq(product.getId()))
+            .forUpdate()
+            .fetchOne();
+        int slots = previous != null ? previous.get(STOCK_SLOTS) : 0;
+
+        // Update（分片商品的库存在槽位中，stock 列保持为 0）
         int affected = dsl.update(table(TABLE_NAME))
             .set(NAME, product.getName())
             .set(DESCRIPTION, product.getDescription())
             .set(PRICE, product.getPrice())
-            .set(STOCK, product.getStock())
+            .set(STOCK, slots > 0 ? Integer.valueOf(0) : product.getStock())
             .set(CATEGORY, product.getCategory())
             .set(UPDATED_AT, LocalDateTime.now())
             .where(ID.eq(product.getId()))
             .execute();
 
+        invalidate(product.getId());
+        if (previous != null && affected > 0) {
+            int previousStock = previous.get(STOCK);
+            if (slots > 0) {
+                previousStock = stockSlots.total(dsl, product.getId());
+                stockSlots.redistribute(dsl, product.getId(), slots, product.getStock());
+            }
+            statistics.productChanged(previous.get(CATEGORY), previousStock,
+                product.getCategory(), product.getStock());
+        }
         return affected > 0;
     }
 
     /**
-     * 根据 ID 查询商品
+     * 根据 ID 查询商品（优先读缓存）
+     * 缓存中的库存可能落后于数据库，库存判断请使用 {@link #findByIdUncached(Long)}
+     * 或依赖 {@link #decreaseStock(Long, int)} 的条件更新
      *
      * @param id 商品 ID
      * @return 商品 DTO，不存在返回 null
      */
     public JooqProductDto findById(Long id) {
-        Record record = dsl.select(ID, NAME, DESCRIPTION, PRICE, STOCK, CATEGORY, CREATED_AT, UPDATED_AT)
+        Cache.ValueWrapper cached = productCache.get(id);
+        if (cached != null) {
+            return copy((JooqProductDto) cached.get());
+        }
+
+        JooqProductDto product = findByIdUncached(id);
+        // 不缓存不存在的商品，新插入的商品因此无需失效
+        if (product != null) {
+            productCache.put(id, copy(product));
+        }
+        return product;
+    }
+
+    /**
+     * 根据 ID 查询商品（跳过缓存，直接读数据库）
+     *
+     * @param id 商品 ID
+     * @return 商品 DTO，不存在返回 null
+     */
+    public JooqProductDto findByIdUncached(Long id) {
+        Record record = dsl.select(ID, NAME, DESCRIPTION, PRICE, STOCK_VALUE, CATEGORY, CREATED_AT, UPDATED_AT)
             .from(table(TABLE_NAME))
             .where(ID.eq(id))
             .fetchOne();
@@ -159,6 +251,26 @@ public class JooqProductRepository {
         return record != null ? mapToProductDto(record) : null;
     }
 
+    /**
+     * 根据 ID 批量查询商品（IN 查询，不经过缓存，可用于库存判断）
+     *
+     * @param ids 商品 ID 集合
+     * @return 商品 ID 到商品 DTO 的映射，不存在的 ID 不包含在内
+     */
+    public Map<Long, JooqProductDto> findByIds(Collection<Long> ids) {
+        Map<Long, JooqProductDto> products = new HashMap<>();
+        List<Long> idList = new ArrayList<>(ids);
+        for (int from = 0; from < idList.size(); from += IN_CHUNK_SIZE) {
+            List<Long> chunk = idList.subList(from, Math.min(from + IN_CHUNK_SIZE, idList.size()));
+            dsl.select(ID, NAME, DESCRIPTION, PRICE, STOCK_VALUE, CATEGORY, CREATED_AT, UPDATED_AT)
+                .from(table(TABLE_NAME))
+                .where(ID.in(chunk))
+                .fetch()
+                .forEach(r -> products.put(r.get(ID), mapToProductDto(r)));
+        }
+        return products;
+    }
+
     /**
      * 根据分类查询商品（分页）
      *
@@ -168,34 +280,225 @@ public class JooqProductRepository {
      * @return 商品列表
      */
     public List<JooqProductDto> findByCategory(String category, int offset, int limit) {
-        Result<Record7<Long, String, String, BigDecimal, Integer, String, LocalDateTime>> records =
-            dsl.select(ID, NAME, DESCRIPTION, PRICE, STOCK, CATEGORY, CREATED_AT)
-                .from(table(TABLE_NAME))
-                .where(CATEGORY.eq(category))
-                .orderBy(ID.asc())
-                .limit(offset, limit)
-                .fetch();
+        return dsl.select(ID, NAME, DESCRIPTION, PRICE, STOCK_VALUE, CATEGORY, CREATED_AT, UPDATED_AT)
+            .from(table(TABLE_NAME))
+            .where(CATEGORY.eq(category))
+            .orderBy(ID.asc())
+            .limit(offset, limit)
+            .fetch(this::mapToProductDto);
+    }
 
-        return records.map(this::mapToProductDto);
+    /**
+     * 根据分类查询商品（游标分页）
+     * WHERE category = ? AND id > ? ORDER BY id LIMIT ?，沿 (category, id) 索引定位，
+     * 与页数无关，不会像 OFFSET 那样扫描并丢弃前面的行
+     *
+     * @param category 分类名称
+     * @param afterId 上一页最后一个商品 ID，第一页为 null
+     * @param limit 限制数量
+     * @return 商品列表（按 ID 升序）
+     */
+    public List<JooqProductDto> findByCategoryAfter(String category, Long afterId, int limit) {
+        return dsl.select(ID, NAME, DESCRIPTION, PRICE, STOCK_VALUE, CATEGORY, CREATED_AT, UPDATED_AT)
+            .from(table(TABLE_NAME))
+            .where(CATEGORY.eq(category))
+            .and(afterId != null ? ID.greaterThan(afterId) : noCondition())
+            .orderBy(ID.asc())
+            .limit(limit)
+            .fetch(this::mapToProductDto);
     }
 
     /**
      * 扣减库存（条件更新）
-     * 只有当前库存大于等于扣减数量时才执行
+     * 只有当前库存大于等于扣减数量时才执行；
+     * 同一事务内每个商品只应扣减一次，多个商品按 ID 升序扣减（分片商品的槽位按固定顺序加锁，避免死锁）
      *
      * @param id 商品 ID
      * @param quantity 扣减数量
      * @return 是否成功
      */
     public boolean decreaseStock(Long id, int quantity) {
-        int affected = dsl.update(table(TABLE_NAME))
+        // RETURNING 取回扣减后的库存和分类，不需要额外查询即可更新统计
+        Record updated = dsl.update(table(TABLE_NAME))
             .set(STOCK, STOCK.sub(quantity))
             .set(UPDATED_AT, LocalDateTime.now())
             .where(ID.eq(id))
+            .and(STOCK_SLOTS.eq(0))
             .and(STOCK.greaterOrEqual(quantity))
-            .execute();
+            .returningResult(CATEGORY, STOCK)
+            .fetchOne();
 
-        return affected > 0;
+        if (updated != null) {
+            invalidate(id);
+            recordStockDecrease(updated.get(CATEGORY), updated.get(STOCK), quantity);
+            return true;
+        }
+        return decreaseShardedStock(id, quantity);
+    }
+
+    /**
+     * 分片模式下扣减库存：只更新槽位行，不锁定商品行（商品行的 updated_at 不随扣减更新）
+     * 槽位扣减后至少保留低库存阈值，穿越阈值的扣减会锁定全部槽位，统计按准确总量判断低库存
+     *
+     * @return 是否扣减成功；商品不存在、不是分片模式或库存不足时返回 false
+     */
+    private boolean decreaseShardedStock(Long id, int quantity) {
+        Record product = dsl.select(CATEGORY, STOCK_SLOTS)
+            .from(table(TABLE_NAME))
+            .where(ID.eq(id))
+            .fetchOne();
+        if (product == null || product.get(STOCK_SLOTS) == 0) {
+            return false;
+        }
+        int stockAfter = stockSlots.decrease(id, product.get(STOCK_SLOTS), quantity, statistics.getLowStockThreshold());
+        if (stockAfter < 0) {
+            return false;
+        }
+
+        invalidate(id);
+        // stockAfter 是准确总库存，或是不低于阈值的下界（此时扣减前后都不是低库存），分类库存变化都是 -quantity
+        recordStockDecrease(product.get(CATEGORY), stockAfter, quantity);
+        return true;
+    }
+
+    /**
+     * 批量扣减库存（单条 UPDATE ... CASE）
+     * UPDATE j_products SET stock = stock - CASE id WHEN ? THEN ? ... END
+     * WHERE id IN (...) AND stock >= CASE id WHEN ? THEN ? ... END
+     * 库存不足的商品不会被更新，调用方通过返回的更新行数判断是否全部扣减成功
+     *
+     * @param quantities 商品 ID 到扣减数量的映射
+     * @return 更新的行数
+     */
+    public int decreaseStockBatch(Map<Long, Integer> quantities) {
+        // 按 ID 升序处理，分片商品的槽位锁与其他事务保持相同的加锁顺序
+        List<Long> ids = new ArrayList<>(quantities.keySet());
+        ids.sort(null);
+        LocalDateTime now = LocalDateTime.now();
+        int affected = 0;
+        for (int from = 0; from < ids.size(); from += IN_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + IN_CHUNK_SIZE, ids.size()));
+            Map<Long, Integer> chunkQuantities = new HashMap<>();
+            for (Long id : chunk) {
+                chunkQuantities.put(id, quantities.get(id));
+            }
+            Field<Integer> quantity = case_(ID).mapValues(chunkQuantities);
+
+            Result<Record3<Long, String, Integer>> updated = dsl.update(table(TABLE_NAME))
+                .set(STOCK, STOCK.sub(quantity))
+                .set(UPDATED_AT, now)
+                .where(ID.in(chunk))
+                .and(STOCK_SLOTS.eq(0))
+                .and(STOCK.greaterOrEqual(quantity))
+                .returningResult(ID, CATEGORY, STOCK)
+                .fetch();
+            affected += updated.size();
+            chunk.forEach(this::invalidate);
+            for (Record3<Long, String, Integer> r : updated) {
+                recordStockDecrease(r.value2(), r.value3(), chunkQuantities.remove(r.value1()));
+            }
+
+            // 未更新的商品中分片模式的逐个按槽位扣减
+            if (!chunkQuantities.isEmpty()) {
+                List<Long> sharded = dsl.select(ID)
+                    .from(table(TABLE_NAME))
+                    .where(ID.in(chunkQuantities.keySet()))
+                    .and(STOCK_SLOTS.greaterThan(0))
+                    .orderBy(ID.asc())
+                    .fetch(ID);
+                for (Long id : sharded) {
+                    if (decreaseShardedStock(id, chunkQuantities.get(id))) {
+                        affected++;
+                    }
+                }
+            }
+        }
+        return affected;
+    }
+
+    /**
+     * 切换为分片库存模式：把当前库存平均拆分到 slots 个槽位行，
+     * 之后扣减只锁定其中一个槽位，热门商品的并发扣减不再串行等待同一行锁；
+     * 已是分片模式时按新的槽位数重新拆分
+     *
+     * @param id 商品 ID
+     * @param slots 槽位数
+     * @return 是否成功（商品不存在返回 false）
+     * @throws IllegalArgumentException 如果 slots 小于 1
+     */
+    public boolean enableShardedStock(Long id, int slots) {
+        if (slots < 1) {
+            throw new IllegalArgumentException("Stock slots must be positive");
+        }
+        boolean switched = dsl.transactionResult(configuration -> {
+            DSLContext ctx = using(configuration);
+            Record product = lockStockMode(ctx, id);
+            if (product == null) {
+                return false;
+            }
+            int stock = product.get(STOCK);
+            if (product.get(STOCK_SLOTS) > 0) {
+                stock = stockSlots.total(ctx, id);
+                stockSlots.delete(ctx, id);
+            }
+            stockSlots.create(ctx, id, slots, stock);
+            ctx.update(table(TABLE_NAME))
+                .set(STOCK, 0)
+                .set(STOCK_SLOTS, slots)
+                .set(UPDATED_AT, LocalDateTime.now())
+                .where(ID.eq(id))
+                .execute();
+            return true;
+        });
+        if (switched) {
+            invalidate(id);
+        }
+        return switched;
+    }
+
+    /**
+     * 切换回单行库存模式：各槽位库存合并回商品行并删除槽位
+     *
+     * @param id 商品 ID
+     * @return 是否成功（商品不存在返回 false）
+     */
+    public boolean disableShardedStock(Long id) {
+        boolean switched = dsl.transactionResult(configuration -> {
+            DSLContext ctx = using(configuration);
+            Record product = lockStockMode(ctx, id);
+            if (product == null) {
+                return false;
+            }
+            if (product.get(STOCK_SLOTS) == 0) {
+                return true;
+            }
+            int stock = stockSlots.total(ctx, id);
+            stockSlots.delete(ctx, id);
+            ctx.update(table(TABLE_NAME))
+                .set(STOCK, stock)
+                .set(STOCK_SLOTS, 0)
+                .set(UPDATED_AT, LocalDateTime.now())
+                .where(ID.eq(id))
+                .execute();
+            return true;
+        });
+        if (switched) {
+            invalidate(id);
+        }
+        return switched;
+    }
+
+    /**
+     * 获取商品的库存槽位数（0 表示单行库存模式）
+     *
+     * @param id 商品 ID
+     * @return 槽位数，商品不存在返回 null
+     */
+    public Integer getStockSlots(Long id) {
+        return dsl.select(STOCK_SLOTS)
+            .from(table(TABLE_NAME))
+            .where(ID.eq(id))
+            .fetchOne(STOCK_SLOTS);
     }
 
     /**
@@ -205,7 +508,7 @@ public class JooqProductRepository {
      * @return 总库存
      */
     public int getTotalStockByCategory(String category) {
-        Record record = dsl.select(sum(STOCK).as("total_stock"))
+        Record record = dsl.select(sum(AVAILABLE_STOCK).as("total_stock"))
             .from(table(TABLE_NAME))
             .where(CATEGORY.eq(category))
             .fetchOne();
@@ -214,6 +517,33 @@ public class JooqProductRepository {
         return totalStock != null ? totalStock : 0;
     }
 
+    /**
+     * 按分类汇总库存（GROUP BY 聚合，没有分类的商品不计入）
+     *
+     * @return 分类到总库存的映射
+     */
+    public Map<String, Long> getStockByCategory() {
+        Field<Long> totalStock = sum(AVAILABLE_STOCK).cast(BIGINT).as("total_stock");
+        Map<String, Long> stockByCategory = new HashMap<>();
+        dsl.select(CATEGORY, totalStock)
+            .from(table(TABLE_NAME))
+            .where(CATEGORY.isNotNull())
+            .groupBy(CATEGORY)
+            .fetch()
+            .forEach(r -> stockByCategory.put(r.get(CATEGORY), r.get(totalStock)));
+        return stockByCategory;
+    }
+
+    /**
+     * 统计库存低于阈值的商品数
+     *
+     * @param threshold 库存阈值
+     * @return 商品数
+     */
+    public int countLowStockProducts(int threshold) {
+        return dsl.fetchCount(table(TABLE_NAME), AVAILABLE_STOCK.lessThan(threshold));
+    }
+
     /**
      * 查询库存低于阈值的所有商品
      *
@@ -221,14 +551,71 @@ public class JooqProductRepository {
      * @return 商品列表
      */
     public List<JooqProductDto> findLowStockProducts(int threshold) {
-        Result<Record7<Long, String, String, BigDecimal, Integer, String, LocalDateTime>> records =
-            dsl.select(ID, NAME, DESCRIPTION, PRICE, STOCK, CATEGORY, CREATED_AT)
-                .from(table(TABLE_NAME))
-                .where(STOCK.lessThan(threshold))
-                .orderBy(STOCK.asc())
-                .fetch();
+        return dsl.select(ID, NAME, DESCRIPTION, PRICE, STOCK_VALUE, CATEGORY, CREATED_AT, UPDATED_AT)
+            .from(table(TABLE_NAME))
+            .where(AVAILABLE_STOCK.lessThan(threshold))
+            .orderBy(AVAILABLE_STOCK.asc())
+            .fetch(this::mapToProductDto);
+    }
+
+    /**
+     * 流式读取所有商品（按 ID 升序）
+     * 结果集按 fetchSize 分批从数据库拉取，不会一次性加载到内存；
+     * 返回的 Stream 持有数据库连接，调用方必须关闭
+     *
+     * @param fetchSize JDBC fetch size
+     * @return 商品流
+     */
+    public Stream<JooqProductDto> streamAll(int fetchSize) {
+        return dsl.select(ID, NAME, DESCRIPTION, PRICE, STOCK_VALUE, CATEGORY, CREATED_AT, UPDATED_AT)
+            .from(table(TABLE_NAME))
+            .orderBy(ID.asc())
+            .fetchSize(fetchSize)
+            .fetchStream()
+            .map(this::mapToProductDto);
+    }
+
+    /**
+     * 锁定商品行并读取库存模式，切换模式期间阻止单行扣减
+     */
+    private static Record lockStockMode(DSLContext ctx, Long id) {
+        return ctx.select(STOCK, STOCK_SLOTS)
+            .from(table(TABLE_NAME))
+            .where(ID.eq(id))
+            .forUpdate()
+            .fetchOne();
+    }
+
+    /**
+     * 记录一次库存扣减：扣减前的库存为扣减后的库存加扣减数量
+     */
+    private void recordStockDecrease(String category, int stockAfter, int quantity) {
+        statistics.productChanged(category, stockAfter + quantity, category, stockAfter);
+    }
 
-        return records.map(this::mapToProductDto);
+    /**
+     * 使缓存条目失效：立即移除，事务提交后再移除一次，
+     * 避免事务期间其他线程读到旧值并在提交后继续缓存
+     */
+    private void invalidate(Long id) {
+        productCache.evictIfPresent(id);
+        productCache.evict(id);
+    }
+
+    /**
+     * 复制商品 DTO，避免调用方修改缓存中的对象
+     */
+    private static JooqProductDto copy(JooqProductDto product) {
+        return JooqProductDto.builder()
+            .id(product.getId())
+            .name(product.getName())
+            .description(product.getDescription())
+            .price(product.getPrice())
+            .stock(product.getStock())
+            .category(product.getCategory())
+            .createdAt(product.getCreatedAt())
+            .updatedAt(product.getUpdatedAt())
+            .build();
     }
 
     /**
@@ -0,0 +1,233 @@
+package com.example.demo.repository.jooq;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.demo.dto.jooq.JooqOrderDto;
+
+/**
+ * JOOQ 增量统计计数器
+ * 订单数、订单金额、各状态订单数、各分类库存和低库存商品数由仓库在每次写入时增量维护，
+ * 读取为 O(1)，不随表大小增长；计数变化推迟到事务提交之后生效，回滚的写入不会计入。
+ * 计数器只反映经过仓库的写入，直接修改数据库或并发写入与对账交错造成的偏差由
+ * JooqStatisticsService 定期对账（{@link #reset}）修正
+ *
+ * @author chinwe
+ */
+@Component
+public class JooqStatisticsCounters {
+
+    /**
+     * 默认低库存阈值：库存小于该值的商品计为低库存
+     */
+    public static final int DEFAULT_LOW_STOCK_THRESHOLD = 10;
+
+    private final int lowStockThreshold;
+
+    private final LongAdder totalOrders = new LongAdder();
+    private final AtomicReference<BigDecimal> totalAmount = new AtomicReference<>(BigDecimal.ZERO);
+    private final Map<String, LongAdder> statusCounts = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> categoryStock = new ConcurrentHashMap<>();
+    private final LongAdder lowStockProducts = new LongAdder();
+
+    // 增量更新之间互不阻塞（读锁），对账重置时独占（写锁）
+    private final ReadWriteLock resetLock = new ReentrantReadWriteLock();
+    private volatile boolean initialized;
+
+    public JooqStatisticsCounters(
+            @Value("${jooq.statistics.low-stock-threshold:" + DEFAULT_LOW_STOCK_THRESHOLD + "}") int lowStockThreshold) {
+        this.lowStockThreshold = lowStockThreshold;
+    }
+
+    /**
+     * 记录新订单
+     *
+     * @param status 订单状态
+     * @param amount 订单金额
+     */
+    public void orderCreated(String status, BigDecimal amount) {
+        ordersCreated(Map.of(statusKey(status), 1L), amount);
+    }
+
+    /**
+     * 记录一批新订单（整批只注册一次事务回调）
+     *
+     * @param orders 订单列表
+     */
+    public void ordersCreated(Collection<JooqOrderDto> orders) {
+        Map<String, Long> counts = new HashMap<>();
+        BigDecimal amount = BigDecimal.ZERO;
+        for (JooqOrderDto order : orders) {
+            counts.merge(statusKey(order.getStatus()), 1L, Long::sum);
+            if (order.getTotalAmount() != null) {
+                amount = amount.add(order.getTotalAmount());
+            }
+        }
+        ordersCreated(counts, amount);
+    }
+
+    private void ordersCreated(Map<String, Long> counts, BigDecimal amount) {
+        afterCommit(() -> {
+            counts.forEach((status, count) -> {
+                totalOrders.add(count);
+                statusCounts.computeIfAbsent(status, k -> new LongAdder()).add(count);
+            });
+            if (amount != null) {
+                totalAmount.accumulateAndGet(amount, BigDecimal::add);
+            }
+        });
+    }
+
+    /**
+     * 记录新商品
+     *
+     * @param category 分类
+     * @param stock 库存
+     */
+    public void productAdded(String category, int stock) {
+        afterCommit(() -> {
+            addCategoryStock(category, stock);
+            if (stock < lowStockThreshold) {
+                lowStockProducts.increment();
+            }
+        });
+    }
+
+    /**
+     * 记录商品分类或库存变化
+     *
+     * @param oldCategory 变化前的分类
+     * @param oldStock 变化前的库存
+     * @param newCategory 变化后的分类
+     * @param newStock 变化后的库存
+     */
+    public void productChanged(String oldCategory, int oldStock, String newCategory, int newStock) {
+        afterCommit(() -> {
+            addCategoryStock(oldCategory, -oldStock);
+            addCategoryStock(newCategory, newStock);
+            boolean wasLow = oldStock < lowStockThreshold;
+            boolean isLow = newStock < lowStockThreshold;
+            if (wasLow && !isLow) {
+                lowStockProducts.decrement();
+            } else if (!wasLow && isLow) {
+                lowStockProducts.increment();
+            }
+        });
+    }
+
+    /**
+     * 用数据库聚合结果重置全部计数器（对账）
+     *
+     * @param statusCounts 各状态订单数（订单总数为其合计）
+     * @param totalAmount 订单总金额
+     * @param categoryStock 各分类库存
+     * @param lowStockProducts 低库存商品数
+     */
+    public void reset(Map<String, Long> statusCounts, BigDecimal totalAmount,
+                      Map<String, Long> categoryStock, long lowStockProducts) {
+        resetLock.writeLock().lock();
+        try {
+            this.totalOrders.reset();
+            this.statusCounts.clear();
+            statusCounts.forEach((status, count) -> {
+                this.totalOrders.add(count);
+                this.statusCounts.computeIfAbsent(statusKey(status), k -> new LongAdder()).add(count);
+            });
+            this.totalAmount.set(totalAmount != null ? totalAmount : BigDecimal.ZERO);
+            this.categoryStock.clear();
+            categoryStock.forEach(this::addCategoryStock);
+            this.lowStockProducts.reset();
+            this.lowStockProducts.add(lowStockProducts);
+            this.initialized = true;
+        } finally {
+            resetLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 是否已经完成过至少一次对账
+     */
+    public boolean isInitialized() {
+        return initialized;
+    }
+
+    public int getLowStockThreshold() {
+        return lowStockThreshold;
+    }
+
+    public long getTotalOrders() {
+        return totalOrders.sum();
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount.get();
+    }
+
+    public Map<String, Long> getStatusCounts() {
+        Map<String, Long> counts = new HashMap<>();
+        statusCounts.forEach((status, count) -> {
+            long value = count.sum();
+            if (value != 0) {
+                counts.put(status, value);
+            }
+        });
+        return counts;
+    }
+
+    public long getCategoryStock(String category) {
+        LongAdder stock = category != null ? categoryStock.get(category) : null;
+        return stock != null ? stock.sum() : 0;
+    }
+
+    public long getLowStockProducts() {
+        return lowStockProducts.sum();
+    }
+
+    private void addCategoryStock(String category, long delta) {
+        // 与 SUM(stock) WHERE category = ? 一致，没有分类的商品不计入任何分类
+        if (category != null && delta != 0) {
+            categoryStock.computeIfAbsent(category, k -> new LongAdder()).add(delta);
+        }
+    }
+
+    private static String statusKey(String status) {
+        return status != null ? status : "NULL";
+    }
+
+    /**
+     * 在当前事务提交后应用增量；没有事务同步时立即应用
+     */
+    private void afterCommit(Runnable delta) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(delta);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(delta);
+            }
+        });
+    }
+
+    private void apply(Runnable delta) {
+        resetLock.readLock().lock();
+        try {
+            delta.run();
+        } finally {
+            resetLock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.demo.repository.jooq;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.InsertValuesStep3;
+import org.jooq.Record;
+import org.jooq.Record2;
+import org.jooq.Result;
+
+import static org.jooq.impl.DSL.*;
+import static org.jooq.impl.SQLDataType.*;
+
+/**
+ * 分片库存槽位（j_product_stock_slots）
+ * 分片模式下商品库存拆分到 N 个槽位行，扣减时从随机槽位开始选一个未被锁定的槽位更新，
+ * 并发结账分散在不同的行锁上，不再全部排队等待同一行商品记录
+ *
+ * @author chinwe
+ */
+class JooqStockSlots {
+
+    static final String TABLE_NAME = "j_product_stock_slots";
+
+    private static final Field<Long> PRODUCT_ID = field("product_id", BIGINT);
+    private static final Field<Integer> SLOT = field("slot", INTEGER);
+    private static final Field<Integer> STOCK = field("stock", INTEGER);
+
+    private final DSLContext dsl;
+
+    JooqStockSlots(DSLContext dsl) {
+        this.dsl = dsl;
+    }
+
+    /**
+     * 把库存尽量平均地分配到 slots 个槽位（前 stock % slots 个槽位多 1）
+     */
+    void create(DSLContext ctx, Long productId, int slots, int stock) {
+        InsertValuesStep3<Record, Long, Integer, Integer> insert =
+            ctx.insertInto(table(TABLE_NAME), PRODUCT_ID, SLOT, STOCK);
+        for (int slot = 0; slot < slots; slot++) {
+            insert = insert.values(productId, slot, share(stock, slots, slot));
+        }
+        insert.execute();
+    }
+
+    /**
+     * 按新的总库存重新分配各槽位（单条 UPDATE）
+     */
+    void redistribute(DSLContext ctx, Long productId, int slots, int stock) {
+        ctx.update(table(TABLE_NAME))
+            .set(STOCK, inline(stock / slots).plus(when(SLOT.lessThan(stock % slots), inline(1)).otherwise(inline(0))))
+            .where(PRODUCT_ID.eq(productId))
+            .execute();
+    }
+
+    /**
+     * 删除全部槽位
+     */
+    void delete(DSLContext ctx, Long productId) {
+        ctx.deleteFrom(table(TABLE_NAME))
+            .where(PRODUCT_ID.eq(productId))
+            .execute();
+    }
+
+    /**
+     * 各槽位库存之和
+     */
+    int total(DSLContext ctx, Long productId) {
+        Integer total = ctx.select(coalesce(sum(STOCK), 0).cast(INTEGER))
+            .from(table(TABLE_NAME))
+            .where(PRODUCT_ID.eq(productId))
+            .fetchOne(0, Integer.class);
+        return total != null ? total : 0;
+    }
+
+    /**
+     * 扣减库存
+     * 1. 从随机槽位开始依次尝试锁定扣减后仍不低于 reserve 的槽位（SKIP LOCKED，已被其他事务锁定则换下一个），
+     *    锁定成功即扣减，并发扣减分散到不同槽位，互不等待
+     * 2. 没有这样的槽位时，按槽位顺序锁定全部槽位（等待其他事务释放），总量足够则从多个槽位凑齐
+     * 两步在同一事务内执行，扣减语句带库存条件，不会把槽位扣成负数
+     * （H2 对 LIMIT 1 ... SKIP LOCKED 先取行再跳过，首行被锁时返回空，所以按槽位逐个尝试）
+     * 第 1 步不等待任何锁；第 2 步按固定顺序加锁，前提是当前事务此前没有持有本商品的槽位锁，
+     * 因此同一事务对同一商品只能扣减一次（调用方先按商品汇总数量），多个商品按 ID 升序扣减，否则可能死锁
+     *
+     * @param reserve 第 1 步扣减后槽位至少保留的库存：槽位余量不低于 reserve 时商品总库存也不低于 reserve，
+     *                接近 reserve 的扣减走第 2 步，由锁定的全部槽位得到准确总量
+     * @return 扣减后的库存：第 1 步为所扣槽位的剩余库存（商品总库存的下界，不低于 reserve），
+     *         第 2 步为商品准确的总库存；库存不足返回 -1
+     */
+    int decrease(Long productId, int slots, int quantity, int reserve) {
+        // 选槽位和扣减在同一事务内，未开启事务（自动提交）时行锁不会在两条语句之间释放
+        return dsl.transactionResult(configuration -> {
+            DSLContext ctx = using(configuration);
+            int offset = ThreadLocalRandom.current().nextInt(slots);
+            for (int i = 0; i < slots; i++) {
+                int slot = (offset + i) % slots;
+                boolean locked = ctx.select(SLOT)
+                    .from(table(TABLE_NAME))
+                    .where(PRODUCT_ID.eq(productId))
+                    .and(SLOT.eq(slot))
+                    .and(STOCK.greaterOrEqual(quantity + reserve))
+                    .forUpdate()
+                    .skipLocked()
+                    .fetchOne() != null;
+                if (!locked) {
+                    continue;
+                }
+                // 条件更新兜底：库存条件不满足时不扣减，换下一个槽位
+                Integer stockAfter = ctx.update(table(TABLE_NAME))
+                    .set(STOCK, STOCK.sub(quantity))
+                    .where(PRODUCT_ID.eq(productId))
+                    .and(SLOT.eq(slot))
+                    .and(STOCK.greaterOrEqual(quantity + reserve))
+                    .returningResult(STOCK)
+                    .fetchOne(STOCK);
+                if (stockAfter != null) {
+                    return stockAfter;
+                }
+            }
+
+            return drain(ctx, productId, quantity);
+        });
+    }
+
+    /**
+     * 按槽位顺序锁定全部槽位，总量足够时依次扣减直到凑齐
+     *
+     * @return 扣减后的总库存，总量不足返回 -1
+     */
+    private int drain(DSLContext ctx, Long productId, int quantity) {
+        Result<Record2<Integer, Integer>> locked = ctx.select(SLOT, STOCK)
+            .from(table(TABLE_NAME))
+            .where(PRODUCT_ID.eq(productId))
+            .orderBy(SLOT.asc())
+            .forUpdate()
+            .fetch();
+        int total = locked.stream().mapToInt(Record2::value2).sum();
+        if (total < quantity) {
+            return -1;
+        }
+
+        int remaining = quantity;
+        for (Record2<Integer, Integer> slot : locked) {
+            int taken = Math.min(slot.value2(), remaining);
+            if (taken > 0) {
+                ctx.update(table(TABLE_NAME))
+                    .set(STOCK, STOCK.sub(taken))
+                    .where(PRODUCT_ID.eq(productId))
+                    .and(SLOT.eq(slot.value1()))
+                    .execute();
+                remaining -= taken;
+            }
+            if (remaining == 0) {
+                break;
+            }
+        }
+        return total - quantity;
+    }
+
+    private static int share(int stock, int slots, int slot) {
+        return stock / slots + (slot < stock % slots ? 1 : 0);
+    }
+}
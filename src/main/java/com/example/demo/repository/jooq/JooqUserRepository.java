@@ -2,7 +2,12 @@ package com.example.demo.repository.jooq;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import org.jooq.DSLContext;
 import org.jooq.Field;
@@ -25,6 +30,11 @@ import static org.jooq.impl.SQLDataType.*;
 @Repository
 public class JooqUserRepository {
 
+    /**
+     * IN 列表的最大长度，超过后拆分为多条查询
+     */
+    private static final int IN_CHUNK_SIZE = 1000;
+
     private final DSLContext dsl;
 
     // 表定义
@@ -86,6 +96,25 @@ public class JooqUserRepository {
         return record != null ? mapToUserDto(record) : null;
     }
 
+    /**
+     * 批量查询存在的用户 ID（IN 查询）
+     *
+     * @param ids 用户 ID 集合
+     * @return 其中存在的用户 ID
+     */
+    public Set<Long> findExistingIds(Collection<Long> ids) {
+        Set<Long> existing = new HashSet<>();
+        List<Long> idList = new ArrayList<>(ids);
+        for (int from = 0; from < idList.size(); from += IN_CHUNK_SIZE) {
+            List<Long> chunk = idList.subList(from, Math.min(from + IN_CHUNK_SIZE, idList.size()));
+            existing.addAll(dsl.select(ID)
+                .from(table(TABLE_NAME))
+                .where(ID.in(chunk))
+                .fetch(ID));
+        }
+        return existing;
+    }
+
     /**
      * 根据用户名查询用户
      *
@@ -155,6 +184,23 @@ public class JooqUserRepository {
         return records.map(this::mapToUserDto);
     }
 
+    /**
+     * 流式读取所有用户（按 ID 升序）
+     * 结果集按 fetchSize 分批从数据库拉取，不会一次性加载到内存；
+     * 返回的 Stream 持有数据库连接，调用方必须关闭
+     *
+     * @param fetchSize JDBC fetch size
+     * @return 用户流
+     */
+    public Stream<JooqUserDto> streamAll(int fetchSize) {
+        return dsl.select(ID, USERNAME, EMAIL, PHONE, CREATED_AT, UPDATED_AT)
+            .from(table(TABLE_NAME))
+            .orderBy(ID.asc())
+            .fetchSize(fetchSize)
+            .fetchStream()
+            .map(this::mapToUserDto);
+    }
+
     /**
      * 将 Record 映射为 UserDto
      */
@@ -0,0 +1,67 @@
+package com.example.demo.sentinel.configuration;
+
+import com.alibaba.csp.sentinel.Constants;
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.node.DefaultNode;
+import com.alibaba.csp.sentinel.slotchain.AbstractLinkedProcessorSlot;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slots.system.SystemBlockException;
+import com.alibaba.csp.sentinel.spi.Spi;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+import com.example.demo.sentinel.model.AdaptiveSystemGuard;
+
+/**
+ * 通过 SPI 注册给 Sentinel 的自适应系统保护插槽，紧跟在 SystemSlot 之后
+ * 与 SystemSlot 一样只对入口流量（EntryType.IN）生效；每条调用链各有一个插槽实例，
+ * 共享的保护状态由 Spring 配置后通过 {@link #setGuard} 设置，未设置时直接放行
+ * 拒绝时抛出 limitType 为 {@link #LIMIT_TYPE} 的 SystemBlockException，与系统规则的拦截统一处理
+ */
+@Spi(order = Constants.ORDER_SYSTEM_SLOT + 1)
+public class AdaptiveSystemSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
+
+    public static final String LIMIT_TYPE = "adaptive";
+
+    private static volatile AdaptiveSystemGuard guard;
+
+    public static void setGuard(AdaptiveSystemGuard adaptiveSystemGuard) {
+        guard = adaptiveSystemGuard;
+    }
+
+    public static AdaptiveSystemGuard getGuard() {
+        return guard;
+    }
+
+    @Override
+    public void entry(Context context, ResourceWrapper resourceWrapper, DefaultNode node, int count,
+                      boolean prioritized, Object... args) throws Throwable {
+        AdaptiveSystemGuard current = guard;
+        if (current == null || resourceWrapper.getEntryType() != EntryType.IN) {
+            fireEntry(context, resourceWrapper, node, count, prioritized, args);
+            return;
+        }
+        if (!current.tryEnter()) {
+            throw new SystemBlockException(resourceWrapper.getName(), LIMIT_TYPE);
+        }
+        try {
+            fireEntry(context, resourceWrapper, node, count, prioritized, args);
+        } catch (Throwable e) {
+            // 被后续插槽（流控、熔断等）拦截，请求不会执行
+            current.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public void exit(Context context, ResourceWrapper resourceWrapper, int count, Object... args) {
+        AdaptiveSystemGuard current = guard;
+        Entry entry = context.getCurEntry();
+        // 被拦截的请求在 entry 阶段已经释放（或从未计入），这里只统计正常通过的请求
+        if (current != null && resourceWrapper.getEntryType() == EntryType.IN
+                && entry != null && entry.getBlockError() == null) {
+            current.exit(TimeUtil.currentTimeMillis() - entry.getCreateTimestamp());
+        }
+        fireExit(context, resourceWrapper, count, args);
+    }
+}
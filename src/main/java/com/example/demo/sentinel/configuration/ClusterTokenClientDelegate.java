@@ -0,0 +1,85 @@
+package com.example.demo.sentinel.configuration;
+
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.TokenServerDescriptor;
+import com.alibaba.csp.sentinel.cluster.client.ClusterTokenClient;
+import com.alibaba.csp.sentinel.spi.Spi;
+
+import java.util.Collection;
+
+/**
+ * 通过 SPI 注册给 Sentinel 的集群令牌客户端
+ * Sentinel 在类加载时用无参构造创建唯一实例，真正的客户端由 Spring 配置后通过 {@link #setDelegate} 设置；
+ * 未设置时所有令牌请求返回 FAIL，集群规则按 fallbackToLocalWhenFail 回退到本地规则
+ */
+@Spi(isSingleton = true)
+public class ClusterTokenClientDelegate implements ClusterTokenClient {
+
+    private static volatile ClusterTokenClient delegate;
+
+    public static void setDelegate(ClusterTokenClient client) {
+        delegate = client;
+    }
+
+    public static ClusterTokenClient getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public TokenServerDescriptor currentServer() {
+        ClusterTokenClient client = delegate;
+        return client != null ? client.currentServer() : null;
+    }
+
+    @Override
+    public void start() throws Exception {
+        ClusterTokenClient client = delegate;
+        if (client != null) {
+            client.start();
+        }
+    }
+
+    @Override
+    public void stop() throws Exception {
+        ClusterTokenClient client = delegate;
+        if (client != null) {
+            client.stop();
+        }
+    }
+
+    @Override
+    public int getState() {
+        ClusterTokenClient client = delegate;
+        return client != null ? client.getState() : 0;
+    }
+
+    @Override
+    public TokenResult requestToken(Long flowId, int acquireCount, boolean prioritized) {
+        ClusterTokenClient client = delegate;
+        return client != null ? client.requestToken(flowId, acquireCount, prioritized)
+                : new TokenResult(TokenResultStatus.FAIL);
+    }
+
+    @Override
+    public TokenResult requestParamToken(Long flowId, int acquireCount, Collection<Object> params) {
+        ClusterTokenClient client = delegate;
+        return client != null ? client.requestParamToken(flowId, acquireCount, params)
+                : new TokenResult(TokenResultStatus.FAIL);
+    }
+
+    @Override
+    public TokenResult requestConcurrentToken(String clientAddress, Long ruleId, int acquireCount) {
+        ClusterTokenClient client = delegate;
+        return client != null ? client.requestConcurrentToken(clientAddress, ruleId, acquireCount)
+                : new TokenResult(TokenResultStatus.FAIL);
+    }
+
+    @Override
+    public void releaseConcurrentToken(Long tokenId) {
+        ClusterTokenClient client = delegate;
+        if (client != null) {
+            client.releaseConcurrentToken(tokenId);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.demo.sentinel.configuration;
+
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.server.EmbeddedClusterTokenServer;
+import com.alibaba.csp.sentinel.spi.Spi;
+
+import java.util.Collection;
+
+/**
+ * 通过 SPI 注册给 Sentinel 的嵌入式令牌服务器
+ * 与 {@link ClusterTokenClientDelegate} 相同，真正的服务器由 Spring 配置后通过 {@link #setDelegate} 设置
+ */
+@Spi(isSingleton = true)
+public class ClusterTokenServerDelegate implements EmbeddedClusterTokenServer {
+
+    private static volatile EmbeddedClusterTokenServer delegate;
+
+    public static void setDelegate(EmbeddedClusterTokenServer server) {
+        delegate = server;
+    }
+
+    public static EmbeddedClusterTokenServer getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public void start() throws Exception {
+        EmbeddedClusterTokenServer server = delegate;
+        if (server != null) {
+            server.start();
+        }
+    }
+
+    @Override
+    public void stop() throws Exception {
+        EmbeddedClusterTokenServer server = delegate;
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    @Override
+    public TokenResult requestToken(Long flowId, int acquireCount, boolean prioritized) {
+        EmbeddedClusterTokenServer server = delegate;
+        return server != null ? server.requestToken(flowId, acquireCount, prioritized)
+                : new TokenResult(TokenResultStatus.FAIL);
+    }
+
+    @Override
+    public TokenResult requestParamToken(Long flowId, int acquireCount, Collection<Object> params) {
+        EmbeddedClusterTokenServer server = delegate;
+        return server != null ? server.requestParamToken(flowId, acquireCount, params)
+                : new TokenResult(TokenResultStatus.FAIL);
+    }
+
+    @Override
+    public TokenResult requestConcurrentToken(String clientAddress, Long ruleId, int acquireCount) {
+        EmbeddedClusterTokenServer server = delegate;
+        return server != null ? server.requestConcurrentToken(clientAddress, ruleId, acquireCount)
+                : new TokenResult(TokenResultStatus.FAIL);
+    }
+
+    @Override
+    public void releaseConcurrentToken(Long tokenId) {
+        EmbeddedClusterTokenServer server = delegate;
+        if (server != null) {
+            server.releaseConcurrentToken(tokenId);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.demo.sentinel.configuration;
+
+import com.alibaba.csp.sentinel.Constants;
+import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.node.DefaultNode;
+import com.alibaba.csp.sentinel.slotchain.AbstractLinkedProcessorSlot;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.spi.Spi;
+import com.example.demo.sentinel.exception.ParamFlowBlockException;
+import com.example.demo.sentinel.model.HotParameterLimiter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 通过 SPI 注册给 Sentinel 的热点参数限流插槽，位于 FlowSlot 之前（与 Sentinel 自带的 ParamFlowSlot 位置相同）
+ * 按 SphU.entry 传入的参数判定，在调用链中拦截，因此被拦截的调用与其他规则一样计入 block QPS、metric 日志和 Micrometer 指标；
+ * 限流器与 FlowRuleManager 中的规则一样在进程内全局共享，资源没有热点规则时直接放行
+ * 先检查资源上的所有热点规则，全部放行且后续插槽也放行后才计数
+ */
+@Spi(order = Constants.ORDER_FLOW_SLOT - 1)
+public class HotParameterSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
+
+    /**
+     * 资源名称 -> 各参数位置的限流器
+     */
+    private static final Map<String, List<HotParameterLimiter>> LIMITERS = new ConcurrentHashMap<>();
+
+    public static Map<String, List<HotParameterLimiter>> getLimiters() {
+        return LIMITERS;
+    }
+
+    @Override
+    public void entry(Context context, ResourceWrapper resourceWrapper, DefaultNode node, int count,
+                      boolean prioritized, Object... args) throws Throwable {
+        List<HotParameterLimiter> resourceLimiters = LIMITERS.get(resourceWrapper.getName());
+        if (resourceLimiters == null || resourceLimiters.isEmpty()) {
+            fireEntry(context, resourceWrapper, node, count, prioritized, args);
+            return;
+        }
+        for (HotParameterLimiter limiter : resourceLimiters) {
+            if (!limiter.canPass(args)) {
+                limiter.recordBlocked();
+                throw new ParamFlowBlockException(resourceWrapper.getName(), limiter.getParamName(),
+                        String.valueOf(args[limiter.getParamIdx()]));
+            }
+        }
+        fireEntry(context, resourceWrapper, node, count, prioritized, args);
+        // 被后续插槽（流控、熔断等）拦截时不会执行到这里，拦截的调用不占用热点参数配额
+        for (HotParameterLimiter limiter : resourceLimiters) {
+            limiter.acquire(args);
+        }
+    }
+
+    @Override
+    public void exit(Context context, ResourceWrapper resourceWrapper, int count, Object... args) {
+        fireExit(context, resourceWrapper, count, args);
+    }
+}
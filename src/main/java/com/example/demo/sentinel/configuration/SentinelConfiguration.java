@@ -42,6 +42,9 @@ public class SentinelConfiguration {
     @Value("${sentinel.system.max-cpu-usage:0.8}")
     private double maxCpuUsage;
 
+    @Value("${sentinel.system.max-qps:1000}")
+    private double maxQps;
+
     @Value("${sentinel.enabled:true}")
     private boolean sentinelEnabled;
 
@@ -135,24 +138,13 @@ public class SentinelConfiguration {
     private void initSystemRules() {
         List<SystemRule> rules = new ArrayList<>();
 
-        // CPU 使用率规则
-        SystemRule cpuRule = new SystemRule();
-        cpuRule.setHighestSystemLoad(0.8);
-        rules.add(cpuRule);
-
-        // 平均 RT 规则
-        SystemRule rtRule = new SystemRule();
-        rtRule.setAvgRt(1000); // 1000ms
-        rules.add(rtRule);
-
-        // 并发线程数规则
-        SystemRule threadRule = new SystemRule();
-        threadRule.setMaxThread(defaultThreadCount);
-        rules.add(threadRule);
+        // 系统 load、平均 RT 和并发线程数规则由 AdaptiveSystemSlot 替代：
+        // 请求运行在虚拟线程上时线程数不再反映并发；所有接口都是入口资源后，单看平均 RT 会因个别慢接口拒绝全部流量，
+        // 改按在途请求数、进程 CPU 和 BBR 容量估算（maxPassQps x minRt）保护
 
-        // QPS 规则
+        // 入口 QPS 规则：SentinelWebInterceptor 把所有接口都作为入口资源，阈值是整个应用的入口 QPS
         SystemRule qpsRule = new SystemRule();
-        qpsRule.setQps(defaultQpsThreshold * 2);
+        qpsRule.setQps(maxQps);
         rules.add(qpsRule);
 
         SystemRuleManager.loadRules(rules);
@@ -0,0 +1,108 @@
+package com.example.demo.sentinel.configuration;
+
+import com.alibaba.csp.sentinel.node.ClusterNode;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Sentinel 资源指标导出到 Micrometer
+ * 为每个拥有统计节点（ClusterNode）的资源注册 Gauge，读取时直接查询节点的滑动窗口：
+ * - sentinel.resource.qps{resource, window=second|minute, type=pass|block|exception|success}
+ * - sentinel.resource.rt.avg{resource}（毫秒）
+ * - sentinel.resource.threads{resource}
+ * 新资源在首次 SphU.entry 后创建统计节点，由后台任务按固定间隔发现并注册
+ */
+@Slf4j
+@Component
+public class SentinelMeterBinder implements MeterBinder {
+
+    private static final double SECONDS_PER_MINUTE = 60.0;
+
+    private final long refreshIntervalMs;
+    private final Set<String> registeredResources = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("sentinel-meter-refresher").daemon(true).factory());
+
+    public SentinelMeterBinder(@Value("${sentinel.metric.export-refresh-interval-ms:5000}") long refreshIntervalMs) {
+        this.refreshIntervalMs = refreshIntervalMs;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        registerNewResources(registry);
+        refresher.scheduleWithFixedDelay(() -> registerNewResources(registry),
+                refreshIntervalMs, refreshIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 为尚未注册的资源注册 Gauge
+     */
+    void registerNewResources(MeterRegistry registry) {
+        try {
+            for (ResourceWrapper resource : ClusterBuilderSlot.getClusterNodeMap().keySet()) {
+                String name = resource.getName();
+                if (registeredResources.add(name)) {
+                    register(registry, name);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to register Sentinel resource meters", e);
+        }
+    }
+
+    private void register(MeterRegistry registry, String resource) {
+        log.debug("Registering Sentinel meters for resource: {}", resource);
+
+        qps(registry, resource, "second", "pass", ClusterNode::passQps);
+        qps(registry, resource, "second", "block", ClusterNode::blockQps);
+        qps(registry, resource, "second", "exception", ClusterNode::exceptionQps);
+        qps(registry, resource, "second", "success", ClusterNode::successQps);
+        qps(registry, resource, "minute", "pass", node -> node.totalPass() / SECONDS_PER_MINUTE);
+        qps(registry, resource, "minute", "block", node -> node.blockRequest() / SECONDS_PER_MINUTE);
+        qps(registry, resource, "minute", "exception", node -> node.totalException() / SECONDS_PER_MINUTE);
+        qps(registry, resource, "minute", "success", node -> node.totalSuccess() / SECONDS_PER_MINUTE);
+
+        Gauge.builder("sentinel.resource.rt.avg", resource, name -> read(name, ClusterNode::avgRt))
+                .description("Average response time of the Sentinel resource")
+                .baseUnit("milliseconds")
+                .tags(Tags.of("resource", resource))
+                .register(registry);
+        Gauge.builder("sentinel.resource.threads", resource, name -> read(name, ClusterNode::curThreadNum))
+                .description("Current concurrent threads of the Sentinel resource")
+                .tags(Tags.of("resource", resource))
+                .register(registry);
+    }
+
+    private static void qps(MeterRegistry registry, String resource, String window, String type,
+                            ToDoubleFunction<ClusterNode> reader) {
+        Gauge.builder("sentinel.resource.qps", resource, name -> read(name, reader))
+                .description("Sentinel resource QPS over the sliding window")
+                .tags(Tags.of("resource", resource, "window", window, "type", type))
+                .register(registry);
+    }
+
+    private static double read(String resource, ToDoubleFunction<ClusterNode> reader) {
+        ClusterNode node = ClusterBuilderSlot.getClusterNode(resource);
+        return node == null ? 0.0 : reader.applyAsDouble(node);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.demo.sentinel.configuration;
+
+import com.alibaba.csp.sentinel.Constants;
+import com.example.demo.sentinel.model.BoundedResourceRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Sentinel Web 埋点配置
+ * 为所有 Spring MVC 接口注册 {@link SentinelWebInterceptor}，自动生成的资源数不超过 sentinel.web.max-resources
+ */
+@Slf4j
+@Configuration
+public class SentinelWebConfiguration implements WebMvcConfigurer {
+
+    /**
+     * 超出资源上限的接口共用的资源名
+     */
+    public static final String OVERFLOW_RESOURCE = "web:__overflow__";
+
+    @Value("${sentinel.web.enabled:true}")
+    private boolean webEnabled;
+
+    @Value("${sentinel.web.max-resources:500}")
+    private int maxResources;
+
+    @Bean
+    public BoundedResourceRegistry sentinelWebResourceRegistry() {
+        // 给 @SentinelResource 和手动埋点的资源留出余量
+        int limit = Math.min(maxResources, Constants.MAX_SLOT_CHAIN_SIZE / 2);
+        if (limit < maxResources) {
+            log.warn("sentinel.web.max-resources {} exceeds half of Sentinel's slot chain limit, using {}",
+                    maxResources, limit);
+        }
+        return new BoundedResourceRegistry(limit, OVERFLOW_RESOURCE);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (!webEnabled) {
+            log.info("Sentinel web interceptor is disabled");
+            return;
+        }
+        registry.addInterceptor(new SentinelWebInterceptor(sentinelWebResourceRegistry()));
+        log.info("Sentinel web interceptor registered, max resources: {}", maxResources);
+    }
+}
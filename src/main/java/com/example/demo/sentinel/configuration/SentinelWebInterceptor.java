@@ -0,0 +1,89 @@
+package com.example.demo.sentinel.configuration;
+
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.ResourceTypeConstants;
+import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.Tracer;
+import com.alibaba.csp.sentinel.context.ContextUtil;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.example.demo.sentinel.model.BoundedResourceRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Sentinel Web 拦截器：把每个 @RequestMapping 处理方法包装为一个入口资源（EntryType.IN）
+ * 1. 资源名为 "HTTP 方法:映射模式"（如 GET:/api/jooq/orders/{id}），不使用原始 URL，资源数与接口数一致
+ * 2. 资源名经 {@link BoundedResourceRegistry} 登记，超过上限的新模式统一归入溢出资源
+ * 3. 被拦截时抛出 BlockException，由 SentinelExceptionHandler 统一返回 429/503
+ * 4. 异步请求在处理方法返回、开始异步处理时退出资源，异步派发时不再重复进入
+ */
+@Slf4j
+public class SentinelWebInterceptor implements AsyncHandlerInterceptor {
+
+    public static final String WEB_CONTEXT_NAME = "sentinel_spring_web_context";
+
+    private static final String ENTRY_ATTRIBUTE = SentinelWebInterceptor.class.getName() + ".entry";
+
+    private final BoundedResourceRegistry registry;
+
+    public SentinelWebInterceptor(BoundedResourceRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws Exception {
+        if (!(handler instanceof HandlerMethod) || request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern == null) {
+            return true;
+        }
+        String resourceName = registry.resolve(request.getMethod() + ":" + pattern);
+
+        ContextUtil.enter(WEB_CONTEXT_NAME);
+        try {
+            Entry entry = SphU.entry(resourceName, ResourceTypeConstants.COMMON_WEB, EntryType.IN);
+            request.setAttribute(ENTRY_ATTRIBUTE, entry);
+            return true;
+        } catch (BlockException e) {
+            // preHandle 抛出异常时不会回调本拦截器的 afterCompletion，在这里退出上下文
+            ContextUtil.exit();
+            log.debug("Web request blocked by Sentinel - resource: {}, exception: {}",
+                    resourceName, e.getClass().getSimpleName());
+            throw e;
+        }
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        exitEntry(request, null);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        exitEntry(request, ex);
+    }
+
+    private void exitEntry(HttpServletRequest request, Exception ex) {
+        Object attribute = request.getAttribute(ENTRY_ATTRIBUTE);
+        if (!(attribute instanceof Entry entry)) {
+            return;
+        }
+        request.removeAttribute(ENTRY_ATTRIBUTE);
+        if (ex != null) {
+            Tracer.traceEntry(ex, entry);
+        }
+        entry.exit();
+        ContextUtil.exit();
+    }
+}
@@ -2,8 +2,11 @@ package com.example.demo.sentinel.controller;
 
 import com.alibaba.csp.sentinel.slots.block.RuleConstant;
 import com.example.demo.sentinel.dto.RuleInfoDto;
+import com.example.demo.sentinel.dto.SentinelMetricHistoryDto;
 import com.example.demo.sentinel.dto.SentinelMetricsDto;
 import com.example.demo.sentinel.dto.SentinelResultDto;
+import com.example.demo.sentinel.dto.SentinelRuleBatchRequestDto;
+import com.example.demo.sentinel.dto.SentinelRuleBatchResultDto;
 import com.example.demo.sentinel.service.SentinelService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -23,6 +26,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Sentinel 控制器
@@ -141,6 +145,13 @@ public class SentinelController {
         return getResponseEntity(result);
     }
 
+    @GetMapping("/hotspot/statistics")
+    @Operation(summary = "热点参数限流统计", description = "获取每条热点参数规则的放行/拦截数、当前热点参数值及 sketch 内存占用")
+    public ResponseEntity<List<Map<String, Object>>> getParamFlowStatistics() {
+        log.info("Get param flow statistics");
+        return ResponseEntity.ok(sentinelService.getParamFlowStatistics());
+    }
+
     // ==================== 系统自适应保护接口 ====================
 
     @GetMapping("/system/cpu")
@@ -183,6 +194,13 @@ public class SentinelController {
         return getResponseEntity(result);
     }
 
+    @GetMapping("/system/adaptive")
+    @Operation(summary = "自适应系统保护状态", description = "获取按在途请求数、进程 CPU 和 BBR 容量估算的入口流量保护状态")
+    public ResponseEntity<Map<String, Object>> getAdaptiveSystemState() {
+        log.info("Get adaptive system protection state");
+        return ResponseEntity.ok(sentinelService.getAdaptiveSystemState());
+    }
+
     // ==================== 异常追踪接口 ====================
 
     @GetMapping("/exception-trace")
@@ -220,6 +238,45 @@ public class SentinelController {
         return ResponseEntity.ok(metrics);
     }
 
+    @GetMapping("/metrics/history")
+    @Operation(summary = "查询历史指标", description = "按时间区间从 Sentinel 指标日志查询资源的历史指标，并按分辨率降采样")
+    @ApiResponse(responseCode = "200", description = "查询成功")
+    @ApiResponse(responseCode = "400", description = "参数不合法")
+    public ResponseEntity<SentinelMetricHistoryDto> getMetricHistory(
+            @Parameter(description = "资源名称", example = "flowControlResource")
+            @RequestParam String resource,
+            @Parameter(description = "起始时间（毫秒时间戳），默认一小时前")
+            @RequestParam(required = false) Long startTime,
+            @Parameter(description = "结束时间（毫秒时间戳），默认当前时间")
+            @RequestParam(required = false) Long endTime,
+            @Parameter(description = "聚合分辨率（秒）", example = "60")
+            @RequestParam(defaultValue = "60") int resolutionSec) {
+        long end = endTime != null ? endTime : System.currentTimeMillis();
+        long start = startTime != null ? startTime : end - TimeUnit.HOURS.toMillis(1);
+        log.info("Query metric history - resource: {}, start: {}, end: {}, resolution: {}s",
+                resource, start, end, resolutionSec);
+        try {
+            return ResponseEntity.ok(sentinelService.queryMetricHistory(resource, start, end, resolutionSec));
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid metric history query: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/web/resources")
+    @Operation(summary = "Web 接口资源登记情况", description = "获取自动埋点生成的 Web 资源名、资源上限和溢出请求数")
+    public ResponseEntity<Map<String, Object>> getWebResourceState() {
+        log.info("Get Sentinel web resource state");
+        return ResponseEntity.ok(sentinelService.getWebResourceState());
+    }
+
+    @GetMapping("/cluster/state")
+    @Operation(summary = "集群流控状态", description = "获取本节点的集群角色及令牌服务器/客户端统计")
+    public ResponseEntity<Map<String, Object>> getClusterState() {
+        log.info("Get cluster flow control state");
+        return ResponseEntity.ok(sentinelService.getClusterState());
+    }
+
     @GetMapping("/statistics/all")
     @Operation(summary = "获取所有资源的统计信息", description = "查询所有已定义资源的实时指标")
     public ResponseEntity<Map<String, SentinelMetricsDto>> getAllStatistics() {
@@ -342,6 +399,43 @@ public class SentinelController {
         ));
     }
 
+    @PostMapping("/rules/cluster-flow")
+    @Operation(summary = "添加集群流控规则", description = "动态添加由令牌服务器统一计数的集群流控规则")
+    public ResponseEntity<Map<String, String>> addClusterFlowRule(
+            @Parameter(description = "资源名称", example = "flowControlResource")
+            @RequestParam String resource,
+            @Parameter(description = "QPS 阈值", example = "100")
+            @RequestParam int count,
+            @Parameter(description = "集群规则 ID（集群内唯一）", example = "1001")
+            @RequestParam long flowId,
+            @Parameter(description = "阈值类型: 0-单机均摊, 1-集群总阈值", example = "1")
+            @RequestParam(defaultValue = "1") int thresholdType,
+            @Parameter(description = "令牌服务器不可达时是否回退到本地阈值", example = "true")
+            @RequestParam(defaultValue = "true") boolean fallbackToLocal) {
+        log.info("Add cluster flow rule - resource: {}, count: {}, flowId: {}", resource, count, flowId);
+        sentinelService.addClusterFlowRule(resource, count, flowId, thresholdType, fallbackToLocal);
+        return ResponseEntity.ok(Map.of(
+                "message", "Cluster flow rule added successfully",
+                "resource", resource,
+                "count", String.valueOf(count),
+                "flowId", String.valueOf(flowId),
+                "thresholdType", String.valueOf(thresholdType),
+                "fallbackToLocal", String.valueOf(fallbackToLocal),
+                "timestamp", LocalDateTime.now().toString()
+        ));
+    }
+
+    @PostMapping("/rules/batch")
+    @Operation(summary = "批量变更规则", description = "一次提交新增/更新/删除的流控和降级规则，整批校验后只重新加载一次规则")
+    @ApiResponse(responseCode = "200", description = "整批生效")
+    @ApiResponse(responseCode = "400", description = "校验失败，整批未生效")
+    public ResponseEntity<SentinelRuleBatchResultDto> applyRuleBatch(@RequestBody SentinelRuleBatchRequestDto request) {
+        log.info("Apply rule batch - add: {}, update: {}, remove: {}",
+                sizeOf(request.getAdd()), sizeOf(request.getUpdate()), sizeOf(request.getRemove()));
+        SentinelRuleBatchResultDto result = sentinelService.applyRuleBatch(request);
+        return result.isApplied() ? ResponseEntity.ok(result) : ResponseEntity.badRequest().body(result);
+    }
+
     @PostMapping("/rules/system")
     @Operation(summary = "添加系统规则", description = "动态添加系统自适应保护规则")
     public ResponseEntity<Map<String, String>> addSystemRule(
@@ -483,17 +577,24 @@ public class SentinelController {
         apiEndpoints.put("exceptionRatioDegrade", "GET /api/sentinel/degrade/exception-ratio");
         apiEndpoints.put("paramFlow", "GET /api/sentinel/hotspot");
         apiEndpoints.put("frequentUserFlow", "GET /api/sentinel/hotspot/frequent-user");
+        apiEndpoints.put("paramFlowStatistics", "GET /api/sentinel/hotspot/statistics");
         apiEndpoints.put("systemCpu", "GET /api/sentinel/system/cpu");
         apiEndpoints.put("systemRt", "GET /api/sentinel/system/rt");
         apiEndpoints.put("systemConcurrency", "GET /api/sentinel/system/concurrency");
         apiEndpoints.put("systemQps", "GET /api/sentinel/system/qps");
+        apiEndpoints.put("adaptiveSystemState", "GET /api/sentinel/system/adaptive");
         apiEndpoints.put("exceptionTrace", "GET /api/sentinel/exception-trace");
         apiEndpoints.put("statistics", "GET /api/sentinel/statistics");
         apiEndpoints.put("allStatistics", "GET /api/sentinel/statistics/all");
+        apiEndpoints.put("metricHistory", "GET /api/sentinel/metrics/history");
         apiEndpoints.put("allRules", "GET /api/sentinel/rules");
         apiEndpoints.put("addFlowRule", "POST /api/sentinel/rules/flow");
         apiEndpoints.put("addDegradeRule", "POST /api/sentinel/rules/degrade");
         apiEndpoints.put("addParamFlowRule", "POST /api/sentinel/rules/param-flow");
+        apiEndpoints.put("addClusterFlowRule", "POST /api/sentinel/rules/cluster-flow");
+        apiEndpoints.put("applyRuleBatch", "POST /api/sentinel/rules/batch");
+        apiEndpoints.put("clusterState", "GET /api/sentinel/cluster/state");
+        apiEndpoints.put("webResources", "GET /api/sentinel/web/resources");
         apiEndpoints.put("addSystemRule", "POST /api/sentinel/rules/system");
         apiEndpoints.put("removeFlowRule", "DELETE /api/sentinel/rules/flow/{resource}");
         apiEndpoints.put("removeDegradeRule", "DELETE /api/sentinel/rules/degrade/{resource}");
@@ -545,4 +646,11 @@ public class SentinelController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(result);
         }
     }
+
+    /**
+     * 列表长度，null 视为空列表
+     */
+    private static int sizeOf(List<?> list) {
+        return list == null ? 0 : list.size();
+    }
 }
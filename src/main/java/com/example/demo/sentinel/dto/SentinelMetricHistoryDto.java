@@ -0,0 +1,83 @@
+package com.example.demo.sentinel.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Sentinel 历史指标查询结果 DTO（来自指标日志，按分辨率聚合）
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SentinelMetricHistoryDto {
+
+    /**
+     * 资源名称
+     */
+    private String resource;
+
+    /**
+     * 查询区间（毫秒时间戳）
+     */
+    private long startTime;
+    private long endTime;
+
+    /**
+     * 请求的分辨率和实际使用的分辨率（秒），区间过长时会被放大以限制返回的点数
+     */
+    private int requestedResolutionSec;
+    private long resolutionSec;
+
+    /**
+     * 读取的日志文件数、映射的字节数、命中的日志行数
+     */
+    private int filesScanned;
+    private long bytesMapped;
+    private long linesMatched;
+
+    /**
+     * 查询耗时（毫秒）
+     */
+    private double queryMs;
+
+    /**
+     * 有数据的聚合点，按时间升序
+     */
+    private List<MetricPoint> points;
+
+    /**
+     * 聚合点内部类
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class MetricPoint {
+        /**
+         * 桶起始时间（毫秒时间戳）
+         */
+        private long timestamp;
+
+        /**
+         * 桶内通过、拒绝、成功、异常的请求总数
+         */
+        private long passCount;
+        private long blockCount;
+        private long successCount;
+        private long exceptionCount;
+
+        /**
+         * 平均响应时间（毫秒，按成功数加权）
+         */
+        private double averageRt;
+
+        /**
+         * 桶内最大并发数
+         */
+        private long maxConcurrency;
+    }
+}
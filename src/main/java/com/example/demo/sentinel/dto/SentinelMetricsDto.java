@@ -57,9 +57,42 @@ public class SentinelMetricsDto {
      */
     private long concurrency;
 
+    /**
+     * 平均响应时间（毫秒，保留小数）
+     */
+    private double averageRtMs;
+
+    /**
+     * 最小响应时间（毫秒）
+     */
+    private double minRtMs;
+
+    /**
+     * 最近 1 秒窗口的 QPS
+     */
+    private WindowMetrics secondWindow;
+
+    /**
+     * 最近 1 分钟窗口的平均 QPS
+     */
+    private WindowMetrics minuteWindow;
+
     /**
      * 时间戳
      */
     @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
     private LocalDateTime timestamp;
+
+    /**
+     * 滑动窗口内的各类 QPS
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class WindowMetrics {
+        private double passQps;
+        private double blockQps;
+        private double exceptionQps;
+        private double successQps;
+    }
 }
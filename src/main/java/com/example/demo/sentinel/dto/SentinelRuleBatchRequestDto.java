@@ -0,0 +1,39 @@
+package com.example.demo.sentinel.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sentinel 规则批量变更请求 DTO
+ * 同一批次内的新增、更新、删除作为一个整体校验和生效；规则以 ruleType + resource 标识，
+ * 目前支持 FLOW 和 DEGRADE 两类规则
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SentinelRuleBatchRequestDto {
+
+    /**
+     * 新增的规则（同类型同资源的规则已存在时整批拒绝）
+     */
+    @Builder.Default
+    private List<SentinelRuleDto> add = new ArrayList<>();
+
+    /**
+     * 更新的规则（替换同类型同资源的已有规则，不存在时整批拒绝）
+     */
+    @Builder.Default
+    private List<SentinelRuleDto> update = new ArrayList<>();
+
+    /**
+     * 删除的规则（只需 ruleType 和 resource，不存在时整批拒绝）
+     */
+    @Builder.Default
+    private List<SentinelRuleDto> remove = new ArrayList<>();
+}
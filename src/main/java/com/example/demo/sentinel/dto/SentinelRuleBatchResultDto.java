@@ -0,0 +1,56 @@
+package com.example.demo.sentinel.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Sentinel 规则批量变更结果 DTO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SentinelRuleBatchResultDto {
+
+    /**
+     * 是否已生效（校验失败时整批不生效）
+     */
+    private boolean applied;
+
+    /**
+     * 新增、更新、删除的规则数
+     */
+    private int added;
+    private int updated;
+    private int removed;
+
+    /**
+     * 生效后的流控规则数和降级规则数
+     */
+    private int flowRuleCount;
+    private int degradeRuleCount;
+
+    /**
+     * 校验耗时（毫秒）
+     */
+    private double validationMs;
+
+    /**
+     * loadRules 重新加载耗时（毫秒），未生效时为 0
+     */
+    private double reloadMs;
+
+    /**
+     * 校验错误
+     */
+    private List<String> errors;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime timestamp;
+}
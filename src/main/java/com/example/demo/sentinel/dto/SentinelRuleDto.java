@@ -35,10 +35,25 @@ public class SentinelRuleDto {
     private String grade;
 
     /**
-     * 流控策略：DIRECT（直接）、RELATE（关联）、LINK（链路）
+     * 流控效果：DIRECT（快速失败）、WARM_UP（预热）、THROTTLING（匀速排队）、WARM_UP_THROTTLING（预热 + 排队等待）
      */
     private String controlBehavior;
 
+    /**
+     * 限流应用（仅用于流控规则），默认 default
+     */
+    private String limitApp;
+
+    /**
+     * 预热时长（秒，仅用于 WARM_UP 流控效果）
+     */
+    private Integer warmUpPeriodSec;
+
+    /**
+     * 最大排队等待时间（毫秒，仅用于 THROTTLING 流控效果）
+     */
+    private Integer maxQueueingTimeMs;
+
     /**
      * 降级策略：SLOW_REQUEST_RATIO（慢调用比例）、EXCEPTION_RATIO（异常比例）、EXCEPTION_COUNT（异常数）
      */
@@ -0,0 +1,33 @@
+package com.example.demo.sentinel.exception;
+
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+
+/**
+ * 热点参数限流拦截异常
+ * 由 HotParameterSlot 在参数值超过 QPS 阈值时抛出，作为 BlockException 交给 blockHandler 处理
+ */
+public class ParamFlowBlockException extends BlockException {
+
+    private final String resource;
+    private final String paramName;
+    private final String paramValue;
+
+    public ParamFlowBlockException(String resource, String paramName, String paramValue) {
+        super("default", "Hot parameter blocked - resource: " + resource + ", " + paramName + ": " + paramValue);
+        this.resource = resource;
+        this.paramName = paramName;
+        this.paramValue = paramValue;
+    }
+
+    public String getResource() {
+        return resource;
+    }
+
+    public String getParamName() {
+        return paramName;
+    }
+
+    public String getParamValue() {
+        return paramValue;
+    }
+}
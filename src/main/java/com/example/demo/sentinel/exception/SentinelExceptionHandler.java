@@ -21,10 +21,11 @@ import java.util.Map;
  * Sentinel 异常处理器
  * 处理 Sentinel 的各种阻塞异常
  *
- * 优先级设置为 1，在通用异常处理器之前执行
+ * 优先级设置为 0，在通用异常处理器（JooqExceptionHandler 的 Exception 兜底）之前执行，
+ * SentinelWebInterceptor 拦截请求时抛出的 BlockException 由这里返回 429/503
  */
 @Slf4j
-@Order(1)
+@Order(0)
 @RestControllerAdvice
 public class SentinelExceptionHandler {
 
@@ -0,0 +1,222 @@
+package com.example.demo.sentinel.model;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * 自适应系统保护（BBR 风格）
+ * 不依赖线程数，使用在途请求数判断过载，请求运行在虚拟线程上时依然有效：
+ * 1. 进程 CPU 使用率（指数平滑）超过阈值时，若在途请求数超过 maxPassQps x minRt 估算出的系统容量则拒绝
+ * 2. 拒绝后的 coolOffMs 内即使 CPU 回落也继续按容量判断，避免在阈值附近来回抖动
+ * 3. maxPassQps 和 minRt 取自滑动窗口中已结束的桶，当前桶的数据不完整不参与估算
+ * 4. 可选的在途请求数硬上限，超过时直接拒绝
+ */
+public class AdaptiveSystemGuard {
+
+    /**
+     * CPU 指数平滑系数：新值 = 旧值 x DECAY + 采样值 x (1 - DECAY)
+     */
+    private static final double CPU_DECAY = 0.8;
+
+    private final double cpuThreshold;
+    private final int maxInFlight;
+    private final long coolOffMs;
+    private final long bucketLengthMs;
+    private final AtomicReferenceArray<Bucket> buckets;
+    private final DoubleSupplier cpuUsageSupplier;
+    private final LongSupplier clock;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder passedRequests = new LongAdder();
+    private final LongAdder blockedRequests = new LongAdder();
+
+    private volatile double cpuUsage;
+    private volatile long lastDropMs = -1;
+    private volatile long capacityBucketStart = -1;
+    private volatile long cachedCapacity = Long.MAX_VALUE;
+
+    /**
+     * @param cpuThreshold     触发容量判断的进程 CPU 使用率（0~1）
+     * @param maxInFlight      在途请求数硬上限，<= 0 表示不限制
+     * @param windowMs         统计窗口长度（毫秒）
+     * @param bucketCount      窗口内的桶数
+     * @param coolOffMs        拒绝后的冷却时间（毫秒）
+     * @param cpuUsageSupplier 进程 CPU 使用率采样（0~1，不可用时返回负数）
+     * @param clock            毫秒时钟
+     */
+    public AdaptiveSystemGuard(double cpuThreshold, int maxInFlight, long windowMs, int bucketCount, long coolOffMs,
+                               DoubleSupplier cpuUsageSupplier, LongSupplier clock) {
+        if (bucketCount <= 1 || windowMs < bucketCount) {
+            throw new IllegalArgumentException("windowMs must be >= bucketCount and bucketCount must be > 1");
+        }
+        this.cpuThreshold = cpuThreshold;
+        this.maxInFlight = maxInFlight;
+        this.coolOffMs = coolOffMs;
+        this.bucketLengthMs = windowMs / bucketCount;
+        this.buckets = new AtomicReferenceArray<>(bucketCount);
+        this.cpuUsageSupplier = cpuUsageSupplier;
+        this.clock = clock;
+    }
+
+    /**
+     * 采样一次进程 CPU 使用率（由定时任务调用）
+     */
+    public void sampleCpu() {
+        double sample = cpuUsageSupplier.getAsDouble();
+        if (sample >= 0) {
+            cpuUsage = cpuUsage * CPU_DECAY + sample * (1 - CPU_DECAY);
+        }
+    }
+
+    /**
+     * 请求进入：允许时在途请求数加一，必须与 {@link #exit(long)} 或 {@link #release()} 成对调用
+     *
+     * @return false 表示系统过载，请求应被拒绝
+     */
+    public boolean tryEnter() {
+        while (true) {
+            int current = inFlight.get();
+            if ((maxInFlight > 0 && current >= maxInFlight) || shouldDrop(current)) {
+                blockedRequests.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 请求正常完成：在途请求数减一，并记录完成数和响应时间
+     */
+    public void exit(long rtMs) {
+        inFlight.decrementAndGet();
+        passedRequests.increment();
+        currentBucket(clock.getAsLong()).record(Math.max(1, rtMs));
+    }
+
+    /**
+     * 请求未执行（被后续规则拦截等）：只释放在途计数，不计入容量统计
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    private boolean shouldDrop(int current) {
+        long now = clock.getAsLong();
+        if (cpuUsage < cpuThreshold) {
+            long lastDrop = lastDropMs;
+            if (lastDrop < 0) {
+                return false;
+            }
+            if (now - lastDrop > coolOffMs) {
+                lastDropMs = -1;
+                return false;
+            }
+            return current > 1 && current > capacity(now);
+        }
+        boolean drop = current > 1 && current > capacity(now);
+        if (drop) {
+            lastDropMs = now;
+        }
+        return drop;
+    }
+
+    /**
+     * 系统容量估算：ceil(maxPassQps x minRt / 1000)，没有已结束的桶时不限制
+     * 每个桶周期只计算一次
+     */
+    long capacity(long now) {
+        long bucketStart = now - now % bucketLengthMs;
+        if (capacityBucketStart == bucketStart) {
+            return cachedCapacity;
+        }
+        long windowStart = bucketStart - bucketLengthMs * buckets.length();
+        long maxPass = 0;
+        long minRt = Long.MAX_VALUE;
+        for (int i = 0; i < buckets.length(); i++) {
+            Bucket bucket = buckets.get(i);
+            if (bucket == null || bucket.start >= bucketStart || bucket.start < windowStart) {
+                continue;
+            }
+            long passes = bucket.passes.sum();
+            if (passes == 0) {
+                continue;
+            }
+            maxPass = Math.max(maxPass, passes);
+            minRt = Math.min(minRt, bucket.minRt.get());
+        }
+        long capacity = maxPass == 0
+                ? Long.MAX_VALUE
+                : (long) Math.ceil(maxPass * (1000.0 / bucketLengthMs) * minRt / 1000.0);
+        cachedCapacity = capacity;
+        capacityBucketStart = bucketStart;
+        return capacity;
+    }
+
+    private Bucket currentBucket(long now) {
+        long bucketStart = now - now % bucketLengthMs;
+        int index = (int) ((now / bucketLengthMs) % buckets.length());
+        while (true) {
+            Bucket bucket = buckets.get(index);
+            if (bucket != null && bucket.start == bucketStart) {
+                return bucket;
+            }
+            Bucket fresh = new Bucket(bucketStart);
+            if (buckets.compareAndSet(index, bucket, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public double getCpuUsage() {
+        return cpuUsage;
+    }
+
+    /**
+     * 获取保护状态（用于监控）
+     */
+    public Map<String, Object> getStatistics() {
+        long now = clock.getAsLong();
+        long capacity = capacity(now);
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("inFlight", inFlight.get());
+        statistics.put("cpuUsage", cpuUsage);
+        statistics.put("cpuThreshold", cpuThreshold);
+        statistics.put("maxInFlight", maxInFlight);
+        statistics.put("estimatedCapacity", capacity == Long.MAX_VALUE ? -1 : capacity);
+        statistics.put("coolingOff", lastDropMs >= 0 && now - lastDropMs <= coolOffMs);
+        statistics.put("passedRequests", passedRequests.sum());
+        statistics.put("blockedRequests", blockedRequests.sum());
+        return statistics;
+    }
+
+    /**
+     * 单个统计桶：完成请求数和最小响应时间
+     */
+    private static final class Bucket {
+
+        private final long start;
+        private final LongAdder passes = new LongAdder();
+        private final AtomicLong minRt = new AtomicLong(Long.MAX_VALUE);
+
+        private Bucket(long start) {
+            this.start = start;
+        }
+
+        private void record(long rtMs) {
+            passes.increment();
+            minRt.accumulateAndGet(rtMs, Math::min);
+        }
+    }
+}
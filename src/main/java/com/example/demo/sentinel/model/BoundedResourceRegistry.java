@@ -0,0 +1,73 @@
+package com.example.demo.sentinel.model;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 资源名登记表，限制自动生成的 Sentinel 资源数量
+ * Sentinel 为每个资源创建独立的调用链和统计节点（全局上限 Constants.MAX_SLOT_CHAIN_SIZE = 6000，
+ * 超过后新资源不再做任何规则检查），因此自动埋点的资源数必须有上限：
+ * 已登记的名称直接返回，登记数达到 maxResources 后新名称统一归入 overflowResource
+ */
+public class BoundedResourceRegistry {
+
+    private final int maxResources;
+    private final String overflowResource;
+    private final Map<String, String> resources = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final LongAdder overflowRequests = new LongAdder();
+
+    public BoundedResourceRegistry(int maxResources, String overflowResource) {
+        if (maxResources <= 0) {
+            throw new IllegalArgumentException("maxResources must be positive");
+        }
+        this.maxResources = maxResources;
+        this.overflowResource = overflowResource;
+    }
+
+    /**
+     * 返回候选名称对应的资源名：已登记或仍有名额时为候选名称本身，否则为 overflowResource
+     */
+    public String resolve(String candidate) {
+        String existing = resources.get(candidate);
+        if (existing != null) {
+            return existing;
+        }
+        // 先占名额再登记，保证并发登记时总数不超过上限
+        if (size.incrementAndGet() > maxResources) {
+            size.decrementAndGet();
+            overflowRequests.increment();
+            return overflowResource;
+        }
+        existing = resources.putIfAbsent(candidate, candidate);
+        if (existing != null) {
+            size.decrementAndGet();
+            return existing;
+        }
+        return candidate;
+    }
+
+    public Set<String> getResources() {
+        return resources.keySet();
+    }
+
+    public String getOverflowResource() {
+        return overflowResource;
+    }
+
+    /**
+     * 获取登记表统计信息（用于监控）
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("resourceCount", resources.size());
+        statistics.put("maxResources", maxResources);
+        statistics.put("overflowResource", overflowResource);
+        statistics.put("overflowRequests", overflowRequests.sum());
+        return statistics;
+    }
+}
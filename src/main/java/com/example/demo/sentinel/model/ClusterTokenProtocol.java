@@ -0,0 +1,71 @@
+package com.example.demo.sentinel.model;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * 集群令牌请求的二进制协议（TCP 长连接，定长帧）
+ * 请求：xid(int) + flowId(long) + acquireCount(int) + prioritized(byte)
+ * 响应：xid(int) + status(int) + remaining(int) + waitInMs(int)
+ * status 取值与 Sentinel 的 TokenResultStatus 一致；客户端按 xid 匹配响应，同一连接上可并发多个请求
+ */
+final class ClusterTokenProtocol {
+
+    private ClusterTokenProtocol() {
+    }
+
+    static void writeRequest(DataOutputStream out, int xid, long flowId, int acquireCount, boolean prioritized)
+            throws IOException {
+        out.writeInt(xid);
+        out.writeLong(flowId);
+        out.writeInt(acquireCount);
+        out.writeByte(prioritized ? 1 : 0);
+    }
+
+    static Request readRequest(DataInputStream in) throws IOException {
+        return new Request(in.readInt(), in.readLong(), in.readInt(), in.readByte() != 0);
+    }
+
+    static void writeResponse(DataOutputStream out, int xid, int status, int remaining, int waitInMs)
+            throws IOException {
+        out.writeInt(xid);
+        out.writeInt(status);
+        out.writeInt(remaining);
+        out.writeInt(waitInMs);
+    }
+
+    static Response readResponse(DataInputStream in) throws IOException {
+        return new Response(in.readInt(), in.readInt(), in.readInt(), in.readInt());
+    }
+
+    static final class Request {
+
+        final int xid;
+        final long flowId;
+        final int acquireCount;
+        final boolean prioritized;
+
+        private Request(int xid, long flowId, int acquireCount, boolean prioritized) {
+            this.xid = xid;
+            this.flowId = flowId;
+            this.acquireCount = acquireCount;
+            this.prioritized = prioritized;
+        }
+    }
+
+    static final class Response {
+
+        final int xid;
+        final int status;
+        final int remaining;
+        final int waitInMs;
+
+        private Response(int xid, int status, int remaining, int waitInMs) {
+            this.xid = xid;
+            this.status = status;
+            this.remaining = remaining;
+            this.waitInMs = waitInMs;
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package com.example.demo.sentinel.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * 热点参数限流器
+ * 对资源某个参数位置上的每个参数值按 QPS 限流，参数值种类再多内存也保持不变：
+ * 1. 冷路径：参数值只在 {@link ParameterFrequencySketch} 中计数，不分配对象，不会被拦截
+ * 2. 估计次数达到阈值的一半时晋升为热点，进入容量固定的精确计数表，以估计值作为当前窗口的初始计数
+ * 3. 热点参数值按精确的滑动窗口计数判定，超过阈值即拦截；计数表满时淘汰最久未访问的参数值
+ * 同一资源有多条规则时先用 {@link #canPass} 检查所有规则，全部放行后再用 {@link #acquire} 计数，
+ * 被其中一条规则拦截的调用不会占用其他规则的配额
+ */
+public class HotParameterLimiter {
+
+    private static final int TOP_KEYS_LIMIT = 10;
+
+    private final String resource;
+    private final int paramIdx;
+    private final String paramName;
+    private final double threshold;
+    private final long promotionThreshold;
+    private final int heavyKeyCapacity;
+    private final LongSupplier clock;
+    private final ParameterFrequencySketch sketch;
+    private final Map<Object, HeavyKey> heavyKeys = new ConcurrentHashMap<>();
+
+    private final LongAdder passedRequests = new LongAdder();
+    private final LongAdder blockedRequests = new LongAdder();
+    private final LongAdder promotions = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param resource         资源名称
+     * @param paramIdx         参数索引
+     * @param paramName        参数名称（仅用于展示）
+     * @param threshold        每个参数值的 QPS 阈值
+     * @param sketch           冷路径使用的频率估计
+     * @param heavyKeyCapacity 精确计数表容量
+     * @param clock            毫秒时钟，需与 sketch 使用同一时钟
+     */
+    public HotParameterLimiter(String resource, int paramIdx, String paramName, double threshold,
+                               ParameterFrequencySketch sketch, int heavyKeyCapacity, LongSupplier clock) {
+        if (paramIdx < 0 || threshold < 0 || heavyKeyCapacity <= 0) {
+            throw new IllegalArgumentException("Invalid param flow rule for resource: " + resource);
+        }
+        this.resource = resource;
+        this.paramIdx = paramIdx;
+        this.paramName = paramName;
+        this.threshold = threshold;
+        this.promotionThreshold = Math.max(1, (long) Math.ceil(threshold / 2));
+        this.heavyKeyCapacity = heavyKeyCapacity;
+        this.clock = clock;
+        this.sketch = sketch;
+    }
+
+    /**
+     * 按参数列表判定是否放行，参数个数不足或参数值为 null 时直接放行
+     */
+    public boolean tryPass(Object... args) {
+        if (args == null || paramIdx >= args.length) {
+            return true;
+        }
+        return tryPassValue(args[paramIdx]);
+    }
+
+    /**
+     * 判定单个参数值是否放行，参数值为 null 时直接放行
+     */
+    public boolean tryPassValue(Object value) {
+        if (value == null) {
+            return true;
+        }
+        HeavyKey heavy = heavyKeys.get(value);
+        if (heavy == null) {
+            long estimate = sketch.add(value);
+            if (estimate < promotionThreshold) {
+                passedRequests.increment();
+                return true;
+            }
+            // 估计值已包含本次调用，本次调用交给精确计数判定
+            heavy = promote(value, estimate - 1);
+        }
+
+        if (heavy.tryAcquire(clock.getAsLong(), threshold)) {
+            passedRequests.increment();
+            return true;
+        }
+        blockedRequests.increment();
+        return false;
+    }
+
+    /**
+     * 按参数列表检查是否放行，不计数；参数个数不足或参数值为 null 时直接放行
+     */
+    public boolean canPass(Object... args) {
+        if (args == null || paramIdx >= args.length) {
+            return true;
+        }
+        return canPassValue(args[paramIdx]);
+    }
+
+    /**
+     * 检查单个参数值是否放行，不计数
+     */
+    public boolean canPassValue(Object value) {
+        if (value == null) {
+            return true;
+        }
+        HeavyKey heavy = heavyKeys.get(value);
+        if (heavy != null) {
+            return heavy.canAcquire(clock.getAsLong(), threshold);
+        }
+        // 与 tryPassValue 一致：未达到晋升阈值直接放行，否则以晋升后的精确计数判定
+        long estimate = sketch.estimate(value) + 1;
+        return estimate < promotionThreshold || estimate <= threshold;
+    }
+
+    /**
+     * 为已通过 {@link #canPass} 检查的调用计数
+     */
+    public void acquire(Object... args) {
+        if (args == null || paramIdx >= args.length || args[paramIdx] == null) {
+            return;
+        }
+        Object value = args[paramIdx];
+        HeavyKey heavy = heavyKeys.get(value);
+        if (heavy == null) {
+            long estimate = sketch.add(value);
+            if (estimate < promotionThreshold) {
+                passedRequests.increment();
+                return;
+            }
+            heavy = promote(value, estimate - 1);
+        }
+        heavy.add(clock.getAsLong());
+        passedRequests.increment();
+    }
+
+    /**
+     * 记录一次被 {@link #canPass} 拦截的调用
+     */
+    public void recordBlocked() {
+        blockedRequests.increment();
+    }
+
+    /**
+     * 参数值在当前窗口内已放行的次数，热点取精确计数，其余取估计值
+     */
+    public long getCount(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        HeavyKey heavy = heavyKeys.get(value);
+        return heavy != null ? heavy.count(clock.getAsLong()) : sketch.estimate(value);
+    }
+
+    public boolean isHot(Object value) {
+        return value != null && heavyKeys.containsKey(value);
+    }
+
+    private HeavyKey promote(Object value, long initialCount) {
+        synchronized (heavyKeys) {
+            HeavyKey existing = heavyKeys.get(value);
+            if (existing != null) {
+                return existing;
+            }
+            if (heavyKeys.size() >= heavyKeyCapacity) {
+                evictLeastRecentlyUsed();
+            }
+            long now = clock.getAsLong();
+            HeavyKey heavy = new HeavyKey(sketch.getSampleCount(),
+                    sketch.getWindowLengthMs() / sketch.getSampleCount(), now, initialCount);
+            heavyKeys.put(value, heavy);
+            promotions.increment();
+            return heavy;
+        }
+    }
+
+    private void evictLeastRecentlyUsed() {
+        heavyKeys.entrySet().stream()
+                .min(Comparator.comparingLong(entry -> entry.getValue().lastAccessMs))
+                .ifPresent(entry -> {
+                    heavyKeys.remove(entry.getKey());
+                    evictions.increment();
+                });
+    }
+
+    /**
+     * 清空计数（规则保留）
+     */
+    public void reset() {
+        synchronized (heavyKeys) {
+            heavyKeys.clear();
+        }
+        sketch.clear();
+    }
+
+    public String getResource() {
+        return resource;
+    }
+
+    public int getParamIdx() {
+        return paramIdx;
+    }
+
+    public String getParamName() {
+        return paramName;
+    }
+
+    public double getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * 获取限流统计信息（用于监控），topKeys 为当前窗口计数最高的热点参数值
+     */
+    public Map<String, Object> getStatistics() {
+        long now = clock.getAsLong();
+        List<Map.Entry<Object, Long>> counts = new ArrayList<>();
+        heavyKeys.forEach((value, heavy) -> counts.add(Map.entry(value, heavy.count(now))));
+        counts.sort(Map.Entry.<Object, Long>comparingByValue().reversed());
+        Map<String, Long> topKeys = new LinkedHashMap<>();
+        counts.stream().limit(TOP_KEYS_LIMIT).forEach(entry -> topKeys.put(String.valueOf(entry.getKey()), entry.getValue()));
+
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("resource", resource);
+        statistics.put("paramIdx", paramIdx);
+        statistics.put("paramName", paramName);
+        statistics.put("threshold", threshold);
+        statistics.put("passedRequests", passedRequests.sum());
+        statistics.put("blockedRequests", blockedRequests.sum());
+        statistics.put("heavyKeyCount", heavyKeys.size());
+        statistics.put("heavyKeyCapacity", heavyKeyCapacity);
+        statistics.put("promotions", promotions.sum());
+        statistics.put("evictions", evictions.sum());
+        statistics.put("sketchDepth", sketch.getDepth());
+        statistics.put("sketchWidth", sketch.getWidth());
+        statistics.put("sketchMemoryBytes", sketch.getMemoryBytes());
+        statistics.put("topKeys", topKeys);
+        return statistics;
+    }
+
+    /**
+     * 热点参数值的精确滑动窗口计数，桶划分与 sketch 一致
+     */
+    private static final class HeavyKey {
+
+        private final long bucketLengthMs;
+        private final long windowLengthMs;
+        private final long[] starts;
+        private final long[] counts;
+        private volatile long lastAccessMs;
+
+        private HeavyKey(int sampleCount, long bucketLengthMs, long now, long initialCount) {
+            this.bucketLengthMs = bucketLengthMs;
+            this.windowLengthMs = bucketLengthMs * sampleCount;
+            this.starts = new long[sampleCount];
+            this.counts = new long[sampleCount];
+            Arrays.fill(starts, -1);
+            int index = index(now);
+            starts[index] = now - now % bucketLengthMs;
+            counts[index] = initialCount;
+            this.lastAccessMs = now;
+        }
+
+        private synchronized boolean tryAcquire(long now, double threshold) {
+            lastAccessMs = now;
+            if (sum(now) + 1 > threshold) {
+                return false;
+            }
+            add(now);
+            return true;
+        }
+
+        private synchronized boolean canAcquire(long now, double threshold) {
+            return sum(now) + 1 <= threshold;
+        }
+
+        private synchronized void add(long now) {
+            lastAccessMs = now;
+            int index = index(now);
+            long bucketStart = now - now % bucketLengthMs;
+            if (starts[index] != bucketStart) {
+                starts[index] = bucketStart;
+                counts[index] = 0;
+            }
+            counts[index]++;
+        }
+
+        private synchronized long count(long now) {
+            return sum(now);
+        }
+
+        private long sum(long now) {
+            long sum = 0;
+            for (int i = 0; i < starts.length; i++) {
+                if (starts[i] >= 0 && now - starts[i] < windowLengthMs) {
+                    sum += counts[i];
+                }
+            }
+            return sum;
+        }
+
+        private int index(long now) {
+            return (int) ((now / bucketLengthMs) % starts.length);
+        }
+    }
+}
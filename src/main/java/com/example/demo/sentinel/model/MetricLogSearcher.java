@@ -0,0 +1,371 @@
+package com.example.demo.sentinel.model;
+
+import com.alibaba.csp.sentinel.node.metric.MetricWriter;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Sentinel 指标日志检索器
+ * 读取 MetricWriter 写出的 {app}-metrics.log.yyyy-MM-dd[.n] 及其 .idx 索引文件：
+ * 1. 索引文件是按秒递增的定长记录（秒级时间戳 long + 该秒第一行在日志中的偏移 long），
+ *    内存映射后二分查找起止时间，直接定位到日志中的字节区间，不扫描区间外的内容
+ * 2. 日志区间按窗口内存映射后逐字节解析，只比较资源名字节，不为每一行创建字符串
+ * 3. 结果按分辨率聚合到桶中，内存只与桶数有关，与查询的时间跨度和日志大小无关
+ */
+public class MetricLogSearcher {
+
+    /**
+     * 索引记录长度：秒级时间戳 + 日志偏移
+     */
+    private static final int INDEX_ENTRY_BYTES = 16;
+
+    /**
+     * 单次映射的日志窗口上限，超出时按行边界分段映射
+     */
+    private static final long MAX_MAP_WINDOW_BYTES = 64L * 1024 * 1024;
+
+    private final Path baseDir;
+    private final String baseFileName;
+    private final int maxPoints;
+
+    /**
+     * @param baseDir      日志目录
+     * @param baseFileName 指标日志基础文件名（MetricWriter.formMetricFileName 的结果）
+     * @param maxPoints    单次查询最多返回的桶数，超出时自动放大分辨率
+     */
+    public MetricLogSearcher(Path baseDir, String baseFileName, int maxPoints) {
+        if (maxPoints <= 0) {
+            throw new IllegalArgumentException("maxPoints must be positive");
+        }
+        this.baseDir = baseDir;
+        this.baseFileName = baseFileName;
+        this.maxPoints = maxPoints;
+    }
+
+    /**
+     * 查询资源在 [startMs, endMs] 内的指标并按分辨率聚合
+     *
+     * @param resource      资源名称
+     * @param startMs       起始时间（毫秒，包含）
+     * @param endMs         结束时间（毫秒，包含）
+     * @param resolutionSec 期望的聚合分辨率（秒）
+     */
+    public SearchResult search(String resource, long startMs, long endMs, int resolutionSec) throws IOException {
+        if (resource == null || resource.isEmpty()) {
+            throw new IllegalArgumentException("resource must not be empty");
+        }
+        if (endMs < startMs) {
+            throw new IllegalArgumentException("endMs must not be earlier than startMs");
+        }
+        if (resolutionSec <= 0) {
+            throw new IllegalArgumentException("resolutionSec must be positive");
+        }
+
+        long startSec = startMs / 1000;
+        long endSec = endMs / 1000;
+        long spanSec = endSec - startSec + 1;
+        long resolution = Math.max(resolutionSec, (spanSec + maxPoints - 1) / maxPoints);
+        SearchResult result = new SearchResult(startSec * 1000, resolution, (int) ((spanSec + resolution - 1) / resolution));
+
+        byte[] target = resource.getBytes(StandardCharsets.UTF_8);
+        for (Path metricFile : listMetricFiles()) {
+            searchFile(metricFile, target, startMs, endMs, result);
+        }
+        return result;
+    }
+
+    private List<Path> listMetricFiles() throws IOException {
+        List<Path> files = new ArrayList<>();
+        if (!Files.isDirectory(baseDir)) {
+            return files;
+        }
+        try (Stream<Path> stream = Files.list(baseDir)) {
+            stream.filter(path -> {
+                String name = path.getFileName().toString();
+                return MetricWriter.fileNameMatches(name, baseFileName)
+                        && !name.endsWith(MetricWriter.METRIC_FILE_INDEX_SUFFIX)
+                        && !name.endsWith(".lck")
+                        && Files.isRegularFile(indexFileOf(path));
+            }).forEach(files::add);
+        }
+        return files;
+    }
+
+    private static Path indexFileOf(Path metricFile) {
+        return metricFile.resolveSibling(metricFile.getFileName() + MetricWriter.METRIC_FILE_INDEX_SUFFIX);
+    }
+
+    private void searchFile(Path metricFile, byte[] target, long startMs, long endMs, SearchResult result)
+            throws IOException {
+        long from;
+        long to;
+        try (FileChannel index = FileChannel.open(indexFileOf(metricFile), StandardOpenOption.READ)) {
+            long entries = index.size() / INDEX_ENTRY_BYTES;
+            if (entries == 0) {
+                return;
+            }
+            MappedByteBuffer indexBuffer = index.map(FileChannel.MapMode.READ_ONLY, 0, entries * INDEX_ENTRY_BYTES);
+            long first = lowerBound(indexBuffer, entries, startMs / 1000);
+            if (first == entries || secondAt(indexBuffer, first) > endMs / 1000) {
+                return;
+            }
+            long last = lowerBound(indexBuffer, entries, endMs / 1000 + 1);
+            from = offsetAt(indexBuffer, first);
+            to = last < entries ? offsetAt(indexBuffer, last) : Long.MAX_VALUE;
+        }
+
+        try (FileChannel data = FileChannel.open(metricFile, StandardOpenOption.READ)) {
+            to = Math.min(to, data.size());
+            result.filesScanned++;
+            long position = from;
+            while (position < to) {
+                long window = Math.min(MAX_MAP_WINDOW_BYTES, to - position);
+                MappedByteBuffer buffer = data.map(FileChannel.MapMode.READ_ONLY, position, window);
+                int consumed = parseLines(buffer, (int) window, target, startMs, endMs, result);
+                result.bytesMapped += window;
+                if (consumed == 0) {
+                    // 窗口内没有完整的行（文件尾部正在写入的半行），结束
+                    break;
+                }
+                position += consumed;
+            }
+        }
+    }
+
+    /**
+     * 第一个秒级时间戳 >= second 的索引位置，都小于时返回 entries
+     */
+    private static long lowerBound(MappedByteBuffer index, long entries, long second) {
+        long low = 0;
+        long high = entries;
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            if (secondAt(index, mid) < second) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static long secondAt(MappedByteBuffer index, long entry) {
+        return index.getLong((int) (entry * INDEX_ENTRY_BYTES));
+    }
+
+    private static long offsetAt(MappedByteBuffer index, long entry) {
+        return index.getLong((int) (entry * INDEX_ENTRY_BYTES + Long.BYTES));
+    }
+
+    /**
+     * 解析窗口内的完整行
+     * 行格式：timestamp|yyyy-MM-dd HH:mm:ss|resource|passQps|blockQps|successQps|exceptionQps|rt|occupiedPassQps|concurrency|classification
+     *
+     * @return 已消费的字节数（到最后一个完整行的换行符为止）
+     */
+    private static int parseLines(MappedByteBuffer buffer, int limit, byte[] target, long startMs, long endMs,
+                                  SearchResult result) {
+        long[] fields = new long[8];
+        int lineStart = 0;
+        for (int i = 0; i < limit; i++) {
+            if (buffer.get(i) != '\n') {
+                continue;
+            }
+            parseLine(buffer, lineStart, i, target, startMs, endMs, fields, result);
+            lineStart = i + 1;
+        }
+        return lineStart;
+    }
+
+    private static void parseLine(MappedByteBuffer buffer, int start, int end, byte[] target, long startMs,
+                                  long endMs, long[] fields, SearchResult result) {
+        // 第 1 列：毫秒时间戳
+        int pos = start;
+        long timestamp = 0;
+        while (pos < end && buffer.get(pos) != '|') {
+            timestamp = timestamp * 10 + (buffer.get(pos++) - '0');
+        }
+        if (timestamp < startMs || timestamp > endMs) {
+            return;
+        }
+        // 第 2 列：格式化时间，跳过
+        pos = skipField(buffer, pos + 1, end);
+        // 第 3 列：资源名，按字节比较
+        int resourceStart = pos + 1;
+        pos = skipField(buffer, resourceStart, end);
+        if (!bytesEqual(buffer, resourceStart, pos, target)) {
+            return;
+        }
+        // 其余数值列，旧版本日志没有 concurrency/classification 时按 0 处理
+        int count = 0;
+        while (pos < end && count < fields.length) {
+            long value = 0;
+            pos++;
+            while (pos < end && buffer.get(pos) != '|') {
+                value = value * 10 + (buffer.get(pos++) - '0');
+            }
+            fields[count++] = value;
+        }
+        if (count < 5) {
+            return;
+        }
+        for (int i = count; i < fields.length; i++) {
+            fields[i] = 0;
+        }
+        result.linesMatched++;
+        result.bucketAt(timestamp).add(fields[0], fields[1], fields[2], fields[3], fields[4], fields[6]);
+    }
+
+    private static int skipField(MappedByteBuffer buffer, int pos, int end) {
+        while (pos < end && buffer.get(pos) != '|') {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static boolean bytesEqual(MappedByteBuffer buffer, int start, int end, byte[] target) {
+        if (end - start != target.length) {
+            return false;
+        }
+        for (int i = 0; i < target.length; i++) {
+            if (buffer.get(start + i) != target[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 检索结果：按分辨率聚合后的桶（没有数据的桶为 null）
+     */
+    public static final class SearchResult {
+
+        private final long startMs;
+        private final long resolutionSec;
+        private final Bucket[] buckets;
+        private int filesScanned;
+        private long bytesMapped;
+        private long linesMatched;
+
+        private SearchResult(long startMs, long resolutionSec, int bucketCount) {
+            this.startMs = startMs;
+            this.resolutionSec = resolutionSec;
+            this.buckets = new Bucket[bucketCount];
+        }
+
+        private Bucket bucketAt(long timestamp) {
+            int index = (int) ((timestamp - startMs) / (resolutionSec * 1000));
+            Bucket bucket = buckets[index];
+            if (bucket == null) {
+                bucket = new Bucket(startMs + index * resolutionSec * 1000);
+                buckets[index] = bucket;
+            }
+            return bucket;
+        }
+
+        /**
+         * 有数据的桶，按时间升序
+         */
+        public List<Bucket> getBuckets() {
+            List<Bucket> nonEmpty = new ArrayList<>();
+            for (Bucket bucket : buckets) {
+                if (bucket != null) {
+                    nonEmpty.add(bucket);
+                }
+            }
+            return nonEmpty;
+        }
+
+        /**
+         * 实际使用的分辨率（跨度超过 maxPoints 个桶时会被放大）
+         */
+        public long getResolutionSec() {
+            return resolutionSec;
+        }
+
+        public int getFilesScanned() {
+            return filesScanned;
+        }
+
+        public long getBytesMapped() {
+            return bytesMapped;
+        }
+
+        public long getLinesMatched() {
+            return linesMatched;
+        }
+    }
+
+    /**
+     * 单个聚合桶：QPS 类指标求和，RT 按成功数加权平均，并发数取最大值
+     */
+    public static final class Bucket {
+
+        private final long timestamp;
+        private long passQps;
+        private long blockQps;
+        private long successQps;
+        private long exceptionQps;
+        private long totalRt;
+        private long maxConcurrency;
+        private int seconds;
+
+        private Bucket(long timestamp) {
+            this.timestamp = timestamp;
+        }
+
+        private void add(long pass, long block, long success, long exception, long rt, long concurrency) {
+            passQps += pass;
+            blockQps += block;
+            successQps += success;
+            exceptionQps += exception;
+            totalRt += rt * success;
+            maxConcurrency = Math.max(maxConcurrency, concurrency);
+            seconds++;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public long getPassQps() {
+            return passQps;
+        }
+
+        public long getBlockQps() {
+            return blockQps;
+        }
+
+        public long getSuccessQps() {
+            return successQps;
+        }
+
+        public long getExceptionQps() {
+            return exceptionQps;
+        }
+
+        public double getAverageRt() {
+            return successQps > 0 ? (double) totalRt / successQps : 0;
+        }
+
+        public long getMaxConcurrency() {
+            return maxConcurrency;
+        }
+
+        /**
+         * 桶内有记录的秒数
+         */
+        public int getSeconds() {
+            return seconds;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.demo.sentinel.model;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.LongSupplier;
+
+/**
+ * 带时间窗口的 Count-Min Sketch
+ * 用固定大小的计数矩阵（depth 行 x width 列）估计参数值在滑动窗口内的出现次数：
+ * 1. 每个参数值在每一行按独立哈希落到一个计数格，估计值取各行计数的最小值，只会高估不会低估
+ * 2. 窗口按 sampleCount 个桶滚动（与 Sentinel LeapArray 相同），过期桶在下次写入时清零
+ * 3. 内存占用只与 depth、width、sampleCount 有关，与参数值的种类数无关
+ */
+public class ParameterFrequencySketch {
+
+    private final int depth;
+    private final int width;
+    private final int mask;
+    private final int sampleCount;
+    private final long bucketLengthMs;
+    private final long windowLengthMs;
+    private final LongSupplier clock;
+    private final Bucket[] buckets;
+
+    /**
+     * @param depth          哈希行数，越大估计越准、单次更新越慢
+     * @param width          每行计数格数，向上取整为 2 的幂
+     * @param windowLengthMs 统计窗口长度（毫秒）
+     * @param sampleCount    窗口内的桶数，必须整除 windowLengthMs
+     * @param clock          毫秒时钟
+     */
+    public ParameterFrequencySketch(int depth, int width, long windowLengthMs, int sampleCount, LongSupplier clock) {
+        if (depth <= 0 || width <= 0 || sampleCount <= 0 || windowLengthMs <= 0 || windowLengthMs % sampleCount != 0) {
+            throw new IllegalArgumentException("Invalid sketch configuration - depth: " + depth + ", width: " + width
+                    + ", windowLengthMs: " + windowLengthMs + ", sampleCount: " + sampleCount);
+        }
+        this.depth = depth;
+        this.width = width <= 1 ? 1 : Integer.highestOneBit(width - 1) << 1;
+        this.mask = this.width - 1;
+        this.sampleCount = sampleCount;
+        this.windowLengthMs = windowLengthMs;
+        this.bucketLengthMs = windowLengthMs / sampleCount;
+        this.clock = clock;
+        this.buckets = new Bucket[sampleCount];
+        for (int i = 0; i < sampleCount; i++) {
+            buckets[i] = new Bucket(depth * this.width);
+        }
+    }
+
+    /**
+     * 记录一次出现
+     *
+     * @return 记录后该参数值在当前窗口内的估计次数
+     */
+    public long add(Object value) {
+        long now = clock.getAsLong();
+        Bucket current = currentBucket(now);
+        int hash = hash(value);
+        int step = secondaryHash(hash);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int cell = row * width + ((hash + row * step) & mask);
+            current.counters.incrementAndGet(cell);
+            estimate = Math.min(estimate, sumValid(cell, now));
+        }
+        return estimate;
+    }
+
+    /**
+     * 估计参数值在当前窗口内的出现次数（不记录）
+     */
+    public long estimate(Object value) {
+        long now = clock.getAsLong();
+        int hash = hash(value);
+        int step = secondaryHash(hash);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, sumValid(row * width + ((hash + row * step) & mask), now));
+        }
+        return estimate;
+    }
+
+    /**
+     * 清空所有计数
+     */
+    public void clear() {
+        for (Bucket bucket : buckets) {
+            synchronized (bucket) {
+                bucket.reset(-1);
+            }
+        }
+    }
+
+    /**
+     * 计数矩阵占用的字节数（不含对象头）
+     */
+    public long getMemoryBytes() {
+        return (long) depth * width * sampleCount * Integer.BYTES;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public long getWindowLengthMs() {
+        return windowLengthMs;
+    }
+
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    private Bucket currentBucket(long now) {
+        long bucketStart = now - now % bucketLengthMs;
+        Bucket bucket = buckets[(int) ((now / bucketLengthMs) % sampleCount)];
+        if (bucket.start != bucketStart) {
+            synchronized (bucket) {
+                if (bucket.start != bucketStart) {
+                    bucket.reset(bucketStart);
+                }
+            }
+        }
+        return bucket;
+    }
+
+    private long sumValid(int cell, long now) {
+        long sum = 0;
+        for (Bucket bucket : buckets) {
+            long start = bucket.start;
+            if (start >= 0 && now - start < windowLengthMs) {
+                sum += bucket.counters.get(cell);
+            }
+        }
+        return sum;
+    }
+
+    private static int hash(Object value) {
+        // murmur3 fmix32，打散 String.hashCode 的低位
+        int h = value == null ? 0 : value.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private static int secondaryHash(int hash) {
+        // 双重哈希的步长取奇数，保证在 2 的幂宽度下各行落点不同
+        return (Integer.rotateLeft(hash, 16) * 0x9e3779b9) | 1;
+    }
+
+    private static final class Bucket {
+
+        private volatile long start = -1;
+        private final AtomicIntegerArray counters;
+
+        private Bucket(int size) {
+            this.counters = new AtomicIntegerArray(size);
+        }
+
+        private void reset(long newStart) {
+            for (int i = 0; i < counters.length(); i++) {
+                counters.set(i, 0);
+            }
+            start = newStart;
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.example.demo.sentinel.model;
+
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.TokenServerDescriptor;
+import com.alibaba.csp.sentinel.cluster.client.ClusterTokenClient;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 集群流控令牌客户端
+ * 通过一条 TCP 长连接向令牌服务器请求令牌，请求按 xid 复用同一连接：
+ * 1. 连接不可用、请求超时或服务器返回错误时返回 FAIL，由 Sentinel 按规则的 fallbackToLocalWhenFail 回退到本地规则
+ * 2. 断线后不在每次请求时重连，至少间隔 reconnectIntervalMs 才尝试一次，避免服务器宕机时拖慢调用方
+ */
+@Slf4j
+public class SocketClusterTokenClient implements ClusterTokenClient {
+
+    public static final int STATE_OFF = 0;
+    public static final int STATE_PENDING = 1;
+    public static final int STATE_STARTED = 2;
+
+    private final String host;
+    private final int port;
+    private final int connectTimeoutMs;
+    private final long requestTimeoutMs;
+    private final long reconnectIntervalMs;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    private volatile boolean started;
+    private volatile Connection connection;
+    private volatile long lastConnectAttemptMs;
+
+    /**
+     * @param host                令牌服务器地址
+     * @param port                令牌服务器端口
+     * @param connectTimeoutMs    建立连接超时（毫秒）
+     * @param requestTimeoutMs    单次令牌请求超时（毫秒）
+     * @param reconnectIntervalMs 断线后两次重连尝试的最小间隔（毫秒）
+     */
+    public SocketClusterTokenClient(String host, int port, int connectTimeoutMs, long requestTimeoutMs,
+                                    long reconnectIntervalMs) {
+        this.host = host;
+        this.port = port;
+        this.connectTimeoutMs = connectTimeoutMs;
+        this.requestTimeoutMs = requestTimeoutMs;
+        this.reconnectIntervalMs = reconnectIntervalMs;
+    }
+
+    @Override
+    public TokenServerDescriptor currentServer() {
+        return new TokenServerDescriptor(host, port);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (started) {
+            return;
+        }
+        started = true;
+        lastConnectAttemptMs = 0;
+        ensureConnected();
+        log.info("Cluster token client started, server: {}:{}, connected: {}", host, port, connection != null);
+    }
+
+    @Override
+    public synchronized void stop() {
+        started = false;
+        Connection current = connection;
+        connection = null;
+        if (current != null) {
+            current.close();
+        }
+        log.info("Cluster token client stopped");
+    }
+
+    @Override
+    public int getState() {
+        if (!started) {
+            return STATE_OFF;
+        }
+        return connection != null ? STATE_STARTED : STATE_PENDING;
+    }
+
+    @Override
+    public TokenResult requestToken(Long flowId, int acquireCount, boolean prioritized) {
+        if (flowId == null || acquireCount <= 0) {
+            return new TokenResult(TokenResultStatus.BAD_REQUEST);
+        }
+        requests.increment();
+        Connection current = ensureConnected();
+        if (current == null) {
+            failures.increment();
+            return new TokenResult(TokenResultStatus.FAIL);
+        }
+
+        int xid = current.xidGenerator.incrementAndGet();
+        CompletableFuture<ClusterTokenProtocol.Response> future = new CompletableFuture<>();
+        current.pending.put(xid, future);
+        try {
+            current.send(xid, flowId, acquireCount, prioritized);
+            ClusterTokenProtocol.Response response = future.get(requestTimeoutMs, TimeUnit.MILLISECONDS);
+            return new TokenResult(response.status)
+                    .setRemaining(response.remaining)
+                    .setWaitInMs(response.waitInMs);
+        } catch (TimeoutException e) {
+            log.debug("Cluster token request timed out - flowId: {}, xid: {}", flowId, xid);
+        } catch (IOException | ExecutionException e) {
+            log.debug("Cluster token request failed - flowId: {}", flowId, e);
+            disconnect(current);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            current.pending.remove(xid);
+        }
+        failures.increment();
+        return new TokenResult(TokenResultStatus.FAIL);
+    }
+
+    @Override
+    public TokenResult requestParamToken(Long flowId, int acquireCount, Collection<Object> params) {
+        return new TokenResult(TokenResultStatus.FAIL);
+    }
+
+    @Override
+    public TokenResult requestConcurrentToken(String clientAddress, Long ruleId, int acquireCount) {
+        return new TokenResult(TokenResultStatus.FAIL);
+    }
+
+    @Override
+    public void releaseConcurrentToken(Long tokenId) {
+        // 不支持集群并发数令牌
+    }
+
+    /**
+     * 获取客户端统计信息（用于监控）
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("server", host + ":" + port);
+        statistics.put("state", getState());
+        statistics.put("connected", connection != null);
+        statistics.put("requests", requests.sum());
+        statistics.put("failures", failures.sum());
+        return statistics;
+    }
+
+    private Connection ensureConnected() {
+        Connection current = connection;
+        if (current != null || !started) {
+            return current;
+        }
+        long now = System.currentTimeMillis();
+        if (now - lastConnectAttemptMs < reconnectIntervalMs) {
+            return null;
+        }
+        synchronized (this) {
+            if (connection != null || !started || now - lastConnectAttemptMs < reconnectIntervalMs) {
+                return connection;
+            }
+            lastConnectAttemptMs = now;
+            try {
+                Socket socket = new Socket();
+                socket.setTcpNoDelay(true);
+                socket.connect(new InetSocketAddress(host, port), connectTimeoutMs);
+                connection = new Connection(socket);
+                log.info("Cluster token client connected to {}:{}", host, port);
+            } catch (IOException e) {
+                log.warn("Cluster token client failed to connect to {}:{} - {}", host, port, e.getMessage());
+            }
+            return connection;
+        }
+    }
+
+    private synchronized void disconnect(Connection failed) {
+        if (connection == failed) {
+            connection = null;
+        }
+        failed.close();
+    }
+
+    /**
+     * 单条 TCP 连接：发送加锁，响应由虚拟线程读取后按 xid 完成对应的请求
+     */
+    private final class Connection {
+
+        private final Socket socket;
+        private final DataOutputStream out;
+        private final DataInputStream in;
+        private final AtomicInteger xidGenerator = new AtomicInteger();
+        private final Map<Integer, CompletableFuture<ClusterTokenProtocol.Response>> pending = new ConcurrentHashMap<>();
+
+        private Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            Thread.ofVirtual().name("cluster-token-client-reader").start(this::readLoop);
+        }
+
+        private void send(int xid, long flowId, int acquireCount, boolean prioritized) throws IOException {
+            synchronized (out) {
+                ClusterTokenProtocol.writeRequest(out, xid, flowId, acquireCount, prioritized);
+                out.flush();
+            }
+        }
+
+        private void readLoop() {
+            try {
+                while (true) {
+                    ClusterTokenProtocol.Response response = ClusterTokenProtocol.readResponse(in);
+                    CompletableFuture<ClusterTokenProtocol.Response> future = pending.get(response.xid);
+                    if (future != null) {
+                        future.complete(response);
+                    }
+                }
+            } catch (IOException e) {
+                if (!socket.isClosed()) {
+                    log.warn("Cluster token client lost connection to {}:{} - {}", host, port, e.getMessage());
+                }
+                disconnect(this);
+                // 立即让等待中的请求失败，而不是等到超时
+                pending.values().forEach(future -> future.completeExceptionally(e));
+            }
+        }
+
+        private void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                log.debug("Failed to close cluster token client socket", e);
+            }
+        }
+    }
+}
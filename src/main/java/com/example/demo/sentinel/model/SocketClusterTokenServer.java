@@ -0,0 +1,298 @@
+package com.example.demo.sentinel.model;
+
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.server.EmbeddedClusterTokenServer;
+import com.alibaba.csp.sentinel.slots.block.ClusterRuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.ClusterFlowConfig;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 集群流控令牌服务器
+ * 持有集群流控规则（按 ClusterFlowConfig.flowId 索引），为所有客户端的令牌请求统一计数：
+ * 1. 每个 flowId 使用独立的滑动窗口（windowIntervalMs / sampleCount 与规则的集群配置一致）
+ * 2. 阈值类型为 GLOBAL 时 count 即集群总 QPS，为 AVG_LOCAL 时按 count x 节点数计算，
+ *    节点数为已连接客户端数，嵌入应用进程时再加上本进程（至少为 1）
+ * 3. 可嵌入应用进程（同进程请求直接调用 requestToken），也可由独立进程启动作为 sidecar
+ * 每个连接由一个虚拟线程顺序处理，不需要额外的 I/O 线程池
+ */
+@Slf4j
+public class SocketClusterTokenServer implements EmbeddedClusterTokenServer {
+
+    private final String host;
+    private final int port;
+    private final boolean embedded;
+    private final Map<Long, FlowCounter> counters = new ConcurrentHashMap<>();
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder passedRequests = new LongAdder();
+    private final LongAdder blockedRequests = new LongAdder();
+    private final LongAdder noRuleRequests = new LongAdder();
+
+    private volatile ServerSocket serverSocket;
+
+    /**
+     * @param host     监听地址
+     * @param port     监听端口，0 表示由系统分配
+     * @param embedded 是否嵌入应用进程，嵌入时本进程也作为一个取令牌的节点参与 AVG_LOCAL 阈值计算
+     */
+    public SocketClusterTokenServer(String host, int port, boolean embedded) {
+        this.host = host;
+        this.port = port;
+        this.embedded = embedded;
+    }
+
+    /**
+     * 加载集群流控规则，只保留 clusterMode 且配置了 flowId 的规则；已有 flowId 的计数保留
+     */
+    public void loadRules(Collection<FlowRule> rules) {
+        Map<Long, FlowCounter> loaded = new HashMap<>();
+        for (FlowRule rule : rules) {
+            ClusterFlowConfig config = rule.getClusterConfig();
+            if (!rule.isClusterMode() || config == null || config.getFlowId() == null) {
+                continue;
+            }
+            FlowCounter existing = counters.get(config.getFlowId());
+            if (existing != null && existing.sameWindow(config)) {
+                existing.update(rule.getCount(), config.getThresholdType());
+                loaded.put(config.getFlowId(), existing);
+            } else {
+                loaded.put(config.getFlowId(), new FlowCounter(rule.getCount(), config.getThresholdType(),
+                        config.getWindowIntervalMs(), config.getSampleCount()));
+            }
+        }
+        counters.keySet().retainAll(loaded.keySet());
+        counters.putAll(loaded);
+        log.info("Cluster token server loaded {} cluster flow rules", loaded.size());
+    }
+
+    @Override
+    public synchronized void start() throws IOException {
+        if (serverSocket != null) {
+            return;
+        }
+        ServerSocket socket = new ServerSocket();
+        socket.setReuseAddress(true);
+        socket.bind(new InetSocketAddress(InetAddress.getByName(host), port));
+        serverSocket = socket;
+        Thread.ofVirtual().name("cluster-token-server-acceptor").start(() -> acceptLoop(socket));
+        log.info("Cluster token server started on {}:{}", host, socket.getLocalPort());
+    }
+
+    @Override
+    public synchronized void stop() {
+        ServerSocket socket = serverSocket;
+        serverSocket = null;
+        if (socket == null) {
+            return;
+        }
+        closeQuietly(socket);
+        connections.forEach(SocketClusterTokenServer::closeQuietly);
+        connections.clear();
+        log.info("Cluster token server stopped");
+    }
+
+    public boolean isRunning() {
+        return serverSocket != null;
+    }
+
+    /**
+     * 实际监听端口（端口配置为 0 时由系统分配）
+     */
+    public int getPort() {
+        ServerSocket socket = serverSocket;
+        return socket != null ? socket.getLocalPort() : port;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    @Override
+    public TokenResult requestToken(Long flowId, int acquireCount, boolean prioritized) {
+        if (flowId == null || acquireCount <= 0) {
+            return new TokenResult(TokenResultStatus.BAD_REQUEST);
+        }
+        FlowCounter counter = counters.get(flowId);
+        if (counter == null) {
+            noRuleRequests.increment();
+            return new TokenResult(TokenResultStatus.NO_RULE_EXISTS);
+        }
+        long remaining = counter.tryAcquire(TimeUtil.currentTimeMillis(), acquireCount, nodeCount());
+        if (remaining < 0) {
+            blockedRequests.increment();
+            return new TokenResult(TokenResultStatus.BLOCKED).setRemaining(0);
+        }
+        passedRequests.increment();
+        return new TokenResult(TokenResultStatus.OK).setRemaining((int) Math.min(Integer.MAX_VALUE, remaining));
+    }
+
+    /**
+     * 参与 AVG_LOCAL 阈值计算的节点数
+     */
+    private int nodeCount() {
+        int nodes = connections.size() + (embedded ? 1 : 0);
+        return Math.max(1, nodes);
+    }
+
+    @Override
+    public TokenResult requestParamToken(Long flowId, int acquireCount, Collection<Object> params) {
+        return new TokenResult(TokenResultStatus.FAIL);
+    }
+
+    @Override
+    public TokenResult requestConcurrentToken(String clientAddress, Long ruleId, int acquireCount) {
+        return new TokenResult(TokenResultStatus.FAIL);
+    }
+
+    @Override
+    public void releaseConcurrentToken(Long tokenId) {
+        // 不支持集群并发数令牌
+    }
+
+    /**
+     * 获取令牌服务器统计信息（用于监控）
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("running", isRunning());
+        statistics.put("host", host);
+        statistics.put("port", getPort());
+        statistics.put("connectedClients", connections.size());
+        statistics.put("embedded", embedded);
+        statistics.put("nodeCount", nodeCount());
+        statistics.put("ruleCount", counters.size());
+        statistics.put("passedRequests", passedRequests.sum());
+        statistics.put("blockedRequests", blockedRequests.sum());
+        statistics.put("noRuleRequests", noRuleRequests.sum());
+        return statistics;
+    }
+
+    private void acceptLoop(ServerSocket socket) {
+        while (!socket.isClosed()) {
+            try {
+                Socket connection = socket.accept();
+                connection.setTcpNoDelay(true);
+                connections.add(connection);
+                Thread.ofVirtual().name("cluster-token-server-conn").start(() -> serve(connection));
+            } catch (IOException e) {
+                if (!socket.isClosed()) {
+                    log.warn("Cluster token server failed to accept connection", e);
+                }
+            }
+        }
+    }
+
+    private void serve(Socket connection) {
+        try (connection;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(connection.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(connection.getOutputStream()))) {
+            while (true) {
+                ClusterTokenProtocol.Request request = ClusterTokenProtocol.readRequest(in);
+                TokenResult result = requestToken(request.flowId, request.acquireCount, request.prioritized);
+                ClusterTokenProtocol.writeResponse(out, request.xid, result.getStatus(),
+                        result.getRemaining(), result.getWaitInMs());
+                // 没有后续请求可合并时立即发送
+                if (in.available() == 0) {
+                    out.flush();
+                }
+            }
+        } catch (EOFException e) {
+            log.debug("Cluster token client disconnected: {}", connection.getRemoteSocketAddress());
+        } catch (IOException e) {
+            if (isRunning()) {
+                log.debug("Cluster token connection closed: {}", connection.getRemoteSocketAddress(), e);
+            }
+        } finally {
+            connections.remove(connection);
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            log.debug("Failed to close cluster token socket", e);
+        }
+    }
+
+    /**
+     * 单个 flowId 的滑动窗口令牌计数
+     */
+    private static final class FlowCounter {
+
+        private double count;
+        private int thresholdType;
+        private final int windowIntervalMs;
+        private final long bucketLengthMs;
+        private final long[] starts;
+        private final long[] passes;
+
+        private FlowCounter(double count, int thresholdType, int windowIntervalMs, int sampleCount) {
+            this.count = count;
+            this.thresholdType = thresholdType;
+            this.windowIntervalMs = windowIntervalMs;
+            this.bucketLengthMs = Math.max(1, windowIntervalMs / Math.max(1, sampleCount));
+            this.starts = new long[Math.max(1, sampleCount)];
+            this.passes = new long[starts.length];
+            Arrays.fill(starts, -1);
+        }
+
+        private boolean sameWindow(ClusterFlowConfig config) {
+            return config.getWindowIntervalMs() == windowIntervalMs && config.getSampleCount() == starts.length;
+        }
+
+        private synchronized void update(double newCount, int newThresholdType) {
+            this.count = newCount;
+            this.thresholdType = newThresholdType;
+        }
+
+        /**
+         * @return 放行后窗口内剩余的令牌数，拒绝时返回 -1
+         */
+        private synchronized long tryAcquire(long now, int acquireCount, int connectedNodes) {
+            double qps = thresholdType == ClusterRuleConstant.FLOW_THRESHOLD_GLOBAL ? count : count * connectedNodes;
+            double maxInWindow = qps * windowIntervalMs / 1000.0;
+
+            long passed = 0;
+            for (int i = 0; i < starts.length; i++) {
+                if (starts[i] >= 0 && now - starts[i] < windowIntervalMs) {
+                    passed += passes[i];
+                }
+            }
+            if (passed + acquireCount > maxInWindow) {
+                return -1;
+            }
+
+            int index = (int) ((now / bucketLengthMs) % starts.length);
+            long bucketStart = now - now % bucketLengthMs;
+            if (starts[index] != bucketStart) {
+                starts[index] = bucketStart;
+                passes[index] = 0;
+            }
+            passes[index] += acquireCount;
+            return (long) (maxInWindow - passed - acquireCount);
+        }
+    }
+}
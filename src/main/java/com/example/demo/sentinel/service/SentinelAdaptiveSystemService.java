@@ -0,0 +1,89 @@
+package com.example.demo.sentinel.service;
+
+import com.alibaba.csp.sentinel.util.TimeUtil;
+import com.example.demo.sentinel.configuration.AdaptiveSystemSlot;
+import com.example.demo.sentinel.model.AdaptiveSystemGuard;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Sentinel 自适应系统保护服务
+ * 替代按线程数和系统 load 判断的系统规则：请求运行在虚拟线程上时线程数不再反映并发，
+ * 改为按在途请求数、进程 CPU 使用率和 BBR 容量估算（maxPassQps x minRt）决定是否拒绝入口流量
+ */
+@Slf4j
+@Service
+public class SentinelAdaptiveSystemService {
+
+    private final boolean enabled;
+    private final long cpuSampleIntervalMs;
+    private final AdaptiveSystemGuard guard;
+    private final ScheduledExecutorService cpuSampler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("sentinel-adaptive-cpu-sampler").daemon(true).factory());
+
+    public SentinelAdaptiveSystemService(
+            @Value("${sentinel.system.adaptive.enabled:true}") boolean enabled,
+            @Value("${sentinel.system.max-cpu-usage:0.8}") double cpuThreshold,
+            @Value("${sentinel.system.adaptive.max-in-flight:0}") int maxInFlight,
+            @Value("${sentinel.system.adaptive.window-ms:5000}") long windowMs,
+            @Value("${sentinel.system.adaptive.bucket-count:50}") int bucketCount,
+            @Value("${sentinel.system.adaptive.cool-off-ms:1000}") long coolOffMs,
+            @Value("${sentinel.system.adaptive.cpu-sample-interval-ms:250}") long cpuSampleIntervalMs) {
+        this.enabled = enabled;
+        this.cpuSampleIntervalMs = cpuSampleIntervalMs;
+        this.guard = new AdaptiveSystemGuard(cpuThreshold, maxInFlight, windowMs, bucketCount, coolOffMs,
+                processCpuUsage(), TimeUtil::currentTimeMillis);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            log.info("Sentinel adaptive system protection is disabled");
+            return;
+        }
+        cpuSampler.scheduleAtFixedRate(guard::sampleCpu, 0, cpuSampleIntervalMs, TimeUnit.MILLISECONDS);
+        AdaptiveSystemSlot.setGuard(guard);
+        log.info("Sentinel adaptive system protection enabled");
+    }
+
+    /**
+     * 获取自适应保护状态（用于监控）
+     */
+    public Map<String, Object> getState() {
+        Map<String, Object> state = new HashMap<>(guard.getStatistics());
+        state.put("enabled", enabled);
+        return state;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (AdaptiveSystemSlot.getGuard() == guard) {
+            AdaptiveSystemSlot.setGuard(null);
+        }
+        cpuSampler.shutdownNow();
+    }
+
+    /**
+     * 进程 CPU 使用率（0~1，已按核数归一化），JVM 不支持时返回负数
+     */
+    private static DoubleSupplier processCpuUsage() {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.OperatingSystemMXBean sunOs) {
+            return sunOs::getProcessCpuLoad;
+        }
+        log.warn("Process CPU load is not available, adaptive protection only uses the in-flight limit");
+        return () -> -1;
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.demo.sentinel.service;
+
+import com.alibaba.csp.sentinel.cluster.ClusterStateManager;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
+import com.example.demo.sentinel.configuration.ClusterTokenClientDelegate;
+import com.example.demo.sentinel.configuration.ClusterTokenServerDelegate;
+import com.example.demo.sentinel.model.SocketClusterTokenClient;
+import com.example.demo.sentinel.model.SocketClusterTokenServer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sentinel 集群流控服务
+ * 按 sentinel.cluster.mode 决定本节点角色：
+ * - server：启动嵌入式令牌服务器，本节点的集群规则直接在进程内取令牌，其他节点通过 TCP 连接取令牌；
+ *   以同样配置单独启动一个实例即可作为 sidecar 令牌服务器（sentinel.cluster.server.embedded=false，
+ *   本实例不处理业务流量，不计入 AVG_LOCAL 的节点数）
+ * - client：连接令牌服务器取令牌，服务器不可达时集群规则按 fallbackToLocalWhenFail 回退到本地阈值
+ * - none：不启用集群流控（默认），集群规则全部按本地规则处理
+ */
+@Slf4j
+@Service
+public class SentinelClusterService {
+
+    private final String mode;
+    private final String serverHost;
+    private final int serverPort;
+    private final boolean serverEmbedded;
+    private final int connectTimeoutMs;
+    private final long requestTimeoutMs;
+    private final long reconnectIntervalMs;
+
+    private volatile SocketClusterTokenServer tokenServer;
+    private volatile SocketClusterTokenClient tokenClient;
+
+    public SentinelClusterService(
+            @Value("${sentinel.cluster.mode:none}") String mode,
+            @Value("${sentinel.cluster.server.host:127.0.0.1}") String serverHost,
+            @Value("${sentinel.cluster.server.port:18730}") int serverPort,
+            @Value("${sentinel.cluster.server.embedded:true}") boolean serverEmbedded,
+            @Value("${sentinel.cluster.client.connect-timeout-ms:1000}") int connectTimeoutMs,
+            @Value("${sentinel.cluster.client.request-timeout-ms:20}") long requestTimeoutMs,
+            @Value("${sentinel.cluster.client.reconnect-interval-ms:2000}") long reconnectIntervalMs) {
+        this.mode = mode;
+        this.serverHost = serverHost;
+        this.serverPort = serverPort;
+        this.serverEmbedded = serverEmbedded;
+        this.connectTimeoutMs = connectTimeoutMs;
+        this.requestTimeoutMs = requestTimeoutMs;
+        this.reconnectIntervalMs = reconnectIntervalMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        switch (mode.toLowerCase()) {
+            case "server" -> {
+                tokenServer = new SocketClusterTokenServer(serverHost, serverPort, serverEmbedded);
+                tokenServer.loadRules(FlowRuleManager.getRules());
+                ClusterTokenServerDelegate.setDelegate(tokenServer);
+                ClusterStateManager.setToServer();
+                log.info("Sentinel cluster mode: embedded token server on {}:{}", serverHost, tokenServer.getPort());
+            }
+            case "client" -> {
+                tokenClient = new SocketClusterTokenClient(serverHost, serverPort, connectTimeoutMs,
+                        requestTimeoutMs, reconnectIntervalMs);
+                ClusterTokenClientDelegate.setDelegate(tokenClient);
+                ClusterStateManager.setToClient();
+                log.info("Sentinel cluster mode: token client of {}:{}", serverHost, serverPort);
+            }
+            default -> log.info("Sentinel cluster flow control is disabled");
+        }
+    }
+
+    /**
+     * 流控规则变更后同步给嵌入式令牌服务器（非 server 模式时忽略）
+     */
+    public void onFlowRulesChanged(List<FlowRule> rules) {
+        SocketClusterTokenServer server = tokenServer;
+        if (server != null) {
+            server.loadRules(rules);
+        }
+    }
+
+    /**
+     * 获取集群流控状态（用于监控）
+     */
+    public Map<String, Object> getClusterState() {
+        Map<String, Object> state = new HashMap<>();
+        state.put("mode", mode);
+        state.put("sentinelClusterMode", ClusterStateManager.getMode());
+        SocketClusterTokenServer server = tokenServer;
+        if (server != null) {
+            state.put("server", server.getStatistics());
+        }
+        SocketClusterTokenClient client = tokenClient;
+        if (client != null) {
+            state.put("client", client.getStatistics());
+        }
+        return state;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // 直接停止并解除注册，ClusterStateManager 切换状态有 5 秒最小间隔，不适合在关闭时调用
+        SocketClusterTokenServer server = tokenServer;
+        if (server != null) {
+            server.stop();
+            ClusterTokenServerDelegate.setDelegate(null);
+        }
+        SocketClusterTokenClient client = tokenClient;
+        if (client != null) {
+            client.stop();
+            ClusterTokenClientDelegate.setDelegate(null);
+        }
+    }
+}
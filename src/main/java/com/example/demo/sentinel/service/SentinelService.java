@@ -4,24 +4,40 @@ import com.alibaba.csp.sentinel.Entry;
 import com.alibaba.csp.sentinel.EntryType;
 import com.alibaba.csp.sentinel.Tracer;
 import com.alibaba.csp.sentinel.annotation.SentinelResource;
+import com.alibaba.csp.sentinel.node.ClusterNode;
+import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
 import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.ClusterRuleConstant;
 import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRule;
 import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRuleManager;
+import com.alibaba.csp.sentinel.slots.block.flow.ClusterFlowConfig;
 import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
 import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleUtil;
 import com.alibaba.csp.sentinel.slots.system.SystemRule;
 import com.alibaba.csp.sentinel.slots.system.SystemRuleManager;
 import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+import com.example.demo.sentinel.configuration.HotParameterSlot;
+import com.example.demo.sentinel.dto.SentinelMetricHistoryDto;
 import com.example.demo.sentinel.dto.SentinelMetricsDto;
 import com.example.demo.sentinel.dto.SentinelResultDto;
+import com.example.demo.sentinel.dto.SentinelRuleBatchRequestDto;
+import com.example.demo.sentinel.dto.SentinelRuleBatchResultDto;
+import com.example.demo.sentinel.dto.SentinelRuleDto;
 import com.example.demo.sentinel.dto.RuleInfoDto;
+import com.example.demo.sentinel.model.BoundedResourceRegistry;
+import com.example.demo.sentinel.model.HotParameterLimiter;
+import com.example.demo.sentinel.model.ParameterFrequencySketch;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
@@ -35,10 +51,47 @@ import java.util.stream.Collectors;
 @Service
 public class SentinelService {
 
+    private static final double SECONDS_PER_MINUTE = 60.0;
+
+    // 热点参数统计窗口与 Sentinel 秒级窗口一致：1 秒，2 个桶
+    private static final long PARAM_WINDOW_MS = 1000;
+    private static final int PARAM_SAMPLE_COUNT = 2;
+
     // 用于模拟不同场景的计数器
     private final Map<String, AtomicLong> callCounters = new ConcurrentHashMap<>();
     private final Map<String, AtomicLong> failureCounters = new ConcurrentHashMap<>();
 
+    // 热点参数限流规则：资源名称 -> 各参数位置的限流器，由 HotParameterSlot 在调用链中使用
+    private final Map<String, List<HotParameterLimiter>> paramFlowLimiters = HotParameterSlot.getLimiters();
+    // paramFlowResource 上 userId 的调用频率（固定内存，替代按 userId 建立的计数器）
+    private final ParameterFrequencySketch userIdFrequency;
+
+    private final SentinelClusterService clusterService;
+    private final SentinelMetricHistoryService metricHistoryService;
+    private final SentinelAdaptiveSystemService adaptiveSystemService;
+    private final BoundedResourceRegistry webResourceRegistry;
+    private final int sketchDepth;
+    private final int sketchWidth;
+    private final int heavyKeyCapacity;
+
+    public SentinelService(
+            SentinelClusterService clusterService,
+            SentinelMetricHistoryService metricHistoryService,
+            SentinelAdaptiveSystemService adaptiveSystemService,
+            BoundedResourceRegistry webResourceRegistry,
+            @Value("${sentinel.param-flow.sketch-depth:4}") int sketchDepth,
+            @Value("${sentinel.param-flow.sketch-width:2048}") int sketchWidth,
+            @Value("${sentinel.param-flow.heavy-key-capacity:128}") int heavyKeyCapacity) {
+        this.clusterService = clusterService;
+        this.metricHistoryService = metricHistoryService;
+        this.adaptiveSystemService = adaptiveSystemService;
+        this.webResourceRegistry = webResourceRegistry;
+        this.sketchDepth = sketchDepth;
+        this.sketchWidth = sketchWidth;
+        this.heavyKeyCapacity = heavyKeyCapacity;
+        this.userIdFrequency = newSketch();
+    }
+
     /**
      * 流量控制演示 - 使用 @SentinelResource 注解
      * 演示基本的 QPS 流量控制
@@ -195,7 +248,9 @@ public class SentinelService {
 
     /**
      * 热点参数限流演示
-     * 演示基于参数的热点流控
+     * 演示基于参数的热点流控：参数 0 为 userId，参数 1 为 productId，
+     * 通过 SphU.entry 带参数进入资源，热点参数规则由 {@link HotParameterSlot} 在调用链中检查，
+     * 任一参数值超过 QPS 阈值时与其他规则一样计入 block QPS 和 metric 日志，并由 handleParamFlowBlock 处理
      */
     @SentinelResource(
             value = "paramFlowResource",
@@ -203,19 +258,30 @@ public class SentinelService {
     )
     public SentinelResultDto paramFlowDemo(String userId, String productId) {
         String resourceName = "paramFlowResource";
-        long callCount = callCounters.computeIfAbsent(resourceName + ":" + userId, k -> new AtomicLong(0)).incrementAndGet();
+        Entry entry = null;
+        try {
+            entry = SphU.entry(resourceName, EntryType.OUT, 1, userId, productId);
+        } catch (BlockException e) {
+            return handleParamFlowBlock(userId, productId, e);
+        }
+        try {
+            // 当前统计窗口内该 userId 的调用次数
+            long callCount = userIdFrequency.add(userId);
 
-        log.info("Param flow demo - userId: {}, productId: {}, call count: {}", userId, productId, callCount);
+            log.info("Param flow demo - userId: {}, productId: {}, call count: {}", userId, productId, callCount);
 
-        return SentinelResultDto.builder()
-                .success(true)
-                .resourceName(resourceName)
-                .message("Hot parameter request succeeded - userId: " + userId + ", productId: " + productId)
-                .callCount(callCount)
-                .parameters(Map.of("userId", userId, "productId", productId))
-                .timestamp(LocalDateTime.now())
-                .ruleType("PARAM_FLOW")
-                .build();
+            return SentinelResultDto.builder()
+                    .success(true)
+                    .resourceName(resourceName)
+                    .message("Hot parameter request succeeded - userId: " + userId + ", productId: " + productId)
+                    .callCount(callCount)
+                    .parameters(Map.of("userId", userId, "productId", productId))
+                    .timestamp(LocalDateTime.now())
+                    .ruleType("PARAM_FLOW")
+                    .build();
+        } finally {
+            entry.exit(1, userId, productId);
+        }
     }
 
     /**
@@ -406,11 +472,12 @@ public class SentinelService {
     }
 
     // ==================== 规则动态管理方法 ====================
+    // 规则变更都是“读取当前规则副本 -> 修改 -> loadRules”，所有变更方法以本服务实例为锁串行执行，避免并发变更互相覆盖
 
     /**
      * 动态添加流量控制规则
      */
-    public void addFlowRule(String resource, int count, int grade, String limitApp) {
+    public synchronized void addFlowRule(String resource, int count, int grade, String limitApp) {
         List<FlowRule> rules = new ArrayList<>(FlowRuleManager.getRules());
 
         FlowRule rule = new FlowRule();
@@ -423,14 +490,80 @@ public class SentinelService {
 
         rules.add(rule);
         FlowRuleManager.loadRules(rules);
+        clusterService.onFlowRulesChanged(rules);
 
         log.info("Added flow rule - resource: {}, count: {}, grade: {}, limitApp: {}", resource, count, grade, limitApp);
     }
 
+    /**
+     * 动态添加集群流控规则
+     * 阈值由令牌服务器统一计数；令牌服务器不可达时，fallbackToLocal 为 true 则按 count 作为本机阈值限流，否则直接放行
+     *
+     * @param thresholdType 0: 单机均摊（count x 客户端数），1: 集群总阈值
+     */
+    public synchronized void addClusterFlowRule(String resource, int count, long flowId, int thresholdType, boolean fallbackToLocal) {
+        List<FlowRule> rules = FlowRuleManager.getRules().stream()
+                .filter(existing -> !(existing.isClusterMode() && existing.getClusterConfig() != null
+                        && Long.valueOf(flowId).equals(existing.getClusterConfig().getFlowId())))
+                .collect(Collectors.toCollection(ArrayList::new));
+
+        ClusterFlowConfig clusterConfig = new ClusterFlowConfig()
+                .setFlowId(flowId)
+                .setThresholdType(thresholdType)
+                .setFallbackToLocalWhenFail(fallbackToLocal)
+                .setSampleCount(ClusterRuleConstant.DEFAULT_CLUSTER_SAMPLE_COUNT)
+                .setWindowIntervalMs(1000);
+
+        FlowRule rule = new FlowRule();
+        rule.setResource(resource);
+        rule.setGrade(RuleConstant.FLOW_GRADE_QPS);
+        rule.setCount(count);
+        rule.setClusterMode(true);
+        rule.setClusterConfig(clusterConfig);
+
+        rules.add(rule);
+        FlowRuleManager.loadRules(rules);
+        clusterService.onFlowRulesChanged(rules);
+
+        log.info("Added cluster flow rule - resource: {}, count: {}, flowId: {}, thresholdType: {}, fallbackToLocal: {}",
+                resource, count, flowId, thresholdType, fallbackToLocal);
+    }
+
+    /**
+     * 获取集群流控状态（节点角色、令牌服务器/客户端统计）
+     */
+    public Map<String, Object> getClusterState() {
+        return clusterService.getClusterState();
+    }
+
+    /**
+     * 获取自适应系统保护状态（在途请求数、CPU 使用率、容量估算）
+     */
+    public Map<String, Object> getAdaptiveSystemState() {
+        return adaptiveSystemService.getState();
+    }
+
+    /**
+     * 获取 Web 接口自动埋点的资源登记情况（资源数、上限、溢出请求数及已登记的资源名）
+     */
+    public Map<String, Object> getWebResourceState() {
+        Map<String, Object> state = new HashMap<>(webResourceRegistry.getStatistics());
+        state.put("resources", new TreeSet<>(webResourceRegistry.getResources()));
+        return state;
+    }
+
+    /**
+     * 从 Sentinel 指标日志查询资源的历史指标（按 resolutionSec 降采样）
+     */
+    public SentinelMetricHistoryDto queryMetricHistory(String resource, long startTime, long endTime,
+                                                       int resolutionSec) {
+        return metricHistoryService.queryHistory(resource, startTime, endTime, resolutionSec);
+    }
+
     /**
      * 动态添加熔断降级规则
      */
-    public void addDegradeRule(String resource, int grade, double count, int timeWindow, int minRequestAmount, int statIntervalMs) {
+    public synchronized void addDegradeRule(String resource, int grade, double count, int timeWindow, int minRequestAmount, int statIntervalMs) {
         List<DegradeRule> rules = new ArrayList<>(DegradeRuleManager.getRules());
 
         DegradeRule rule = new DegradeRule();
@@ -449,18 +582,33 @@ public class SentinelService {
 
     /**
      * 动态添加热点参数流控规则
-     * 注意：Sentinel 1.8.8 的 param 功能需要额外依赖，此方法仅作为占位符
+     * 同一资源同一参数索引只保留一条规则，重复添加时替换原规则并重新计数
      */
     public void addParamFlowRule(String resource, int threshold, int paramIdx, String paramName) {
-        log.info("Param flow rules require additional dependency - resource: {}, threshold: {}, paramIdx: {}", resource, threshold, paramIdx);
-        // Sentinel 1.8.8 需要 sentinel-parameter-flow-control 模块
-        // 这里仅作为占位符，实际需要添加额外依赖
+        HotParameterLimiter limiter = new HotParameterLimiter(resource, paramIdx, paramName, threshold,
+                newSketch(), heavyKeyCapacity, TimeUtil::currentTimeMillis);
+
+        paramFlowLimiters.compute(resource, (key, existing) -> {
+            List<HotParameterLimiter> limiters = new CopyOnWriteArrayList<>();
+            if (existing != null) {
+                existing.stream().filter(l -> l.getParamIdx() != paramIdx).forEach(limiters::add);
+            }
+            limiters.add(limiter);
+            return limiters;
+        });
+
+        log.info("Added param flow rule - resource: {}, threshold: {}, paramIdx: {}, paramName: {}", resource, threshold, paramIdx, paramName);
+    }
+
+    private ParameterFrequencySketch newSketch() {
+        return new ParameterFrequencySketch(sketchDepth, sketchWidth, PARAM_WINDOW_MS, PARAM_SAMPLE_COUNT,
+                TimeUtil::currentTimeMillis);
     }
 
     /**
      * 动态添加系统规则
      */
-    public void addSystemRule(int ruleType, double threshold) {
+    public synchronized void addSystemRule(int ruleType, double threshold) {
         List<SystemRule> rules = new ArrayList<>();
 
         SystemRule rule = new SystemRule();
@@ -493,19 +641,20 @@ public class SentinelService {
     /**
      * 删除指定资源的流量控制规则
      */
-    public void removeFlowRule(String resource) {
+    public synchronized void removeFlowRule(String resource) {
         List<FlowRule> rules = FlowRuleManager.getRules().stream()
                 .filter(rule -> !rule.getResource().equals(resource))
                 .collect(Collectors.toList());
 
         FlowRuleManager.loadRules(rules);
+        clusterService.onFlowRulesChanged(rules);
         log.info("Removed flow rule for resource: {}", resource);
     }
 
     /**
      * 删除指定资源的熔断降级规则
      */
-    public void removeDegradeRule(String resource) {
+    public synchronized void removeDegradeRule(String resource) {
         List<DegradeRule> rules = DegradeRuleManager.getRules().stream()
                 .filter(rule -> !rule.getResource().equals(resource))
                 .collect(Collectors.toList());
@@ -515,18 +664,377 @@ public class SentinelService {
     }
 
     /**
-     * 删除热点参数流控规则
-     * 注意：Sentinel 1.8.8 的 param 功能需要额外依赖
+     * 批量变更流控/降级规则
+     * 整批按 删除 -> 更新 -> 新增 的顺序在规则副本上演算，每条规则只校验一次；
+     * 流控规则按 资源 + 限流应用 + 阈值类型 匹配（只匹配单机规则），降级规则按 资源 + 熔断策略 匹配，
+     * 同一资源上的其他规则（包括集群流控规则）保持不变；更新时请求中未给出的字段沿用原规则。
+     * 任一操作校验失败则整批不生效，全部通过后每类规则只调用一次 loadRules
+     */
+    public synchronized SentinelRuleBatchResultDto applyRuleBatch(SentinelRuleBatchRequestDto request) {
+        long validationStart = System.nanoTime();
+        List<String> errors = new ArrayList<>();
+
+        // 规则副本按匹配键建一次索引，整批操作都在索引上完成，最后按原顺序生成列表
+        Map<Object, FlowRule> flowRules = indexFlowRules(FlowRuleManager.getRules());
+        Map<Object, DegradeRule> degradeRules = indexDegradeRules(DegradeRuleManager.getRules());
+        boolean flowChanged = false;
+        boolean degradeChanged = false;
+
+        for (SentinelRuleDto dto : nullToEmpty(request.getRemove())) {
+            String type = ruleType(dto);
+            if ("FLOW".equals(type)) {
+                Integer grade = flowGrade(dto, "remove", errors);
+                if (grade == null) {
+                    continue;
+                }
+                if (flowRules.remove(new FlowRuleKey(dto.getResource(), limitApp(dto), grade)) == null) {
+                    errors.add("remove: no FLOW rule for " + describeFlowRule(dto, grade));
+                } else {
+                    flowChanged = true;
+                }
+            } else if ("DEGRADE".equals(type)) {
+                Integer grade = degradeGrade(dto, "remove", errors);
+                if (grade == null) {
+                    continue;
+                }
+                if (degradeRules.remove(new DegradeRuleKey(dto.getResource(), grade)) == null) {
+                    errors.add("remove: no DEGRADE rule for " + describeDegradeRule(dto, grade));
+                } else {
+                    degradeChanged = true;
+                }
+            } else {
+                errors.add("remove: unsupported rule type " + dto.getRuleType() + " for resource " + dto.getResource());
+            }
+        }
+
+        for (SentinelRuleDto dto : nullToEmpty(request.getUpdate())) {
+            String type = ruleType(dto);
+            if ("FLOW".equals(type)) {
+                Integer grade = flowGrade(dto, "update", errors);
+                if (grade == null) {
+                    continue;
+                }
+                FlowRuleKey key = new FlowRuleKey(dto.getResource(), limitApp(dto), grade);
+                FlowRule existing = flowRules.get(key);
+                if (existing == null) {
+                    errors.add("update: no FLOW rule for " + describeFlowRule(dto, grade));
+                    continue;
+                }
+                FlowRule rule = toFlowRule(dto, grade, existing, "update", errors);
+                if (rule != null) {
+                    flowRules.put(key, rule);
+                    flowChanged = true;
+                }
+            } else if ("DEGRADE".equals(type)) {
+                Integer grade = degradeGrade(dto, "update", errors);
+                if (grade == null) {
+                    continue;
+                }
+                DegradeRuleKey key = new DegradeRuleKey(dto.getResource(), grade);
+                DegradeRule existing = degradeRules.get(key);
+                if (existing == null) {
+                    errors.add("update: no DEGRADE rule for " + describeDegradeRule(dto, grade));
+                    continue;
+                }
+                DegradeRule rule = toDegradeRule(dto, grade, existing, "update", errors);
+                if (rule != null) {
+                    degradeRules.put(key, rule);
+                    degradeChanged = true;
+                }
+            } else {
+                errors.add("update: unsupported rule type " + dto.getRuleType() + " for resource " + dto.getResource());
+            }
+        }
+
+        for (SentinelRuleDto dto : nullToEmpty(request.getAdd())) {
+            String type = ruleType(dto);
+            if ("FLOW".equals(type)) {
+                Integer grade = flowGrade(dto, "add", errors);
+                if (grade == null) {
+                    continue;
+                }
+                FlowRuleKey key = new FlowRuleKey(dto.getResource(), limitApp(dto), grade);
+                if (flowRules.containsKey(key)) {
+                    errors.add("add: FLOW rule already exists for " + describeFlowRule(dto, grade));
+                    continue;
+                }
+                FlowRule rule = toFlowRule(dto, grade, null, "add", errors);
+                if (rule != null) {
+                    flowRules.put(key, rule);
+                    flowChanged = true;
+                }
+            } else if ("DEGRADE".equals(type)) {
+                Integer grade = degradeGrade(dto, "add", errors);
+                if (grade == null) {
+                    continue;
+                }
+                DegradeRuleKey key = new DegradeRuleKey(dto.getResource(), grade);
+                if (degradeRules.containsKey(key)) {
+                    errors.add("add: DEGRADE rule already exists for " + describeDegradeRule(dto, grade));
+                    continue;
+                }
+                DegradeRule rule = toDegradeRule(dto, grade, null, "add", errors);
+                if (rule != null) {
+                    degradeRules.put(key, rule);
+                    degradeChanged = true;
+                }
+            } else {
+                errors.add("add: unsupported rule type " + dto.getRuleType() + " for resource " + dto.getResource());
+            }
+        }
+        double validationMs = (System.nanoTime() - validationStart) / 1_000_000.0;
+
+        int added = nullToEmpty(request.getAdd()).size();
+        int updated = nullToEmpty(request.getUpdate()).size();
+        int removed = nullToEmpty(request.getRemove()).size();
+        if (!errors.isEmpty()) {
+            log.warn("Rule batch rejected - {} errors, first: {}", errors.size(), errors.get(0));
+            return SentinelRuleBatchResultDto.builder()
+                    .applied(false)
+                    .flowRuleCount(FlowRuleManager.getRules().size())
+                    .degradeRuleCount(DegradeRuleManager.getRules().size())
+                    .validationMs(validationMs)
+                    .errors(errors)
+                    .timestamp(LocalDateTime.now())
+                    .build();
+        }
+
+        long reloadStart = System.nanoTime();
+        if (flowChanged) {
+            List<FlowRule> rules = new ArrayList<>(flowRules.values());
+            FlowRuleManager.loadRules(rules);
+            clusterService.onFlowRulesChanged(rules);
+        }
+        if (degradeChanged) {
+            DegradeRuleManager.loadRules(new ArrayList<>(degradeRules.values()));
+        }
+        double reloadMs = (System.nanoTime() - reloadStart) / 1_000_000.0;
+
+        log.info("Applied rule batch - added: {}, updated: {}, removed: {}, validation: {}ms, reload: {}ms",
+                added, updated, removed, String.format("%.3f", validationMs), String.format("%.3f", reloadMs));
+        return SentinelRuleBatchResultDto.builder()
+                .applied(true)
+                .added(added)
+                .updated(updated)
+                .removed(removed)
+                .flowRuleCount(FlowRuleManager.getRules().size())
+                .degradeRuleCount(DegradeRuleManager.getRules().size())
+                .validationMs(validationMs)
+                .reloadMs(reloadMs)
+                .errors(List.of())
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+
+    private static List<SentinelRuleDto> nullToEmpty(List<SentinelRuleDto> rules) {
+        return rules != null ? rules : List.of();
+    }
+
+    private static String ruleType(SentinelRuleDto dto) {
+        return dto.getRuleType() == null ? "" : dto.getRuleType().toUpperCase();
+    }
+
+    private static String limitApp(SentinelRuleDto dto) {
+        return dto.getLimitApp() != null ? dto.getLimitApp() : RuleConstant.LIMIT_APP_DEFAULT;
+    }
+
+    private static String describeFlowRule(SentinelRuleDto dto, int grade) {
+        return "resource " + dto.getResource() + " (limitApp: " + limitApp(dto)
+                + ", grade: " + (grade == RuleConstant.FLOW_GRADE_THREAD ? "THREAD" : "QPS") + ")";
+    }
+
+    private static String describeDegradeRule(SentinelRuleDto dto, int grade) {
+        return "resource " + dto.getResource() + " (grade: " + grade + ")";
+    }
+
+    /**
+     * 单机流控规则的匹配键，集群流控规则由 addClusterFlowRule 管理，不参与匹配
+     */
+    private record FlowRuleKey(String resource, String limitApp, int grade) {
+    }
+
+    private record DegradeRuleKey(String resource, int grade) {
+    }
+
+    /**
+     * 按匹配键索引流控规则，保持原有顺序；集群流控规则和同键的重复规则以独立的键保留，不参与匹配
+     */
+    private static Map<Object, FlowRule> indexFlowRules(List<FlowRule> rules) {
+        Map<Object, FlowRule> index = new LinkedHashMap<>();
+        for (FlowRule rule : rules) {
+            String limitApp = rule.getLimitApp() != null ? rule.getLimitApp() : RuleConstant.LIMIT_APP_DEFAULT;
+            Object key = rule.isClusterMode() ? new Object() : new FlowRuleKey(rule.getResource(), limitApp, rule.getGrade());
+            if (index.putIfAbsent(key, rule) != null) {
+                index.put(new Object(), rule);
+            }
+        }
+        return index;
+    }
+
+    private static Map<Object, DegradeRule> indexDegradeRules(List<DegradeRule> rules) {
+        Map<Object, DegradeRule> index = new LinkedHashMap<>();
+        for (DegradeRule rule : rules) {
+            if (index.putIfAbsent(new DegradeRuleKey(rule.getResource(), rule.getGrade()), rule) != null) {
+                index.put(new Object(), rule);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * 解析流控阈值类型，未指定时为 QPS，无法识别时记录错误并返回 null
+     */
+    private static Integer flowGrade(SentinelRuleDto dto, String operation, List<String> errors) {
+        String grade = dto.getGrade() == null ? "QPS" : dto.getGrade().toUpperCase();
+        switch (grade) {
+            case "QPS":
+                return RuleConstant.FLOW_GRADE_QPS;
+            case "THREAD":
+            case "THREAD_COUNT":
+                return RuleConstant.FLOW_GRADE_THREAD;
+            default:
+                errors.add(operation + ": unknown flow grade " + dto.getGrade() + " for resource " + dto.getResource());
+                return null;
+        }
+    }
+
+    /**
+     * 解析流控效果，未指定时沿用原规则（新增时为快速失败），无法识别时记录错误并返回 null
+     */
+    private static Integer flowControlBehavior(SentinelRuleDto dto, FlowRule existing, String operation,
+                                               List<String> errors) {
+        if (dto.getControlBehavior() == null) {
+            return existing != null ? existing.getControlBehavior() : RuleConstant.CONTROL_BEHAVIOR_DEFAULT;
+        }
+        switch (dto.getControlBehavior().toUpperCase()) {
+            case "DIRECT":
+                return RuleConstant.CONTROL_BEHAVIOR_DEFAULT;
+            case "WARM_UP":
+                return RuleConstant.CONTROL_BEHAVIOR_WARM_UP;
+            case "THROTTLING":
+                return RuleConstant.CONTROL_BEHAVIOR_RATE_LIMITER;
+            case "WARM_UP_THROTTLING":
+                return RuleConstant.CONTROL_BEHAVIOR_WARM_UP_RATE_LIMITER;
+            default:
+                errors.add(operation + ": unknown control behavior " + dto.getControlBehavior()
+                        + " for resource " + dto.getResource());
+                return null;
+        }
+    }
+
+    /**
+     * 解析熔断策略，未指定时为慢调用比例，无法识别时记录错误并返回 null
+     */
+    private static Integer degradeGrade(SentinelRuleDto dto, String operation, List<String> errors) {
+        String strategy = dto.getDegradeStrategy() == null ? "SLOW_REQUEST_RATIO" : dto.getDegradeStrategy().toUpperCase();
+        switch (strategy) {
+            case "SLOW_REQUEST_RATIO":
+                return RuleConstant.DEGRADE_GRADE_RT;
+            case "EXCEPTION_RATIO":
+                return RuleConstant.DEGRADE_GRADE_EXCEPTION_RATIO;
+            case "EXCEPTION_COUNT":
+                return RuleConstant.DEGRADE_GRADE_EXCEPTION_COUNT;
+            default:
+                errors.add(operation + ": unknown degrade strategy " + dto.getDegradeStrategy() + " for resource " + dto.getResource());
+                return null;
+        }
+    }
+
+    /**
+     * 构造流控规则，existing 不为 null 时（更新）未给出的字段沿用原规则
+     */
+    private static FlowRule toFlowRule(SentinelRuleDto dto, int grade, FlowRule existing, String operation,
+                                       List<String> errors) {
+        if (dto.getResource() == null || (dto.getCount() == null && existing == null)) {
+            errors.add(operation + ": FLOW rule requires resource and count - " + dto.getResource());
+            return null;
+        }
+        Integer controlBehavior = flowControlBehavior(dto, existing, operation, errors);
+        if (controlBehavior == null) {
+            return null;
+        }
+
+        FlowRule rule = new FlowRule(dto.getResource());
+        rule.setLimitApp(limitApp(dto));
+        rule.setGrade(grade);
+        rule.setCount(dto.getCount() != null ? dto.getCount() : existing.getCount());
+        rule.setControlBehavior(controlBehavior);
+        if (existing != null) {
+            rule.setStrategy(existing.getStrategy());
+            rule.setRefResource(existing.getRefResource());
+            rule.setWarmUpPeriodSec(existing.getWarmUpPeriodSec());
+            rule.setMaxQueueingTimeMs(existing.getMaxQueueingTimeMs());
+        } else {
+            rule.setStrategy(RuleConstant.STRATEGY_DIRECT);
+        }
+        if (dto.getWarmUpPeriodSec() != null) {
+            rule.setWarmUpPeriodSec(dto.getWarmUpPeriodSec());
+        }
+        if (dto.getMaxQueueingTimeMs() != null) {
+            rule.setMaxQueueingTimeMs(dto.getMaxQueueingTimeMs());
+        }
+        if (!FlowRuleUtil.isValidRule(rule)) {
+            errors.add(operation + ": invalid FLOW rule for resource " + dto.getResource());
+            return null;
+        }
+        return rule;
+    }
+
+    /**
+     * 构造降级规则，existing 不为 null 时（更新）未给出的字段沿用原规则
+     */
+    private static DegradeRule toDegradeRule(SentinelRuleDto dto, int grade, DegradeRule existing, String operation,
+                                             List<String> errors) {
+        if (dto.getResource() == null || (dto.getCount() == null && existing == null)) {
+            errors.add(operation + ": DEGRADE rule requires resource and count - " + dto.getResource());
+            return null;
+        }
+
+        DegradeRule rule = new DegradeRule(dto.getResource());
+        rule.setGrade(grade);
+        rule.setCount(dto.getCount() != null ? dto.getCount() : existing.getCount());
+        if (existing != null) {
+            rule.setLimitApp(existing.getLimitApp());
+            rule.setTimeWindow(existing.getTimeWindow());
+            rule.setMinRequestAmount(existing.getMinRequestAmount());
+            rule.setStatIntervalMs(existing.getStatIntervalMs());
+            rule.setSlowRatioThreshold(existing.getSlowRatioThreshold());
+        } else {
+            rule.setTimeWindow(10);
+            rule.setMinRequestAmount(5);
+            rule.setStatIntervalMs(1000);
+        }
+        if (dto.getTimeWindow() != null) {
+            rule.setTimeWindow(dto.getTimeWindow());
+        }
+        if (dto.getMinRequestAmount() != null) {
+            rule.setMinRequestAmount(dto.getMinRequestAmount());
+        }
+        if (dto.getStatisticIntervalSec() != null) {
+            rule.setStatIntervalMs(dto.getStatisticIntervalSec() * 1000);
+        }
+        if (dto.getSlowRatioThreshold() != null) {
+            rule.setSlowRatioThreshold(dto.getSlowRatioThreshold());
+        }
+        if (!DegradeRuleManager.isValidRule(rule)) {
+            errors.add(operation + ": invalid DEGRADE rule for resource " + dto.getResource());
+            return null;
+        }
+        return rule;
+    }
+
+    /**
+     * 删除指定资源的热点参数流控规则
      */
     public void removeParamFlowRule(String resource) {
-        log.info("Param flow rules require additional dependency - resource: {}", resource);
-        // Sentinel 1.8.8 需要 sentinel-parameter-flow-control 模块
+        paramFlowLimiters.remove(resource);
+        log.info("Removed param flow rule for resource: {}", resource);
     }
 
     /**
      * 清除所有系统规则
      */
-    public void clearSystemRules() {
+    public synchronized void clearSystemRules() {
         SystemRuleManager.loadRules(new ArrayList<>());
         log.info("Cleared all system rules");
     }
@@ -534,45 +1042,56 @@ public class SentinelService {
     /**
      * 清除所有规则
      */
-    public void clearAllRules() {
+    public synchronized void clearAllRules() {
         FlowRuleManager.loadRules(new ArrayList<>());
         DegradeRuleManager.loadRules(new ArrayList<>());
         SystemRuleManager.loadRules(new ArrayList<>());
+        paramFlowLimiters.clear();
+        clusterService.onFlowRulesChanged(new ArrayList<>());
         log.info("Cleared all Sentinel rules");
     }
 
     // ==================== 统计信息收集方法 ====================
 
     /**
-     * 获取资源的实时统计信息
-     * 注意：由于 Sentinel 1.8.8 的 API 限制，此方法返回基于本地计数器的统计数据
+     * 获取资源的实时统计指标
+     * 读取 Sentinel 为资源维护的 ClusterNode（秒级和分钟级滑动窗口），
+     * 资源尚未经过 SphU.entry 时没有统计节点，各项指标为 0
      */
     public SentinelMetricsDto getResourceMetrics(String resourceName) {
-        // 使用本地计数器获取统计数据
-        AtomicLong callCounter = callCounters.get(resourceName);
-        AtomicLong failureCounter = failureCounters.get(resourceName);
-
-        long callCount = callCounter != null ? callCounter.get() : 0;
-        long failureCount = failureCounter != null ? failureCounter.get() : 0;
-
-        // 计算统计数据
-        long totalRequest = callCount;
-        long exceptionCount = failureCount;
-        long passQps = callCount; // 简化处理，实际需要时间窗口
-        long blockQps = 0; // 从规则管理器无法直接获取
-        long exceptionQps = failureCount;
-        double successRate = totalRequest > 0 ? (double) (totalRequest - exceptionCount) / totalRequest * 100 : 100;
-        long rt = 0; // 默认值
+        ClusterNode node = ClusterBuilderSlot.getClusterNode(resourceName);
+        if (node == null) {
+            return SentinelMetricsDto.builder()
+                    .resourceName(resourceName)
+                    .successRate(String.format("%.2f%%", 100.0))
+                    .secondWindow(new SentinelMetricsDto.WindowMetrics(0, 0, 0, 0))
+                    .minuteWindow(new SentinelMetricsDto.WindowMetrics(0, 0, 0, 0))
+                    .timestamp(LocalDateTime.now())
+                    .build();
+        }
+
+        // 分钟窗口中 success 为已完成（exit）的请求数，其中包含业务异常
+        long minuteSuccess = node.totalSuccess();
+        long minuteException = node.totalException();
+        double successRate = minuteSuccess > 0
+                ? (double) Math.max(0, minuteSuccess - minuteException) / minuteSuccess * 100 : 100;
 
         return SentinelMetricsDto.builder()
                 .resourceName(resourceName)
-                .passQps(passQps)
-                .blockQps(blockQps)
-                .totalRequest(totalRequest)
-                .exceptionQps(exceptionQps)
+                .passQps(Math.round(node.passQps()))
+                .blockQps(Math.round(node.blockQps()))
+                .totalRequest(node.totalRequest())
+                .exceptionQps(Math.round(node.exceptionQps()))
                 .successRate(String.format("%.2f%%", successRate))
-                .averageRt(rt)
-                .concurrency(0) // 无法从公开 API 获取
+                .averageRt(Math.round(node.avgRt()))
+                .averageRtMs(node.avgRt())
+                .minRtMs(node.minRt())
+                .concurrency(node.curThreadNum())
+                .secondWindow(new SentinelMetricsDto.WindowMetrics(
+                        node.passQps(), node.blockQps(), node.exceptionQps(), node.successQps()))
+                .minuteWindow(new SentinelMetricsDto.WindowMetrics(
+                        node.totalPass() / SECONDS_PER_MINUTE, node.blockRequest() / SECONDS_PER_MINUTE,
+                        minuteException / SECONDS_PER_MINUTE, minuteSuccess / SECONDS_PER_MINUTE))
                 .timestamp(LocalDateTime.now())
                 .build();
     }
@@ -587,7 +1106,7 @@ public class SentinelService {
         for (FlowRule rule : FlowRuleManager.getRules()) {
             ruleInfos.add(RuleInfoDto.builder()
                     .resource(rule.getResource())
-                    .ruleType("FLOW")
+                    .ruleType(rule.isClusterMode() ? "CLUSTER_FLOW" : "FLOW")
                     .limitApp(rule.getLimitApp())
                     .grade(rule.getGrade() == 0 ? "THREAD_COUNT" : "QPS")
                     .count(String.valueOf(rule.getCount()))
@@ -624,6 +1143,17 @@ public class SentinelService {
                     .build());
         }
 
+        // 热点参数流控规则
+        paramFlowLimiters.values().forEach(limiters -> limiters.forEach(limiter ->
+                ruleInfos.add(RuleInfoDto.builder()
+                        .resource(limiter.getResource())
+                        .ruleType("PARAM_FLOW")
+                        .grade("QPS")
+                        .count(String.valueOf(limiter.getThreshold()))
+                        .paramIdx(String.valueOf(limiter.getParamIdx()))
+                        .durationInSec(String.valueOf(PARAM_WINDOW_MS / 1000))
+                        .build())));
+
         // 系统规则 - Sentinel 1.8.8 中 SystemRuleManager 可能没有 getSystemRules 方法
         try {
             // 使用反射获取系统规则（如果 API 不可用）
@@ -649,6 +1179,16 @@ public class SentinelService {
         return ruleInfos;
     }
 
+    /**
+     * 获取热点参数限流统计（每条规则的放行/拦截数、热点参数值及 sketch 内存占用）
+     */
+    public List<Map<String, Object>> getParamFlowStatistics() {
+        List<Map<String, Object>> statistics = new ArrayList<>();
+        paramFlowLimiters.values().forEach(limiters -> limiters.forEach(limiter ->
+                statistics.add(limiter.getStatistics())));
+        return statistics;
+    }
+
     /**
      * 获取所有资源的名称列表
      */
@@ -661,6 +1201,10 @@ public class SentinelService {
         // 从熔断规则中获取
         DegradeRuleManager.getRules().forEach(rule -> resourceNames.add(rule.getResource()));
 
+        // 从 Sentinel 统计节点中获取（经过 SphU.entry 的资源）
+        ClusterBuilderSlot.getClusterNodeMap().keySet()
+                .forEach(resource -> resourceNames.add(resource.getName()));
+
         // 添加已知的资源名称
         resourceNames.addAll(Arrays.asList(
                 "flowControlResource",
@@ -679,6 +1223,8 @@ public class SentinelService {
     public void resetCounters() {
         callCounters.clear();
         failureCounters.clear();
+        userIdFrequency.clear();
+        paramFlowLimiters.values().forEach(limiters -> limiters.forEach(HotParameterLimiter::reset));
         log.info("All counters have been reset");
     }
 
@@ -0,0 +1,218 @@
+package com.example.demo.service.jooq;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.dto.jooq.JooqOrderDto;
+import com.example.demo.dto.jooq.JooqProductDto;
+import com.example.demo.dto.jooq.JooqUserDto;
+import com.example.demo.repository.jooq.JooqOrderRepository;
+import com.example.demo.repository.jooq.JooqProductRepository;
+import com.example.demo.repository.jooq.JooqUserRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * JOOQ 数据导出服务
+ * 用 fetchStream 按 fetchSize 分批读取，逐行写为 NDJSON 或 CSV：
+ * 内存占用与导出行数无关，写出第一行后立即 flush，之后每 fetchSize 行 flush 一次
+ *
+ * @author chinwe
+ */
+@Slf4j
+@Service
+public class JooqExportService {
+
+    /**
+     * 导出格式
+     */
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv;charset=UTF-8", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        /**
+         * 解析导出格式（不区分大小写）
+         *
+         * @throws IllegalArgumentException 不支持的格式
+         */
+        public static Format of(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported export format: " + value);
+            }
+        }
+    }
+
+    private static final String[] USER_COLUMNS = {
+        "id", "username", "email", "phone", "created_at", "updated_at"
+    };
+    private static final String[] PRODUCT_COLUMNS = {
+        "id", "name", "description", "price", "stock", "category", "created_at", "updated_at"
+    };
+    private static final String[] ORDER_COLUMNS = {
+        "id", "order_number", "user_id", "username", "total_amount", "status", "remarks",
+        "created_at", "updated_at", "item_count"
+    };
+
+    private final JooqUserRepository userRepository;
+    private final JooqProductRepository productRepository;
+    private final JooqOrderRepository orderRepository;
+    private final ObjectWriter jsonWriter;
+    private final int fetchSize;
+    private final long timeoutMs;
+
+    public JooqExportService(JooqUserRepository userRepository,
+                             JooqProductRepository productRepository,
+                             JooqOrderRepository orderRepository,
+                             ObjectMapper objectMapper,
+                             @Value("${jooq.export.fetch-size:1000}") int fetchSize,
+                             @Value("${jooq.export.timeout-ms:0}") long timeoutMs) {
+        if (fetchSize <= 0) {
+            throw new IllegalArgumentException("Export fetch size must be positive");
+        }
+        this.userRepository = userRepository;
+        this.productRepository = productRepository;
+        this.orderRepository = orderRepository;
+        // 多行写入同一个 Writer：不能在每行后关闭或 flush 目标流
+        this.jsonWriter = objectMapper.writer()
+            .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.fetchSize = fetchSize;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * 导出请求的异步超时（毫秒），小于等于 0 表示不限制
+     */
+    public long getTimeoutMs() {
+        return timeoutMs;
+    }
+
+    /**
+     * 导出所有用户
+     *
+     * @param format 导出格式
+     * @param out 输出流（不会被关闭）
+     * @return 导出行数
+     */
+    public long exportUsers(Format format, OutputStream out) throws IOException {
+        try (Stream<JooqUserDto> users = userRepository.streamAll(fetchSize)) {
+            return write(users, format, out, USER_COLUMNS, u -> new Object[]{
+                u.getId(), u.getUsername(), u.getEmail(), u.getPhone(), u.getCreatedAt(), u.getUpdatedAt()
+            });
+        }
+    }
+
+    /**
+     * 导出所有商品
+     *
+     * @param format 导出格式
+     * @param out 输出流（不会被关闭）
+     * @return 导出行数
+     */
+    public long exportProducts(Format format, OutputStream out) throws IOException {
+        try (Stream<JooqProductDto> products = productRepository.streamAll(fetchSize)) {
+            return write(products, format, out, PRODUCT_COLUMNS, p -> new Object[]{
+                p.getId(), p.getName(), p.getDescription(), p.getPrice(), p.getStock(), p.getCategory(),
+                p.getCreatedAt(), p.getUpdatedAt()
+            });
+        }
+    }
+
+    /**
+     * 导出所有订单（NDJSON 包含订单项，CSV 每个订单一行并给出订单项数量）
+     *
+     * @param format 导出格式
+     * @param out 输出流（不会被关闭）
+     * @return 导出行数
+     */
+    public long exportOrders(Format format, OutputStream out) throws IOException {
+        try (Stream<JooqOrderDto> orders = orderRepository.streamOrderGraphs(fetchSize)) {
+            return write(orders, format, out, ORDER_COLUMNS, o -> new Object[]{
+                o.getId(), o.getOrderNumber(), o.getUserId(), o.getUsername(), o.getTotalAmount(), o.getStatus(),
+                o.getRemarks(), o.getCreatedAt(), o.getUpdatedAt(), o.getItems() != null ? o.getItems().size() : 0
+            });
+        }
+    }
+
+    private <T> long write(Stream<T> rows, Format format, OutputStream out, String[] columns,
+                           Function<T, Object[]> csvRow) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == Format.CSV) {
+            writeCsvLine(writer, columns);
+        }
+
+        long count = 0;
+        Iterator<T> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            T row = iterator.next();
+            if (format == Format.NDJSON) {
+                jsonWriter.writeValue(writer, row);
+                writer.write('\n');
+            } else {
+                writeCsvLine(writer, csvRow.apply(row));
+            }
+            count++;
+            if (count == 1 || count % fetchSize == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+        log.info("Exported {} rows as {}", count, format);
+        return count;
+    }
+
+    private static void writeCsvLine(Writer writer, Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (values[i] != null) {
+                writer.write(escapeCsv(values[i].toString()));
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    /**
+     * RFC 4180：包含逗号、引号或换行的值加引号，引号转义为两个引号
+     */
+    private static String escapeCsv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
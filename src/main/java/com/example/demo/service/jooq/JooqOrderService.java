@@ -5,6 +5,7 @@ import java.util.Map;
 
 import org.springframework.stereotype.Service;
 
+import com.example.demo.dto.jooq.JooqCursorPage;
 import com.example.demo.dto.jooq.JooqOrderDto;
 import com.example.demo.exception.JooqExceptionHandler.EntityNotFoundException;
 import com.example.demo.repository.jooq.JooqOrderRepository;
@@ -23,6 +24,7 @@ import lombok.extern.slf4j.Slf4j;
 public class JooqOrderService {
 
     private final JooqOrderRepository orderRepository;
+    private final JooqStatisticsService statisticsService;
 
     /**
      * 创建订单
@@ -43,7 +45,7 @@ public class JooqOrderService {
      */
     public JooqOrderDto getOrderById(Long orderId) {
         log.debug("Fetching order by id: {}", orderId);
-        JooqOrderDto order = orderRepository.findOrderWithUserAndItemsById(orderId);
+        JooqOrderDto order = orderRepository.findOrderGraphById(orderId);
         if (order == null) {
             log.warn("Order not found with id: {}", orderId);
             throw new EntityNotFoundException("Order not found with id: " + orderId);
@@ -52,22 +54,56 @@ public class JooqOrderService {
     }
 
     /**
-     * 查询用户的所有订单
+     * 查询用户的所有订单（包含订单项，单条查询）
      *
      * @param userId 用户 ID
      * @return 订单列表
      */
     public List<JooqOrderDto> getOrdersByUserId(Long userId) {
         log.debug("Fetching orders for user: {}", userId);
-        return orderRepository.findOrdersByUserId(userId);
+        return orderRepository.findOrderGraphsByUserId(userId);
     }
 
     /**
-     * 获取订单统计信息
+     * 查询用户的订单（游标分页，按创建时间倒序，包含订单项）
+     *
+     * @param userId 用户 ID
+     * @param cursor 上一页返回的 nextCursor，第一页为 null
+     * @param size 每页大小
+     * @return 分页结果
+     * @throws IllegalArgumentException 游标格式不正确
+     */
+    public JooqCursorPage<JooqOrderDto> getOrdersByUserIdPage(Long userId, String cursor, int size) {
+        JooqPageCursor before = JooqPageCursor.decode(cursor);
+        if (before != null) {
+            before.requireCreatedAt();
+        }
+        List<JooqOrderDto> rows = orderRepository.findOrderGraphsByUserIdBefore(
+            userId,
+            before != null ? before.getCreatedAt() : null,
+            before != null ? before.getId() : null,
+            size + 1);
+
+        boolean hasMore = rows.size() > size;
+        List<JooqOrderDto> items = hasMore ? rows.subList(0, size) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            JooqOrderDto last = items.get(size - 1);
+            nextCursor = JooqPageCursor.ofCreatedAtAndId(last.getCreatedAt(), last.getId()).encode();
+        }
+        return JooqCursorPage.<JooqOrderDto>builder()
+            .items(items)
+            .nextCursor(nextCursor)
+            .hasMore(hasMore)
+            .build();
+    }
+
+    /**
+     * 获取订单统计信息（读取增量维护的计数，不做全表聚合）
      *
      * @return 统计信息 Map
      */
     public Map<String, Object> getOrderStatistics() {
-        return orderRepository.getOrderStatistics();
+        return statisticsService.getOrderStatistics();
     }
 }
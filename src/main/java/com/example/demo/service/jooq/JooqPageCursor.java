@@ -0,0 +1,82 @@
+package com.example.demo.service.jooq;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * 游标分页的游标
+ * 记录上一页最后一行的排序键（id，或 created_at + id），编码为 Base64URL 字符串对外不透明
+ *
+ * @author chinwe
+ */
+public final class JooqPageCursor {
+
+    private static final String SEPARATOR = ",";
+
+    private final LocalDateTime createdAt;
+    private final Long id;
+
+    private JooqPageCursor(LocalDateTime createdAt, Long id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    public static JooqPageCursor ofId(Long id) {
+        return new JooqPageCursor(null, id);
+    }
+
+    public static JooqPageCursor ofCreatedAtAndId(LocalDateTime createdAt, Long id) {
+        return new JooqPageCursor(createdAt, id);
+    }
+
+    /**
+     * 解析游标
+     *
+     * @param cursor 游标字符串，为空表示第一页
+     * @return 游标，第一页返回 null
+     * @throws IllegalArgumentException 游标格式不正确
+     */
+    public static JooqPageCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.indexOf(SEPARATOR);
+            if (separator < 0) {
+                return ofId(Long.valueOf(value));
+            }
+            return ofCreatedAtAndId(LocalDateTime.parse(value.substring(0, separator)),
+                Long.valueOf(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid page cursor: " + cursor);
+        }
+    }
+
+    public String encode() {
+        String value = createdAt != null ? createdAt + SEPARATOR + id : String.valueOf(id);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * 按创建时间排序的游标必须包含 created_at
+     *
+     * @throws IllegalArgumentException 游标只有 id
+     */
+    JooqPageCursor requireCreatedAt() {
+        if (createdAt == null) {
+            throw new IllegalArgumentException("Page cursor does not contain a creation time");
+        }
+        return this;
+    }
+}
@@ -7,6 +7,7 @@ import java.util.stream.IntStream;
 import org.springframework.stereotype.Service;
 
 import com.example.demo.dto.jooq.JooqCreateProductRequest;
+import com.example.demo.dto.jooq.JooqCursorPage;
 import com.example.demo.dto.jooq.JooqProductDto;
 import com.example.demo.exception.JooqExceptionHandler.EntityNotFoundException;
 import com.example.demo.mapper.JooqProductMapper;
@@ -109,6 +110,31 @@ public class JooqProductService {
         return productRepository.findByCategory(category, page * size, size);
     }
 
+    /**
+     * 根据分类查询商品（游标分页）
+     * 多查询一行判断是否还有下一页，任意深度的页与第一页开销相同
+     *
+     * @param category 分类名称
+     * @param cursor 上一页返回的 nextCursor，第一页为 null
+     * @param size 每页大小
+     * @return 分页结果
+     * @throws IllegalArgumentException 游标格式不正确
+     */
+    public JooqCursorPage<JooqProductDto> getProductsByCategoryPage(String category, String cursor, int size) {
+        JooqPageCursor after = JooqPageCursor.decode(cursor);
+        List<JooqProductDto> rows = productRepository.findByCategoryAfter(
+            category, after != null ? after.getId() : null, size + 1);
+
+        boolean hasMore = rows.size() > size;
+        List<JooqProductDto> items = hasMore ? rows.subList(0, size) : rows;
+        String nextCursor = hasMore ? JooqPageCursor.ofId(items.get(size - 1).getId()).encode() : null;
+        return JooqCursorPage.<JooqProductDto>builder()
+            .items(items)
+            .nextCursor(nextCursor)
+            .hasMore(hasMore)
+            .build();
+    }
+
     /**
      * 更新商品
      *
@@ -138,4 +164,32 @@ public class JooqProductService {
     public List<JooqProductDto> getLowStockProducts(int threshold) {
         return productRepository.findLowStockProducts(threshold);
     }
+
+    /**
+     * 切换为分片库存模式（库存拆分到多个槽位，热门商品的并发扣减不再争用同一行锁）
+     *
+     * @param id 商品 ID
+     * @param slots 槽位数
+     * @throws EntityNotFoundException 商品不存在时抛出
+     * @throws IllegalArgumentException 如果 slots 小于 1
+     */
+    public void enableShardedStock(Long id, int slots) {
+        if (!productRepository.enableShardedStock(id, slots)) {
+            throw new EntityNotFoundException("Product not found with id: " + id);
+        }
+        log.info("Product {} switched to sharded stock with {} slots", id, slots);
+    }
+
+    /**
+     * 切换回单行库存模式
+     *
+     * @param id 商品 ID
+     * @throws EntityNotFoundException 商品不存在时抛出
+     */
+    public void disableShardedStock(Long id) {
+        if (!productRepository.disableShardedStock(id)) {
+            throw new EntityNotFoundException("Product not found with id: " + id);
+        }
+        log.info("Product {} switched to single-row stock", id);
+    }
 }
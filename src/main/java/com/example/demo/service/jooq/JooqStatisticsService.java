@@ -0,0 +1,125 @@
+package com.example.demo.service.jooq;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.repository.jooq.JooqOrderRepository;
+import com.example.demo.repository.jooq.JooqProductRepository;
+import com.example.demo.repository.jooq.JooqStatisticsCounters;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * JOOQ 统计服务
+ * 统计接口直接读取 {@link JooqStatisticsCounters} 中增量维护的计数，不再做全表聚合；
+ * 首次读取和每隔 jooq.statistics.reconcile-interval 用数据库聚合结果对账一次，修正计数偏差
+ *
+ * @author chinwe
+ */
+@Slf4j
+@Service
+public class JooqStatisticsService {
+
+    private final JooqOrderRepository orderRepository;
+    private final JooqProductRepository productRepository;
+    private final JooqStatisticsCounters counters;
+    private final Duration reconcileInterval;
+    private final ScheduledExecutorService reconciler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("jooq-statistics-reconciler").daemon(true).factory());
+
+    public JooqStatisticsService(JooqOrderRepository orderRepository,
+                                 JooqProductRepository productRepository,
+                                 JooqStatisticsCounters counters,
+                                 @Value("${jooq.statistics.reconcile-interval:5m}") Duration reconcileInterval) {
+        this.orderRepository = orderRepository;
+        this.productRepository = productRepository;
+        this.counters = counters;
+        this.reconcileInterval = reconcileInterval;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (reconcileInterval.isZero() || reconcileInterval.isNegative()) {
+            log.info("JOOQ statistics periodic reconciliation is disabled");
+            return;
+        }
+        long intervalMs = reconcileInterval.toMillis();
+        reconciler.scheduleWithFixedDelay(this::reconcileQuietly, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        log.info("JOOQ statistics reconciliation scheduled every {}", reconcileInterval);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        reconciler.shutdownNow();
+    }
+
+    /**
+     * 用数据库聚合结果重置计数器
+     * 聚合查询期间提交的写入可能被重复计入或遗漏，偏差在下一次对账时修正
+     */
+    public synchronized void reconcile() {
+        Map<String, Object> orderStats = orderRepository.getOrderStatistics();
+        @SuppressWarnings("unchecked")
+        Map<String, Long> statusCounts = (Map<String, Long>) orderStats.get("status_counts");
+        BigDecimal totalAmount = (BigDecimal) orderStats.get("total_amount");
+
+        counters.reset(statusCounts, totalAmount, productRepository.getStockByCategory(),
+            productRepository.countLowStockProducts(counters.getLowStockThreshold()));
+        log.debug("JOOQ statistics reconciled, total orders: {}", counters.getTotalOrders());
+    }
+
+    /**
+     * 获取订单统计信息（O(1)，读取增量计数）
+     *
+     * @return 统计信息 Map
+     */
+    public Map<String, Object> getOrderStatistics() {
+        ensureInitialized();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("total_orders", counters.getTotalOrders());
+        stats.put("total_amount", counters.getTotalAmount());
+        stats.put("status_counts", counters.getStatusCounts());
+        return stats;
+    }
+
+    /**
+     * 获取系统统计信息（订单统计加商品库存统计，O(1)）
+     *
+     * @return 统计信息 Map
+     */
+    public Map<String, Object> getSystemStatistics() {
+        Map<String, Object> stats = getOrderStatistics();
+        stats.put("electronics_stock", (int) counters.getCategoryStock("Electronics"));
+        stats.put("books_stock", (int) counters.getCategoryStock("Books"));
+        stats.put("low_stock_products_count", (int) counters.getLowStockProducts());
+        return stats;
+    }
+
+    private void ensureInitialized() {
+        if (!counters.isInitialized()) {
+            synchronized (this) {
+                if (!counters.isInitialized()) {
+                    reconcile();
+                }
+            }
+        }
+    }
+
+    private void reconcileQuietly() {
+        try {
+            reconcile();
+        } catch (Exception e) {
+            log.warn("JOOQ statistics reconciliation failed", e);
+        }
+    }
+}
@@ -1,8 +1,13 @@
 package com.example.demo.service.jooq;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.UUID;
 
 import org.springframework.stereotype.Service;
@@ -36,6 +41,7 @@ public class JooqTransactionService {
     private final JooqUserRepository userRepository;
     private final JooqProductRepository productRepository;
     private final JooqOrderRepository orderRepository;
+    private final JooqStatisticsService statisticsService;
 
     /**
      * 创建订单（事务方法）
@@ -60,15 +66,20 @@ public class JooqTransactionService {
         final BigDecimal[] totalAmountHolder = new BigDecimal[]{BigDecimal.ZERO};
         List<JooqOrderItemDto> orderItems = request.getItems().stream()
             .map(itemReq -> {
-                // 查询商品
+                // 查询商品（读缓存）
                 JooqProductDto product = productRepository.findById(itemReq.getProductId());
                 if (product == null) {
                     throw new EntityNotFoundException("Product not found with id: " + itemReq.getProductId());
                 }
 
-                // 检查库存
+                // 检查库存：缓存中的库存可能过期，不足时以数据库为准再确认一次；
+                // 充足时由扣减库存的条件更新兜底
                 if (product.getStock() < itemReq.getQuantity()) {
-                    throw new IllegalArgumentException("Insufficient stock for product: " + product.getName());
+                    JooqProductDto latest = productRepository.findByIdUncached(itemReq.getProductId());
+                    if (latest == null || latest.getStock() < itemReq.getQuantity()) {
+                        throw new IllegalArgumentException("Insufficient stock for product: " + product.getName());
+                    }
+                    product = latest;
                 }
 
                 // 计算小计
@@ -84,21 +95,20 @@ public class JooqTransactionService {
             })
             .toList();
 
-        // 扣减库存
+        // 扣减库存：同一商品出现多次时先汇总数量，每个商品只扣减一次，并按商品 ID 升序加锁
+        Map<Long, Integer> quantities = new TreeMap<>();
         for (OrderItemRequest item : request.getItems()) {
-            boolean decreased = productRepository.decreaseStock(item.getProductId(), item.getQuantity());
-            if (!decreased) {
-                throw new IllegalStateException("Failed to decrease stock for product: " + item.getProductId());
-            }
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
         }
-
-        // 生成订单号
-        String orderNumber = "ORD" + System.currentTimeMillis() +
-            UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+        quantities.forEach((productId, quantity) -> {
+            if (!productRepository.decreaseStock(productId, quantity)) {
+                throw new IllegalStateException("Failed to decrease stock for product: " + productId);
+            }
+        });
 
         // 创建订单
         JooqOrderDto order = JooqOrderDto.builder()
-            .orderNumber(orderNumber)
+            .orderNumber(generateOrderNumber())
             .userId(request.getUserId())
             .totalAmount(totalAmountHolder[0])
             .status("PENDING")
@@ -124,35 +134,116 @@ public class JooqTransactionService {
     }
 
     /**
-     * 批量创建订单（事务方法）
+     * 批量创建订单（事务方法，基于集合的批量处理）
+     * 查询次数与订单数量无关：
+     * 1. 用 IN 查询一次性加载所有涉及的用户和商品
+     * 2. 在内存中按商品汇总购买数量并检查库存
+     * 3. 用一条 UPDATE ... CASE 扣减所有商品库存，库存条件不满足时整体回滚
+     * 4. 用多行 INSERT 批量写入订单和订单项
      *
      * @param requests 创建订单请求列表
-     * @return 订单 ID 列表
+     * @return 订单 ID 列表，顺序与 requests 一致
+     * @throws EntityNotFoundException 如果用户或商品不存在
+     * @throws IllegalArgumentException 如果库存不足
+     * @throws IllegalStateException 如果扣减库存失败
      */
     @Transactional(rollbackFor = Exception.class)
     public List<Long> batchCreateOrders(List<JooqCreateOrderRequest> requests) {
-        return requests.stream()
-            .map(this::createOrder)
-            .toList();
+        if (requests.isEmpty()) {
+            return List.of();
+        }
+        log.info("Batch creating {} orders", requests.size());
+
+        // 加载用户和商品
+        Set<Long> userIds = new HashSet<>();
+        Set<Long> productIds = new HashSet<>();
+        for (JooqCreateOrderRequest request : requests) {
+            userIds.add(request.getUserId());
+            for (OrderItemRequest item : request.getItems()) {
+                productIds.add(item.getProductId());
+            }
+        }
+
+        Set<Long> existingUserIds = userRepository.findExistingIds(userIds);
+        for (Long userId : userIds) {
+            if (!existingUserIds.contains(userId)) {
+                throw new EntityNotFoundException("User not found with id: " + userId);
+            }
+        }
+        Map<Long, JooqProductDto> products = productRepository.findByIds(productIds);
+
+        // 汇总每个商品的购买数量并检查库存
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (JooqCreateOrderRequest request : requests) {
+            for (OrderItemRequest item : request.getItems()) {
+                JooqProductDto product = products.get(item.getProductId());
+                if (product == null) {
+                    throw new EntityNotFoundException("Product not found with id: " + item.getProductId());
+                }
+                int quantity = quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+                if (product.getStock() < quantity) {
+                    throw new IllegalArgumentException("Insufficient stock for product: " + product.getName());
+                }
+            }
+        }
+
+        // 扣减库存：任一商品库存条件不满足（如被并发扣减）时更新行数不足
+        int decreased = productRepository.decreaseStockBatch(quantities);
+        if (decreased != quantities.size()) {
+            throw new IllegalStateException("Failed to decrease stock for " + (quantities.size() - decreased)
+                + " of " + quantities.size() + " products");
+        }
+
+        // 构建订单（同一毫秒内生成大量订单号，需去重）
+        List<JooqOrderDto> orders = new ArrayList<>(requests.size());
+        Set<String> orderNumbers = new HashSet<>();
+        for (JooqCreateOrderRequest request : requests) {
+            String orderNumber = generateOrderNumber();
+            while (!orderNumbers.add(orderNumber)) {
+                orderNumber = generateOrderNumber();
+            }
+            BigDecimal totalAmount = BigDecimal.ZERO;
+            List<JooqOrderItemDto> orderItems = new ArrayList<>(request.getItems().size());
+            for (OrderItemRequest item : request.getItems()) {
+                BigDecimal price = products.get(item.getProductId()).getPrice();
+                BigDecimal subtotal = price.multiply(BigDecimal.valueOf(item.getQuantity()));
+                totalAmount = totalAmount.add(subtotal);
+                orderItems.add(JooqOrderItemDto.builder()
+                    .productId(item.getProductId())
+                    .quantity(item.getQuantity())
+                    .price(price)
+                    .subtotal(subtotal)
+                    .build());
+            }
+            orders.add(JooqOrderDto.builder()
+                .orderNumber(orderNumber)
+                .userId(request.getUserId())
+                .totalAmount(totalAmount)
+                .status("PENDING")
+                .remarks(request.getRemarks())
+                .items(orderItems)
+                .build());
+        }
+
+        List<Long> orderIds = orderRepository.batchInsertWithItems(orders);
+        log.info("Batch created {} orders", orderIds.size());
+        return orderIds;
     }
 
     /**
-     * 获取系统统计信息
+     * 获取系统统计信息（读取增量维护的计数，不做全表聚合和低库存扫描）
      *
      * @return 统计信息 Map
      */
     public Map<String, Object> getSystemStatistics() {
-        Map<String, Object> orderStats = orderRepository.getOrderStatistics();
-
-        // 获取商品统计
-        int electronicsStock = productRepository.getTotalStockByCategory("Electronics");
-        int booksStock = productRepository.getTotalStockByCategory("Books");
-        List<JooqProductDto> lowStockProducts = productRepository.findLowStockProducts(10);
-
-        orderStats.put("electronics_stock", electronicsStock);
-        orderStats.put("books_stock", booksStock);
-        orderStats.put("low_stock_products_count", lowStockProducts.size());
+        return statisticsService.getSystemStatistics();
+    }
 
-        return orderStats;
+    /**
+     * 生成订单号
+     */
+    private String generateOrderNumber() {
+        return "ORD" + System.currentTimeMillis() +
+            UUID.randomUUID().toString().substring(0, 8).toUpperCase();
     }
 }
@@ -18,10 +18,21 @@ CREATE TABLE IF NOT EXISTS j_products (
     price DECIMAL(10, 2) NOT NULL,
     stock INT NOT NULL DEFAULT 0,
     category VARCHAR(50),
+    -- 库存槽位数：0 为单行库存，大于 0 时库存分布在 j_product_stock_slots 中，stock 列为 0
+    stock_slots INT NOT NULL DEFAULT 0,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
 
+-- 商品库存槽位表（分片库存）
+CREATE TABLE IF NOT EXISTS j_product_stock_slots (
+    product_id BIGINT NOT NULL,
+    slot INT NOT NULL,
+    stock INT NOT NULL,
+    PRIMARY KEY (product_id, slot),
+    FOREIGN KEY (product_id) REFERENCES j_products(id)
+);
+
 -- 订单表
 CREATE TABLE IF NOT EXISTS j_orders (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
@@ -49,9 +60,11 @@ CREATE TABLE IF NOT EXISTS j_order_items (
 );
 
 -- 创建索引
-CREATE INDEX IF NOT EXISTS idx_orders_user_id ON j_orders(user_id);
+-- 用户订单游标分页：WHERE user_id = ? ORDER BY created_at DESC, id DESC
+CREATE INDEX IF NOT EXISTS idx_orders_user_created_id ON j_orders(user_id, created_at, id);
 CREATE INDEX IF NOT EXISTS idx_orders_status ON j_orders(status);
 CREATE INDEX IF NOT EXISTS idx_orders_created_at ON j_orders(created_at);
 CREATE INDEX IF NOT EXISTS idx_order_items_order_id ON j_order_items(order_id);
 CREATE INDEX IF NOT EXISTS idx_order_items_product_id ON j_order_items(product_id);
-CREATE INDEX IF NOT EXISTS idx_products_category ON j_products(category);
+-- 分类商品游标分页：WHERE category = ? AND id > ? ORDER BY id
+CREATE INDEX IF NOT EXISTS idx_products_category_id ON j_products(category, id);
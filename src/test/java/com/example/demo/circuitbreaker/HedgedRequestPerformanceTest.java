@@ -0,0 +1,95 @@
+package com.example.demo.circuitbreaker;
+
+import com.example.demo.circuitbreaker.annotation.Hedged;
+import com.example.demo.circuitbreaker.aspect.HedgedAspect;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 对冲请求性能测试
+ * 对比长尾延迟模拟服务在直接调用和 @Hedged 调用下的 p50/p99 延迟
+ */
+class HedgedRequestPerformanceTest {
+
+    private static final int WARMUP_CALLS = 50;
+    private static final int MEASURE_CALLS = 300;
+
+    private final HedgedAspect aspect = new HedgedAspect();
+
+    @AfterEach
+    void tearDown() {
+        aspect.shutdown();
+    }
+
+    @Test
+    void testHeavyTailedService_HedgingReducesP99() {
+        HeavyTailedService target = new HeavyTailedService();
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(aspect);
+        HeavyTailedService hedged = factory.getProxy();
+
+        // 预热：积累延迟样本
+        runSequential(hedged::call, WARMUP_CALLS);
+
+        List<Long> direct = runSequential(target::call, MEASURE_CALLS);
+        List<Long> withHedging = runSequential(hedged::call, MEASURE_CALLS);
+
+        long directP99 = percentile(direct, 99);
+        long hedgedP99 = percentile(withHedging, 99);
+        Map<String, Object> stats = aspect.getStatistics().get("heavyTailed");
+
+        System.out.println("Heavy-tailed service p50/p99 (ms)");
+        System.out.println("  direct : " + percentile(direct, 50) + " / " + directP99);
+        System.out.println("  hedged : " + percentile(withHedging, 50) + " / " + hedgedP99);
+        System.out.println("  hedges fired: " + stats.get("hedgesFired") + ", hedge wins: " + stats.get("hedgeWins"));
+
+        assertThat(hedgedP99).isLessThan(directP99);
+    }
+
+    private static List<Long> runSequential(Runnable call, int iterations) {
+        List<Long> latencies = new ArrayList<>(iterations);
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            call.run();
+            latencies.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+        return latencies;
+    }
+
+    private static long percentile(List<Long> latencies, double percentile) {
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.size()) - 1;
+        return sorted.get(Math.max(0, rank));
+    }
+
+    /**
+     * 长尾延迟模拟服务：约 95% 调用 5ms，约 5% 调用 100-300ms
+     */
+    static class HeavyTailedService {
+
+        @Hedged(name = "heavyTailed", percentile = 90, minSamples = 20, initialDelayMs = 20)
+        public String call() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long millis = random.nextDouble() < 0.05 ? random.nextLong(100, 300) : 5;
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("interrupted", e);
+            }
+            return "ok";
+        }
+    }
+}
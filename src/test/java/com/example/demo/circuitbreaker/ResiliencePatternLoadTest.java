@@ -0,0 +1,163 @@
+package com.example.demo.circuitbreaker;
+
+import com.example.demo.circuitbreaker.dto.CircuitBreakerResultDto;
+import com.example.demo.circuitbreaker.dto.ExternalApiRequestDto;
+import com.example.demo.circuitbreaker.service.CircuitBreakerService;
+import com.example.demo.circuitbreaker.service.ExternalApiService;
+import com.example.demo.circuitbreaker.support.LoadGenerator;
+import com.example.demo.circuitbreaker.support.LoadGenerator.LoadReport;
+import com.example.demo.circuitbreaker.support.StandInServer;
+import com.example.demo.circuitbreaker.support.StandInServer.LatencyDistribution;
+import com.example.demo.circuitbreaker.support.StandInServer.Scenario;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 容错模式压测
+ * 通过本地替身服务模拟真实下游（长尾延迟、错误突发、慢速输出），
+ * 在同一负载下对比直连、熔断器、对冲请求、融合管道和微批处理的吞吐量、尾延迟与熔断器状态变化
+ */
+@SpringBootTest(properties = {
+        "logging.level.com.example.demo.circuitbreaker=WARN",
+        "resilience4j.circuitbreaker.instances.externalApi.sliding-window-size=20",
+        "resilience4j.circuitbreaker.instances.externalApi.minimum-number-of-calls=10",
+        "resilience4j.circuitbreaker.instances.externalApi.wait-duration-in-open-state=300ms",
+        "resilience4j.circuitbreaker.instances.combinedCircuitBreaker.sliding-window-size=20",
+        "resilience4j.circuitbreaker.instances.combinedCircuitBreaker.minimum-number-of-calls=10",
+        "resilience4j.circuitbreaker.instances.combinedCircuitBreaker.wait-duration-in-open-state=300ms",
+        "resilience4j.ratelimiter.instances.combinedRateLimiter.limit-for-period=1000000",
+        "resilience4j.bulkhead.instances.combinedBulkhead.max-concurrent-calls=32"
+})
+class ResiliencePatternLoadTest {
+
+    private static final int CONCURRENCY = 16;
+    private static final Duration RUN_DURATION = Duration.ofSeconds(1);
+
+    private static final StandInServer SERVER = startServer();
+
+    @Autowired
+    private ExternalApiService externalApiService;
+
+    @Autowired
+    private CircuitBreakerService circuitBreakerService;
+
+    @Autowired
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+
+    @DynamicPropertySource
+    static void externalApiProperties(DynamicPropertyRegistry registry) {
+        registry.add("external-api.base-url", SERVER::getBaseUrl);
+    }
+
+    @AfterAll
+    static void stopServer() {
+        SERVER.close();
+    }
+
+    @Test
+    void testLogNormalLatency() throws InterruptedException {
+        List<LoadReport> reports = runAllPatterns(Scenario.builder("log-normal")
+                .latency(LatencyDistribution.logNormal(5, 0.8))
+                .build());
+
+        reports.forEach(report -> assertThat(report.getTotalCalls()).isPositive());
+    }
+
+    @Test
+    void testBimodalLatency() throws InterruptedException {
+        List<LoadReport> reports = runAllPatterns(Scenario.builder("bimodal")
+                .latency(LatencyDistribution.bimodal(3, 80, 0.05))
+                .build());
+
+        reports.forEach(report -> assertThat(report.getTotalCalls()).isPositive());
+    }
+
+    @Test
+    void testErrorBurst_OpensCircuitBreaker() throws InterruptedException {
+        List<LoadReport> reports = runAllPatterns(Scenario.builder("error-burst")
+                .latency(LatencyDistribution.fixed(3))
+                .baseErrorRate(0.01)
+                .errorBurst(1000, 400, 0.9)
+                .build());
+
+        LoadReport circuitBreakerReport = reports.stream()
+                .filter(report -> report.getName().equals("circuit-breaker"))
+                .findFirst()
+                .orElseThrow();
+        assertThat(circuitBreakerReport.getStateTransitions())
+                .anyMatch(transition -> transition.contains("CLOSED_TO_OPEN"));
+    }
+
+    @Test
+    void testSlowDrain() throws InterruptedException {
+        List<LoadReport> reports = runAllPatterns(Scenario.builder("slow-drain")
+                .latency(LatencyDistribution.fixed(2))
+                .slowDrain(4, 5)
+                .build());
+
+        reports.forEach(report -> assertThat(report.getTotalCalls()).isPositive());
+    }
+
+    private List<LoadReport> runAllPatterns(Scenario scenario) throws InterruptedException {
+        SERVER.setScenario(scenario);
+        LoadGenerator generator = new LoadGenerator(CONCURRENCY, RUN_DURATION);
+
+        System.out.println("=== Scenario: " + scenario.getName() + " ===");
+        List<LoadReport> reports = new ArrayList<>();
+        reports.add(run(generator, "direct", null, request -> {
+            externalApiService.callExternalApi(request);
+            return true;
+        }));
+        reports.add(run(generator, "circuit-breaker", "externalApi",
+                request -> circuitBreakerService.callExternalApiWithCircuitBreaker(request).isSuccess()));
+        reports.add(run(generator, "hedged", null,
+                request -> circuitBreakerService.callExternalApiWithHedging(request).isSuccess()));
+        reports.add(run(generator, "pipeline", "combinedCircuitBreaker",
+                request -> circuitBreakerService.callApiWithAllResiliencePatterns(request).join().isSuccess()));
+        reports.add(run(generator, "micro-batch", "externalApi",
+                request -> circuitBreakerService.callExternalApiWithBatching(request).isSuccess()));
+        return reports;
+    }
+
+    private LoadReport run(LoadGenerator generator, String name, String circuitBreakerName,
+                           Function<ExternalApiRequestDto, Boolean> call) throws InterruptedException {
+        circuitBreakerRegistry.getAllCircuitBreakers().forEach(CircuitBreaker::reset);
+        CircuitBreaker circuitBreaker = circuitBreakerName == null
+                ? null : circuitBreakerRegistry.circuitBreaker(circuitBreakerName);
+
+        LoadReport report = generator.run(name, () -> call.apply(randomRequest()), circuitBreaker);
+        report.print();
+        return report;
+    }
+
+    private static ExternalApiRequestDto randomRequest() {
+        return ExternalApiRequestDto.builder()
+                .endpoint("/api/users")
+                .payload(String.valueOf(ThreadLocalRandom.current().nextInt(1_000)))
+                .simulateFailure(false)
+                .build();
+    }
+
+    private static StandInServer startServer() {
+        try {
+            return StandInServer.start(Scenario.builder("idle").build());
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to start stand-in server", e);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.demo.circuitbreaker;
+
+import com.example.demo.circuitbreaker.annotation.ResiliencePipeline;
+import io.github.resilience4j.bulkhead.annotation.Bulkhead;
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 融合容错管道性能测试
+ * 对比叠加的 @Bulkhead/@RateLimiter/@CircuitBreaker 与 @ResiliencePipeline 的单次调用耗时和内存分配
+ */
+@SpringBootTest(properties = {
+        "resilience4j.circuitbreaker.instances.benchCircuitBreaker.base-config=default",
+        "resilience4j.ratelimiter.instances.benchRateLimiter.limit-for-period=1000000000",
+        "resilience4j.ratelimiter.instances.benchRateLimiter.limit-refresh-period=1s",
+        "resilience4j.ratelimiter.instances.benchRateLimiter.timeout-duration=0s",
+        "resilience4j.bulkhead.instances.benchBulkhead.max-concurrent-calls=100",
+        "resilience4j.bulkhead.instances.benchBulkhead.max-wait-duration=0s"
+})
+class ResiliencePipelinePerformanceTest {
+
+    private static final int WARMUP_ITERATIONS = 100_000;
+    private static final int MEASURE_ITERATIONS = 200_000;
+
+    @Autowired
+    private BenchmarkTarget target;
+
+    @Test
+    void testPipelineOverheadLowerThanStackedAnnotations() {
+        warmUp(target::stacked);
+        warmUp(target::pipeline);
+
+        Result stacked = measure(target::stacked);
+        Result pipeline = measure(target::pipeline);
+
+        System.out.println("Stacked annotations : " + stacked);
+        System.out.println("Resilience pipeline : " + pipeline);
+
+        assertThat(pipeline.bytesPerOp).isLessThan(stacked.bytesPerOp);
+    }
+
+    private static void warmUp(Supplier<String> call) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            call.get();
+        }
+    }
+
+    private static Result measure(Supplier<String> call) {
+        com.sun.management.ThreadMXBean threadMXBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        long startBytes = threadMXBean.getCurrentThreadAllocatedBytes();
+        long startTime = System.nanoTime();
+        for (int i = 0; i < MEASURE_ITERATIONS; i++) {
+            call.get();
+        }
+        long duration = System.nanoTime() - startTime;
+        long allocated = threadMXBean.getCurrentThreadAllocatedBytes() - startBytes;
+
+        return new Result((double) duration / MEASURE_ITERATIONS, (double) allocated / MEASURE_ITERATIONS);
+    }
+
+    private static class Result {
+        private final double nanosPerOp;
+        private final double bytesPerOp;
+
+        private Result(double nanosPerOp, double bytesPerOp) {
+            this.nanosPerOp = nanosPerOp;
+            this.bytesPerOp = bytesPerOp;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.1f ns/op, %.1f bytes/op", nanosPerOp, bytesPerOp);
+        }
+    }
+
+    @TestConfiguration
+    static class BenchmarkConfiguration {
+
+        @Bean
+        BenchmarkTarget benchmarkTarget() {
+            return new BenchmarkTarget();
+        }
+    }
+
+    static class BenchmarkTarget {
+
+        @Bulkhead(name = "benchBulkhead")
+        @RateLimiter(name = "benchRateLimiter")
+        @CircuitBreaker(name = "benchCircuitBreaker", fallbackMethod = "fallback")
+        public String stacked() {
+            return "ok";
+        }
+
+        @ResiliencePipeline(
+                circuitBreaker = "benchCircuitBreaker",
+                rateLimiter = "benchRateLimiter",
+                bulkhead = "benchBulkhead",
+                fallbackMethod = "fallback"
+        )
+        public String pipeline() {
+            return "ok";
+        }
+
+        public String fallback(Exception ex) {
+            return "fallback";
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.demo.circuitbreaker.aspect;
+
+import com.example.demo.circuitbreaker.annotation.Hedged;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 对冲请求切面测试
+ * 长尾延迟下的 p99 对比见 HedgedRequestPerformanceTest
+ */
+class HedgedAspectTest {
+
+    private HedgedAspect aspect;
+
+    @BeforeEach
+    void setUp() {
+        aspect = new HedgedAspect();
+    }
+
+    @AfterEach
+    void tearDown() {
+        aspect.shutdown();
+    }
+
+    @Test
+    void testFastPrimary_NoHedgeFired() {
+        StubService service = proxy(new StubService());
+
+        assertThat(service.fast()).isEqualTo("fast");
+
+        Map<String, Object> stats = aspect.getStatistics().get("fast");
+        assertThat(stats.get("totalCalls")).isEqualTo(1L);
+        assertThat(stats.get("hedgesFired")).isEqualTo(0L);
+    }
+
+    @Test
+    void testSlowPrimary_HedgeWinsAndLoserIsInterrupted() throws Exception {
+        StubService target = new StubService();
+        StubService service = proxy(target);
+
+        // 主调用阻塞在永不释放的闩锁上，只能由对冲调用返回结果
+        String result = service.slowFirstCall();
+
+        assertThat(result).isEqualTo("attempt-2");
+        assertThat(target.interrupted.await(1, TimeUnit.SECONDS)).isTrue();
+
+        Map<String, Object> stats = aspect.getStatistics().get("slowFirst");
+        assertThat(stats.get("hedgesFired")).isEqualTo(1L);
+        assertThat(stats.get("hedgeWins")).isEqualTo(1L);
+        assertThat(stats.get("hedgesInFlight")).isEqualTo(0);
+    }
+
+    @Test
+    void testAllAttemptsFail_ThrowsOriginalException() {
+        StubService service = proxy(new StubService());
+
+        assertThatThrownBy(service::alwaysFails)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("boom");
+    }
+
+    @Test
+    void testHedgeLimit_RejectsExtraHedges() throws Exception {
+        StubService target = new StubService();
+        StubService service = proxy(target);
+
+        // 两个并发调用都超过对冲延迟，但只允许一个对冲在途
+        Thread first = Thread.ofVirtual().start(service::limited);
+        Thread second = Thread.ofVirtual().start(service::limited);
+        first.join(5_000);
+        second.join(5_000);
+
+        Map<String, Object> stats = aspect.getStatistics().get("limited");
+        assertThat(stats.get("totalCalls")).isEqualTo(2L);
+        assertThat((Long) stats.get("hedgesFired") + (Long) stats.get("hedgesRejected")).isEqualTo(2L);
+        assertThat(stats.get("hedgesRejected")).isEqualTo(1L);
+    }
+
+    private <T> T proxy(T target) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(aspect);
+        return factory.getProxy();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("interrupted", e);
+        }
+    }
+
+    static class StubService {
+        private final AtomicInteger attempts = new AtomicInteger();
+        private final CountDownLatch primaryRelease = new CountDownLatch(1);
+        private final CountDownLatch interrupted = new CountDownLatch(1);
+
+        @Hedged(name = "fast", initialDelayMs = 1_000)
+        public String fast() {
+            return "fast";
+        }
+
+        @Hedged(name = "slowFirst", initialDelayMs = 50)
+        public String slowFirstCall() {
+            int attempt = attempts.incrementAndGet();
+            if (attempt == 1) {
+                try {
+                    primaryRelease.await();
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("interrupted", e);
+                }
+            }
+            return "attempt-" + attempt;
+        }
+
+        @Hedged(name = "alwaysFails", initialDelayMs = 10)
+        public String alwaysFails() {
+            sleep(20);
+            throw new IllegalStateException("boom");
+        }
+
+        @Hedged(name = "limited", initialDelayMs = 20, maxHedgesInFlight = 1)
+        public String limited() {
+            sleep(200);
+            return "limited";
+        }
+    }
+}
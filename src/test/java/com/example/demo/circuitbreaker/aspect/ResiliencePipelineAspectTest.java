@@ -0,0 +1,190 @@
+package com.example.demo.circuitbreaker.aspect;
+
+import com.example.demo.circuitbreaker.annotation.ResiliencePipeline;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 融合容错管道切面测试
+ */
+class ResiliencePipelineAspectTest {
+
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+    private BulkheadRegistry bulkheadRegistry;
+    private ScheduledExecutorService scheduler;
+    private ResiliencePipelineAspect aspect;
+    private StubService service;
+
+    @BeforeEach
+    void setUp() {
+        circuitBreakerRegistry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .slidingWindowSize(4)
+                .minimumNumberOfCalls(4)
+                .failureRateThreshold(50)
+                .build());
+        RateLimiterRegistry rateLimiterRegistry = RateLimiterRegistry.of(RateLimiterConfig.custom()
+                .limitForPeriod(2)
+                .limitRefreshPeriod(Duration.ofMinutes(1))
+                .timeoutDuration(Duration.ZERO)
+                .build());
+        bulkheadRegistry = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(1)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        TimeLimiterRegistry timeLimiterRegistry = TimeLimiterRegistry.of(TimeLimiterConfig.custom()
+                .timeoutDuration(Duration.ofMillis(100))
+                .build());
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+
+        aspect = new ResiliencePipelineAspect(circuitBreakerRegistry, rateLimiterRegistry,
+                bulkheadRegistry, timeLimiterRegistry, scheduler);
+
+        AspectJProxyFactory factory = new AspectJProxyFactory(new StubService());
+        factory.setProxyTargetClass(true);
+        factory.addAspect(aspect);
+        service = factory.getProxy();
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void testSuccess_RecordedByCircuitBreaker() {
+        assertThat(service.call("ok")).isEqualTo("result:ok");
+
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker("pipelineCb");
+        assertThat(circuitBreaker.getMetrics().getNumberOfSuccessfulCalls()).isEqualTo(1);
+        assertThat(bulkheadRegistry.bulkhead("pipelineBulkhead").getMetrics().getAvailableConcurrentCalls()).isEqualTo(1);
+    }
+
+    @Test
+    void testFailures_OpenCircuitAndUseMostSpecificFallback() {
+        for (int i = 0; i < 4; i++) {
+            assertThat(service.failing("x")).isEqualTo("fallback:IllegalStateException");
+        }
+
+        assertThat(circuitBreakerRegistry.circuitBreaker("failingCb").getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(service.failing("x")).isEqualTo("circuit-open");
+    }
+
+    @Test
+    void testRateLimitExceeded_UsesFallback() {
+        assertThat(service.call("1")).isEqualTo("result:1");
+        assertThat(service.call("2")).isEqualTo("result:2");
+        assertThat(service.call("3")).isEqualTo("fallback:RequestNotPermitted");
+    }
+
+    @Test
+    void testBulkheadFull_UsesFallback() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = Thread.ofVirtual().start(() -> service.blocking(entered, release));
+        assertThat(entered.await(1, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> service.blocking(new CountDownLatch(1), new CountDownLatch(0)))
+                .isInstanceOf(BulkheadFullException.class);
+
+        release.countDown();
+        holder.join(1_000);
+        assertThat(bulkheadRegistry.bulkhead("blockingBulkhead").getMetrics().getAvailableConcurrentCalls()).isEqualTo(1);
+    }
+
+    @Test
+    void testAsyncTimeout_UsesAsyncFallback() throws Exception {
+        CompletableFuture<String> result = service.slowAsync("x");
+
+        assertThat(result.get(1, TimeUnit.SECONDS)).isEqualTo("async-fallback:TimeoutException");
+        assertThat(circuitBreakerRegistry.circuitBreaker("asyncCb").getMetrics().getNumberOfFailedCalls()).isEqualTo(1);
+    }
+
+    @Test
+    void testAsyncSuccess() throws Exception {
+        assertThat(service.fastAsync("x").get(1, TimeUnit.SECONDS)).isEqualTo("async:x");
+    }
+
+    @Test
+    void testTimeLimiterOnSyncMethod_IsRejected() {
+        assertThatThrownBy(() -> service.invalidTimeLimiter())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("CompletionStage");
+    }
+
+    static class StubService {
+
+        @ResiliencePipeline(circuitBreaker = "pipelineCb", rateLimiter = "pipelineRl",
+                bulkhead = "pipelineBulkhead", fallbackMethod = "fallback")
+        public String call(String value) {
+            return "result:" + value;
+        }
+
+        @ResiliencePipeline(circuitBreaker = "failingCb", fallbackMethod = "fallback")
+        public String failing(String value) {
+            throw new IllegalStateException("boom");
+        }
+
+        @ResiliencePipeline(bulkhead = "blockingBulkhead")
+        public String blocking(CountDownLatch entered, CountDownLatch release) {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "done";
+        }
+
+        @ResiliencePipeline(circuitBreaker = "asyncCb", timeLimiter = "asyncTl", fallbackMethod = "asyncFallback")
+        public CompletableFuture<String> slowAsync(String value) {
+            return new CompletableFuture<>();
+        }
+
+        @ResiliencePipeline(circuitBreaker = "asyncCb2", timeLimiter = "asyncTl", fallbackMethod = "asyncFallback")
+        public CompletableFuture<String> fastAsync(String value) {
+            return CompletableFuture.completedFuture("async:" + value);
+        }
+
+        @ResiliencePipeline(timeLimiter = "syncTl")
+        public String invalidTimeLimiter() {
+            return "never";
+        }
+
+        private String fallback(String value, Exception ex) {
+            return "fallback:" + ex.getClass().getSimpleName();
+        }
+
+        private String fallback(String value, CallNotPermittedException ex) {
+            return "circuit-open";
+        }
+
+        private CompletableFuture<String> asyncFallback(String value, Throwable ex) {
+            String name = ex instanceof TimeoutException ? "TimeoutException" : ex.getClass().getSimpleName();
+            return CompletableFuture.completedFuture("async-fallback:" + name);
+        }
+    }
+}
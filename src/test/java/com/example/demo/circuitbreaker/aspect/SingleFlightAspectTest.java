@@ -0,0 +1,197 @@
+package com.example.demo.circuitbreaker.aspect;
+
+import com.example.demo.circuitbreaker.annotation.SingleFlight;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 单飞请求合并切面测试
+ */
+class SingleFlightAspectTest {
+
+    private SingleFlightAspect aspect;
+    private StubService target;
+    private StubService service;
+
+    @BeforeEach
+    void setUp() {
+        aspect = new SingleFlightAspect();
+        target = new StubService();
+
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(aspect);
+        service = factory.getProxy();
+    }
+
+    @Test
+    void testConcurrentIdenticalCalls_ShareOneDownstreamCall() throws Exception {
+        List<String> results = runConcurrently(20, () -> service.slowLookup("/api/users"));
+
+        assertThat(results).hasSize(20).containsOnly("result-1");
+        assertThat(target.invocations.get()).isEqualTo(1);
+
+        Map<String, Object> stats = aspect.getStatistics().get("lookup");
+        assertThat(stats.get("leaderCalls")).isEqualTo(1L);
+        assertThat(stats.get("coalescedCalls")).isEqualTo(19L);
+        assertThat(stats.get("inFlightKeys")).isEqualTo(0);
+    }
+
+    @Test
+    void testDifferentKeys_AreNotCoalesced() throws Exception {
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        Future<String> first = executor.submit(() -> service.slowLookup("/api/users"));
+        Future<String> second = executor.submit(() -> service.slowLookup("/api/orders"));
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+        executor.close();
+
+        assertThat(target.invocations.get()).isEqualTo(2);
+    }
+
+    @Test
+    void testSequentialCalls_AreNotCoalesced() {
+        service.slowLookup("/api/users");
+        service.slowLookup("/api/users");
+
+        assertThat(target.invocations.get()).isEqualTo(2);
+    }
+
+    @Test
+    void testLeaderFailure_PropagatesToAllCallers() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        List<Future<String>> futures = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return service.failingLookup("/api/users");
+            }));
+        }
+        start.countDown();
+
+        for (Future<String> future : futures) {
+            assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(IllegalStateException.class);
+        }
+        executor.close();
+
+        assertThat(target.invocations.get()).isLessThan(5);
+    }
+
+    @Test
+    void testCoalescedCallers_DoNotUseBulkheadPermits() throws Exception {
+        // 舱壁只允许 1 个并发调用且不等待，合并后的 20 个调用方都应成功
+        List<String> results = runConcurrently(20, () -> service.bulkheadProtectedLookup("/api/users"));
+
+        assertThat(results).hasSize(20).containsOnly("result-1");
+        assertThat(target.bulkhead.getMetrics().getAvailableConcurrentCalls()).isEqualTo(1);
+    }
+
+    @Test
+    void testAsyncCalls_ShareOneCompletableFuture() throws Exception {
+        CompletableFuture<String> first = service.asyncLookup("/api/users");
+        CompletableFuture<String> second = service.asyncLookup("/api/users");
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("result-1");
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("result-1");
+        assertThat(target.invocations.get()).isEqualTo(1);
+    }
+
+    @Test
+    void testNullKey_BypassesCoalescing() {
+        service.nullableKeyLookup(null);
+        service.nullableKeyLookup(null);
+
+        assertThat(target.invocations.get()).isEqualTo(2);
+        assertThat(aspect.getStatistics().get("nullable").get("bypassedCalls")).isEqualTo(2L);
+    }
+
+    private static List<String> runConcurrently(int callers, java.util.concurrent.Callable<String> call) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<String> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return call.call();
+                }));
+            }
+            start.countDown();
+            for (Future<String> future : futures) {
+                results.add(future.get(5, TimeUnit.SECONDS));
+            }
+        }
+        return results;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("interrupted", e);
+        }
+    }
+
+    static class StubService {
+        private final AtomicInteger invocations = new AtomicInteger();
+        private final Bulkhead bulkhead = Bulkhead.of("singleFlightTest", BulkheadConfig.custom()
+                .maxConcurrentCalls(1)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+
+        @SingleFlight(name = "lookup", key = "#endpoint")
+        public String slowLookup(String endpoint) {
+            int invocation = invocations.incrementAndGet();
+            sleep(200);
+            return "result-" + invocation;
+        }
+
+        @SingleFlight(name = "failing")
+        public String failingLookup(String endpoint) {
+            invocations.incrementAndGet();
+            sleep(200);
+            throw new IllegalStateException("boom");
+        }
+
+        @SingleFlight(name = "bulkhead", key = "#endpoint")
+        public String bulkheadProtectedLookup(String endpoint) {
+            return bulkhead.executeSupplier(() -> slowLookup(endpoint));
+        }
+
+        @SingleFlight(name = "async", key = "#endpoint")
+        public CompletableFuture<String> asyncLookup(String endpoint) {
+            int invocation = invocations.incrementAndGet();
+            return CompletableFuture.supplyAsync(() -> {
+                sleep(200);
+                return "result-" + invocation;
+            });
+        }
+
+        @SingleFlight(name = "nullable", key = "#endpoint")
+        public String nullableKeyLookup(String endpoint) {
+            invocations.incrementAndGet();
+            return "ok";
+        }
+    }
+}
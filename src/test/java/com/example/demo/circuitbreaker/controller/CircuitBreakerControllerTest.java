@@ -6,6 +6,7 @@ import com.example.demo.circuitbreaker.model.CallerRateLimit;
 import com.example.demo.circuitbreaker.service.CallerRateLimiterService;
 import com.example.demo.circuitbreaker.service.CircuitBreakerMetricsService;
 import com.example.demo.circuitbreaker.service.CircuitBreakerService;
+import com.example.demo.circuitbreaker.service.ResilienceEventStreamService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,6 +15,8 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDateTime;
 import java.util.Map;
@@ -49,6 +52,9 @@ class CircuitBreakerControllerTest {
     @MockBean
     private CircuitBreakerMetricsService metricsService;
 
+    @MockBean
+    private ResilienceEventStreamService eventStreamService;
+
     @BeforeEach
     void setUp() {
         // 默认成功的响应
@@ -160,6 +166,55 @@ class CircuitBreakerControllerTest {
                 .andExpect(jsonPath("$.resiliencePattern").value("BULKHEAD"));
     }
 
+    @Test
+    void testCallWithVirtualThreadBulkhead_CompletesAsynchronously() throws Exception {
+        // Given
+        CircuitBreakerResultDto result = CircuitBreakerResultDto.builder()
+                .success(true)
+                .message("Success")
+                .resiliencePattern("VIRTUAL_BULKHEAD")
+                .timestamp(LocalDateTime.now())
+                .build();
+
+        when(circuitBreakerService.callApiWithVirtualThreadBulkhead(anyString()))
+                .thenReturn(CompletableFuture.completedFuture(result));
+
+        // When & Then - 请求线程只启动异步处理，结果在异步派发中写出
+        MvcResult asyncResult = mockMvc.perform(post("/api/circuitbreaker/virtual-bulkhead")
+                        .param("endpoint", "/api/products"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.resiliencePattern").value("VIRTUAL_BULKHEAD"));
+    }
+
+    @Test
+    void testCallWithVirtualThreadBulkhead_Rejected() throws Exception {
+        // Given
+        CircuitBreakerResultDto result = CircuitBreakerResultDto.builder()
+                .success(false)
+                .message("Bulkhead full")
+                .error("BulkheadFullException")
+                .resiliencePattern("VIRTUAL_BULKHEAD")
+                .timestamp(LocalDateTime.now())
+                .build();
+
+        when(circuitBreakerService.callApiWithVirtualThreadBulkhead(anyString()))
+                .thenReturn(CompletableFuture.completedFuture(result));
+
+        // When & Then
+        MvcResult asyncResult = mockMvc.perform(post("/api/circuitbreaker/virtual-bulkhead")
+                        .param("endpoint", "/api/products"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(jsonPath("$.error").value("BulkheadFullException"));
+    }
+
     // ==================== 超时控制相关测试 ====================
 
     @Test
@@ -262,6 +317,18 @@ class CircuitBreakerControllerTest {
                 .andExpect(jsonPath("$.externalApi.state").value("CLOSED"));
     }
 
+    // ==================== 事件推送测试 ====================
+
+    @Test
+    void testStreamResilienceEvents() throws Exception {
+        // Given
+        when(eventStreamService.subscribe()).thenReturn(new SseEmitter());
+
+        // When & Then
+        mockMvc.perform(get("/api/circuitbreaker/events/stream").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+    }
+
     // ==================== 指标查询测试 ====================
 
     @Test
@@ -12,14 +12,26 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
  * 熔断器服务单元测试
  */
-@SpringBootTest
+@SpringBootTest(properties = "resilience4j.timelimiter.instances.combinedTimeLimiter.timeout-duration=500ms")
 class CircuitBreakerServiceTest {
 
     @Autowired
@@ -103,6 +115,20 @@ class CircuitBreakerServiceTest {
         assertThat(result.getResiliencePattern()).isEqualTo("BULKHEAD");
     }
 
+    @Test
+    void testCallApiWithVirtualThreadBulkhead_BusinessFailurePassesThrough() {
+        // Given
+        when(externalApiService.callFastApi("/api/broken"))
+                .thenThrow(new IllegalStateException("Downstream error"));
+
+        // When / Then - 业务异常不会被当作舱壁拒绝
+        assertThat(circuitBreakerService.callApiWithVirtualThreadBulkhead("/api/broken"))
+                .failsWithin(Duration.ofSeconds(1))
+                .withThrowableOfType(ExecutionException.class)
+                .withCauseInstanceOf(IllegalStateException.class)
+                .withMessageContaining("Downstream error");
+    }
+
     @Test
     void testCallApiWithTimeout_Success() throws Exception {
         // Given
@@ -120,6 +146,110 @@ class CircuitBreakerServiceTest {
         assertThat(result).contains("api/timeout");
     }
 
+    @Test
+    void testCallApiWithAllResiliencePatterns_TimeoutServesCachedResponse() {
+        // Given
+        ExternalApiRequestDto request = ExternalApiRequestDto.builder()
+                .endpoint("/api/combined")
+                .payload("timeout")
+                .build();
+
+        when(externalApiService.callExternalApi(any()))
+                .thenReturn("Success response")
+                .thenAnswer(invocation -> {
+                    Thread.sleep(2_000);
+                    return "Late response";
+                });
+
+        // When - 第一次成功并写入缓存，第二次超过 combinedTimeLimiter 的 500ms
+        CircuitBreakerResultDto first = circuitBreakerService.callApiWithAllResiliencePatterns(request).join();
+        CircuitBreakerResultDto second = circuitBreakerService.callApiWithAllResiliencePatterns(request).join();
+
+        // Then
+        assertThat(first.isSuccess()).isTrue();
+        assertThat(second.isSuccess()).isFalse();
+        assertThat(second.isStale()).isTrue();
+        assertThat(second.getMessage()).isEqualTo("Success response");
+        assertThat(second.getError()).isEqualTo("TimeoutException");
+    }
+
+    @Test
+    void testCallExternalApiWithCoalescing_ConcurrentIdenticalRequests() throws Exception {
+        // Given
+        ExternalApiRequestDto request = ExternalApiRequestDto.builder()
+                .endpoint("/api/popular")
+                .payload("same")
+                .build();
+
+        when(externalApiService.callExternalApi(any())).thenAnswer(invocation -> {
+            Thread.sleep(300);
+            return "Success response";
+        });
+
+        // When - 30 个并发相同请求，超过 apiBulkhead 的 10 个并发许可
+        CountDownLatch start = new CountDownLatch(1);
+        List<CircuitBreakerResultDto> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<CircuitBreakerResultDto>> futures = new ArrayList<>();
+            for (int i = 0; i < 30; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return circuitBreakerService.callExternalApiWithCoalescing(request);
+                }));
+            }
+            start.countDown();
+            for (Future<CircuitBreakerResultDto> future : futures) {
+                results.add(future.get(5, TimeUnit.SECONDS));
+            }
+        }
+
+        // Then
+        assertThat(results).allMatch(CircuitBreakerResultDto::isSuccess);
+        assertThat(results).allMatch(result -> "SINGLE_FLIGHT".equals(result.getResiliencePattern()));
+        verify(externalApiService, times(1)).callExternalApi(any());
+    }
+
+    @Test
+    void testCallExternalApiWithCoalescing_RequestsDifferingInFailureFlagAreNotMerged() throws Exception {
+        // Given - 端点和负载相同，只有 simulateFailure 不同
+        ExternalApiRequestDto failing = ExternalApiRequestDto.builder()
+                .endpoint("/api/popular")
+                .payload("same")
+                .simulateFailure(true)
+                .build();
+        ExternalApiRequestDto healthy = ExternalApiRequestDto.builder()
+                .endpoint("/api/popular")
+                .payload("same")
+                .build();
+
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        when(externalApiService.callExternalApi(any())).thenAnswer(invocation -> {
+            bothStarted.countDown();
+            bothStarted.await(1, TimeUnit.SECONDS);
+            if (invocation.<ExternalApiRequestDto>getArgument(0).isSimulateFailure()) {
+                throw new RuntimeException("Simulated failure");
+            }
+            return "Success response";
+        });
+
+        // When - 两个请求同时在途
+        CircuitBreakerResultDto failingResult;
+        CircuitBreakerResultDto healthyResult;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<CircuitBreakerResultDto> failingFuture =
+                    executor.submit(() -> circuitBreakerService.callExternalApiWithCoalescing(failing));
+            Future<CircuitBreakerResultDto> healthyFuture =
+                    executor.submit(() -> circuitBreakerService.callExternalApiWithCoalescing(healthy));
+            failingResult = failingFuture.get(5, TimeUnit.SECONDS);
+            healthyResult = healthyFuture.get(5, TimeUnit.SECONDS);
+        }
+
+        // Then - 各自调用下游，失败不会交给另一个调用方
+        verify(externalApiService, times(2)).callExternalApi(any());
+        assertThat(failingResult.isSuccess()).isFalse();
+        assertThat(healthyResult.isSuccess()).isTrue();
+    }
+
     @Test
     void testGetCircuitBreakerState() {
         // Given
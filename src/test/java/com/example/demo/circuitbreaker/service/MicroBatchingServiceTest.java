@@ -0,0 +1,141 @@
+package com.example.demo.circuitbreaker.service;
+
+import com.example.demo.circuitbreaker.dto.ExternalApiRequestDto;
+import com.example.demo.circuitbreaker.model.BatchItemResult;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 外部 API 微批处理服务单元测试
+ */
+class MicroBatchingServiceTest {
+
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+    private ExternalApiService externalApiService;
+    private MicroBatchingService service;
+
+    @BeforeEach
+    void setUp() {
+        circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+        externalApiService = mock(ExternalApiService.class);
+        when(externalApiService.callExternalApiBatch(anyList())).thenAnswer(invocation -> {
+            List<ExternalApiRequestDto> requests = invocation.getArgument(0);
+            List<BatchItemResult<String>> results = new ArrayList<>();
+            for (ExternalApiRequestDto request : requests) {
+                results.add(request.isSimulateFailure()
+                        ? BatchItemResult.failure(new IllegalStateException("failed: " + request.getPayload()))
+                        : BatchItemResult.success("ok: " + request.getPayload()));
+            }
+            return results;
+        });
+        service = new MicroBatchingService(circuitBreakerRegistry, externalApiService, "externalApi", 4, 20);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void testConcurrentRequests_SentAsOneBatchAndCountedAsOneCall() throws Exception {
+        CompletableFuture<String> first = service.submit(request("/api/users", "1", false));
+        CompletableFuture<String> second = service.submit(request("/api/users", "2", false));
+        CompletableFuture<String> third = service.submit(request("/api/users", "3", false));
+
+        assertThat(first.get(1, TimeUnit.SECONDS)).isEqualTo("ok: 1");
+        assertThat(second.get(1, TimeUnit.SECONDS)).isEqualTo("ok: 2");
+        assertThat(third.get(1, TimeUnit.SECONDS)).isEqualTo("ok: 3");
+
+        verify(externalApiService, times(1)).callExternalApiBatch(anyList());
+        CircuitBreaker.Metrics metrics = circuitBreakerRegistry.circuitBreaker("externalApi").getMetrics();
+        assertThat(metrics.getNumberOfSuccessfulCalls()).isEqualTo(1);
+
+        Map<String, Object> stats = service.getStatistics();
+        assertThat(stats.get("batches")).isEqualTo(1L);
+        assertThat(stats.get("items")).isEqualTo(3L);
+    }
+
+    @Test
+    void testPerItemFailure_OnlyFailsThatCaller() throws Exception {
+        CompletableFuture<String> ok = service.submit(request("/api/users", "1", false));
+        CompletableFuture<String> failed = service.submit(request("/api/users", "2", true));
+
+        assertThat(ok.get(1, TimeUnit.SECONDS)).isEqualTo("ok: 1");
+        assertThatThrownBy(() -> failed.get(1, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class)
+                .hasRootCauseMessage("failed: 2");
+        assertThat(service.getStatistics().get("itemFailures")).isEqualTo(1L);
+    }
+
+    @Test
+    void testMaxBatchSize_FlushesWithoutWaitingForWindow() throws Exception {
+        MicroBatchingService slowWindowService =
+                new MicroBatchingService(circuitBreakerRegistry, externalApiService, "externalApi", 2, 10_000);
+        try {
+            CompletableFuture<String> first = slowWindowService.submit(request("/api/users", "1", false));
+            CompletableFuture<String> second = slowWindowService.submit(request("/api/users", "2", false));
+
+            assertThat(first.get(1, TimeUnit.SECONDS)).isEqualTo("ok: 1");
+            assertThat(second.get(1, TimeUnit.SECONDS)).isEqualTo("ok: 2");
+        } finally {
+            slowWindowService.shutdown();
+        }
+    }
+
+    @Test
+    void testDifferentEndpoints_AreBatchedSeparately() throws Exception {
+        CompletableFuture<String> users = service.submit(request("/api/users", "1", false));
+        CompletableFuture<String> orders = service.submit(request("/api/orders", "2", false));
+
+        CompletableFuture.allOf(users, orders).get(1, TimeUnit.SECONDS);
+
+        verify(externalApiService, times(2)).callExternalApiBatch(anyList());
+    }
+
+    @Test
+    void testOpenCircuit_FailsWholeBatchWithoutDownstreamCall() {
+        circuitBreakerRegistry.circuitBreaker("externalApi").transitionToOpenState();
+
+        CompletableFuture<String> first = service.submit(request("/api/users", "1", false));
+        CompletableFuture<String> second = service.submit(request("/api/users", "2", false));
+
+        assertThat(first).failsWithin(Duration.ofSeconds(1))
+                .withThrowableOfType(ExecutionException.class)
+                .withCauseInstanceOf(CallNotPermittedException.class);
+        assertThat(second).failsWithin(Duration.ofSeconds(1))
+                .withThrowableOfType(ExecutionException.class)
+                .withCauseInstanceOf(CallNotPermittedException.class);
+        verify(externalApiService, never()).callExternalApiBatch(anyList());
+        assertThat(service.getStatistics().get("batchFailures")).isEqualTo(1L);
+    }
+
+    private static ExternalApiRequestDto request(String endpoint, String payload, boolean simulateFailure) {
+        return ExternalApiRequestDto.builder()
+                .endpoint(endpoint)
+                .payload(payload)
+                .simulateFailure(simulateFailure)
+                .build();
+    }
+}
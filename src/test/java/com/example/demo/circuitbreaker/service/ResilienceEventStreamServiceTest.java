@@ -0,0 +1,223 @@
+package com.example.demo.circuitbreaker.service;
+
+import com.example.demo.circuitbreaker.dto.ResilienceEventDto;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 容错事件推送服务单元测试
+ */
+class ResilienceEventStreamServiceTest {
+
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+    private ResilienceEventStreamService service;
+
+    @BeforeEach
+    void setUp() {
+        circuitBreakerRegistry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .slowCallDurationThreshold(Duration.ofMillis(20))
+                .permittedNumberOfCallsInHalfOpenState(1)
+                .build());
+        service = createService(64);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void testRejections_CoalescedPerCircuitBreakerAndOrderedAfterTransition() {
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker("externalApi");
+        ResilienceEventStreamService.EventSubscription subscription = service.openSubscription();
+
+        circuitBreaker.transitionToOpenState();
+        for (int i = 0; i < 5; i++) {
+            circuitBreaker.tryAcquirePermission();
+        }
+
+        List<ResilienceEventDto> events = service.poll(subscription);
+
+        assertThat(events).hasSize(2);
+        assertThat(events.get(0).getType()).isEqualTo("STATE_TRANSITION");
+        assertThat(events.get(0).getDetail()).isEqualTo("CLOSED_TO_OPEN");
+        assertThat(events.get(1).getType()).isEqualTo("CALL_NOT_PERMITTED");
+        assertThat(events.get(1).getName()).isEqualTo("externalApi");
+        assertThat(events.get(1).getCount()).isEqualTo(5);
+
+        assertThat(service.poll(subscription)).isEmpty();
+    }
+
+    @Test
+    void testSlowCalls_OnlyCallsAboveThresholdArePublished() {
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker("externalApi");
+        ResilienceEventStreamService.EventSubscription subscription = service.openSubscription();
+
+        circuitBreaker.onSuccess(5, TimeUnit.MILLISECONDS);
+        circuitBreaker.onSuccess(50, TimeUnit.MILLISECONDS);
+        circuitBreaker.onError(80, TimeUnit.MILLISECONDS, new IllegalStateException("boom"));
+
+        List<ResilienceEventDto> events = service.poll(subscription);
+
+        assertThat(events).hasSize(1);
+        assertThat(events.get(0).getType()).isEqualTo("SLOW_CALL");
+        assertThat(events.get(0).getCount()).isEqualTo(2);
+        assertThat(events.get(0).getDetail()).isEqualTo("80");
+    }
+
+    @Test
+    void testSlowSubscriber_ReceivesDroppedSummaryInsteadOfBlockingPublishers() {
+        service.shutdown();
+        service = createService(4);
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker("externalApi");
+        ResilienceEventStreamService.EventSubscription subscription = service.openSubscription();
+
+        circuitBreaker.transitionToOpenState();
+        for (int i = 0; i < 10; i++) {
+            circuitBreaker.tryAcquirePermission();
+        }
+
+        List<ResilienceEventDto> events = service.poll(subscription);
+
+        assertThat(events.get(0).getType()).isEqualTo("DROPPED");
+        assertThat(events.get(0).getCount()).isEqualTo(7);
+        assertThat(events.get(1).getType()).isEqualTo("CALL_NOT_PERMITTED");
+        assertThat(events.get(1).getCount()).isEqualTo(4);
+        assertThat(service.getStatistics().get("droppedEvents")).isEqualTo(7L);
+    }
+
+    @Test
+    void testSnapshot_DoesNotConsumeHalfOpenPermits() {
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker("externalApi");
+        circuitBreaker.transitionToOpenState();
+        circuitBreaker.transitionToHalfOpenState();
+
+        List<ResilienceEventDto> snapshot = service.snapshot();
+
+        assertThat(snapshot).singleElement()
+                .satisfies(event -> assertThat(event.getDetail()).isEqualTo("HALF_OPEN"));
+        assertThat(circuitBreaker.tryAcquirePermission()).isTrue();
+    }
+
+    @Test
+    void testConcurrentPublishers_AllEventsDelivered() throws Exception {
+        service.shutdown();
+        service = createService(1 << 16);
+        ResilienceEventStreamService.EventSubscription subscription = service.openSubscription();
+        List<CircuitBreaker> circuitBreakers = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker("cb-" + i);
+            circuitBreaker.transitionToOpenState();
+            circuitBreakers.add(circuitBreaker);
+        }
+        service.poll(subscription);
+
+        CountDownLatch done = new CountDownLatch(circuitBreakers.size());
+        try (ExecutorService executor = Executors.newFixedThreadPool(circuitBreakers.size())) {
+            for (CircuitBreaker circuitBreaker : circuitBreakers) {
+                executor.submit(() -> {
+                    for (int i = 0; i < 5_000; i++) {
+                        circuitBreaker.tryAcquirePermission();
+                    }
+                    done.countDown();
+                });
+            }
+            done.await();
+        }
+
+        long total = 0;
+        List<ResilienceEventDto> events;
+        while (!(events = service.poll(subscription)).isEmpty()) {
+            assertThat(events).noneMatch(event -> event.getType().equals("DROPPED"));
+            total += events.stream().mapToLong(ResilienceEventDto::getCount).sum();
+        }
+        assertThat(total).isEqualTo(40_000);
+    }
+
+    @Test
+    void testIdleSubscriber_ParksUntilEventIsPublished() throws Exception {
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker("externalApi");
+        service.subscribe();
+        awaitStatistic("deliveryWakeups", 1);
+
+        Thread.sleep(300);
+        // 没有事件时推送线程保持挂起，不会按固定间隔唤醒
+        assertThat(service.getStatistics().get("deliveryWakeups")).isEqualTo(1L);
+
+        circuitBreaker.transitionToOpenState();
+        awaitStatistic("deliveredEvents", 2);
+        assertThat(service.getStatistics().get("heartbeats")).isEqualTo(0L);
+    }
+
+    @Test
+    void testIdleSubscriber_ReceivesHeartbeatComments() throws Exception {
+        ResilienceEventStreamService heartbeating = createService(64, 50);
+        try {
+            heartbeating.subscribe();
+            awaitStatistic(heartbeating, "heartbeats", 3);
+        } finally {
+            heartbeating.shutdown();
+        }
+    }
+
+    @Test
+    void testDisconnectedSubscriber_DetectedByHeartbeatAndClosed() throws Exception {
+        ResilienceEventStreamService heartbeating = createService(64, 50);
+        try {
+            SseEmitter emitter = heartbeating.subscribe();
+            assertThat(heartbeating.getStatistics().get("subscribers")).isEqualTo(1);
+
+            emitter.complete();
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+            while ((int) heartbeating.getStatistics().get("subscribers") > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(heartbeating.getStatistics().get("subscribers")).isEqualTo(0);
+        } finally {
+            heartbeating.shutdown();
+        }
+    }
+
+    private void awaitStatistic(String key, long expected) throws InterruptedException {
+        awaitStatistic(service, key, expected);
+    }
+
+    private static void awaitStatistic(ResilienceEventStreamService target, String key, long expected)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while ((long) target.getStatistics().get(key) < expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat((long) target.getStatistics().get(key)).isGreaterThanOrEqualTo(expected);
+    }
+
+    private ResilienceEventStreamService createService(int bufferSize) {
+        return createService(bufferSize, 60_000);
+    }
+
+    private ResilienceEventStreamService createService(int bufferSize, long heartbeatIntervalMs) {
+        ResilienceEventStreamService created = new ResilienceEventStreamService(circuitBreakerRegistry,
+                BulkheadRegistry.ofDefaults(), RateLimiterRegistry.ofDefaults(), bufferSize, 50,
+                heartbeatIntervalMs, 60_000);
+        created.registerEventListeners();
+        return created;
+    }
+}
@@ -0,0 +1,261 @@
+package com.example.demo.circuitbreaker.service;
+
+import com.example.demo.circuitbreaker.dto.CircuitBreakerResultDto;
+import com.example.demo.circuitbreaker.dto.ExternalApiRequestDto;
+import com.example.demo.circuitbreaker.model.BoundedTtlCache;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 熔断降级响应缓存服务单元测试
+ */
+class ResponseCacheServiceTest {
+
+    private static final String CB_NAME = "externalApi";
+
+    private MutableClock clock;
+    private BoundedTtlCache cache;
+    private ExecutorService executor;
+    private CircuitBreakerRegistry registry;
+    private ExternalApiService externalApiService;
+    private ResponseCacheService service;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock();
+        cache = new BoundedTtlCache("test", 2, Duration.ofMinutes(1), clock);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        registry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .permittedNumberOfCallsInHalfOpenState(3)
+                .build());
+        externalApiService = mock(ExternalApiService.class);
+        service = new ResponseCacheService(cache, executor, registry, externalApiService);
+        service.registerStateTransitionListeners();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    void testOpenCircuit_ServesLastGoodResponse() {
+        ExternalApiRequestDto request = request("/api/users");
+        service.cacheResponse(CB_NAME, request, success("cached users"));
+
+        CircuitBreaker circuitBreaker = registry.circuitBreaker(CB_NAME);
+        circuitBreaker.transitionToOpenState();
+
+        Optional<CircuitBreakerResultDto> stale = service.getStaleResponse(CB_NAME, request,
+                CallNotPermittedException.createCallNotPermittedException(circuitBreaker));
+
+        assertThat(stale).isPresent();
+        // 降级结果不报告为成功，通过 stale 标记区分
+        assertThat(stale.get().isSuccess()).isFalse();
+        assertThat(stale.get().isStale()).isTrue();
+        assertThat(stale.get().getMessage()).isEqualTo("cached users");
+        assertThat(stale.get().getState()).isEqualTo("OPEN");
+        assertThat(service.getStatistics().get("staleResponsesServed")).isEqualTo(1L);
+    }
+
+    @Test
+    void testTimeout_ServesLastGoodResponse() {
+        ExternalApiRequestDto request = request("/api/users");
+        service.cacheResponse(CB_NAME, request, success("cached users"));
+
+        Optional<CircuitBreakerResultDto> stale = service.getStaleResponse(CB_NAME, request, new TimeoutException());
+
+        assertThat(stale).isPresent();
+        assertThat(stale.get().getError()).isEqualTo("TimeoutException");
+    }
+
+    @Test
+    void testBusinessFailure_DoesNotServeCache() {
+        ExternalApiRequestDto request = request("/api/users");
+        service.cacheResponse(CB_NAME, request, success("cached users"));
+
+        assertThat(service.getStaleResponse(CB_NAME, request, new RuntimeException("boom"))).isEmpty();
+    }
+
+    @Test
+    void testRequestsDifferingInAnyField_AreCachedSeparately() {
+        ExternalApiRequestDto request = request("/api/users");
+        service.cacheResponse(CB_NAME, request, success("cached users"));
+
+        ExternalApiRequestDto slower = request("/api/users");
+        slower.setDelayMs(1_000L);
+        assertThat(service.getStaleResponse(CB_NAME, slower, new TimeoutException())).isEmpty();
+
+        // 缓存后修改调用方的请求对象不影响已缓存的条目
+        request.setPayload("changed");
+        assertThat(service.getStaleResponse(CB_NAME, request("/api/users"), new TimeoutException())).isPresent();
+    }
+
+    @Test
+    void testExpiredEntry_IsNotServed() {
+        ExternalApiRequestDto request = request("/api/users");
+        service.cacheResponse(CB_NAME, request, success("cached users"));
+
+        clock.advance(Duration.ofMinutes(2));
+
+        assertThat(service.getStaleResponse(CB_NAME, request, new TimeoutException())).isEmpty();
+        assertThat(service.getStatistics().get("expirations")).isEqualTo(1L);
+    }
+
+    @Test
+    void testCacheIsBounded_EvictsLeastRecentlyUsed() {
+        service.cacheResponse(CB_NAME, request("/api/a"), success("a"));
+        service.cacheResponse(CB_NAME, request("/api/b"), success("b"));
+        // 访问 a，使 b 成为最久未使用的条目
+        service.getStaleResponse(CB_NAME, request("/api/a"), new TimeoutException());
+        service.cacheResponse(CB_NAME, request("/api/c"), success("c"));
+
+        assertThat(service.getStatistics().get("size")).isEqualTo(2);
+        assertThat(service.getStatistics().get("evictions")).isEqualTo(1L);
+        assertThat(service.getStaleResponse(CB_NAME, request("/api/a"), new TimeoutException())).isPresent();
+        assertThat(service.getStaleResponse(CB_NAME, request("/api/b"), new TimeoutException())).isEmpty();
+    }
+
+    @Test
+    void testHalfOpenTransition_RefreshesCacheInBackground() throws Exception {
+        ExternalApiRequestDto request = request("/api/users");
+        service.cacheResponse(CB_NAME, request, success("old users"));
+        when(externalApiService.callExternalApi(any())).thenReturn("fresh users");
+
+        CircuitBreaker circuitBreaker = registry.circuitBreaker(CB_NAME);
+        circuitBreaker.transitionToOpenState();
+        circuitBreaker.transitionToHalfOpenState();
+
+        verify(externalApiService, timeout(1_000)).callExternalApi(request);
+        waitForRefresh();
+
+        Optional<CircuitBreakerResultDto> stale = service.getStaleResponse(CB_NAME, request, new TimeoutException());
+        assertThat(stale).isPresent();
+        assertThat(stale.get().getMessage()).isEqualTo("fresh users");
+        // 半开状态下返回缓存时也会触发刷新，因此刷新次数至少为 1
+        assertThat((Long) service.getStatistics().get("refreshSuccesses")).isGreaterThanOrEqualTo(1L);
+    }
+
+    @Test
+    void testHalfOpenTransition_RefreshesOnlyMostRecentEntry() throws Exception {
+        service.cacheResponse(CB_NAME, request("/api/a"), success("a"));
+        service.cacheResponse(CB_NAME, request("/api/b"), success("b"));
+        when(externalApiService.callExternalApi(any())).thenReturn("fresh");
+
+        CircuitBreaker circuitBreaker = registry.circuitBreaker(CB_NAME);
+        circuitBreaker.transitionToOpenState();
+        circuitBreaker.transitionToHalfOpenState();
+        waitForRefresh();
+
+        // 只占用一个半开探测许可，其余许可留给真实请求
+        verify(externalApiService, times(1)).callExternalApi(any());
+        verify(externalApiService).callExternalApi(request("/api/b"));
+        assertThat(circuitBreaker.tryAcquirePermission()).isTrue();
+        assertThat(circuitBreaker.tryAcquirePermission()).isTrue();
+    }
+
+    @Test
+    void testHalfOpenTransition_DoesNotTouchHitStatisticsOrLruOrder() throws Exception {
+        service.cacheResponse(CB_NAME, request("/api/a"), success("a"));
+        service.cacheResponse(CB_NAME, request("/api/b"), success("b"));
+        when(externalApiService.callExternalApi(any())).thenReturn("fresh");
+
+        CircuitBreaker circuitBreaker = registry.circuitBreaker(CB_NAME);
+        circuitBreaker.transitionToOpenState();
+        circuitBreaker.transitionToHalfOpenState();
+        waitForRefresh();
+
+        assertThat(service.getStatistics().get("hits")).isEqualTo(0L);
+        assertThat(service.getStatistics().get("misses")).isEqualTo(0L);
+        // 查找刷新条目没有把 a 变成最近访问，写入 c 时仍然淘汰 a
+        service.cacheResponse(CB_NAME, request("/api/c"), success("c"));
+        assertThat(service.getStaleResponse(CB_NAME, request("/api/a"), new TimeoutException())).isEmpty();
+    }
+
+    @Test
+    void testHalfOpenTransition_UsesRegisteredRefresher() throws Exception {
+        ExternalApiRequestDto request = request("/api/users");
+        service.cacheResponse(CB_NAME, request, success("old users"));
+        service.registerRefresher(CB_NAME, refreshed -> CompletableFuture.completedFuture("users via pipeline"));
+
+        CircuitBreaker circuitBreaker = registry.circuitBreaker(CB_NAME);
+        circuitBreaker.transitionToOpenState();
+        circuitBreaker.transitionToHalfOpenState();
+        waitForRefresh();
+
+        verify(externalApiService, never()).callExternalApi(any());
+        assertThat(service.getStaleResponse(CB_NAME, request, new TimeoutException()))
+                .hasValueSatisfying(stale -> assertThat(stale.getMessage()).isEqualTo("users via pipeline"));
+    }
+
+    private void waitForRefresh() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while ((Long) service.getStatistics().get("refreshSuccesses") == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static ExternalApiRequestDto request(String endpoint) {
+        return ExternalApiRequestDto.builder().endpoint(endpoint).build();
+    }
+
+    private static CircuitBreakerResultDto success(String message) {
+        return CircuitBreakerResultDto.builder()
+                .success(true)
+                .message(message)
+                .circuitBreakerName(CB_NAME)
+                .resiliencePattern("CIRCUIT_BREAKER")
+                .build();
+    }
+
+    /**
+     * 可手动推进的时钟，用于验证 TTL
+     */
+    private static class MutableClock extends Clock {
+        private Instant now = Instant.now();
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.demo.circuitbreaker.service;
+
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * TimeLimiter 虚拟线程执行服务单元测试
+ */
+class TimeLimiterExecutorServiceTest {
+
+    private ExecutorService executor;
+    private TimeLimiterExecutorService service;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        TimeLimiterRegistry registry = TimeLimiterRegistry.of(TimeLimiterConfig.custom()
+                .timeoutDuration(Duration.ofMillis(100))
+                .cancelRunningFuture(true)
+                .build());
+        registry.timeLimiter("noCancel", TimeLimiterConfig.custom()
+                .cancelRunningFuture(false)
+                .build());
+        service = new TimeLimiterExecutorService(executor, registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    void testSupplyAsync_ReturnsResultOnVirtualThread() throws Exception {
+        CompletableFuture<Boolean> future = service.supplyAsync("apiTimeLimiter",
+                () -> Thread.currentThread().isVirtual());
+
+        assertThat(future.get(1, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void testSupplyAsync_PropagatesException() {
+        CompletableFuture<String> future = service.supplyAsync("apiTimeLimiter", () -> {
+            throw new IllegalStateException("boom");
+        });
+
+        assertThat(future).failsWithin(Duration.ofSeconds(1))
+                .withThrowableOfType(java.util.concurrent.ExecutionException.class)
+                .withCauseInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void testTimeout_InterruptsRunningTask() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+
+        CompletableFuture<String> future = service.supplyAsync("apiTimeLimiter", () -> {
+            started.countDown();
+            try {
+                Thread.sleep(10_000);
+                return "finished";
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("interrupted", e);
+            }
+        });
+
+        assertThat(started.await(1, TimeUnit.SECONDS)).isTrue();
+
+        // 模拟 TimeLimiter 超时：Resilience4j 通过 completeExceptionally 结束 Future
+        future.completeExceptionally(new TimeoutException("timeout"));
+
+        assertThat(interrupted.await(1, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void testTimeout_DoesNotInterruptWhenCancelRunningFutureDisabled() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(1);
+
+        CompletableFuture<String> future = service.supplyAsync("noCancel", () -> {
+            started.countDown();
+            try {
+                Thread.sleep(200);
+                finished.countDown();
+                return "finished";
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("interrupted", e);
+            }
+        });
+
+        assertThat(started.await(1, TimeUnit.SECONDS)).isTrue();
+        future.completeExceptionally(new TimeoutException("timeout"));
+
+        assertThat(finished.await(1, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void testThousandsOfConcurrentSlowCalls() {
+        int taskCount = 5000;
+        long startTime = System.currentTimeMillis();
+
+        List<CompletableFuture<String>> futures = new ArrayList<>();
+        for (int i = 0; i < taskCount; i++) {
+            int index = i;
+            futures.add(service.supplyAsync("apiTimeLimiter", () -> {
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "call-" + index;
+            }));
+        }
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        long duration = System.currentTimeMillis() - startTime;
+
+        // 所有调用并发执行，总耗时应远小于串行耗时
+        assertThat(duration).isLessThan(10_000);
+    }
+}
@@ -0,0 +1,232 @@
+package com.example.demo.circuitbreaker.service;
+
+import com.example.demo.circuitbreaker.exception.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 虚拟线程舱壁服务单元测试
+ */
+class VirtualThreadBulkheadServiceTest {
+
+    private BulkheadRegistry bulkheadRegistry;
+    private VirtualThreadBulkheadService service;
+
+    @BeforeEach
+    void setUp() {
+        bulkheadRegistry = BulkheadRegistry.ofDefaults();
+        service = new VirtualThreadBulkheadService(bulkheadRegistry, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void testConfiguration_ReadFromBulkheadRegistryInstance() {
+        bulkheadRegistry.bulkhead("apiBulkhead", BulkheadConfig.custom()
+                .maxConcurrentCalls(3)
+                .maxWaitDuration(Duration.ofMillis(250))
+                .build());
+
+        Map<String, Object> stats = service.bulkhead("apiBulkhead").getStatistics();
+
+        assertThat(stats.get("maxConcurrentCalls")).isEqualTo(3);
+        assertThat(stats.get("maxWaitMs")).isEqualTo(250L);
+        assertThat(stats.get("maxQueueDepth")).isEqualTo(100);
+    }
+
+    @Test
+    void testConcurrency_NeverExceedsMaxConcurrentCalls() throws Exception {
+        bulkheadRegistry.bulkhead("limited", BulkheadConfig.custom()
+                .maxConcurrentCalls(4)
+                .maxWaitDuration(Duration.ofSeconds(5))
+                .build());
+        AtomicInteger running = new AtomicInteger();
+        LongAccumulator maxRunning = new LongAccumulator(Math::max, 0);
+
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            int value = i;
+            futures.add(service.submit("limited", () -> {
+                maxRunning.accumulate(running.incrementAndGet());
+                sleep(10);
+                running.decrementAndGet();
+                return value;
+            }));
+        }
+
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+        assertThat(maxRunning.get()).isLessThanOrEqualTo(4);
+        assertThat(service.bulkhead("limited").getStatistics().get("admittedCalls")).isEqualTo(40L);
+    }
+
+    @Test
+    void testQueuedEntries_AdmittedInSubmissionOrder() throws Exception {
+        bulkheadRegistry.bulkhead("fifo", BulkheadConfig.custom()
+                .maxConcurrentCalls(1)
+                .maxWaitDuration(Duration.ofSeconds(5))
+                .build());
+        CountDownLatch release = new CountDownLatch(1);
+        List<Integer> order = new CopyOnWriteArrayList<>();
+
+        CompletableFuture<Integer> blocker = service.submit("fifo", () -> {
+            await(release);
+            return -1;
+        });
+        List<CompletableFuture<Integer>> queued = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            int value = i;
+            // 提交时即进入等待队列，无需等待线程调度
+            queued.add(service.submit("fifo", () -> {
+                order.add(value);
+                return value;
+            }));
+        }
+        assertThat(service.bulkhead("fifo").getStatistics().get("queueDepth")).isEqualTo(10);
+
+        release.countDown();
+        blocker.get(1, TimeUnit.SECONDS);
+        CompletableFuture.allOf(queued.toArray(CompletableFuture[]::new)).get(1, TimeUnit.SECONDS);
+        assertThat(order).containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+    }
+
+    @Test
+    void testQueuedEntry_FailsAfterDeadline() {
+        bulkheadRegistry.bulkhead("deadline", BulkheadConfig.custom()
+                .maxConcurrentCalls(1)
+                .maxWaitDuration(Duration.ofMillis(50))
+                .build());
+        CountDownLatch release = new CountDownLatch(1);
+
+        service.submit("deadline", () -> {
+            await(release);
+            return "first";
+        });
+        CompletableFuture<String> queued = service.submit("deadline", () -> "second");
+
+        assertThat(queued).failsWithin(Duration.ofSeconds(1))
+                .withThrowableOfType(ExecutionException.class)
+                .withCauseInstanceOf(BulkheadFullException.class);
+        release.countDown();
+
+        Map<String, Object> stats = service.bulkhead("deadline").getStatistics();
+        assertThat(stats.get("rejectedDeadline")).isEqualTo(1L);
+        assertThat((double) stats.get("waitTimeP99Ms")).isGreaterThanOrEqualTo(50.0);
+    }
+
+    @Test
+    void testCancelledQueuedEntry_IsSkippedAndPermitPassesOn() throws Exception {
+        bulkheadRegistry.bulkhead("cancel", BulkheadConfig.custom()
+                .maxConcurrentCalls(1)
+                .maxWaitDuration(Duration.ofSeconds(5))
+                .build());
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger cancelledRuns = new AtomicInteger();
+
+        service.submit("cancel", () -> {
+            await(release);
+            return "first";
+        });
+        CompletableFuture<String> cancelled = service.submit("cancel", () -> {
+            cancelledRuns.incrementAndGet();
+            return "cancelled";
+        });
+        CompletableFuture<String> next = service.submit("cancel", () -> "next");
+
+        cancelled.cancel(false);
+        release.countDown();
+
+        assertThat(next.get(1, TimeUnit.SECONDS)).isEqualTo("next");
+        assertThat(cancelledRuns.get()).isZero();
+        assertThat(service.bulkhead("cancel").getStatistics().get("queueDepth")).isEqualTo(0);
+    }
+
+    @Test
+    void testQueueDepthLimit_RejectsImmediately() throws Exception {
+        VirtualThreadBulkheadService smallQueue = new VirtualThreadBulkheadService(bulkheadRegistry, 2);
+        try {
+            bulkheadRegistry.bulkhead("small", BulkheadConfig.custom()
+                    .maxConcurrentCalls(1)
+                    .maxWaitDuration(Duration.ofSeconds(5))
+                    .build());
+            CountDownLatch release = new CountDownLatch(1);
+
+            smallQueue.submit("small", () -> {
+                await(release);
+                return "running";
+            });
+            smallQueue.submit("small", () -> "queued-1");
+            smallQueue.submit("small", () -> "queued-2");
+            CompletableFuture<String> rejected = smallQueue.submit("small", () -> "rejected");
+
+            assertThat(rejected).isCompletedExceptionally();
+            assertThat(smallQueue.bulkhead("small").getStatistics().get("rejectedQueueFull")).isEqualTo(1L);
+            release.countDown();
+        } finally {
+            smallQueue.shutdown();
+        }
+    }
+
+    @Test
+    void testHighConcurrencyBlockingCalls_DoNotNeedPlatformThreadPool() throws Exception {
+        bulkheadRegistry.bulkhead("wide", BulkheadConfig.custom()
+                .maxConcurrentCalls(1_000)
+                .maxWaitDuration(Duration.ofSeconds(10))
+                .build());
+        VirtualThreadBulkheadService wideQueue = new VirtualThreadBulkheadService(bulkheadRegistry, 10_000);
+        try {
+            long start = System.nanoTime();
+            List<CompletableFuture<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 10_000; i++) {
+                futures.add(wideQueue.submit("wide", () -> {
+                    sleep(50);
+                    return "ok";
+                }));
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            System.out.println("10000 blocking calls (50ms each, 1000 concurrent) took " + elapsedMs + "ms, "
+                    + wideQueue.bulkhead("wide").getStatistics());
+            // 10 轮 x 50ms，留足调度余量
+            assertThat(elapsedMs).isLessThan(5_000);
+        } finally {
+            wideQueue.shutdown();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
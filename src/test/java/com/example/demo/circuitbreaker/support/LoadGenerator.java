@@ -0,0 +1,228 @@
+package com.example.demo.circuitbreaker.support;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.core.EventConsumer;
+import io.github.resilience4j.circuitbreaker.event.CircuitBreakerOnStateTransitionEvent;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 闭环压测负载生成器
+ * 固定数量的虚拟线程在指定时长内循环调用目标，统计吞吐量、p50/p99/p999 延迟和错误数，
+ * 并按秒输出时间线，叠加熔断器状态变化
+ */
+public class LoadGenerator {
+
+    private final int concurrency;
+    private final Duration duration;
+
+    public LoadGenerator(int concurrency, Duration duration) {
+        this.concurrency = concurrency;
+        this.duration = duration;
+    }
+
+    /**
+     * 执行一轮压测
+     *
+     * @param name           容错模式名称
+     * @param call           单次调用，返回是否成功；抛出异常视为失败
+     * @param circuitBreaker 需要观察状态变化的熔断器，可为 null
+     */
+    public LoadReport run(String name, BooleanSupplier call, CircuitBreaker circuitBreaker) throws InterruptedException {
+        long startNanos = System.nanoTime();
+        long endNanos = startNanos + duration.toNanos();
+
+        List<String> transitions = new ArrayList<>();
+        if (circuitBreaker != null) {
+            EventConsumer<CircuitBreakerOnStateTransitionEvent> consumer = event -> {
+                synchronized (transitions) {
+                    transitions.add(String.format(Locale.ROOT, "+%dms %s",
+                            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos), event.getStateTransition().name()));
+                }
+            };
+            circuitBreaker.getEventPublisher().onStateTransition(consumer);
+        }
+
+        Recorder[] recorders = new Recorder[concurrency];
+        CountDownLatch done = new CountDownLatch(concurrency);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                Recorder recorder = new Recorder();
+                recorders[i] = recorder;
+                executor.submit(() -> {
+                    try {
+                        while (System.nanoTime() < endNanos) {
+                            long callStart = System.nanoTime();
+                            boolean success;
+                            try {
+                                success = call.getAsBoolean();
+                            } catch (RuntimeException e) {
+                                success = false;
+                            }
+                            recorder.record(callStart - startNanos, System.nanoTime() - callStart, success);
+                        }
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+            done.await();
+        }
+
+        long elapsedNanos = System.nanoTime() - startNanos;
+        List<String> stateTransitions;
+        synchronized (transitions) {
+            stateTransitions = List.copyOf(transitions);
+        }
+        return LoadReport.from(name, recorders, elapsedNanos, stateTransitions);
+    }
+
+    /**
+     * 单个工作线程的调用记录，避免线程间竞争
+     */
+    static final class Recorder {
+        private long[] offsets = new long[1024];
+        private long[] latencies = new long[1024];
+        private boolean[] successes = new boolean[1024];
+        private int size;
+
+        void record(long offsetNanos, long latencyNanos, boolean success) {
+            if (size == latencies.length) {
+                offsets = Arrays.copyOf(offsets, size * 2);
+                latencies = Arrays.copyOf(latencies, size * 2);
+                successes = Arrays.copyOf(successes, size * 2);
+            }
+            offsets[size] = offsetNanos;
+            latencies[size] = latencyNanos;
+            successes[size] = success;
+            size++;
+        }
+    }
+
+    /**
+     * 压测结果
+     */
+    public static final class LoadReport {
+        private final String name;
+        private final long totalCalls;
+        private final long failedCalls;
+        private final double throughput;
+        private final double p50Ms;
+        private final double p99Ms;
+        private final double p999Ms;
+        private final List<String> timeline;
+        private final List<String> stateTransitions;
+
+        private LoadReport(String name, long totalCalls, long failedCalls, double throughput,
+                           double p50Ms, double p99Ms, double p999Ms,
+                           List<String> timeline, List<String> stateTransitions) {
+            this.name = name;
+            this.totalCalls = totalCalls;
+            this.failedCalls = failedCalls;
+            this.throughput = throughput;
+            this.p50Ms = p50Ms;
+            this.p99Ms = p99Ms;
+            this.p999Ms = p999Ms;
+            this.timeline = timeline;
+            this.stateTransitions = stateTransitions;
+        }
+
+        static LoadReport from(String name, Recorder[] recorders, long elapsedNanos, List<String> stateTransitions) {
+            int total = 0;
+            for (Recorder recorder : recorders) {
+                total += recorder.size;
+            }
+
+            long[] all = new long[total];
+            int seconds = (int) TimeUnit.NANOSECONDS.toSeconds(elapsedNanos) + 1;
+            List<List<Long>> perSecondLatencies = new ArrayList<>();
+            long[] perSecondFailures = new long[seconds];
+            for (int i = 0; i < seconds; i++) {
+                perSecondLatencies.add(new ArrayList<>());
+            }
+
+            int index = 0;
+            long failed = 0;
+            for (Recorder recorder : recorders) {
+                for (int i = 0; i < recorder.size; i++) {
+                    all[index++] = recorder.latencies[i];
+                    int second = (int) Math.min(seconds - 1, TimeUnit.NANOSECONDS.toSeconds(recorder.offsets[i]));
+                    perSecondLatencies.get(second).add(recorder.latencies[i]);
+                    if (!recorder.successes[i]) {
+                        failed++;
+                        perSecondFailures[second]++;
+                    }
+                }
+            }
+            Arrays.sort(all);
+
+            List<String> timeline = new ArrayList<>();
+            for (int second = 0; second < seconds; second++) {
+                long[] bucket = perSecondLatencies.get(second).stream().mapToLong(Long::longValue).sorted().toArray();
+                timeline.add(String.format(Locale.ROOT, "  t=%ds calls=%d errors=%d p99=%.1fms",
+                        second, bucket.length, perSecondFailures[second], percentileMs(bucket, 99)));
+            }
+
+            return new LoadReport(name, total, failed, total / (elapsedNanos / 1_000_000_000.0),
+                    percentileMs(all, 50), percentileMs(all, 99), percentileMs(all, 99.9),
+                    timeline, stateTransitions);
+        }
+
+        private static double percentileMs(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(rank, sorted.length - 1))] / 1_000_000.0;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getTotalCalls() {
+            return totalCalls;
+        }
+
+        public long getFailedCalls() {
+            return failedCalls;
+        }
+
+        public double getThroughput() {
+            return throughput;
+        }
+
+        public double getP50Ms() {
+            return p50Ms;
+        }
+
+        public double getP99Ms() {
+            return p99Ms;
+        }
+
+        public double getP999Ms() {
+            return p999Ms;
+        }
+
+        public List<String> getStateTransitions() {
+            return stateTransitions;
+        }
+
+        public void print() {
+            System.out.println(String.format(Locale.ROOT,
+                    "%-16s calls=%-6d errors=%-6d throughput=%8.1f/s p50=%7.1fms p99=%7.1fms p999=%7.1fms",
+                    name, totalCalls, failedCalls, throughput, p50Ms, p99Ms, p999Ms));
+            timeline.forEach(System.out::println);
+            stateTransitions.forEach(transition -> System.out.println("  breaker " + transition));
+        }
+    }
+}
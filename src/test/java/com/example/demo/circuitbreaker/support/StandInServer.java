@@ -0,0 +1,310 @@
+package com.example.demo.circuitbreaker.support;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 本地下游替身服务
+ * 基于 JDK 内置 HttpServer，在回环地址的临时端口上启动，无需网络和额外依赖
+ *
+ * 按 {@link Scenario} 脚本模拟下游行为：
+ * 1. 延迟分布（固定、对数正态、双峰）
+ * 2. 周期性错误突发
+ * 3. 慢速输出（响应体分块缓慢写出）
+ *
+ * 请求协议与 ExternalApiService 的 HTTP 模式对应：
+ * 普通请求返回文本响应；/batch 请求体每行一个条目，响应体每行以 OK 或 ERR 开头
+ */
+public class StandInServer implements AutoCloseable {
+
+    static {
+        // 响应头和响应体分两次写出，不关闭 Nagle 算法时会与延迟确认叠加出约 40ms 的额外延迟
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final long startNanos = System.nanoTime();
+    private final LongAdder requestCount = new LongAdder();
+    private final LongAdder errorCount = new LongAdder();
+
+    private volatile Scenario scenario;
+
+    private StandInServer(Scenario scenario) throws IOException {
+        this.scenario = scenario;
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.server.setExecutor(executor);
+        this.server.createContext("/", this::handle);
+        this.server.start();
+    }
+
+    /**
+     * 在临时端口上启动替身服务
+     */
+    public static StandInServer start(Scenario scenario) throws IOException {
+        return new StandInServer(scenario);
+    }
+
+    public String getBaseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    /**
+     * 切换下游行为脚本，对之后到达的请求生效
+     */
+    public void setScenario(Scenario scenario) {
+        this.scenario = scenario;
+    }
+
+    public Scenario getScenario() {
+        return scenario;
+    }
+
+    public long getRequestCount() {
+        return requestCount.sum();
+    }
+
+    public long getErrorCount() {
+        return errorCount.sum();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requestCount.increment();
+        Scenario current = scenario;
+        try (exchange) {
+            String requestBody = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            sleep(current.getLatency().sampleMillis());
+
+            if (exchange.getRequestURI().getPath().equals("/batch")) {
+                respond(exchange, 200, batchResponse(current, requestBody), current);
+                return;
+            }
+
+            boolean simulateFailure = Boolean.parseBoolean(exchange.getRequestHeaders().getFirst("X-Simulate-Failure"));
+            if (simulateFailure || shouldFail(current)) {
+                errorCount.increment();
+                respond(exchange, 503, "Stand-in failure for " + exchange.getRequestURI().getPath(), current);
+                return;
+            }
+            respond(exchange, 200, "Success response from " + exchange.getRequestURI().getPath(), current);
+        }
+    }
+
+    private String batchResponse(Scenario current, String requestBody) {
+        StringBuilder response = new StringBuilder();
+        for (String line : requestBody.split("\n")) {
+            if (line.isEmpty()) {
+                continue;
+            }
+            String[] parts = line.split("\t");
+            boolean simulateFailure = parts.length > 1 && Boolean.parseBoolean(parts[1]);
+            if (simulateFailure || shouldFail(current)) {
+                errorCount.increment();
+                response.append("ERR Stand-in failure for ").append(parts[0]).append('\n');
+            } else {
+                response.append("OK Success response from ").append(parts[0]).append('\n');
+            }
+        }
+        return response.toString();
+    }
+
+    private boolean shouldFail(Scenario current) {
+        double errorRate = current.getBaseErrorRate();
+        if (current.getErrorBurstPeriodMs() > 0) {
+            long elapsedMs = (System.nanoTime() - startNanos) / 1_000_000;
+            if (elapsedMs % current.getErrorBurstPeriodMs() < current.getErrorBurstDurationMs()) {
+                errorRate = current.getErrorBurstRate();
+            }
+        }
+        return errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate;
+    }
+
+    /**
+     * 写出响应；慢速输出场景下响应体分块写出，每块之间等待固定时间
+     */
+    private void respond(HttpExchange exchange, int status, String body, Scenario current) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        int chunks = current.getSlowDrainChunks();
+        if (chunks <= 1) {
+            exchange.sendResponseHeaders(status, bytes.length);
+            exchange.getResponseBody().write(bytes);
+            return;
+        }
+
+        exchange.sendResponseHeaders(status, 0);
+        OutputStream out = exchange.getResponseBody();
+        int chunkSize = Math.max(1, (bytes.length + chunks - 1) / chunks);
+        for (int offset = 0; offset < bytes.length; offset += chunkSize) {
+            out.write(bytes, offset, Math.min(chunkSize, bytes.length - offset));
+            out.flush();
+            sleep(current.getSlowDrainChunkDelayMs());
+        }
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ==================== 行为脚本 ====================
+
+    /**
+     * 延迟分布
+     */
+    @FunctionalInterface
+    public interface LatencyDistribution {
+
+        long sampleMillis();
+
+        static LatencyDistribution fixed(long millis) {
+            return () -> millis;
+        }
+
+        /**
+         * 对数正态分布：中位数为 medianMs，sigma 越大长尾越重
+         */
+        static LatencyDistribution logNormal(double medianMs, double sigma) {
+            double mu = Math.log(medianMs);
+            return () -> Math.round(Math.exp(mu + sigma * ThreadLocalRandom.current().nextGaussian()));
+        }
+
+        /**
+         * 双峰分布：slowFraction 比例的请求耗时 slowMs，其余耗时 fastMs
+         */
+        static LatencyDistribution bimodal(long fastMs, long slowMs, double slowFraction) {
+            return () -> ThreadLocalRandom.current().nextDouble() < slowFraction ? slowMs : fastMs;
+        }
+    }
+
+    /**
+     * 下游行为脚本
+     */
+    public static final class Scenario {
+        private final String name;
+        private final LatencyDistribution latency;
+        private final double baseErrorRate;
+        private final long errorBurstPeriodMs;
+        private final long errorBurstDurationMs;
+        private final double errorBurstRate;
+        private final int slowDrainChunks;
+        private final long slowDrainChunkDelayMs;
+
+        private Scenario(Builder builder) {
+            this.name = builder.name;
+            this.latency = builder.latency;
+            this.baseErrorRate = builder.baseErrorRate;
+            this.errorBurstPeriodMs = builder.errorBurstPeriodMs;
+            this.errorBurstDurationMs = builder.errorBurstDurationMs;
+            this.errorBurstRate = builder.errorBurstRate;
+            this.slowDrainChunks = builder.slowDrainChunks;
+            this.slowDrainChunkDelayMs = builder.slowDrainChunkDelayMs;
+        }
+
+        public static Builder builder(String name) {
+            return new Builder(name);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public LatencyDistribution getLatency() {
+            return latency;
+        }
+
+        public double getBaseErrorRate() {
+            return baseErrorRate;
+        }
+
+        public long getErrorBurstPeriodMs() {
+            return errorBurstPeriodMs;
+        }
+
+        public long getErrorBurstDurationMs() {
+            return errorBurstDurationMs;
+        }
+
+        public double getErrorBurstRate() {
+            return errorBurstRate;
+        }
+
+        public int getSlowDrainChunks() {
+            return slowDrainChunks;
+        }
+
+        public long getSlowDrainChunkDelayMs() {
+            return slowDrainChunkDelayMs;
+        }
+
+        public static final class Builder {
+            private final String name;
+            private LatencyDistribution latency = LatencyDistribution.fixed(0);
+            private double baseErrorRate;
+            private long errorBurstPeriodMs;
+            private long errorBurstDurationMs;
+            private double errorBurstRate;
+            private int slowDrainChunks;
+            private long slowDrainChunkDelayMs;
+
+            private Builder(String name) {
+                this.name = name;
+            }
+
+            public Builder latency(LatencyDistribution latency) {
+                this.latency = latency;
+                return this;
+            }
+
+            public Builder baseErrorRate(double baseErrorRate) {
+                this.baseErrorRate = baseErrorRate;
+                return this;
+            }
+
+            /**
+             * 每 periodMs 毫秒出现一次持续 durationMs 毫秒的错误突发，突发期间错误率为 rate
+             */
+            public Builder errorBurst(long periodMs, long durationMs, double rate) {
+                this.errorBurstPeriodMs = periodMs;
+                this.errorBurstDurationMs = durationMs;
+                this.errorBurstRate = rate;
+                return this;
+            }
+
+            /**
+             * 响应体分 chunks 块写出，每块之间等待 chunkDelayMs 毫秒
+             */
+            public Builder slowDrain(int chunks, long chunkDelayMs) {
+                this.slowDrainChunks = chunks;
+                this.slowDrainChunkDelayMs = chunkDelayMs;
+                return this;
+            }
+
+            public Scenario build() {
+                return new Scenario(this);
+            }
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.example.demo.controller.jooq;
 import com.example.demo.dto.jooq.JooqOrderDto;
 import com.example.demo.dto.jooq.JooqProductDto;
 import com.example.demo.dto.jooq.JooqUserDto;
+import com.example.demo.service.jooq.JooqExportService;
 import com.example.demo.service.jooq.JooqOrderService;
 import com.example.demo.service.jooq.JooqProductService;
 import com.example.demo.service.jooq.JooqTransactionService;
@@ -13,12 +14,22 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
@@ -47,6 +58,9 @@ class JooqControllerTest {
     @MockitoBean
     private JooqTransactionService transactionService;
 
+    @MockitoBean
+    private JooqExportService exportService;
+
     /**
      * 测试获取用户信息
      */
@@ -110,4 +124,38 @@ class JooqControllerTest {
                 .andExpect(jsonPath("$.orderNumber").value("ORD001"))
                 .andExpect(jsonPath("$.username").value("testuser"));
     }
+
+    /**
+     * 测试流式导出用户（CSV）
+     */
+    @Test
+    void testExportUsersAsCsv() throws Exception {
+        // Given
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(1);
+            out.write("id,username\r\n1,testuser\r\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        }).when(exportService).exportUsers(eq(JooqExportService.Format.CSV), any(OutputStream.class));
+
+        // When
+        MvcResult result = mockMvc.perform(get("/api/jooq/export/users").param("format", "CSV"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"users.csv\""))
+                .andExpect(content().contentType("text/csv;charset=UTF-8"))
+                .andExpect(content().string("id,username\r\n1,testuser\r\n"));
+    }
+
+    /**
+     * 测试不支持的导出格式
+     */
+    @Test
+    void testExportWithUnsupportedFormat() throws Exception {
+        mockMvc.perform(get("/api/jooq/export/orders").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
 }
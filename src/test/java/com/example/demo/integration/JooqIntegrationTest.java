@@ -2,25 +2,46 @@ package com.example.demo.integration;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.jooq.DSLContext;
+import org.jooq.ExecuteContext;
+import org.jooq.ExecuteListener;
+import org.jooq.impl.DSL;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.support.NoOpCache;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.demo.circuitbreaker.model.BoundedTtlCache;
 import com.example.demo.dto.jooq.JooqCreateOrderRequest;
+import com.example.demo.dto.jooq.JooqCursorPage;
 import com.example.demo.dto.jooq.JooqOrderDto;
+import com.example.demo.dto.jooq.JooqOrderItemDto;
 import com.example.demo.dto.jooq.JooqProductDto;
 import com.example.demo.dto.jooq.JooqUserDto;
 import com.example.demo.repository.jooq.JooqOrderRepository;
 import com.example.demo.repository.jooq.JooqProductRepository;
+import com.example.demo.repository.jooq.JooqStatisticsCounters;
 import com.example.demo.repository.jooq.JooqUserRepository;
+import com.example.demo.service.jooq.JooqExportService;
+import com.example.demo.service.jooq.JooqOrderService;
+import com.example.demo.service.jooq.JooqProductService;
 import com.example.demo.service.jooq.JooqTransactionService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 /**
  * JOOQ 集成测试
@@ -39,6 +60,18 @@ class JooqIntegrationTest {
     @Autowired
     private JooqTransactionService transactionService;
 
+    @Autowired
+    private JooqProductService productService;
+
+    @Autowired
+    private JooqOrderService orderService;
+
+    @Autowired
+    private JooqExportService exportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     private JooqUserRepository userRepository;
     private JooqProductRepository productRepository;
     private JooqOrderRepository orderRepository;
@@ -153,4 +186,475 @@ class JooqIntegrationTest {
         JooqProductDto product = productRepository.findById(productId);
         assertEquals(5, product.getStock());
     }
+
+    /**
+     * 测试订单项批量插入
+     * 120 个订单项按每批 50 个拆分，应只执行 1 条订单 INSERT 和 3 条多行订单项 INSERT
+     */
+    @Test
+    void testInsertWithItemsBatchesItemInserts() {
+        Long userId = userRepository.insert(
+            JooqUserDto.builder()
+                .username("bulk")
+                .email("bulk@example.com")
+                .build()
+        );
+        Long productId = productRepository.insert(
+            JooqProductDto.builder()
+                .name("Cable")
+                .price(new BigDecimal("2.50"))
+                .stock(1000)
+                .build()
+        );
+
+        List<JooqOrderItemDto> items = new ArrayList<>();
+        for (int i = 1; i <= 120; i++) {
+            items.add(JooqOrderItemDto.builder()
+                .productId(productId)
+                .quantity(i)
+                .price(new BigDecimal("2.50"))
+                .subtotal(new BigDecimal("2.50").multiply(BigDecimal.valueOf(i)))
+                .build());
+        }
+        JooqOrderDto order = JooqOrderDto.builder()
+            .orderNumber("ORD-BATCH-001")
+            .userId(userId)
+            .totalAmount(new BigDecimal("18150.00"))
+            .status("PENDING")
+            .items(items)
+            .build();
+
+        AtomicInteger executions = new AtomicInteger();
+        ExecuteListener counter = new ExecuteListener() {
+            @Override
+            public void executeStart(ExecuteContext ctx) {
+                executions.incrementAndGet();
+            }
+        };
+        DSLContext countingDsl = DSL.using(dsl.configuration().derive(counter));
+        JooqOrderRepository batchingRepository = new JooqOrderRepository(countingDsl, 50);
+
+        Long orderId = batchingRepository.insertWithItems(order);
+
+        assertEquals(4, executions.get());
+        JooqOrderDto saved = orderRepository.findOrderWithItemsById(orderId);
+        assertEquals(120, saved.getItems().size());
+        assertEquals(new BigDecimal("18150.00"), saved.getItems().stream()
+            .map(JooqOrderItemDto::getSubtotal)
+            .reduce(BigDecimal.ZERO, BigDecimal::add)
+            .setScale(2));
+    }
+
+    /**
+     * 测试订单图查询
+     * 用户的订单、用户名和订单项（含商品名）由一条 MULTISET 查询返回
+     */
+    @Test
+    void testFindOrderGraphsByUserIdUsesSingleQuery() {
+        Long userId = userRepository.insert(
+            JooqUserDto.builder()
+                .username("graph")
+                .email("graph@example.com")
+                .build()
+        );
+        Long productId1 = productRepository.insert(
+            JooqProductDto.builder()
+                .name("Keyboard")
+                .price(new BigDecimal("80.00"))
+                .stock(10)
+                .build()
+        );
+        Long productId2 = productRepository.insert(
+            JooqProductDto.builder()
+                .name("Monitor")
+                .price(new BigDecimal("300.00"))
+                .stock(10)
+                .build()
+        );
+
+        JooqCreateOrderRequest first = new JooqCreateOrderRequest();
+        first.setUserId(userId);
+        first.setItems(List.of(
+            new JooqCreateOrderRequest.OrderItemRequest(productId1, 1),
+            new JooqCreateOrderRequest.OrderItemRequest(productId2, 2)
+        ));
+        JooqCreateOrderRequest second = new JooqCreateOrderRequest();
+        second.setUserId(userId);
+        second.setItems(List.of(new JooqCreateOrderRequest.OrderItemRequest(productId1, 3)));
+        List<Long> orderIds = transactionService.batchCreateOrders(List.of(first, second));
+
+        AtomicInteger executions = new AtomicInteger();
+        ExecuteListener counter = new ExecuteListener() {
+            @Override
+            public void executeStart(ExecuteContext ctx) {
+                executions.incrementAndGet();
+            }
+        };
+        JooqOrderRepository countingRepository =
+            new JooqOrderRepository(DSL.using(dsl.configuration().derive(counter)));
+
+        List<JooqOrderDto> orders = countingRepository.findOrderGraphsByUserId(userId);
+
+        assertEquals(1, executions.get());
+        assertEquals(2, orders.size());
+        JooqOrderDto withTwoItems = orders.stream()
+            .filter(o -> o.getId().equals(orderIds.get(0)))
+            .findFirst()
+            .orElseThrow();
+        assertEquals("graph", withTwoItems.getUsername());
+        assertEquals(new BigDecimal("680.00"), withTwoItems.getTotalAmount());
+        assertEquals(2, withTwoItems.getItems().size());
+        assertEquals("Keyboard", withTwoItems.getItems().get(0).getProductName());
+        assertEquals(2, withTwoItems.getItems().get(1).getQuantity());
+
+        JooqOrderDto single = countingRepository.findOrderGraphById(orderIds.get(1));
+        assertEquals(2, executions.get());
+        assertEquals(1, single.getItems().size());
+        assertEquals(new BigDecimal("240.00"), single.getItems().get(0).getSubtotal());
+        assertNull(countingRepository.findOrderGraphById(-1L));
+    }
+
+    /**
+     * 测试商品游标分页
+     * 按游标翻页覆盖分类下所有商品，不重复、不遗漏，不包含其他分类
+     */
+    @Test
+    void testProductsByCategoryCursorPagination() {
+        List<JooqProductDto> products = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            products.add(JooqProductDto.builder()
+                .name("Book " + i)
+                .price(new BigDecimal("9.90"))
+                .stock(1)
+                .category(i % 5 == 0 ? "Music" : "Novel")
+                .build());
+        }
+        productRepository.batchInsert(products);
+
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            JooqCursorPage<JooqProductDto> page = productService.getProductsByCategoryPage("Novel", cursor, 7);
+            page.getItems().forEach(p -> {
+                assertEquals("Novel", p.getCategory());
+                seen.add(p.getId());
+            });
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(20, seen.size());
+        assertEquals(seen.stream().sorted().toList(), seen);
+    }
+
+    /**
+     * 测试用户订单游标分页
+     * 批量创建的订单创建时间相同，依赖 id 作为第二排序键保证翻页稳定
+     */
+    @Test
+    void testOrdersByUserCursorPagination() {
+        Long userId = userRepository.insert(
+            JooqUserDto.builder()
+                .username("pager")
+                .email("pager@example.com")
+                .build()
+        );
+        Long productId = productRepository.insert(
+            JooqProductDto.builder()
+                .name("Pen")
+                .price(new BigDecimal("1.00"))
+                .stock(100)
+                .build()
+        );
+        List<JooqCreateOrderRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            JooqCreateOrderRequest request = new JooqCreateOrderRequest();
+            request.setUserId(userId);
+            request.setItems(List.of(new JooqCreateOrderRequest.OrderItemRequest(productId, 1)));
+            requests.add(request);
+        }
+        List<Long> orderIds = transactionService.batchCreateOrders(requests);
+
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            JooqCursorPage<JooqOrderDto> page = orderService.getOrdersByUserIdPage(userId, cursor, 5);
+            page.getItems().forEach(o -> {
+                assertEquals(1, o.getItems().size());
+                seen.add(o.getId());
+            });
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        List<Long> expected = new ArrayList<>(orderIds);
+        expected.sort(Comparator.reverseOrder());
+        assertEquals(expected, seen);
+    }
+
+    /**
+     * 测试流式导出
+     * CSV 按 RFC 4180 转义，NDJSON 每行一个包含订单项的订单
+     */
+    @Test
+    void testStreamingExport() throws Exception {
+        Long userId = userRepository.insert(
+            JooqUserDto.builder()
+                .username("exporter")
+                .email("exporter@example.com")
+                .build()
+        );
+        Long productId = productRepository.insert(
+            JooqProductDto.builder()
+                .name("Desk, \"oak\"")
+                .price(new BigDecimal("120.00"))
+                .stock(5)
+                .category("Furniture")
+                .build()
+        );
+        JooqCreateOrderRequest request = new JooqCreateOrderRequest();
+        request.setUserId(userId);
+        request.setItems(List.of(new JooqCreateOrderRequest.OrderItemRequest(productId, 2)));
+        Long orderId = transactionService.createOrder(request);
+
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        long productRows = exportService.exportProducts(JooqExportService.Format.CSV, csv);
+        List<String> csvLines = csv.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(productRows + 1, csvLines.size());
+        assertEquals("id,name,description,price,stock,category,created_at,updated_at", csvLines.get(0));
+        assertTrue(csvLines.stream().anyMatch(line ->
+            line.startsWith(productId + ",\"Desk, \"\"oak\"\"\",,120.00,3,Furniture,")));
+
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        long orderRows = exportService.exportOrders(JooqExportService.Format.NDJSON, ndjson);
+        List<String> jsonLines = ndjson.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(orderRows, jsonLines.size());
+        JsonNode order = null;
+        for (String line : jsonLines) {
+            JsonNode node = objectMapper.readTree(line);
+            if (node.get("id").asLong() == orderId) {
+                order = node;
+            }
+        }
+        assertNotNull(order);
+        assertEquals("exporter", order.get("username").asText());
+        assertEquals(1, order.get("items").size());
+        assertEquals(2, order.get("items").get(0).get("quantity").asInt());
+    }
+
+    /**
+     * 测试商品读穿缓存
+     * 重复读取命中缓存，扣减库存和 upsert 使条目失效，跳过缓存的读取总是访问数据库
+     * 事务内的缓存写入推迟到提交之后，因此本测试在事务外执行，结束时手动删除测试数据
+     */
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void testProductCacheReadThroughAndInvalidation() {
+        Long productId = productRepository.insert(
+            JooqProductDto.builder()
+                .name("Lamp")
+                .price(new BigDecimal("35.00"))
+                .stock(8)
+                .build()
+        );
+
+        AtomicInteger executions = new AtomicInteger();
+        ExecuteListener counter = new ExecuteListener() {
+            @Override
+            public void executeStart(ExecuteContext ctx) {
+                executions.incrementAndGet();
+            }
+        };
+        BoundedTtlCache cache = new BoundedTtlCache("testProducts", 10, Duration.ofMinutes(1));
+        JooqProductRepository cachingRepository =
+            new JooqProductRepository(DSL.using(dsl.configuration().derive(counter)), cache);
+
+        // 首次读取查询数据库，之后命中缓存；返回副本，修改不影响缓存
+        cachingRepository.findById(productId).setStock(0);
+        assertEquals(8, cachingRepository.findById(productId).getStock());
+        assertEquals(1, executions.get());
+        assertEquals(1, cache.getHitCount());
+        assertNull(cachingRepository.findById(-1L));
+        assertNull(cachingRepository.findById(-1L));
+        assertEquals(3, executions.get());
+
+        // 扣减库存立即使缓存失效
+        assertTrue(cachingRepository.decreaseStock(productId, 3));
+        assertEquals(5, cachingRepository.findById(productId).getStock());
+        assertEquals(5, cachingRepository.findByIdUncached(productId).getStock());
+        assertEquals(6, executions.get());
+
+        // upsert 使缓存失效
+        cachingRepository.upsert(JooqProductDto.builder()
+            .id(productId)
+            .name("Desk Lamp")
+            .price(new BigDecimal("39.00"))
+            .stock(5)
+            .build());
+        assertEquals("Desk Lamp", cachingRepository.findById(productId).getName());
+
+        dsl.deleteFrom(DSL.table("j_products")).where(DSL.field("id").eq(productId)).execute();
+    }
+
+    /**
+     * 测试事务内的缓存写入推迟到提交之后，回滚时不会进入缓存
+     */
+    @Test
+    void testProductCacheDefersPutUntilCommit() {
+        Long productId = productRepository.insert(
+            JooqProductDto.builder()
+                .name("Rug")
+                .price(new BigDecimal("80.00"))
+                .stock(2)
+                .build()
+        );
+        BoundedTtlCache cache = new BoundedTtlCache("testProducts", 10, Duration.ofMinutes(1));
+        JooqProductRepository cachingRepository = new JooqProductRepository(dsl, cache);
+
+        assertNotNull(cachingRepository.findById(productId));
+        assertEquals(0, cache.size());
+    }
+
+    /**
+     * 测试商品写入增量更新统计计数
+     * 没有事务时计数立即更新，因此本测试在事务外执行，结束时手动删除测试数据
+     */
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void testProductWritesUpdateStatisticsCounters() {
+        JooqStatisticsCounters counters = new JooqStatisticsCounters(10);
+        JooqProductRepository countingRepository =
+            new JooqProductRepository(dsl, new NoOpCache("testProducts"), counters);
+
+        Long productId = countingRepository.insert(
+            JooqProductDto.builder()
+                .name("Stats Widget")
+                .price(new BigDecimal("5.00"))
+                .stock(12)
+                .category("StatsTest")
+                .build()
+        );
+        assertEquals(12, counters.getCategoryStock("StatsTest"));
+        assertEquals(0, counters.getLowStockProducts());
+
+        // 扣减后的库存由 RETURNING 取回，扣减穿越低库存阈值
+        assertTrue(countingRepository.decreaseStock(productId, 3));
+        assertEquals(9, counters.getCategoryStock("StatsTest"));
+        assertEquals(1, counters.getLowStockProducts());
+
+        assertEquals(1, countingRepository.decreaseStockBatch(Map.of(productId, 4)));
+        assertFalse(countingRepository.decreaseStock(productId, 100));
+        assertEquals(5, counters.getCategoryStock("StatsTest"));
+
+        countingRepository.upsert(JooqProductDto.builder()
+            .id(productId)
+            .name("Stats Widget")
+            .price(new BigDecimal("5.00"))
+            .stock(30)
+            .category("StatsMoved")
+            .build());
+        assertEquals(0, counters.getCategoryStock("StatsTest"));
+        assertEquals(30, counters.getCategoryStock("StatsMoved"));
+        assertEquals(0, counters.getLowStockProducts());
+
+        dsl.deleteFrom(DSL.table("j_products")).where(DSL.field("id").eq(productId)).execute();
+    }
+
+    /**
+     * 测试分片商品扣减按准确总量判断低库存
+     * 槽位扣减后不低于阈值时走单槽位扣减，否则锁定全部槽位按准确总量扣减，低库存商品数只在穿越阈值时加一
+     */
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void testShardedStockUpdatesLowStockCounter() {
+        JooqStatisticsCounters counters = new JooqStatisticsCounters(10);
+        JooqProductRepository countingRepository =
+            new JooqProductRepository(dsl, new NoOpCache("testProducts"), counters);
+
+        Long productId = countingRepository.insert(
+            JooqProductDto.builder()
+                .name("Sharded Stats Widget")
+                .price(new BigDecimal("5.00"))
+                .stock(40)
+                .category("ShardedStatsTest")
+                .build()
+        );
+        assertTrue(countingRepository.enableShardedStock(productId, 2));
+
+        // 40 -> 10：前几次扣减走单槽位，槽位接近阈值后锁定全部槽位，始终不穿越阈值
+        for (int i = 0; i < 6; i++) {
+            assertTrue(countingRepository.decreaseStock(productId, 5));
+        }
+        assertEquals(10, counters.getCategoryStock("ShardedStatsTest"));
+        assertEquals(0, counters.getLowStockProducts());
+
+        // 10 -> 5 穿越阈值
+        assertTrue(countingRepository.decreaseStock(productId, 5));
+        assertEquals(5, countingRepository.findByIdUncached(productId).getStock());
+        assertEquals(5, counters.getCategoryStock("ShardedStatsTest"));
+        assertEquals(1, counters.getLowStockProducts());
+
+        dsl.deleteFrom(DSL.table("j_product_stock_slots")).where(DSL.field("product_id").eq(productId)).execute();
+        dsl.deleteFrom(DSL.table("j_products")).where(DSL.field("id").eq(productId)).execute();
+    }
+
+    /**
+     * 测试分片库存
+     * 库存拆分到槽位后读取为各槽位之和；单个槽位不足时从其他槽位扣减，
+     * 没有单个槽位足够时从多个槽位凑齐，总量不足时拒绝；切换回单行模式后库存合并
+     */
+    @Test
+    void testShardedStock() {
+        // 低库存阈值为 0：槽位只要足够就走单槽位扣减
+        JooqProductRepository shardedRepository =
+            new JooqProductRepository(dsl, new NoOpCache("testProducts"), new JooqStatisticsCounters(0));
+        Long productId = shardedRepository.insert(
+            JooqProductDto.builder()
+                .name("Flash Sale Phone")
+                .price(new BigDecimal("199.00"))
+                .stock(10)
+                .category("FlashSale")
+                .build()
+        );
+
+        assertTrue(shardedRepository.enableShardedStock(productId, 4));
+        assertEquals(4, shardedRepository.getStockSlots(productId));
+        assertEquals(10, shardedRepository.findByIdUncached(productId).getStock());
+        assertEquals(10, shardedRepository.getTotalStockByCategory("FlashSale"));
+
+        // 槽位 3/3/2/2：前两次每次都有单个槽位足够，第三次需要从多个槽位凑齐
+        assertTrue(shardedRepository.decreaseStock(productId, 3));
+        assertTrue(shardedRepository.decreaseStock(productId, 3));
+        assertEquals(4, shardedRepository.findByIdUncached(productId).getStock());
+        assertTrue(shardedRepository.decreaseStock(productId, 3));
+        assertEquals(1, shardedRepository.findByIdUncached(productId).getStock());
+        assertFalse(shardedRepository.decreaseStock(productId, 2));
+        assertEquals(1, shardedRepository.findLowStockProducts(2).stream()
+            .filter(p -> p.getId().equals(productId))
+            .count());
+
+        // 批量扣减同样按槽位扣减
+        assertEquals(1, shardedRepository.decreaseStockBatch(Map.of(productId, 1)));
+        assertEquals(0, shardedRepository.findByIdUncached(productId).getStock());
+
+        // upsert 把新库存重新分配到槽位
+        shardedRepository.upsert(JooqProductDto.builder()
+            .id(productId)
+            .name("Flash Sale Phone")
+            .price(new BigDecimal("199.00"))
+            .stock(9)
+            .category("FlashSale")
+            .build());
+        assertEquals(9, shardedRepository.findByIdUncached(productId).getStock());
+
+        assertTrue(shardedRepository.disableShardedStock(productId));
+        assertEquals(0, shardedRepository.getStockSlots(productId));
+        assertEquals(9, shardedRepository.findByIdUncached(productId).getStock());
+        assertTrue(shardedRepository.decreaseStock(productId, 9));
+        assertEquals(0, shardedRepository.findByIdUncached(productId).getStock());
+
+        assertFalse(shardedRepository.enableShardedStock(-1L, 4));
+        assertThrows(IllegalArgumentException.class, () -> shardedRepository.enableShardedStock(productId, 0));
+    }
 }
@@ -0,0 +1,194 @@
+package com.example.demo.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.jooq.DSLContext;
+import org.jooq.impl.DSL;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.dto.jooq.JooqProductDto;
+import com.example.demo.repository.jooq.JooqProductRepository;
+
+/**
+ * 分片库存并发对比测试
+ * 同一热门商品分别使用单行库存和分片库存，多个线程并发执行“扣减库存 + 其余结账工作”的事务，
+ * 对比 1~8 线程下的吞吐，并校验两种模式都不会超卖
+ * 其余结账工作（写订单等）用持锁期间的短暂等待模拟：单行模式下所有事务排队等待同一行锁，
+ * 分片模式下事务分散到不同槽位行上
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class JooqShardedStockPerformanceTest {
+
+    private static final int[] THREAD_COUNTS = {1, 4, 8};
+    private static final int WARMUP_CHECKOUTS = 500;
+    private static final int CHECKOUTS_PER_THREAD = 200;
+    private static final long HOLD_MILLIS = 2;
+    private static final int SLOTS = 16;
+
+    @Autowired
+    private DSLContext dsl;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private JooqProductRepository productRepository;
+    private TransactionTemplate transactionTemplate;
+    private final List<Long> productIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        productRepository = new JooqProductRepository(dsl);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (Long id : productIds) {
+            dsl.deleteFrom(DSL.table("j_product_stock_slots")).where(DSL.field("product_id").eq(id)).execute();
+            dsl.deleteFrom(DSL.table("j_products")).where(DSL.field("id").eq(id)).execute();
+        }
+    }
+
+    @Test
+    void testHotProductCheckoutThroughput() throws Exception {
+        Long warmUpSingleRow = createProduct(WARMUP_CHECKOUTS * 2);
+        Long warmUpSharded = createProduct(WARMUP_CHECKOUTS * 2);
+        productRepository.enableShardedStock(warmUpSharded, SLOTS);
+        runCheckouts(warmUpSingleRow, 1, WARMUP_CHECKOUTS, 1, WARMUP_CHECKOUTS);
+        runCheckouts(warmUpSharded, 1, WARMUP_CHECKOUTS, 1, WARMUP_CHECKOUTS);
+
+        for (int threads : THREAD_COUNTS) {
+            int checkouts = threads * CHECKOUTS_PER_THREAD;
+
+            // 库存留足余量：分片槽位接近低库存阈值后会改为锁定全部槽位扣减，这里只测单槽位扣减的吞吐
+            Long singleRow = createProduct(checkouts * 2);
+            double singleRowRate = runCheckouts(singleRow, threads, CHECKOUTS_PER_THREAD, 1, checkouts);
+
+            Long sharded = createProduct(checkouts * 2);
+            productRepository.enableShardedStock(sharded, SLOTS);
+            double shardedRate = runCheckouts(sharded, threads, CHECKOUTS_PER_THREAD, 1, checkouts);
+
+            System.out.printf("[stock] %d threads: single-row %.0f checkouts/s, sharded(%d slots) %.0f checkouts/s%n",
+                threads, singleRowRate, SLOTS, shardedRate);
+        }
+    }
+
+    @Test
+    void testNoOversellWhenStockRunsOut() throws Exception {
+        // 21 件库存、每次买 2 件：无论哪种模式都恰好成功 10 次，剩余 1 件
+        Long singleRow = createProduct(21);
+        runCheckouts(singleRow, 8, 5, 2, 10);
+
+        Long sharded = createProduct(21);
+        productRepository.enableShardedStock(sharded, 8);
+        runCheckouts(sharded, 8, 5, 2, 10);
+    }
+
+    @Test
+    void testNoOversellWithoutTransaction() throws Exception {
+        // 调用方未开启事务（自动提交）时，槽位的选取和扣减同样不能被并发调用拆开
+        Long sharded = createProduct(21);
+        productRepository.enableShardedStock(sharded, 8);
+        runCheckouts(sharded, 8, 5, 2, 10, false);
+
+        Integer negativeSlots = dsl.selectCount()
+            .from(DSL.table("j_product_stock_slots"))
+            .where(DSL.field("product_id").eq(sharded))
+            .and(DSL.field("stock", Integer.class).lessThan(0))
+            .fetchOne(0, Integer.class);
+        assertThat(negativeSlots).isZero();
+    }
+
+    private Long createProduct(int stock) {
+        Long id = productRepository.insert(JooqProductDto.builder()
+            .name("Hot Product")
+            .price(new BigDecimal("9.90"))
+            .stock(stock)
+            .category("PerfTest")
+            .build());
+        productIds.add(id);
+        return id;
+    }
+
+    /**
+     * 并发结账，校验成功次数和剩余库存，返回每秒成功结账数
+     */
+    private double runCheckouts(Long productId, int threads, int perThread, int quantity, int expectedSuccesses)
+            throws Exception {
+        return runCheckouts(productId, threads, perThread, quantity, expectedSuccesses, true);
+    }
+
+    private double runCheckouts(Long productId, int threads, int perThread, int quantity, int expectedSuccesses,
+                                boolean inTransaction) throws Exception {
+        int initialStock = productRepository.findByIdUncached(productId).getStock();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch ready = new CountDownLatch(threads);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    ready.countDown();
+                    start.await();
+                    int succeeded = 0;
+                    for (int i = 0; i < perThread; i++) {
+                        boolean succeededOnce = inTransaction
+                            ? checkout(productId, quantity)
+                            : productRepository.decreaseStock(productId, quantity);
+                        if (succeededOnce) {
+                            succeeded++;
+                        }
+                    }
+                    return succeeded;
+                }));
+            }
+
+            ready.await();
+            long startTime = System.nanoTime();
+            start.countDown();
+            int succeeded = 0;
+            for (Future<Integer> future : futures) {
+                succeeded += future.get();
+            }
+            long duration = System.nanoTime() - startTime;
+
+            assertThat(succeeded).isEqualTo(expectedSuccesses);
+            assertThat(productRepository.findByIdUncached(productId).getStock())
+                .isEqualTo(initialStock - succeeded * quantity);
+            return succeeded * 1_000_000_000.0 / duration;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private boolean checkout(Long productId, int quantity) {
+        Boolean decreased = transactionTemplate.execute(status -> {
+            if (!productRepository.decreaseStock(productId, quantity)) {
+                return false;
+            }
+            try {
+                Thread.sleep(HOLD_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return true;
+        });
+        return Boolean.TRUE.equals(decreased);
+    }
+}
@@ -0,0 +1,292 @@
+package com.example.demo.sentinel;
+
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
+import com.example.demo.circuitbreaker.annotation.CallerRateLimiter;
+import com.example.demo.circuitbreaker.exception.RateLimitExceededException;
+import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 限流组件开销对比测试
+ * 对同一条限流规则（单资源 QPS 阈值）分别使用 Sentinel（SphU.entry）、Resilience4j（@RateLimiter）
+ * 和 @CallerRateLimiter 实现，对比放行路径和拒绝路径的单次调用耗时、内存分配，以及 1~64 线程并发下的吞吐
+ */
+@SpringBootTest(properties = {
+        "resilience4j.ratelimiter.instances.benchPermitted.limit-for-period=1000000000",
+        "resilience4j.ratelimiter.instances.benchPermitted.limit-refresh-period=1s",
+        "resilience4j.ratelimiter.instances.benchPermitted.timeout-duration=0s",
+        "resilience4j.ratelimiter.instances.benchRejected.limit-for-period=1",
+        "resilience4j.ratelimiter.instances.benchRejected.limit-refresh-period=1h",
+        "resilience4j.ratelimiter.instances.benchRejected.timeout-duration=0s",
+        // 拒绝路径每次都会打印 WARN 日志，压测时关闭以免日志输出主导耗时
+        "logging.level.com.example.demo.circuitbreaker.aspect.CallerRateLimiterAspect=ERROR"
+})
+class FlowControlOverheadPerformanceTest {
+
+    private static final int WARMUP_ITERATIONS = 100_000;
+    private static final int MEASURE_ITERATIONS = 200_000;
+    private static final int[] THREAD_COUNTS = {1, 4, 16, 64};
+
+    private static final String SENTINEL_PERMITTED = "benchSentinelPermitted";
+    private static final String SENTINEL_REJECTED = "benchSentinelRejected";
+    // CallerRateLimiterAspect 按调用方缓存限流器，两条路径使用不同的调用方
+    private static final String PERMITTED_CALLER = "benchPermittedCaller";
+    private static final String REJECTED_CALLER = "benchRejectedCaller";
+
+    @Autowired
+    private BenchmarkTarget target;
+
+    private List<FlowRule> originalRules;
+
+    @BeforeEach
+    void setUp() {
+        originalRules = FlowRuleManager.getRules();
+        List<FlowRule> rules = new ArrayList<>(originalRules);
+        rules.add(qpsRule(SENTINEL_PERMITTED, 1_000_000_000));
+        rules.add(qpsRule(SENTINEL_REJECTED, 0));
+        FlowRuleManager.loadRules(rules);
+    }
+
+    @AfterEach
+    void tearDown() {
+        FlowRuleManager.loadRules(originalRules);
+    }
+
+    @Test
+    void testPermittedPathOverhead() throws Exception {
+        Map<String, Supplier<String>> calls = new LinkedHashMap<>();
+        calls.put("Sentinel         ", target::sentinelPermitted);
+        calls.put("Resilience4j     ", target::resilience4jPermitted);
+        calls.put("CallerRateLimiter", () -> callerLimited(() -> target.callerPermitted(PERMITTED_CALLER)));
+
+        compare("permitted", calls, BenchmarkTarget.PASSED);
+    }
+
+    @Test
+    void testRejectedPathOverhead() throws Exception {
+        Map<String, Supplier<String>> calls = new LinkedHashMap<>();
+        calls.put("Sentinel         ", target::sentinelRejected);
+        calls.put("Resilience4j     ", target::resilience4jRejected);
+        calls.put("CallerRateLimiter", () -> callerLimited(() -> target.callerRejected(REJECTED_CALLER)));
+
+        // 两个 Resilience4j 限流器每小时只有 1 个许可，先消耗掉
+        target.resilience4jRejected();
+        target.callerRejected(REJECTED_CALLER);
+
+        compare("rejected", calls, BenchmarkTarget.BLOCKED);
+    }
+
+    private static void compare(String path, Map<String, Supplier<String>> calls, String expected)
+            throws Exception {
+        for (Supplier<String> call : calls.values()) {
+            assertThat(warmUp(call, expected)).isEqualTo(WARMUP_ITERATIONS);
+        }
+
+        for (Map.Entry<String, Supplier<String>> call : calls.entrySet()) {
+            Result single = measure(call.getValue(), expected);
+            System.out.println("[" + path + "] " + call.getKey() + " : " + single);
+            assertThat(single.nanosPerOp).isPositive();
+
+            StringBuilder scaling = new StringBuilder();
+            for (int threads : THREAD_COUNTS) {
+                double nanosPerOp = measureContended(call.getValue(), expected, threads);
+                assertThat(nanosPerOp).isPositive();
+                scaling.append(String.format("  %d threads: %.1f ns/op", threads, nanosPerOp));
+            }
+            System.out.println("[" + path + "] " + call.getKey() + " :" + scaling);
+        }
+    }
+
+    private static int warmUp(Supplier<String> call, String expected) {
+        int matched = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            if (expected.equals(call.get())) {
+                matched++;
+            }
+        }
+        return matched;
+    }
+
+    private static Result measure(Supplier<String> call, String expected) {
+        com.sun.management.ThreadMXBean threadMXBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        int matched = 0;
+        long startBytes = threadMXBean.getCurrentThreadAllocatedBytes();
+        long startTime = System.nanoTime();
+        for (int i = 0; i < MEASURE_ITERATIONS; i++) {
+            if (expected.equals(call.get())) {
+                matched++;
+            }
+        }
+        long duration = System.nanoTime() - startTime;
+        long allocated = threadMXBean.getCurrentThreadAllocatedBytes() - startBytes;
+
+        assertThat(matched).isEqualTo(MEASURE_ITERATIONS);
+        return new Result((double) duration / MEASURE_ITERATIONS, (double) allocated / MEASURE_ITERATIONS);
+    }
+
+    /**
+     * 多线程同时调用，返回总耗时摊到每次调用上的纳秒数（越小吞吐越高）
+     */
+    private static double measureContended(Supplier<String> call, String expected, int threads)
+            throws Exception {
+        int perThread = MEASURE_ITERATIONS / threads;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch ready = new CountDownLatch(threads);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    ready.countDown();
+                    start.await();
+                    int matched = 0;
+                    for (int i = 0; i < perThread; i++) {
+                        if (expected.equals(call.get())) {
+                            matched++;
+                        }
+                    }
+                    return matched;
+                }));
+            }
+
+            ready.await();
+            long startTime = System.nanoTime();
+            start.countDown();
+            int matched = 0;
+            for (Future<Integer> future : futures) {
+                matched += future.get();
+            }
+            long duration = System.nanoTime() - startTime;
+
+            assertThat(matched).isEqualTo(perThread * threads);
+            return (double) duration / (perThread * threads);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @CallerRateLimiter 没有降级方法，被拒绝时抛出 RateLimitExceededException，由调用方捕获
+     */
+    private static String callerLimited(Supplier<String> call) {
+        try {
+            return call.get();
+        } catch (RateLimitExceededException e) {
+            return BenchmarkTarget.BLOCKED;
+        }
+    }
+
+    private static FlowRule qpsRule(String resource, double count) {
+        FlowRule rule = new FlowRule();
+        rule.setResource(resource);
+        rule.setGrade(RuleConstant.FLOW_GRADE_QPS);
+        rule.setCount(count);
+        rule.setLimitApp("default");
+        return rule;
+    }
+
+    private static class Result {
+        private final double nanosPerOp;
+        private final double bytesPerOp;
+
+        private Result(double nanosPerOp, double bytesPerOp) {
+            this.nanosPerOp = nanosPerOp;
+            this.bytesPerOp = bytesPerOp;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.1f ns/op, %.1f bytes/op", nanosPerOp, bytesPerOp);
+        }
+    }
+
+    @TestConfiguration
+    static class BenchmarkConfiguration {
+
+        @Bean
+        BenchmarkTarget flowControlBenchmarkTarget() {
+            return new BenchmarkTarget();
+        }
+    }
+
+    public static class BenchmarkTarget {
+
+        static final String PASSED = "ok";
+        static final String BLOCKED = "blocked";
+
+        public String sentinelPermitted() {
+            return sentinel(SENTINEL_PERMITTED);
+        }
+
+        public String sentinelRejected() {
+            return sentinel(SENTINEL_REJECTED);
+        }
+
+        @RateLimiter(name = "benchPermitted", fallbackMethod = "fallback")
+        public String resilience4jPermitted() {
+            return PASSED;
+        }
+
+        @RateLimiter(name = "benchRejected", fallbackMethod = "fallback")
+        public String resilience4jRejected() {
+            return PASSED;
+        }
+
+        @CallerRateLimiter(prefix = "benchPermitted", defaultLimitForPeriod = 1_000_000_000,
+                defaultTimeoutDurationInSeconds = 0, callerParamName = "caller")
+        public String callerPermitted(String caller) {
+            return PASSED;
+        }
+
+        @CallerRateLimiter(prefix = "benchRejected", defaultLimitForPeriod = 1,
+                defaultLimitRefreshPeriodInSeconds = 3600, defaultTimeoutDurationInSeconds = 0,
+                callerParamName = "caller")
+        public String callerRejected(String caller) {
+            return PASSED;
+        }
+
+        public String fallback(Exception ex) {
+            return BLOCKED;
+        }
+
+        private String sentinel(String resource) {
+            Entry entry = null;
+            try {
+                entry = SphU.entry(resource);
+                return PASSED;
+            } catch (BlockException e) {
+                return BLOCKED;
+            } finally {
+                if (entry != null) {
+                    entry.exit();
+                }
+            }
+        }
+    }
+}
@@ -650,6 +650,34 @@ class SentinelIntegrationTest {
                 .andExpect(jsonPath("$[?(@ == 'flowControlResource')]").exists());
     }
 
+    // ==================== 场景6：Web 接口自动埋点测试 ====================
+
+    @Test
+    @DisplayName("场景6 - Web 接口自动埋点：按映射模式命名资源并可直接配置规则")
+    void testWebInterceptor_ResourcePerMappingPattern() throws Exception {
+        // 不同路径变量的请求归入同一个资源
+        mockMvc.perform(delete("/api/sentinel/rules/flow/{resource}", "webA")).andExpect(status().isOk());
+        mockMvc.perform(delete("/api/sentinel/rules/flow/{resource}", "webB")).andExpect(status().isOk());
+
+        @SuppressWarnings("unchecked")
+        Set<String> resources = (Set<String>) sentinelService.getWebResourceState().get("resources");
+        assertThat(resources).contains("DELETE:/api/sentinel/rules/flow/{resource}");
+        assertThat(resources).noneMatch(name -> name.contains("webA") || name.contains("webB"));
+
+        // 对接口资源配置 QPS = 0 的流控规则，请求被拦截返回 429
+        sentinelService.addFlowRule("GET:/api/sentinel/resources", 0, RuleConstant.FLOW_GRADE_QPS, "default");
+        try {
+            mockMvc.perform(get("/api/sentinel/resources"))
+                    .andExpect(status().isTooManyRequests());
+        } finally {
+            sentinelService.removeFlowRule("GET:/api/sentinel/resources");
+        }
+        mockMvc.perform(get("/api/sentinel/resources")).andExpect(status().isOk());
+
+        // 所有请求结束后在途请求数归零
+        assertThat(sentinelService.getAdaptiveSystemState().get("inFlight")).isEqualTo(0);
+    }
+
     // ==================== 综合场景测试 ====================
 
     @Test
@@ -0,0 +1,57 @@
+package com.example.demo.sentinel.configuration;
+
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sentinel 指标导出单元测试
+ */
+class SentinelMeterBinderTest {
+
+    private SimpleMeterRegistry registry;
+    private SentinelMeterBinder binder;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        binder = new SentinelMeterBinder(60_000);
+        binder.bindTo(registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        binder.shutdown();
+    }
+
+    @Test
+    void testNewResource_RegisteredAndReadsLiveStatistics() throws BlockException {
+        String resource = "meterBinderResource";
+        for (int i = 0; i < 4; i++) {
+            Entry entry = SphU.entry(resource);
+            entry.exit();
+        }
+
+        binder.registerNewResources(registry);
+
+        assertThat(registry.get("sentinel.resource.qps")
+                .tags("resource", resource, "window", "second", "type", "pass")
+                .gauge().value()).isEqualTo(4.0);
+        assertThat(registry.get("sentinel.resource.qps")
+                .tags("resource", resource, "window", "minute", "type", "success")
+                .gauge().value() * 60).isEqualTo(4.0);
+        assertThat(registry.get("sentinel.resource.threads")
+                .tag("resource", resource)
+                .gauge().value()).isZero();
+
+        // 再次发现不会重复注册
+        binder.registerNewResources(registry);
+        assertThat(registry.find("sentinel.resource.qps").tag("resource", resource).gauges()).hasSize(8);
+    }
+}
@@ -2,6 +2,8 @@ package com.example.demo.sentinel.controller;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
@@ -26,12 +28,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import com.alibaba.csp.sentinel.slots.block.RuleConstant;
 import com.example.demo.sentinel.dto.RuleInfoDto;
+import com.example.demo.sentinel.dto.SentinelMetricHistoryDto;
 import com.example.demo.sentinel.dto.SentinelMetricsDto;
 import com.example.demo.sentinel.dto.SentinelResultDto;
+import com.example.demo.sentinel.dto.SentinelRuleBatchResultDto;
 import com.example.demo.sentinel.service.SentinelService;
 
 /**
@@ -281,6 +286,25 @@ class SentinelControllerTest {
         verify(sentinelService, times(1)).paramFlowDemo(eq("userVIP"), anyString());
     }
 
+    @Test
+    @DisplayName("热点参数限流统计")
+    void testGetParamFlowStatistics() throws Exception {
+        // Given
+        when(sentinelService.getParamFlowStatistics()).thenReturn(List.of(Map.of(
+                "resource", "paramFlowResource",
+                "paramName", "userId",
+                "blockedRequests", 3L,
+                "topKeys", Map.of("hotUser", 5L))));
+
+        // When & Then
+        mockMvc.perform(get("/api/sentinel/hotspot/statistics"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].resource").value("paramFlowResource"))
+                .andExpect(jsonPath("$[0].topKeys.hotUser").value(5));
+
+        verify(sentinelService, times(1)).getParamFlowStatistics();
+    }
+
     // ==================== 系统自适应保护接口测试 ====================
 
     @Test
@@ -565,6 +589,138 @@ class SentinelControllerTest {
         verify(sentinelService, times(1)).addParamFlowRule("testParamResource", 10, 0, "userId");
     }
 
+    @Test
+    @DisplayName("批量变更规则 - 生效")
+    void testApplyRuleBatch() throws Exception {
+        // Given
+        when(sentinelService.applyRuleBatch(any())).thenReturn(SentinelRuleBatchResultDto.builder()
+                .applied(true).added(1).flowRuleCount(1).reloadMs(0.5).errors(List.of()).build());
+
+        // When & Then
+        mockMvc.perform(post("/api/sentinel/rules/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"add\":[{\"ruleType\":\"FLOW\",\"resource\":\"batchFlow\",\"count\":5}]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.applied").value(true))
+                .andExpect(jsonPath("$.reloadMs").value(0.5));
+
+        verify(sentinelService, times(1)).applyRuleBatch(any());
+    }
+
+    @Test
+    @DisplayName("批量变更规则 - 校验失败")
+    void testApplyRuleBatch_Rejected() throws Exception {
+        // Given
+        when(sentinelService.applyRuleBatch(any())).thenReturn(SentinelRuleBatchResultDto.builder()
+                .applied(false).errors(List.of("remove: no FLOW rule for resource missing")).build());
+
+        // When & Then
+        mockMvc.perform(post("/api/sentinel/rules/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"remove\":[{\"ruleType\":\"FLOW\",\"resource\":\"missing\"}]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.applied").value(false))
+                .andExpect(jsonPath("$.errors[0]").value("remove: no FLOW rule for resource missing"));
+    }
+
+    @Test
+    @DisplayName("添加集群流控规则")
+    void testAddClusterFlowRule() throws Exception {
+        // When & Then
+        mockMvc.perform(post("/api/sentinel/rules/cluster-flow")
+                        .param("resource", "clusterResource")
+                        .param("count", "100")
+                        .param("flowId", "1001"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value("Cluster flow rule added successfully"))
+                .andExpect(jsonPath("$.thresholdType").value("1"))
+                .andExpect(jsonPath("$.fallbackToLocal").value("true"));
+
+        verify(sentinelService, times(1)).addClusterFlowRule("clusterResource", 100, 1001L, 1, true);
+    }
+
+    @Test
+    @DisplayName("获取集群流控状态")
+    void testGetClusterState() throws Exception {
+        // Given
+        when(sentinelService.getClusterState()).thenReturn(Map.of("mode", "none", "sentinelClusterMode", -1));
+
+        // When & Then
+        mockMvc.perform(get("/api/sentinel/cluster/state"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.mode").value("none"));
+    }
+
+    @Test
+    @DisplayName("获取 Web 接口资源登记情况")
+    void testGetWebResourceState() throws Exception {
+        // Given
+        when(sentinelService.getWebResourceState()).thenReturn(Map.of(
+                "resourceCount", 1, "maxResources", 500, "resources", List.of("GET:/api/jooq/orders/{id}")));
+
+        // When & Then
+        mockMvc.perform(get("/api/sentinel/web/resources"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.maxResources").value(500))
+                .andExpect(jsonPath("$.resources[0]").value("GET:/api/jooq/orders/{id}"));
+    }
+
+    @Test
+    @DisplayName("获取自适应系统保护状态")
+    void testGetAdaptiveSystemState() throws Exception {
+        // Given
+        when(sentinelService.getAdaptiveSystemState())
+                .thenReturn(Map.of("enabled", true, "inFlight", 3, "estimatedCapacity", 40));
+
+        // When & Then
+        mockMvc.perform(get("/api/sentinel/system/adaptive"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.enabled").value(true))
+                .andExpect(jsonPath("$.inFlight").value(3));
+    }
+
+    @Test
+    @DisplayName("查询历史指标")
+    void testGetMetricHistory() throws Exception {
+        // Given
+        SentinelMetricHistoryDto history = SentinelMetricHistoryDto.builder()
+                .resource("flowControlResource")
+                .startTime(1_700_000_000_000L)
+                .endTime(1_700_000_600_000L)
+                .requestedResolutionSec(60)
+                .resolutionSec(60)
+                .filesScanned(1)
+                .points(List.of(new SentinelMetricHistoryDto.MetricPoint(1_700_000_000_000L, 120, 30, 118, 2, 4.5, 3)))
+                .build();
+        when(sentinelService.queryMetricHistory("flowControlResource", 1_700_000_000_000L, 1_700_000_600_000L, 60))
+                .thenReturn(history);
+
+        // When & Then
+        mockMvc.perform(get("/api/sentinel/metrics/history")
+                        .param("resource", "flowControlResource")
+                        .param("startTime", "1700000000000")
+                        .param("endTime", "1700000600000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.resolutionSec").value(60))
+                .andExpect(jsonPath("$.points[0].passCount").value(120))
+                .andExpect(jsonPath("$.points[0].blockCount").value(30));
+    }
+
+    @Test
+    @DisplayName("查询历史指标 - 参数不合法")
+    void testGetMetricHistory_InvalidRange() throws Exception {
+        // Given
+        when(sentinelService.queryMetricHistory(anyString(), anyLong(), anyLong(), anyInt()))
+                .thenThrow(new IllegalArgumentException("endMs must not be earlier than startMs"));
+
+        // When & Then
+        mockMvc.perform(get("/api/sentinel/metrics/history")
+                        .param("resource", "flowControlResource")
+                        .param("startTime", "2000")
+                        .param("endTime", "1000"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @DisplayName("添加系统规则")
     void testAddSystemRule() throws Exception {
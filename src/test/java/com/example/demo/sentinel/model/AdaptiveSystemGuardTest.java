@@ -0,0 +1,136 @@
+package com.example.demo.sentinel.model;
+
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.slots.system.SystemBlockException;
+import com.example.demo.sentinel.configuration.AdaptiveSystemSlot;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 自适应系统保护测试：使用可控的时钟和 CPU 采样
+ */
+class AdaptiveSystemGuardTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000L);
+    private volatile double cpu = 0.1;
+
+    @Test
+    void testLowCpu_NeverDropsOnCapacity() {
+        AdaptiveSystemGuard guard = newGuard(0);
+        warmUp(guard);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(guard.tryEnter()).isTrue();
+        }
+        assertThat(guard.getInFlight()).isEqualTo(100);
+    }
+
+    @Test
+    void testHighCpu_DropsWhenInFlightExceedsBbrCapacity() {
+        AdaptiveSystemGuard guard = newGuard(0);
+        warmUp(guard);
+        setCpu(guard, 0.95);
+
+        // 每 100ms 完成 10 个、最小 RT 50ms：maxPassQps = 100，容量 = 100 x 50 / 1000 = 5
+        assertThat(guard.capacity(clock.get())).isEqualTo(5);
+        int admitted = 0;
+        while (guard.tryEnter()) {
+            admitted++;
+        }
+        assertThat(admitted).isEqualTo(6);
+        assertThat(guard.getStatistics().get("blockedRequests")).isEqualTo(1L);
+
+        // 请求完成、在途数回落后重新放行
+        guard.exit(50);
+        guard.release();
+        assertThat(guard.tryEnter()).isTrue();
+    }
+
+    @Test
+    void testCoolOff_KeepsCheckingCapacityAfterCpuRecovers() {
+        AdaptiveSystemGuard guard = newGuard(0);
+        warmUp(guard);
+        setCpu(guard, 0.95);
+        while (guard.tryEnter()) {
+            // 填满容量直到被拒绝
+        }
+
+        setCpu(guard, 0.0);
+        clock.addAndGet(500);
+        assertThat(guard.tryEnter()).isFalse();
+        assertThat(guard.getStatistics().get("coolingOff")).isEqualTo(true);
+
+        clock.addAndGet(600);
+        assertThat(guard.tryEnter()).isTrue();
+    }
+
+    @Test
+    void testMaxInFlight_HardLimit() {
+        AdaptiveSystemGuard guard = newGuard(3);
+
+        assertThat(guard.tryEnter()).isTrue();
+        assertThat(guard.tryEnter()).isTrue();
+        assertThat(guard.tryEnter()).isTrue();
+        assertThat(guard.tryEnter()).isFalse();
+        guard.release();
+        assertThat(guard.tryEnter()).isTrue();
+    }
+
+    @Test
+    void testSlot_GuardsInboundEntriesOnly() throws Exception {
+        AdaptiveSystemGuard previous = AdaptiveSystemSlot.getGuard();
+        AdaptiveSystemGuard guard = new AdaptiveSystemGuard(0.8, 2, 1000, 10, 1000, () -> 0.0,
+                System::currentTimeMillis);
+        AdaptiveSystemSlot.setGuard(guard);
+        try {
+            Entry first = SphU.entry("adaptiveSlotResource", EntryType.IN);
+            Entry second = SphU.entry("adaptiveSlotResource", EntryType.IN);
+            assertThat(guard.getInFlight()).isEqualTo(2);
+
+            assertThatThrownBy(() -> SphU.entry("adaptiveSlotResource", EntryType.IN))
+                    .isInstanceOf(SystemBlockException.class)
+                    .satisfies(e -> assertThat(((SystemBlockException) e).getLimitType())
+                            .isEqualTo(AdaptiveSystemSlot.LIMIT_TYPE));
+            // 出口流量不受影响
+            Entry outbound = SphU.entry("adaptiveSlotOutbound", EntryType.OUT);
+            outbound.exit();
+
+            second.exit();
+            first.exit();
+            assertThat(guard.getInFlight()).isZero();
+            assertThat(guard.getStatistics().get("passedRequests")).isEqualTo(2L);
+        } finally {
+            AdaptiveSystemSlot.setGuard(previous);
+        }
+    }
+
+    private AdaptiveSystemGuard newGuard(int maxInFlight) {
+        return new AdaptiveSystemGuard(0.8, maxInFlight, 1000, 10, 1000, () -> cpu, clock::get);
+    }
+
+    /**
+     * 写入一个完整窗口的历史：每个 100ms 桶完成 10 个请求，RT 50~59ms
+     */
+    private void warmUp(AdaptiveSystemGuard guard) {
+        for (int bucket = 0; bucket < 10; bucket++) {
+            for (int i = 0; i < 10; i++) {
+                assertThat(guard.tryEnter()).isTrue();
+                guard.exit(50 + i);
+            }
+            clock.addAndGet(100);
+        }
+    }
+
+    private void setCpu(AdaptiveSystemGuard guard, double value) {
+        cpu = value;
+        for (int i = 0; i < 30; i++) {
+            guard.sampleCpu();
+        }
+    }
+}
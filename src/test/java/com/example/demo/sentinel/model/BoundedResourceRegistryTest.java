@@ -0,0 +1,53 @@
+package com.example.demo.sentinel.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 资源名登记表测试
+ */
+class BoundedResourceRegistryTest {
+
+    @Test
+    void testResolve_RegistersUntilLimitThenOverflows() {
+        BoundedResourceRegistry registry = new BoundedResourceRegistry(2, "overflow");
+
+        assertThat(registry.resolve("GET:/a")).isEqualTo("GET:/a");
+        assertThat(registry.resolve("GET:/b/{id}")).isEqualTo("GET:/b/{id}");
+        assertThat(registry.resolve("GET:/c")).isEqualTo("overflow");
+        // 已登记的名称不受上限影响
+        assertThat(registry.resolve("GET:/a")).isEqualTo("GET:/a");
+
+        assertThat(registry.getResources()).containsExactlyInAnyOrder("GET:/a", "GET:/b/{id}");
+        assertThat(registry.getStatistics().get("overflowRequests")).isEqualTo(1L);
+    }
+
+    @Test
+    void testResolve_ConcurrentRegistrationNeverExceedsLimit() throws Exception {
+        BoundedResourceRegistry registry = new BoundedResourceRegistry(50, "overflow");
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(CompletableFuture.runAsync(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        registry.resolve("GET:/resource/" + i);
+                    }
+                }, executor));
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(registry.getResources()).hasSize(50);
+        assertThat(registry.getStatistics().get("resourceCount")).isEqualTo(50);
+    }
+}
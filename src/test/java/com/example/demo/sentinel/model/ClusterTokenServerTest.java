@@ -0,0 +1,227 @@
+package com.example.demo.sentinel.model;
+
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.cluster.ClusterStateManager;
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.ClusterRuleConstant;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.ClusterFlowConfig;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
+import com.example.demo.sentinel.configuration.ClusterTokenClientDelegate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 集群令牌服务器/客户端测试：一个服务器 + 两个客户端，均使用本机回环地址
+ */
+class ClusterTokenServerTest {
+
+    private static final long FLOW_ID = 1001L;
+    private static final int GLOBAL_QPS = 20;
+
+    private SocketClusterTokenServer server;
+    private SocketClusterTokenClient clientA;
+    private SocketClusterTokenClient clientB;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new SocketClusterTokenServer("127.0.0.1", 0, true);
+        server.loadRules(List.of(clusterRule("clusterResource", GLOBAL_QPS, true)));
+        server.start();
+        clientA = newClient(server.getPort());
+        clientB = newClient(server.getPort());
+        clientA.start();
+        clientB.start();
+        awaitConnectedClients(server, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        clientA.stop();
+        clientB.stop();
+        server.stop();
+    }
+
+    @Test
+    void testTwoClients_GlobalQpsLimitHolds() throws Exception {
+        AtomicInteger passed = new AtomicInteger();
+        AtomicInteger blocked = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                SocketClusterTokenClient client = t % 2 == 0 ? clientA : clientB;
+                futures.add(CompletableFuture.runAsync(() -> {
+                    for (int i = 0; i < 25; i++) {
+                        TokenResult result = client.requestToken(FLOW_ID, 1, false);
+                        if (result.getStatus() == TokenResultStatus.OK) {
+                            passed.incrementAndGet();
+                        } else if (result.getStatus() == TokenResultStatus.BLOCKED) {
+                            blocked.incrementAndGet();
+                        }
+                    }
+                }, executor));
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // 200 个请求在同一个 1 秒窗口内完成，两个客户端合计只放行全局阈值
+        assertThat(passed.get()).isEqualTo(GLOBAL_QPS);
+        assertThat(blocked.get()).isEqualTo(200 - GLOBAL_QPS);
+        assertThat(server.getStatistics().get("connectedClients")).isEqualTo(2);
+    }
+
+    @Test
+    void testAvgLocalThreshold_CountsConnectedClientsAndEmbeddedServer() {
+        server.loadRules(List.of(clusterRule("clusterResource", 5, false)));
+
+        // 两个客户端 + 嵌入式服务器所在的本地节点，集群阈值为 5 x 3
+        int passed = 0;
+        for (int i = 0; i < 30; i++) {
+            TokenResult result = switch (i % 3) {
+                case 0 -> clientA.requestToken(FLOW_ID, 1, false);
+                case 1 -> clientB.requestToken(FLOW_ID, 1, false);
+                default -> server.requestToken(FLOW_ID, 1, false);
+            };
+            if (result.getStatus() == TokenResultStatus.OK) {
+                passed++;
+            }
+        }
+
+        assertThat(passed).isEqualTo(15);
+        assertThat(server.getStatistics().get("nodeCount")).isEqualTo(3);
+    }
+
+    @Test
+    void testAvgLocalThreshold_SidecarServerCountsOnlyConnectedClients() throws Exception {
+        SocketClusterTokenServer sidecar = new SocketClusterTokenServer("127.0.0.1", 0, false);
+        sidecar.loadRules(List.of(clusterRule("clusterResource", 5, false)));
+        sidecar.start();
+        SocketClusterTokenClient first = newClient(sidecar.getPort());
+        SocketClusterTokenClient second = newClient(sidecar.getPort());
+        try {
+            first.start();
+            second.start();
+            awaitConnectedClients(sidecar, 2);
+
+            int passed = 0;
+            for (int i = 0; i < 30; i++) {
+                SocketClusterTokenClient client = i % 2 == 0 ? first : second;
+                if (client.requestToken(FLOW_ID, 1, false).getStatus() == TokenResultStatus.OK) {
+                    passed++;
+                }
+            }
+
+            assertThat(passed).isEqualTo(10);
+            assertThat(sidecar.getStatistics().get("nodeCount")).isEqualTo(2);
+        } finally {
+            first.stop();
+            second.stop();
+            sidecar.stop();
+        }
+    }
+
+    @Test
+    void testUnknownFlowId_NoRuleExists() {
+        assertThat(clientA.requestToken(9999L, 1, false).getStatus()).isEqualTo(TokenResultStatus.NO_RULE_EXISTS);
+    }
+
+    @Test
+    void testServerDown_ClientFailsFast() {
+        server.stop();
+
+        long start = System.nanoTime();
+        TokenResult first = clientA.requestToken(FLOW_ID, 1, false);
+        TokenResult second = clientA.requestToken(FLOW_ID, 1, false);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(first.getStatus()).isEqualTo(TokenResultStatus.FAIL);
+        assertThat(second.getStatus()).isEqualTo(TokenResultStatus.FAIL);
+        assertThat(elapsedMs).isLessThan(1_000);
+        assertThat(clientA.getState()).isEqualTo(SocketClusterTokenClient.STATE_PENDING);
+    }
+
+    @Test
+    void testSentinelClusterRule_UsesTokenServerAndFallsBackToLocal() throws Exception {
+        ClusterTokenClientDelegate.setDelegate(clientA);
+        ClusterStateManager.setToClient();
+        try {
+            String resource = "clusterModeResource";
+            FlowRuleManager.loadRules(List.of(clusterRule(resource, 3, true)));
+            server.loadRules(FlowRuleManager.getRules());
+
+            // 另一节点先用掉 2 个令牌，本节点只能再拿到 1 个
+            clientB.requestToken(FLOW_ID, 2, false);
+            assertThat(countPassed(resource, 10)).isEqualTo(1);
+
+            // 令牌服务器宕机后回退到本地阈值（count = 3）
+            server.stop();
+            clientA.requestToken(FLOW_ID, 1, false);
+            String fallbackResource = "clusterFallbackResource";
+            FlowRuleManager.loadRules(List.of(clusterRule(fallbackResource, 3, true)));
+            assertThat(countPassed(fallbackResource, 10)).isEqualTo(3);
+        } finally {
+            FlowRuleManager.loadRules(new ArrayList<>());
+            ClusterTokenClientDelegate.setDelegate(null);
+            ClusterStateManager.applyState(ClusterStateManager.CLUSTER_NOT_STARTED);
+        }
+    }
+
+    private static int countPassed(String resource, int attempts) {
+        int passed = 0;
+        for (int i = 0; i < attempts; i++) {
+            try {
+                Entry entry = SphU.entry(resource);
+                passed++;
+                entry.exit();
+            } catch (BlockException e) {
+                // 被集群规则或本地回退规则拦截
+            }
+        }
+        return passed;
+    }
+
+    private static FlowRule clusterRule(String resource, int count, boolean global) {
+        FlowRule rule = new FlowRule(resource);
+        rule.setGrade(RuleConstant.FLOW_GRADE_QPS);
+        rule.setCount(count);
+        rule.setClusterMode(true);
+        rule.setClusterConfig(new ClusterFlowConfig()
+                .setFlowId(FLOW_ID)
+                .setThresholdType(global ? ClusterRuleConstant.FLOW_THRESHOLD_GLOBAL
+                        : ClusterRuleConstant.FLOW_THRESHOLD_AVG_LOCAL)
+                .setFallbackToLocalWhenFail(true));
+        return rule;
+    }
+
+    /**
+     * 服务器异步接受连接，等客户端都登记后再开始
+     */
+    private static void awaitConnectedClients(SocketClusterTokenServer tokenServer, int expected)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + 1_000_000_000L;
+        while ((int) tokenServer.getStatistics().get("connectedClients") < expected && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+
+    private static SocketClusterTokenClient newClient(int port) {
+        return new SocketClusterTokenClient("127.0.0.1", port, 1_000, 500, 60_000);
+    }
+}
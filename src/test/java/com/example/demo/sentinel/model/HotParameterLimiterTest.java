@@ -0,0 +1,118 @@
+package com.example.demo.sentinel.model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 热点参数限流器单元测试
+ */
+class HotParameterLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(10_000);
+    private HotParameterLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        limiter = newLimiter(10, 4);
+    }
+
+    @Test
+    void testHotValue_ThrottledAtThreshold() {
+        int passed = 0;
+        for (int i = 0; i < 30; i++) {
+            if (limiter.tryPass("hotUser", "product" + i)) {
+                passed++;
+            }
+        }
+
+        assertThat(passed).isEqualTo(10);
+        assertThat(limiter.isHot("hotUser")).isTrue();
+        assertThat(limiter.getCount("hotUser")).isEqualTo(10);
+        assertThat(limiter.getStatistics().get("blockedRequests")).isEqualTo(20L);
+    }
+
+    @Test
+    void testColdValues_NeverThrottledAndNotTracked() {
+        for (int i = 0; i < 500; i++) {
+            assertThat(limiter.tryPass("user" + i, "product")).isTrue();
+        }
+
+        Map<String, Object> stats = limiter.getStatistics();
+        assertThat(stats.get("heavyKeyCount")).isEqualTo(0);
+        assertThat(stats.get("passedRequests")).isEqualTo(500L);
+    }
+
+    @Test
+    void testCanPass_DoesNotCountUntilAcquired() {
+        for (int i = 0; i < 30; i++) {
+            assertThat(limiter.canPass("hotUser")).isTrue();
+        }
+        assertThat(limiter.getCount("hotUser")).isZero();
+
+        int passed = 0;
+        while (limiter.canPass("hotUser")) {
+            limiter.acquire("hotUser");
+            passed++;
+        }
+
+        assertThat(passed).isEqualTo(10);
+        assertThat(limiter.isHot("hotUser")).isTrue();
+        assertThat(limiter.getStatistics().get("passedRequests")).isEqualTo(10L);
+    }
+
+    @Test
+    void testWindowRolls_HotValuePassesAgain() {
+        for (int i = 0; i < 15; i++) {
+            limiter.tryPassValue("hotUser");
+        }
+        assertThat(limiter.tryPassValue("hotUser")).isFalse();
+
+        clock.addAndGet(1_000);
+
+        assertThat(limiter.tryPassValue("hotUser")).isTrue();
+        assertThat(limiter.getCount("hotUser")).isEqualTo(1);
+    }
+
+    @Test
+    void testHeavyKeyTable_BoundedWithLruEviction() {
+        // 8 个热点参数值依次变热，精确计数表只保留最近访问的 4 个
+        for (int key = 0; key < 8; key++) {
+            for (int i = 0; i < 6; i++) {
+                limiter.tryPassValue("hot" + key);
+            }
+            clock.incrementAndGet();
+        }
+
+        Map<String, Object> stats = limiter.getStatistics();
+        assertThat(stats.get("heavyKeyCount")).isEqualTo(4);
+        assertThat(stats.get("promotions")).isEqualTo(8L);
+        assertThat(stats.get("evictions")).isEqualTo(4L);
+        assertThat(limiter.isHot("hot0")).isFalse();
+        assertThat(limiter.isHot("hot7")).isTrue();
+        assertThat(stats.get("sketchMemoryBytes")).isEqualTo(4L * 1024 * 2 * Integer.BYTES);
+    }
+
+    @Test
+    void testSketch_EstimateNeverBelowActualCount() {
+        ParameterFrequencySketch sketch = new ParameterFrequencySketch(4, 64, 1_000, 2, clock::get);
+        for (int i = 0; i < 2_000; i++) {
+            sketch.add("key" + (i % 200));
+        }
+
+        for (int k = 0; k < 200; k++) {
+            assertThat(sketch.estimate("key" + k)).isGreaterThanOrEqualTo(10);
+        }
+        sketch.clear();
+        assertThat(sketch.estimate("key0")).isZero();
+    }
+
+    private HotParameterLimiter newLimiter(double threshold, int heavyKeyCapacity) {
+        ParameterFrequencySketch sketch = new ParameterFrequencySketch(4, 1024, 1_000, 2, clock::get);
+        return new HotParameterLimiter("testResource", 0, "userId", threshold, sketch, heavyKeyCapacity, clock::get);
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.demo.sentinel.model;
+
+import com.alibaba.csp.sentinel.node.metric.MetricNode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Sentinel 指标日志检索测试：按 MetricWriter 的格式写出日志和索引后查询
+ */
+class MetricLogSearcherTest {
+
+    private static final String BASE_FILE_NAME = "demo-metrics.log";
+    private static final long DAY_SEC = 86_400L;
+    private static final long T0_SEC = 1_700_006_400L;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testSearch_SeeksByIndexAndDownsamples() throws IOException {
+        writeMetricFile(BASE_FILE_NAME + ".2023-11-15", T0_SEC, 600, 1);
+
+        MetricLogSearcher searcher = new MetricLogSearcher(dir, BASE_FILE_NAME, 10_000);
+        MetricLogSearcher.SearchResult result = searcher.search("hot",
+                (T0_SEC + 120) * 1000, (T0_SEC + 419) * 1000 + 999, 60);
+
+        List<MetricLogSearcher.Bucket> buckets = result.getBuckets();
+        assertThat(buckets).hasSize(5);
+        assertThat(buckets.get(0).getTimestamp()).isEqualTo((T0_SEC + 120) * 1000);
+        for (MetricLogSearcher.Bucket bucket : buckets) {
+            assertThat(bucket.getSeconds()).isEqualTo(60);
+            assertThat(bucket.getPassQps()).isEqualTo(600);
+            assertThat(bucket.getBlockQps()).isEqualTo(120);
+            assertThat(bucket.getSuccessQps()).isEqualTo(600);
+            assertThat(bucket.getExceptionQps()).isEqualTo(60);
+            assertThat(bucket.getAverageRt()).isEqualTo(5.0);
+            assertThat(bucket.getMaxConcurrency()).isEqualTo(6);
+        }
+        assertThat(result.getLinesMatched()).isEqualTo(300);
+        // 只映射了索引定位到的区间（600 秒中的 300 秒）
+        long fileSize = Files.size(dir.resolve(BASE_FILE_NAME + ".2023-11-15"));
+        assertThat(result.getBytesMapped()).isEqualTo(fileSize / 2);
+    }
+
+    @Test
+    void testSearch_WeekOfFiles_OnlyMapsOverlappingRange() throws IOException {
+        long fileSize = 0;
+        for (int day = 0; day < 7; day++) {
+            String name = BASE_FILE_NAME + ".2023-11-" + (15 + day);
+            writeMetricFile(name, T0_SEC + day * DAY_SEC, (int) (DAY_SEC / 60), 60);
+            fileSize += Files.size(dir.resolve(name));
+        }
+        // 其他应用的日志和无索引的文件不参与检索
+        writeMetricFile("other-app-metrics.log.2023-11-17", T0_SEC + 2 * DAY_SEC, 100, 1);
+        Files.writeString(dir.resolve(BASE_FILE_NAME + ".2023-11-30"), "garbage\n");
+
+        MetricLogSearcher searcher = new MetricLogSearcher(dir, BASE_FILE_NAME, 10_000);
+        long dayStart = (T0_SEC + 3 * DAY_SEC) * 1000;
+        MetricLogSearcher.SearchResult result = searcher.search("hot", dayStart, dayStart + DAY_SEC * 1000 - 1, 3600);
+
+        assertThat(result.getFilesScanned()).isEqualTo(1);
+        assertThat(result.getBuckets()).hasSize(24);
+        assertThat(result.getBuckets()).allSatisfy(bucket -> assertThat(bucket.getPassQps()).isEqualTo(600));
+        assertThat(result.getBytesMapped()).isLessThan(fileSize / 6);
+
+        // 整周查询：按 maxPoints 放大分辨率，结果点数受限
+        MetricLogSearcher limited = new MetricLogSearcher(dir, BASE_FILE_NAME, 100);
+        MetricLogSearcher.SearchResult week = limited.search("hot",
+                T0_SEC * 1000, (T0_SEC + 7 * DAY_SEC) * 1000 - 1, 1);
+        assertThat(week.getResolutionSec()).isEqualTo(7 * DAY_SEC / 100);
+        assertThat(week.getBuckets().size()).isLessThanOrEqualTo(100);
+        assertThat(week.getLinesMatched()).isEqualTo(7 * DAY_SEC / 60);
+        assertThat(week.getFilesScanned()).isEqualTo(7);
+    }
+
+    @Test
+    void testSearch_IgnoresPartialTrailingLineAndOtherResources() throws IOException {
+        Path file = writeMetricFile(BASE_FILE_NAME + ".2023-11-15", T0_SEC, 10, 1);
+        // 模拟正在写入的半行
+        Files.writeString(file, (T0_SEC + 10) * 1000 + "|2023-11-15 00:00:10|hot|99",
+                StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        MetricLogSearcher searcher = new MetricLogSearcher(dir, BASE_FILE_NAME, 10_000);
+        MetricLogSearcher.SearchResult hot = searcher.search("hot", T0_SEC * 1000, (T0_SEC + 60) * 1000, 60);
+        MetricLogSearcher.SearchResult ho = searcher.search("ho", T0_SEC * 1000, (T0_SEC + 60) * 1000, 60);
+        MetricLogSearcher.SearchResult cold = searcher.search("cold", T0_SEC * 1000, (T0_SEC + 60) * 1000, 60);
+
+        assertThat(hot.getLinesMatched()).isEqualTo(10);
+        assertThat(hot.getBuckets().get(0).getPassQps()).isEqualTo(100);
+        assertThat(ho.getBuckets()).isEmpty();
+        assertThat(cold.getBuckets().get(0).getPassQps()).isEqualTo(10);
+    }
+
+    @Test
+    void testSearch_RangeOutsideLogs_ReturnsEmpty() throws IOException {
+        writeMetricFile(BASE_FILE_NAME + ".2023-11-15", T0_SEC, 60, 1);
+
+        MetricLogSearcher searcher = new MetricLogSearcher(dir, BASE_FILE_NAME, 10_000);
+        MetricLogSearcher.SearchResult result = searcher.search("hot",
+                (T0_SEC + 3600) * 1000, (T0_SEC + 7200) * 1000, 60);
+
+        assertThat(result.getFilesScanned()).isZero();
+        assertThat(result.getBuckets()).isEmpty();
+        assertThat(new MetricLogSearcher(dir.resolve("missing"), BASE_FILE_NAME, 10)
+                .search("hot", 0, 1000, 1).getBuckets()).isEmpty();
+    }
+
+    @Test
+    void testSearch_InvalidArguments() {
+        MetricLogSearcher searcher = new MetricLogSearcher(dir, BASE_FILE_NAME, 10);
+
+        assertThatThrownBy(() -> searcher.search("", 0, 1000, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> searcher.search("hot", 1000, 0, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> searcher.search("hot", 0, 1000, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * 按 MetricWriter 的格式写出指标日志及索引：每个记录秒写一行 "hot" 和一行 "cold"，
+     * 索引记录该秒的秒级时间戳和第一行的偏移
+     */
+    private Path writeMetricFile(String name, long firstSecond, int records, int stepSec) throws IOException {
+        Path file = dir.resolve(name);
+        try (OutputStream data = new BufferedOutputStream(new FileOutputStream(file.toFile()));
+             DataOutputStream index = new DataOutputStream(
+                     new BufferedOutputStream(new FileOutputStream(file + ".idx")))) {
+            long offset = 0;
+            for (int i = 0; i < records; i++) {
+                long second = firstSecond + (long) i * stepSec;
+                index.writeLong(second);
+                index.writeLong(offset);
+                for (MetricNode node : List.of(node("hot", second, 10, i % 7), node("cold", second, 1, 0))) {
+                    byte[] line = node.toFatString().getBytes(StandardCharsets.UTF_8);
+                    data.write(line);
+                    offset += line.length;
+                }
+            }
+        }
+        return file;
+    }
+
+    private static MetricNode node(String resource, long second, int pass, int concurrency) {
+        MetricNode node = new MetricNode();
+        node.setTimestamp(second * 1000);
+        node.setResource(resource);
+        node.setPassQps(pass);
+        node.setBlockQps(pass / 5);
+        node.setSuccessQps(pass);
+        node.setExceptionQps(pass / 10);
+        node.setRt(5);
+        node.setConcurrency(concurrency);
+        return node;
+    }
+}
@@ -1,10 +1,13 @@
 package com.example.demo.sentinel.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -14,6 +17,12 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.Tracer;
+import com.alibaba.csp.sentinel.node.ClusterNode;
+import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
 import com.alibaba.csp.sentinel.slots.block.RuleConstant;
 import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRule;
 import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRuleManager;
@@ -23,6 +32,9 @@ import com.alibaba.csp.sentinel.slots.system.SystemRuleManager;
 import com.example.demo.sentinel.dto.RuleInfoDto;
 import com.example.demo.sentinel.dto.SentinelMetricsDto;
 import com.example.demo.sentinel.dto.SentinelResultDto;
+import com.example.demo.sentinel.dto.SentinelRuleBatchRequestDto;
+import com.example.demo.sentinel.dto.SentinelRuleBatchResultDto;
+import com.example.demo.sentinel.dto.SentinelRuleDto;
 
 /**
  * Sentinel 服务层单元测试
@@ -47,7 +59,8 @@ class SentinelServiceTest {
         // 为测试添加基本流控规则
         sentinelService.addFlowRule("flowControlResource", 10, RuleConstant.FLOW_GRADE_QPS, "default");
         sentinelService.addFlowRule("degradeResource", 10, RuleConstant.FLOW_GRADE_QPS, "default");
-        sentinelService.addFlowRule("paramFlowResource", 10, RuleConstant.FLOW_GRADE_QPS, "default");
+        // 热点参数测试在同一秒内连续调用，资源级 QPS 阈值留足余量，只由热点参数规则拦截
+        sentinelService.addFlowRule("paramFlowResource", 100, RuleConstant.FLOW_GRADE_QPS, "default");
         sentinelService.addFlowRule("systemRuleResource", 10, RuleConstant.FLOW_GRADE_QPS, "default");
     }
 
@@ -186,6 +199,72 @@ class SentinelServiceTest {
         assertThat(result2.getCallCount()).isEqualTo(1);
     }
 
+    @Test
+    @DisplayName("热点参数限流 - 热点 userId 被限流，其他 userId 不受影响")
+    void testParamFlowDemo_HotUserThrottled() {
+        // Given - 每个 userId 每秒最多 5 次
+        sentinelService.addParamFlowRule("paramFlowResource", 5, 0, "userId");
+
+        // When
+        int hotPassed = 0;
+        for (int i = 0; i < 8; i++) {
+            if (sentinelService.paramFlowDemo("hotUser", "product" + i).isSuccess()) {
+                hotPassed++;
+            }
+        }
+        SentinelResultDto blocked = sentinelService.paramFlowDemo("hotUser", "product");
+        SentinelResultDto coldUser = sentinelService.paramFlowDemo("coldUser", "product");
+
+        // Then
+        assertThat(hotPassed).isEqualTo(5);
+        assertThat(blocked.isSuccess()).isFalse();
+        assertThat(blocked.getBlockException()).isEqualTo("ParamFlowBlockException");
+        assertThat(blocked.getRuleType()).isEqualTo("PARAM_FLOW");
+        assertThat(coldUser.isSuccess()).isTrue();
+
+        Map<String, Object> stats = sentinelService.getParamFlowStatistics().get(0);
+        assertThat(stats.get("blockedRequests")).isEqualTo(4L);
+        assertThat(((Map<?, ?>) stats.get("topKeys")).containsKey("hotUser")).isTrue();
+    }
+
+    @Test
+    @DisplayName("热点参数限流 - 拦截在进入资源时发生，计入 Sentinel 的 block 统计")
+    void testParamFlowDemo_BlockRecordedOnResourceNode() {
+        sentinelService.addParamFlowRule("paramFlowResource", 1, 0, "userId");
+        long blockedBefore = blockRequests("paramFlowResource");
+
+        sentinelService.paramFlowDemo("hotUser", "product1");
+        SentinelResultDto blocked = sentinelService.paramFlowDemo("hotUser", "product2");
+
+        assertThat(blocked.isSuccess()).isFalse();
+        assertThat(blocked.getBlockException()).isEqualTo("ParamFlowBlockException");
+        assertThat(blockRequests("paramFlowResource")).isEqualTo(blockedBefore + 1);
+    }
+
+    @Test
+    @DisplayName("热点参数限流 - 被一条规则拦截的调用不占用其他规则的配额")
+    void testParamFlowDemo_BlockedCallDoesNotConsumeOtherRules() {
+        sentinelService.addParamFlowRule("paramFlowResource", 5, 0, "userId");
+        sentinelService.addParamFlowRule("paramFlowResource", 1, 1, "productId");
+
+        assertThat(sentinelService.paramFlowDemo("user1", "hotProduct").isSuccess()).isTrue();
+        for (int i = 0; i < 3; i++) {
+            assertThat(sentinelService.paramFlowDemo("user1", "hotProduct").isSuccess()).isFalse();
+        }
+
+        Map<String, Object> userIdStats = sentinelService.getParamFlowStatistics().stream()
+                .filter(stats -> "userId".equals(stats.get("paramName")))
+                .findFirst()
+                .orElseThrow();
+        assertThat(userIdStats.get("passedRequests")).isEqualTo(1L);
+        assertThat(userIdStats.get("blockedRequests")).isEqualTo(0L);
+    }
+
+    private static long blockRequests(String resource) {
+        ClusterNode node = ClusterBuilderSlot.getClusterNode(resource);
+        return node == null ? 0 : node.blockRequest();
+    }
+
     // ==================== 系统自适应保护测试 ====================
 
     @Test
@@ -323,9 +402,12 @@ class SentinelServiceTest {
         // When
         sentinelService.addParamFlowRule("testParamResource", 10, 0, "testParam");
 
-        // Then - Sentinel 1.8.8 中 param 功能需要额外依赖
-        // 这里只验证方法调用不抛出异常
+        // Then - 重复添加同一参数索引的规则会替换原规则
         assertDoesNotThrow(() -> sentinelService.addParamFlowRule("testParamResource", 10, 0, "testParam"));
+        long ruleCount = sentinelService.getAllRules().stream()
+                .filter(rule -> "PARAM_FLOW".equals(rule.getRuleType()) && "testParamResource".equals(rule.getResource()))
+                .count();
+        assertThat(ruleCount).isEqualTo(1);
     }
 
     @Test
@@ -358,6 +440,171 @@ class SentinelServiceTest {
         assertThat(ruleExists).isFalse();
     }
 
+    @Test
+    @DisplayName("批量变更规则 - 新增、更新、删除一次生效")
+    void testApplyRuleBatch_AddUpdateRemove() {
+        // Given
+        SentinelRuleBatchRequestDto request = SentinelRuleBatchRequestDto.builder()
+                .add(List.of(
+                        SentinelRuleDto.builder().ruleType("FLOW").resource("batchFlow").count(5.0).build(),
+                        SentinelRuleDto.builder().ruleType("DEGRADE").resource("batchDegrade")
+                                .degradeStrategy("EXCEPTION_RATIO").count(0.5).timeWindow(5).build()))
+                .update(List.of(SentinelRuleDto.builder().ruleType("FLOW").resource("flowControlResource").count(20.0).build()))
+                .remove(List.of(SentinelRuleDto.builder().ruleType("FLOW").resource("systemRuleResource").build()))
+                .build();
+
+        // When
+        SentinelRuleBatchResultDto result = sentinelService.applyRuleBatch(request);
+
+        // Then
+        assertThat(result.isApplied()).isTrue();
+        assertThat(result.getAdded()).isEqualTo(2);
+        assertThat(result.getUpdated()).isEqualTo(1);
+        assertThat(result.getRemoved()).isEqualTo(1);
+        assertThat(result.getReloadMs()).isGreaterThan(0);
+        assertThat(FlowRuleManager.getRules()).extracting(FlowRule::getResource)
+                .containsExactlyInAnyOrder("flowControlResource", "degradeResource", "paramFlowResource", "batchFlow");
+        assertThat(FlowRuleManager.getRules()).filteredOn(rule -> rule.getResource().equals("flowControlResource"))
+                .singleElement().extracting(FlowRule::getCount).isEqualTo(20.0);
+        assertThat(DegradeRuleManager.getRules()).extracting(DegradeRule::getResource).containsExactly("batchDegrade");
+    }
+
+    @Test
+    @DisplayName("批量变更规则 - 任一操作无效则整批不生效")
+    void testApplyRuleBatch_RejectedAtomically() {
+        // Given - 第一条合法，第二条删除不存在的规则，第三条阈值非法
+        SentinelRuleBatchRequestDto request = SentinelRuleBatchRequestDto.builder()
+                .add(List.of(
+                        SentinelRuleDto.builder().ruleType("FLOW").resource("validBatchFlow").count(5.0).build(),
+                        SentinelRuleDto.builder().ruleType("FLOW").resource("invalidBatchFlow").count(-1.0).build()))
+                .remove(List.of(SentinelRuleDto.builder().ruleType("FLOW").resource("missingResource").build()))
+                .build();
+
+        // When
+        SentinelRuleBatchResultDto result = sentinelService.applyRuleBatch(request);
+
+        // Then
+        assertThat(result.isApplied()).isFalse();
+        assertThat(result.getErrors()).hasSize(2);
+        assertThat(result.getReloadMs()).isZero();
+        assertThat(FlowRuleManager.getRules()).extracting(FlowRule::getResource)
+                .containsExactlyInAnyOrder("flowControlResource", "degradeResource", "paramFlowResource", "systemRuleResource");
+    }
+
+    @Test
+    @DisplayName("批量变更规则 - 只更新/删除匹配的规则，保留同一资源上的其他规则和流控效果")
+    void testApplyRuleBatch_TargetsMatchingRuleOnly() {
+        // Given - 同一资源上有默认应用的 WARM_UP 规则、其他应用的规则和集群规则
+        sentinelService.applyRuleBatch(SentinelRuleBatchRequestDto.builder()
+                .add(List.of(
+                        SentinelRuleDto.builder().ruleType("FLOW").resource("sharedResource").count(10.0)
+                                .controlBehavior("WARM_UP").warmUpPeriodSec(5).build(),
+                        SentinelRuleDto.builder().ruleType("FLOW").resource("sharedResource").count(3.0)
+                                .limitApp("mobile").build()))
+                .build());
+        sentinelService.addClusterFlowRule("sharedResource", 100, 9001L, 1, true);
+
+        // When - 更新默认应用的规则（不指定流控效果），删除 mobile 应用的规则
+        SentinelRuleBatchResultDto result = sentinelService.applyRuleBatch(SentinelRuleBatchRequestDto.builder()
+                .update(List.of(SentinelRuleDto.builder().ruleType("FLOW").resource("sharedResource").count(20.0).build()))
+                .remove(List.of(SentinelRuleDto.builder().ruleType("FLOW").resource("sharedResource").limitApp("mobile").build()))
+                .build());
+
+        // Then
+        assertThat(result.isApplied()).isTrue();
+        List<FlowRule> shared = FlowRuleManager.getRules().stream()
+                .filter(rule -> rule.getResource().equals("sharedResource"))
+                .toList();
+        assertThat(shared).hasSize(2);
+        assertThat(shared).filteredOn(FlowRule::isClusterMode).singleElement()
+                .extracting(FlowRule::getCount).isEqualTo(100.0);
+        FlowRule updated = shared.stream().filter(rule -> !rule.isClusterMode()).findFirst().orElseThrow();
+        assertThat(updated.getCount()).isEqualTo(20.0);
+        assertThat(updated.getControlBehavior()).isEqualTo(RuleConstant.CONTROL_BEHAVIOR_WARM_UP);
+        assertThat(updated.getWarmUpPeriodSec()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("批量变更规则 - 无法识别的阈值类型和流控效果被拒绝")
+    void testApplyRuleBatch_RejectsUnknownGradeAndBehavior() {
+        // When
+        SentinelRuleBatchResultDto result = sentinelService.applyRuleBatch(SentinelRuleBatchRequestDto.builder()
+                .add(List.of(
+                        SentinelRuleDto.builder().ruleType("FLOW").resource("typoGrade").count(5.0).grade("QSP").build(),
+                        SentinelRuleDto.builder().ruleType("FLOW").resource("typoBehavior").count(5.0)
+                                .controlBehavior("WARMUP").build()))
+                .build());
+
+        // Then
+        assertThat(result.isApplied()).isFalse();
+        assertThat(result.getErrors()).hasSize(2);
+        assertThat(result.getErrors().get(0)).contains("unknown flow grade QSP");
+        assertThat(result.getErrors().get(1)).contains("unknown control behavior WARMUP");
+        assertThat(FlowRuleManager.getRules()).extracting(FlowRule::getResource)
+                .doesNotContain("typoGrade", "typoBehavior");
+    }
+
+    @Test
+    @DisplayName("批量变更规则 - 1000 条规则单次加载")
+    void testApplyRuleBatch_ThousandRules() {
+        // Given
+        List<SentinelRuleDto> rules = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            rules.add(SentinelRuleDto.builder().ruleType("FLOW").resource("bulkResource" + i).count(100.0).build());
+        }
+
+        // When
+        long start = System.nanoTime();
+        SentinelRuleBatchResultDto result = sentinelService.applyRuleBatch(
+                SentinelRuleBatchRequestDto.builder().add(rules).build());
+        long batchMs = (System.nanoTime() - start) / 1_000_000;
+
+        // Then
+        assertThat(result.isApplied()).isTrue();
+        assertThat(result.getFlowRuleCount()).isEqualTo(1004);
+        System.out.println("Applied 1000 flow rules in one batch: " + batchMs + "ms (validation "
+                + result.getValidationMs() + "ms, reload " + result.getReloadMs() + "ms)");
+    }
+
+    @Test
+    @DisplayName("批量变更规则 - 大规则集上的更新和删除按键匹配")
+    void testApplyRuleBatch_UpdateAndRemoveOnLargeRuleSet() {
+        // Given - 5000 条已有规则
+        List<SentinelRuleDto> existing = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            existing.add(SentinelRuleDto.builder().ruleType("FLOW").resource("largeResource" + i).count(100.0).build());
+        }
+        sentinelService.applyRuleBatch(SentinelRuleBatchRequestDto.builder().add(existing).build());
+
+        // When - 更新偶数编号、删除奇数编号的规则
+        List<SentinelRuleDto> updates = new ArrayList<>();
+        List<SentinelRuleDto> removals = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            SentinelRuleDto.SentinelRuleDtoBuilder rule = SentinelRuleDto.builder().ruleType("FLOW").resource("largeResource" + i);
+            if (i % 2 == 0) {
+                updates.add(rule.count(50.0).build());
+            } else {
+                removals.add(rule.build());
+            }
+        }
+        SentinelRuleBatchResultDto result = sentinelService.applyRuleBatch(SentinelRuleBatchRequestDto.builder()
+                .update(updates)
+                .remove(removals)
+                .build());
+
+        // Then
+        assertThat(result.isApplied()).isTrue();
+        assertThat(result.getFlowRuleCount()).isEqualTo(2504);
+        List<FlowRule> large = FlowRuleManager.getRules().stream()
+                .filter(rule -> rule.getResource().startsWith("largeResource"))
+                .toList();
+        assertThat(large).hasSize(2500).allMatch(rule -> rule.getCount() == 50.0);
+        assertThat(large).extracting(FlowRule::getResource).contains("largeResource0", "largeResource4998")
+                .doesNotContain("largeResource1", "largeResource4999");
+        System.out.println("Updated 2500 and removed 2500 of 5004 flow rules in one batch: validation "
+                + result.getValidationMs() + "ms, reload " + result.getReloadMs() + "ms");
+    }
+
     @Test
     @DisplayName("删除热点参数规则")
     void testRemoveParamFlowRule() {
@@ -367,9 +614,11 @@ class SentinelServiceTest {
         // When
         sentinelService.removeParamFlowRule("toRemoveParamResource");
 
-        // Then - Sentinel 1.8.8 中 param 功能需要额外依赖
-        // 这里只验证方法调用不抛出异常
+        // Then
         assertDoesNotThrow(() -> sentinelService.removeParamFlowRule("toRemoveParamResource"));
+        boolean ruleExists = sentinelService.getAllRules().stream()
+                .anyMatch(rule -> "toRemoveParamResource".equals(rule.getResource()));
+        assertThat(ruleExists).isFalse();
     }
 
     @Test
@@ -413,6 +662,46 @@ class SentinelServiceTest {
         assertThat(metrics.getTimestamp()).isBeforeOrEqualTo(LocalDateTime.now());
     }
 
+    @Test
+    @DisplayName("获取资源指标 - 读取 Sentinel 滑动窗口统计")
+    void testGetResourceMetrics_ReadsSlidingWindowStatistics() {
+        // Given: QPS 阈值 3，连续 5 次请求，其中 1 次业务异常
+        String resource = "metricsWindowResource";
+        sentinelService.addFlowRule(resource, 3, RuleConstant.FLOW_GRADE_QPS, "default");
+        int blocked = 0;
+        for (int i = 0; i < 5; i++) {
+            Entry entry = null;
+            try {
+                entry = SphU.entry(resource);
+                if (i == 0) {
+                    Tracer.traceEntry(new RuntimeException("traced"), entry);
+                }
+            } catch (BlockException e) {
+                blocked++;
+            } finally {
+                if (entry != null) {
+                    entry.exit();
+                }
+            }
+        }
+
+        // When
+        SentinelMetricsDto metrics = sentinelService.getResourceMetrics(resource);
+
+        // Then
+        assertThat(blocked).isEqualTo(2);
+        assertThat(metrics.getTotalRequest()).isEqualTo(5);
+        assertThat(metrics.getConcurrency()).isZero();
+        assertThat(metrics.getSecondWindow().getPassQps()).isEqualTo(3.0);
+        assertThat(metrics.getSecondWindow().getBlockQps()).isEqualTo(2.0);
+        assertThat(metrics.getMinuteWindow().getPassQps() * 60).isCloseTo(3.0, within(1e-9));
+        assertThat(metrics.getMinuteWindow().getBlockQps() * 60).isCloseTo(2.0, within(1e-9));
+        assertThat(metrics.getMinuteWindow().getExceptionQps() * 60).isCloseTo(1.0, within(1e-9));
+        assertThat(metrics.getMinuteWindow().getSuccessQps() * 60).isCloseTo(3.0, within(1e-9));
+        assertThat(metrics.getSuccessRate()).isEqualTo("66.67%");
+        assertThat(sentinelService.getAllResourceNames()).contains(resource);
+    }
+
     @Test
     @DisplayName("获取所有规则")
     void testGetAllRules() {
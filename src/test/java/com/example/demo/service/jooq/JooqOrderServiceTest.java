@@ -38,6 +38,9 @@ class JooqOrderServiceTest {
     @Mock
     private JooqOrderRepository orderRepository;
 
+    @Mock
+    private JooqStatisticsService statisticsService;
+
     @InjectMocks
     private JooqOrderService orderService;
 
@@ -123,7 +126,7 @@ class JooqOrderServiceTest {
     void testGetOrderById_Found() {
         // Given
         Long orderId = 1L;
-        when(orderRepository.findOrderWithUserAndItemsById(orderId)).thenReturn(testOrder);
+        when(orderRepository.findOrderGraphById(orderId)).thenReturn(testOrder);
 
         // When
         JooqOrderDto result = orderService.getOrderById(orderId);
@@ -133,7 +136,7 @@ class JooqOrderServiceTest {
         assertEquals(testOrder.getId(), result.getId());
         assertEquals(testOrder.getOrderNumber(), result.getOrderNumber());
         assertEquals(testOrder.getUserId(), result.getUserId());
-        verify(orderRepository, times(1)).findOrderWithUserAndItemsById(orderId);
+        verify(orderRepository, times(1)).findOrderGraphById(orderId);
     }
 
     @Test
@@ -141,7 +144,7 @@ class JooqOrderServiceTest {
     void testGetOrderById_NotFound_ThrowsException() {
         // Given
         Long orderId = 999L;
-        when(orderRepository.findOrderWithUserAndItemsById(orderId)).thenReturn(null);
+        when(orderRepository.findOrderGraphById(orderId)).thenReturn(null);
 
         // When & Then
         EntityNotFoundException exception = assertThrows(EntityNotFoundException.class, () -> {
@@ -150,7 +153,7 @@ class JooqOrderServiceTest {
 
         assertTrue(exception.getMessage().contains("Order not found with id"));
         assertTrue(exception.getMessage().contains("999"));
-        verify(orderRepository, times(1)).findOrderWithUserAndItemsById(orderId);
+        verify(orderRepository, times(1)).findOrderGraphById(orderId);
     }
 
     @Test
@@ -158,7 +161,7 @@ class JooqOrderServiceTest {
     void testGetOrderById_WithUserAndItems() {
         // Given
         Long orderId = 1L;
-        when(orderRepository.findOrderWithUserAndItemsById(orderId)).thenReturn(testOrder);
+        when(orderRepository.findOrderGraphById(orderId)).thenReturn(testOrder);
 
         // When
         JooqOrderDto result = orderService.getOrderById(orderId);
@@ -169,7 +172,7 @@ class JooqOrderServiceTest {
         assertNotNull(result.getItems());
         assertEquals(1, result.getItems().size());
         assertEquals(testOrderItem.getProductId(), result.getItems().get(0).getProductId());
-        verify(orderRepository, times(1)).findOrderWithUserAndItemsById(orderId);
+        verify(orderRepository, times(1)).findOrderGraphById(orderId);
     }
 
     @Test
@@ -196,7 +199,7 @@ class JooqOrderServiceTest {
             .build();
 
         List<JooqOrderDto> expectedOrders = Arrays.asList(order1, order2);
-        when(orderRepository.findOrdersByUserId(userId)).thenReturn(expectedOrders);
+        when(orderRepository.findOrderGraphsByUserId(userId)).thenReturn(expectedOrders);
 
         // When
         List<JooqOrderDto> result = orderService.getOrdersByUserId(userId);
@@ -206,7 +209,7 @@ class JooqOrderServiceTest {
         assertEquals(2, result.size());
         assertEquals("ORD001", result.get(0).getOrderNumber());
         assertEquals("ORD002", result.get(1).getOrderNumber());
-        verify(orderRepository, times(1)).findOrdersByUserId(userId);
+        verify(orderRepository, times(1)).findOrderGraphsByUserId(userId);
     }
 
     @Test
@@ -214,7 +217,7 @@ class JooqOrderServiceTest {
     void testGetOrdersByUserId_EmptyList() {
         // Given
         Long userId = 999L;
-        when(orderRepository.findOrdersByUserId(userId)).thenReturn(Collections.emptyList());
+        when(orderRepository.findOrderGraphsByUserId(userId)).thenReturn(Collections.emptyList());
 
         // When
         List<JooqOrderDto> result = orderService.getOrdersByUserId(userId);
@@ -222,7 +225,7 @@ class JooqOrderServiceTest {
         // Then
         assertNotNull(result);
         assertTrue(result.isEmpty());
-        verify(orderRepository, times(1)).findOrdersByUserId(userId);
+        verify(orderRepository, times(1)).findOrderGraphsByUserId(userId);
     }
 
     @Test
@@ -238,7 +241,7 @@ class JooqOrderServiceTest {
                 "CANCELLED", 10L
             )
         );
-        when(orderRepository.getOrderStatistics()).thenReturn(expectedStats);
+        when(statisticsService.getOrderStatistics()).thenReturn(expectedStats);
 
         // When
         Map<String, Object> result = orderService.getOrderStatistics();
@@ -248,7 +251,7 @@ class JooqOrderServiceTest {
         assertEquals(100L, result.get("total_orders"));
         assertEquals(new BigDecimal("10000.00"), result.get("total_amount"));
         assertTrue(result.containsKey("status_counts"));
-        verify(orderRepository, times(1)).getOrderStatistics();
+        verify(statisticsService, times(1)).getOrderStatistics();
     }
 
     @Test
@@ -260,7 +263,7 @@ class JooqOrderServiceTest {
             "total_amount", new BigDecimal("5000.00"),
             "status_counts", Map.of("PENDING", 50L)
         );
-        when(orderRepository.getOrderStatistics()).thenReturn(expectedStats);
+        when(statisticsService.getOrderStatistics()).thenReturn(expectedStats);
 
         // When
         Map<String, Object> result = orderService.getOrderStatistics();
@@ -285,7 +288,7 @@ class JooqOrderServiceTest {
                 "DELIVERED", 2L
             )
         );
-        when(orderRepository.getOrderStatistics()).thenReturn(statsWithOrders);
+        when(statisticsService.getOrderStatistics()).thenReturn(statsWithOrders);
 
         // When
         Map<String, Object> result = orderService.getOrderStatistics();
@@ -19,6 +19,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import com.example.demo.dto.jooq.JooqCreateProductRequest;
+import com.example.demo.dto.jooq.JooqCursorPage;
 import com.example.demo.dto.jooq.JooqProductDto;
 import com.example.demo.exception.JooqExceptionHandler.EntityNotFoundException;
 import com.example.demo.mapper.JooqProductMapper;
@@ -251,6 +252,45 @@ class JooqProductServiceTest {
         verify(productRepository, times(1)).findByCategory(category, 0, 10);
     }
 
+    @Test
+    @DisplayName("游标分页：多查一行判断下一页，游标为本页最后一个 ID")
+    void testGetProductsByCategoryPage_ReturnsNextCursor() {
+        // Given
+        String category = "Electronics";
+        List<JooqProductDto> rows = Arrays.asList(
+            JooqProductDto.builder().id(11L).build(),
+            JooqProductDto.builder().id(12L).build(),
+            JooqProductDto.builder().id(13L).build()
+        );
+        when(productRepository.findByCategoryAfter(category, 10L, 3)).thenReturn(rows);
+
+        // When
+        JooqCursorPage<JooqProductDto> page = productService.getProductsByCategoryPage(
+            category, JooqPageCursor.ofId(10L).encode(), 2);
+
+        // Then
+        assertTrue(page.isHasMore());
+        assertEquals(2, page.getItems().size());
+        assertEquals(12L, JooqPageCursor.decode(page.getNextCursor()).getId());
+    }
+
+    @Test
+    @DisplayName("游标分页：最后一页没有游标，非法游标抛出异常")
+    void testGetProductsByCategoryPage_LastPageAndInvalidCursor() {
+        // Given
+        when(productRepository.findByCategoryAfter("Books", null, 11))
+            .thenReturn(Arrays.asList(testProduct));
+
+        // When
+        JooqCursorPage<JooqProductDto> page = productService.getProductsByCategoryPage("Books", null, 10);
+
+        // Then
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+        assertThrows(IllegalArgumentException.class,
+            () -> productService.getProductsByCategoryPage("Books", "not-a-cursor!", 10));
+    }
+
     @Test
     @DisplayName("成功更新商品（Upsert）")
     void testUpdateProduct_Success() {
@@ -342,4 +382,29 @@ class JooqProductServiceTest {
         verify(productMapper, times(1)).toProductDto(testRequest);
         verify(productRepository, times(1)).batchInsert(anyList());
     }
+
+    @Test
+    @DisplayName("切换为分片库存")
+    void testEnableShardedStock_Success() {
+        // Given
+        when(productRepository.enableShardedStock(1L, 16)).thenReturn(true);
+
+        // When
+        productService.enableShardedStock(1L, 16);
+
+        // Then
+        verify(productRepository, times(1)).enableShardedStock(1L, 16);
+    }
+
+    @Test
+    @DisplayName("商品不存在时切换库存模式抛出异常")
+    void testShardedStock_ProductNotFound() {
+        // Given
+        when(productRepository.enableShardedStock(999L, 16)).thenReturn(false);
+        when(productRepository.disableShardedStock(999L)).thenReturn(false);
+
+        // When & Then
+        assertThrows(EntityNotFoundException.class, () -> productService.enableShardedStock(999L, 16));
+        assertThrows(EntityNotFoundException.class, () -> productService.disableShardedStock(999L));
+    }
 }
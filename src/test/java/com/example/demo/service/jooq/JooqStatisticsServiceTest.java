@@ -0,0 +1,130 @@
+package com.example.demo.service.jooq;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.example.demo.dto.jooq.JooqOrderDto;
+import com.example.demo.repository.jooq.JooqOrderRepository;
+import com.example.demo.repository.jooq.JooqProductRepository;
+import com.example.demo.repository.jooq.JooqStatisticsCounters;
+
+/**
+ * JooqStatisticsService 单元测试
+ * 验证增量计数、低库存阈值穿越和对账
+ *
+ * @author chinwe
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("JOOQ 统计服务单元测试")
+class JooqStatisticsServiceTest {
+
+    @Mock
+    private JooqOrderRepository orderRepository;
+
+    @Mock
+    private JooqProductRepository productRepository;
+
+    private JooqStatisticsCounters counters;
+    private JooqStatisticsService statisticsService;
+
+    @BeforeEach
+    void setUp() {
+        counters = new JooqStatisticsCounters(10);
+        statisticsService = new JooqStatisticsService(orderRepository, productRepository, counters, Duration.ZERO);
+
+        Map<String, Object> orderStats = new HashMap<>();
+        orderStats.put("total_orders", 3L);
+        orderStats.put("total_amount", new BigDecimal("300.00"));
+        orderStats.put("status_counts", Map.of("PENDING", 2L, "SHIPPED", 1L));
+        when(orderRepository.getOrderStatistics()).thenReturn(orderStats);
+        when(productRepository.getStockByCategory()).thenReturn(Map.of("Electronics", 50L, "Books", 5L));
+        when(productRepository.countLowStockProducts(anyInt())).thenReturn(1);
+    }
+
+    @Test
+    @DisplayName("首次读取时对账，之后直接读取计数")
+    void testGetOrderStatistics_ReconcilesOnce() {
+        // When
+        Map<String, Object> first = statisticsService.getOrderStatistics();
+        Map<String, Object> second = statisticsService.getOrderStatistics();
+
+        // Then
+        assertEquals(3L, first.get("total_orders"));
+        assertEquals(new BigDecimal("300.00"), first.get("total_amount"));
+        assertEquals(Map.of("PENDING", 2L, "SHIPPED", 1L), first.get("status_counts"));
+        assertEquals(first, second);
+        verify(orderRepository, times(1)).getOrderStatistics();
+        verify(productRepository, times(1)).countLowStockProducts(10);
+    }
+
+    @Test
+    @DisplayName("新订单增量更新订单统计")
+    void testOrderCreated_UpdatesCounters() {
+        // Given
+        statisticsService.reconcile();
+
+        // When
+        counters.orderCreated("PENDING", new BigDecimal("25.50"));
+        counters.ordersCreated(List.of(
+            JooqOrderDto.builder().status("PENDING").totalAmount(new BigDecimal("10.00")).build(),
+            JooqOrderDto.builder().status("CANCELLED").totalAmount(new BigDecimal("4.50")).build()
+        ));
+
+        // Then
+        Map<String, Object> stats = statisticsService.getOrderStatistics();
+        assertEquals(6L, stats.get("total_orders"));
+        assertEquals(new BigDecimal("340.00"), stats.get("total_amount"));
+        assertEquals(Map.of("PENDING", 4L, "SHIPPED", 1L, "CANCELLED", 1L), stats.get("status_counts"));
+    }
+
+    @Test
+    @DisplayName("库存变化增量更新分类库存和低库存商品数")
+    void testProductChanged_UpdatesStockCounters() {
+        // Given
+        statisticsService.reconcile();
+
+        // When - 新商品低于阈值，扣减穿越阈值，补货离开阈值，换分类
+        counters.productAdded("Electronics", 3);
+        counters.productChanged("Electronics", 12, "Electronics", 8);
+        counters.productChanged("Books", 5, "Books", 20);
+        counters.productChanged("Electronics", 8, "Books", 8);
+
+        // Then
+        Map<String, Object> stats = statisticsService.getSystemStatistics();
+        assertEquals(41, stats.get("electronics_stock"));
+        assertEquals(28, stats.get("books_stock"));
+        assertEquals(2, stats.get("low_stock_products_count"));
+    }
+
+    @Test
+    @DisplayName("对账用数据库聚合结果覆盖计数偏差")
+    void testReconcile_OverwritesDrift() {
+        // Given
+        statisticsService.reconcile();
+        counters.orderCreated("PENDING", new BigDecimal("1.00"));
+        counters.productAdded("Books", 1);
+
+        // When
+        statisticsService.reconcile();
+
+        // Then
+        Map<String, Object> stats = statisticsService.getSystemStatistics();
+        assertEquals(3L, stats.get("total_orders"));
+        assertEquals(5, stats.get("books_stock"));
+        assertEquals(1, stats.get("low_stock_products_count"));
+    }
+}
@@ -3,6 +3,7 @@ package com.example.demo.service.jooq;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -42,6 +43,9 @@ class JooqTransactionServiceIntegrationTest {
     @Autowired
     private JooqTransactionService transactionService;
 
+    @Autowired
+    private JooqStatisticsService statisticsService;
+
     private JooqUserRepository userRepository;
     private JooqProductRepository productRepository;
     private JooqOrderRepository orderRepository;
@@ -205,6 +209,41 @@ class JooqTransactionServiceIntegrationTest {
         assertTrue(order.getOrderNumber().length() > 10);
     }
 
+    @Test
+    @DisplayName("同一分片商品出现多次时汇总后只扣减一次")
+    void testCreateOrder_DuplicateShardedProductDecreasedOnce() {
+        // Given
+        Long userId = userRepository.insert(
+            JooqUserDto.builder()
+                .username("john")
+                .email("john@example.com")
+                .build()
+        );
+
+        Long productId = productRepository.insert(
+            JooqProductDto.builder()
+                .name("Hot Product")
+                .price(new BigDecimal("50.00"))
+                .stock(100)
+                .build()
+        );
+        productRepository.enableShardedStock(productId, 4);
+
+        JooqCreateOrderRequest request = new JooqCreateOrderRequest();
+        request.setUserId(userId);
+        request.setItems(List.of(
+            new JooqCreateOrderRequest.OrderItemRequest(productId, 30),
+            new JooqCreateOrderRequest.OrderItemRequest(productId, 30)
+        ));
+
+        // When - 每个槽位只有 25 件，汇总后的 60 件一次从多个槽位凑齐
+        Long orderId = transactionService.createOrder(request);
+
+        // Then
+        assertEquals(2, orderRepository.findOrderWithUserAndItemsById(orderId).getItems().size());
+        assertEquals(40, productRepository.findByIdUncached(productId).getStock());
+    }
+
     @Test
     @DisplayName("验证库存扣减")
     void testCreateOrder_StockDecreased() {
@@ -371,6 +410,116 @@ class JooqTransactionServiceIntegrationTest {
         assertEquals(0, orderIds.size());
     }
 
+    @Test
+    @DisplayName("批量创建订单：多个订单共享商品时汇总扣减库存")
+    void testBatchCreateOrders_SharedProductsDecreasedOnce() {
+        // Given
+        Long userId1 = userRepository.insert(
+            JooqUserDto.builder()
+                .username("john")
+                .email("john@example.com")
+                .build()
+        );
+        Long userId2 = userRepository.insert(
+            JooqUserDto.builder()
+                .username("jane")
+                .email("jane@example.com")
+                .build()
+        );
+        Long productId1 = productRepository.insert(
+            JooqProductDto.builder()
+                .name("Product 1")
+                .price(new BigDecimal("10.00"))
+                .stock(1000)
+                .build()
+        );
+        Long productId2 = productRepository.insert(
+            JooqProductDto.builder()
+                .name("Product 2")
+                .price(new BigDecimal("5.00"))
+                .stock(1000)
+                .build()
+        );
+
+        List<JooqCreateOrderRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            JooqCreateOrderRequest request = new JooqCreateOrderRequest();
+            request.setUserId(i % 2 == 0 ? userId1 : userId2);
+            request.setItems(List.of(
+                new JooqCreateOrderRequest.OrderItemRequest(productId1, 2),
+                new JooqCreateOrderRequest.OrderItemRequest(productId2, 1)
+            ));
+            requests.add(request);
+        }
+
+        // When
+        List<Long> orderIds = transactionService.batchCreateOrders(requests);
+
+        // Then
+        assertEquals(300, orderIds.size());
+        assertEquals(300, orderIds.stream().distinct().count());
+        assertEquals(400, productRepository.findById(productId1).getStock());
+        assertEquals(700, productRepository.findById(productId2).getStock());
+
+        JooqOrderDto last = orderRepository.findOrderWithItemsById(orderIds.get(299));
+        assertEquals(userId2, last.getUserId());
+        assertEquals(new BigDecimal("25.00"), last.getTotalAmount());
+        assertEquals(2, last.getItems().size());
+    }
+
+    @Test
+    @DisplayName("批量创建订单：汇总数量超过库存时抛出异常且不扣减库存")
+    void testBatchCreateOrders_AggregateInsufficientStock_ThrowsException() {
+        // Given - 每个订单单独都满足库存，合计超出
+        Long userId = userRepository.insert(
+            JooqUserDto.builder()
+                .username("john")
+                .email("john@example.com")
+                .build()
+        );
+        Long productId = productRepository.insert(
+            JooqProductDto.builder()
+                .name("Product")
+                .price(new BigDecimal("10.00"))
+                .stock(5)
+                .build()
+        );
+
+        JooqCreateOrderRequest request1 = new JooqCreateOrderRequest();
+        request1.setUserId(userId);
+        request1.setItems(List.of(new JooqCreateOrderRequest.OrderItemRequest(productId, 3)));
+        JooqCreateOrderRequest request2 = new JooqCreateOrderRequest();
+        request2.setUserId(userId);
+        request2.setItems(List.of(new JooqCreateOrderRequest.OrderItemRequest(productId, 3)));
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class,
+            () -> transactionService.batchCreateOrders(List.of(request1, request2)));
+        assertEquals(5, productRepository.findById(productId).getStock());
+    }
+
+    @Test
+    @DisplayName("批量创建订单：用户不存在抛出异常")
+    void testBatchCreateOrders_UserNotFound_ThrowsException() {
+        // Given
+        Long productId = productRepository.insert(
+            JooqProductDto.builder()
+                .name("Product")
+                .price(new BigDecimal("10.00"))
+                .stock(5)
+                .build()
+        );
+
+        JooqCreateOrderRequest request = new JooqCreateOrderRequest();
+        request.setUserId(999L);
+        request.setItems(List.of(new JooqCreateOrderRequest.OrderItemRequest(productId, 1)));
+
+        // When & Then
+        assertThrows(EntityNotFoundException.class,
+            () -> transactionService.batchCreateOrders(List.of(request)));
+        assertEquals(5, productRepository.findById(productId).getStock());
+    }
+
     @Test
     @DisplayName("创建订单并返回详情")
     void testCreateOrderWithDetails_ReturnsFullOrder() {
@@ -443,7 +592,8 @@ class JooqTransactionServiceIntegrationTest {
                 .build()
         );
 
-        // When
+        // When - 统计为增量计数，对账后与数据库一致
+        statisticsService.reconcile();
         Map<String, Object> stats = transactionService.getSystemStatistics();
 
         // Then
@@ -456,4 +606,40 @@ class JooqTransactionServiceIntegrationTest {
         assertEquals(30, stats.get("books_stock"));
         assertEquals(0, stats.get("low_stock_products_count"));
     }
+
+    @Test
+    @DisplayName("统计计数在事务提交后才更新，回滚的订单不计入")
+    void testStatistics_UncommittedOrdersNotCounted() {
+        // Given
+        Long userId = userRepository.insert(
+            JooqUserDto.builder()
+                .username("john")
+                .email("john@example.com")
+                .build()
+        );
+        Long productId = productRepository.insert(
+            JooqProductDto.builder()
+                .name("Laptop")
+                .price(new BigDecimal("1000.00"))
+                .stock(10)
+                .category("Electronics")
+                .build()
+        );
+        statisticsService.reconcile();
+        Map<String, Object> before = transactionService.getSystemStatistics();
+
+        // When
+        JooqCreateOrderRequest request = new JooqCreateOrderRequest();
+        request.setUserId(userId);
+        request.setItems(List.of(
+            new JooqCreateOrderRequest.OrderItemRequest(productId, 2)
+        ));
+        transactionService.createOrder(request);
+
+        // Then - 测试事务最终回滚，计数保持不变
+        Map<String, Object> after = transactionService.getSystemStatistics();
+        assertEquals(before.get("total_orders"), after.get("total_orders"));
+        assertEquals(before.get("electronics_stock"), after.get("electronics_stock"));
+        assertEquals(before.get("low_stock_products_count"), after.get("low_stock_products_count"));
+    }
 }